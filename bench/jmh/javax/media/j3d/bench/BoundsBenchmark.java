@@ -0,0 +1,129 @@
+/*
+ * Copyright 2013 Harvey Harrison
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Sun designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Sun in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package javax.media.j3d.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.media.j3d.BoundingBox;
+import javax.media.j3d.BoundingPolytope;
+import javax.media.j3d.BoundingSphere;
+import javax.media.j3d.Bounds;
+import javax.media.j3d.Transform3D;
+import javax.vecmath.AxisAngle4d;
+import javax.vecmath.Point3d;
+import javax.vecmath.Vector3d;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Bounds transform, intersect and combine for every pair of BoundingBox,
+ * BoundingSphere and BoundingPolytope.  Mixed pairs go through different
+ * code than same-type pairs (often converting one of the bounds first), so
+ * all nine pairs are measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoundsBenchmark {
+
+@Param({ "BOX", "SPHERE", "POLYTOPE" })
+public String bounds;
+
+@Param({ "BOX", "SPHERE", "POLYTOPE" })
+public String other;
+
+/**
+ * Whether the two bounds overlap, intersect() exits early for disjoint
+ * bounds.
+ */
+@Param({ "true", "false" })
+public boolean overlapping;
+
+private Bounds b1;
+private Bounds b2;
+
+// Receives the results of transform and combine, same type as b1
+private Bounds result;
+
+private final Transform3D transform = new Transform3D();
+
+@Setup
+public void setup() {
+	b1 = createBounds(bounds, new Point3d(0.0, 0.0, 0.0));
+	b2 = createBounds(other, overlapping ? new Point3d(0.5, 0.5, 0.5) :
+						new Point3d(10.0, 10.0, 10.0));
+	result = createBounds(bounds, new Point3d());
+
+	// A rigid transform, the most common in a scene graph
+	transform.set(new AxisAngle4d(0.6, 0.8, 0.0, 0.5));
+	transform.setTranslation(new Vector3d(1.0, -2.0, 3.0));
+}
+
+/**
+ * Creates bounds of the given type enclosing a cube of side 2 centered
+ * on the given point.
+ */
+static Bounds createBounds(String type, Point3d center) {
+	BoundingBox box = new BoundingBox(new Point3d(center.x - 1.0,
+						      center.y - 1.0,
+						      center.z - 1.0),
+					  new Point3d(center.x + 1.0,
+						      center.y + 1.0,
+						      center.z + 1.0));
+	if (type.equals("BOX"))
+		return box;
+	if (type.equals("SPHERE"))
+		return new BoundingSphere(center, Math.sqrt(3.0));
+	if (type.equals("POLYTOPE"))
+		return new BoundingPolytope(box);
+	throw new IllegalArgumentException(type);
+}
+
+/**
+ * Transforms the other bounds into bounds of the first type, as the
+ * structures do when computing virtual world bounds.
+ */
+@Benchmark
+public Bounds transform() {
+	result.transform(b2, transform);
+	return result;
+}
+
+@Benchmark
+public boolean intersect() {
+	return b1.intersect(b2);
+}
+
+@Benchmark
+public Bounds combine() {
+	result.set(b1);
+	result.combine(b2);
+	return result;
+}
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2013 Harvey Harrison
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Sun designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Sun in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package javax.media.j3d.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.media.j3d.Transform3D;
+import javax.vecmath.AxisAngle4d;
+import javax.vecmath.Point3d;
+import javax.vecmath.Quat4d;
+import javax.vecmath.Vector3d;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Transform3D mul, invert, point transform (single and bulk), normalize
+ * and classification for each class of matrix Transform3D distinguishes.
+ * Most of these methods have a fast path for some of the classes, so every
+ * class is measured separately.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class Transform3DBenchmark {
+
+/**
+ * The class of the matrices, see Transform3D.getType.  GENERAL is a
+ * perspective projection, which is not affine.
+ */
+@Param({ "IDENTITY", "TRANSLATION", "SCALE", "ORTHOGONAL", "RIGID",
+	 "CONGRUENT", "AFFINE", "GENERAL" })
+public String matrixType;
+
+private Transform3D t1;
+private Transform3D t2;
+private final Transform3D result = new Transform3D();
+private final double[] matrix = new double[16];
+private final Point3d point = new Point3d(1.0, 2.0, 3.0);
+private final Point3d pointOut = new Point3d();
+
+// Interleaved x, y, z coordinates for the bulk point transform
+private static final int NUM_POINTS = 1024;
+private final float[] points = new float[NUM_POINTS * 3];
+private final float[] pointsOut = new float[NUM_POINTS * 3];
+
+@Setup
+public void setup() {
+	t1 = createTransform(matrixType, 0.3);
+	t2 = createTransform(matrixType, 0.7);
+	t1.get(matrix);
+	for (int i = 0; i < points.length; i++)
+		points[i] = (float)(i % 7) - 3.0f;
+}
+
+/**
+ * Creates a transform of the given class, the angle varies the rotation
+ * so that the two operands of mul differ.
+ */
+static Transform3D createTransform(String type, double angle) {
+	Transform3D t = new Transform3D();
+	Vector3d translation = new Vector3d(1.0, -2.0, 3.0);
+	AxisAngle4d rotation = new AxisAngle4d(0.6, 0.8, 0.0, angle);
+
+	if (type.equals("IDENTITY")) {
+		// Already identity
+	} else if (type.equals("TRANSLATION")) {
+		t.setTranslation(translation);
+	} else if (type.equals("SCALE")) {
+		t.setScale(2.5);
+	} else if (type.equals("ORTHOGONAL")) {
+		t.set(rotation);
+	} else if (type.equals("RIGID")) {
+		t.set(rotation);
+		t.setTranslation(translation);
+	} else if (type.equals("CONGRUENT")) {
+		Quat4d q = new Quat4d();
+		q.set(rotation);
+		t.set(q, translation, 2.5);
+	} else if (type.equals("AFFINE")) {
+		Transform3D scale = new Transform3D();
+		scale.setScale(new Vector3d(1.0, 2.0, 3.0));
+		t.set(rotation);
+		t.mul(scale);
+		t.setTranslation(translation);
+	} else if (type.equals("GENERAL")) {
+		t.perspective(0.8 + angle, 4.0 / 3.0, 0.1, 100.0);
+	} else {
+		throw new IllegalArgumentException(type);
+	}
+	return t;
+}
+
+@Benchmark
+public Transform3D mul() {
+	result.mul(t1, t2);
+	return result;
+}
+
+@Benchmark
+public Transform3D invert() {
+	result.invert(t1);
+	return result;
+}
+
+@Benchmark
+public Point3d transformPoint() {
+	t1.transform(point, pointOut);
+	return pointOut;
+}
+
+/**
+ * Transforms NUM_POINTS points with one call, compare with NUM_POINTS
+ * times transformPoint.
+ */
+@Benchmark
+public float[] transformPoints() {
+	t1.transformPoints(points, 0, 3, pointsOut, 0, 3, NUM_POINTS);
+	return pointsOut;
+}
+
+@Benchmark
+public Transform3D normalize() {
+	result.set(t1);
+	result.normalize();
+	return result;
+}
+
+/**
+ * Setting the matrix from an array drops the cached classification, so
+ * getType() classifies the matrix again.
+ */
+@Benchmark
+public int classify() {
+	result.set(matrix);
+	return result.getType();
+}
+}
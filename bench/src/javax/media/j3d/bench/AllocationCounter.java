@@ -0,0 +1,62 @@
+/*
+ * Copyright 2013 Harvey Harrison
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Sun designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Sun in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package javax.media.j3d.bench;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Counts the bytes allocated by all the live threads of the VM, using the
+ * HotSpot extension of ThreadMXBean.  The Java 3D threads live as long as
+ * the universe, so the difference between two calls is the allocation of
+ * the frame loop between them.
+ */
+class AllocationCounter {
+
+private static final com.sun.management.ThreadMXBean threadBean = getThreadBean();
+
+private static com.sun.management.ThreadMXBean getThreadBean() {
+	java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+	if (!(bean instanceof com.sun.management.ThreadMXBean))
+		return null;
+
+	com.sun.management.ThreadMXBean hsBean = (com.sun.management.ThreadMXBean)bean;
+	if (!hsBean.isThreadAllocatedMemorySupported())
+		return null;
+
+	hsBean.setThreadAllocatedMemoryEnabled(true);
+	return hsBean;
+}
+
+private AllocationCounter() {
+}
+
+/**
+ * Returns the total number of bytes allocated by the live threads, or -1
+ * if the VM cannot tell.
+ */
+static long getAllocatedBytes() {
+	if (threadBean == null)
+		return -1L;
+
+	long total = 0L;
+	long[] bytes = threadBean.getThreadAllocatedBytes(threadBean.getAllThreadIds());
+	for (int i = 0; i < bytes.length; i++) {
+		if (bytes[i] > 0)
+			total += bytes[i];
+	}
+	return total;
+}
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2013 Harvey Harrison
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Sun designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Sun in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package javax.media.j3d.bench;
+
+import java.util.Enumeration;
+
+import javax.media.j3d.Appearance;
+import javax.media.j3d.Behavior;
+import javax.media.j3d.BranchGroup;
+import javax.media.j3d.Shape3D;
+import javax.media.j3d.Transform3D;
+import javax.media.j3d.TransformGroup;
+import javax.media.j3d.TriangleArray;
+import javax.media.j3d.WakeupOnElapsedFrames;
+import javax.vecmath.Vector3d;
+
+/**
+ * Many TransformGroups, each holding a shape, all rewritten by a single
+ * behavior every frame.  Stresses the TransformStructure, the bounds
+ * updates in the GeometryStructure and the RenderBin.  In bulk mode the
+ * behavior sets all the transforms with one TransformGroup.setTransforms
+ * call instead of one setTransform per TransformGroup.
+ */
+class AnimatedTransformsBenchmark extends SceneBenchmark {
+
+private final int count;
+private final boolean bulk;
+
+AnimatedTransformsBenchmark(int count, boolean bulk) {
+	this.count = count;
+	this.bulk = bulk;
+}
+
+@Override
+String getName() {
+	return bulk ? "AnimatedTransformsBulk" : "AnimatedTransforms";
+}
+
+@Override
+BranchGroup createScene(OffScreenUniverse universe) {
+	BranchGroup root = new BranchGroup();
+	TriangleArray cube = createCube(0.5f, false);
+	Appearance[] apps = createAppearances(4);
+
+	int side = gridSize(count);
+	TransformGroup[] groups = new TransformGroup[count];
+	Vector3d[] positions = new Vector3d[count];
+	for (int i = 0; i < count; i++) {
+		positions[i] = new Vector3d((i % side) - side / 2.0,
+					    (i / side) - side / 2.0, 0.0);
+		Transform3D t = new Transform3D();
+		t.setTranslation(positions[i]);
+
+		groups[i] = new TransformGroup(t);
+		groups[i].setCapability(TransformGroup.ALLOW_TRANSFORM_WRITE);
+		groups[i].addChild(new Shape3D(cube, apps[i % apps.length]));
+		root.addChild(groups[i]);
+	}
+
+	root.addChild(new Spinner(groups, positions, bulk));
+	return root;
+}
+
+/**
+ * Rotates every TransformGroup in place, a little more each frame.
+ */
+private static class Spinner extends Behavior {
+	private final TransformGroup[] groups;
+	private final Vector3d[] positions;
+	private final double[] matrices;
+	private final double[] matrix = new double[16];
+	private final Transform3D transform = new Transform3D();
+	private final WakeupOnElapsedFrames wakeup = new WakeupOnElapsedFrames(0);
+	private int frame = 0;
+
+	Spinner(TransformGroup[] groups, Vector3d[] positions, boolean bulk) {
+		this.groups = groups;
+		this.positions = positions;
+		matrices = bulk ? new double[groups.length * 16] : null;
+		setSchedulingBounds(INFINITE_BOUNDS);
+	}
+
+	@Override
+	public void initialize() {
+		wakeupOn(wakeup);
+	}
+
+	@Override
+	public void processStimulus(Enumeration<?> criteria) {
+		frame++;
+		for (int i = 0; i < groups.length; i++) {
+			transform.rotY((frame + i) * 0.01);
+			transform.setTranslation(positions[i]);
+			if (matrices == null) {
+				groups[i].setTransform(transform);
+			} else {
+				transform.get(matrix);
+				System.arraycopy(matrix, 0, matrices, i * 16, 16);
+			}
+		}
+		if (matrices != null)
+			TransformGroup.setTransforms(groups, matrices);
+		wakeupOn(wakeup);
+	}
+}
+}
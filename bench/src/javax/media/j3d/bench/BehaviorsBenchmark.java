@@ -0,0 +1,72 @@
+/*
+ * Copyright 2013 Harvey Harrison
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Sun designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Sun in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package javax.media.j3d.bench;
+
+import javax.media.j3d.Alpha;
+import javax.media.j3d.BranchGroup;
+import javax.media.j3d.RotationInterpolator;
+import javax.media.j3d.Shape3D;
+import javax.media.j3d.Transform3D;
+import javax.media.j3d.TransformGroup;
+import javax.media.j3d.TriangleArray;
+import javax.vecmath.Vector3d;
+
+/**
+ * Many independent RotationInterpolators, each waking up every frame to
+ * spin its own shape.  Stresses the BehaviorStructure wakeup evaluation,
+ * the BehaviorScheduler and Alpha evaluation.
+ */
+class BehaviorsBenchmark extends SceneBenchmark {
+
+private final int count;
+
+BehaviorsBenchmark(int count) {
+	this.count = count;
+}
+
+@Override
+String getName() {
+	return "Behaviors";
+}
+
+@Override
+BranchGroup createScene(OffScreenUniverse universe) {
+	BranchGroup root = new BranchGroup();
+	TriangleArray cube = createCube(0.5f, false);
+
+	int side = gridSize(count);
+	Transform3D t = new Transform3D();
+	for (int i = 0; i < count; i++) {
+		t.setTranslation(new Vector3d((i % side) - side / 2.0,
+					      (i / side) - side / 2.0, 0.0));
+		TransformGroup position = new TransformGroup(t);
+
+		TransformGroup spin = new TransformGroup();
+		spin.setCapability(TransformGroup.ALLOW_TRANSFORM_WRITE);
+		spin.addChild(new Shape3D(cube));
+		position.addChild(spin);
+
+		// Different periods, so the interpolators are not in lock step
+		Alpha alpha = new Alpha(-1, 2000 + (i % 17) * 100);
+		RotationInterpolator rotator = new RotationInterpolator(alpha, spin);
+		rotator.setSchedulingBounds(INFINITE_BOUNDS);
+		position.addChild(rotator);
+
+		root.addChild(position);
+	}
+	return root;
+}
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2013 Harvey Harrison
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Sun designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Sun in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package javax.media.j3d.bench;
+
+import java.io.PrintStream;
+
+import javax.media.j3d.FrameStatistics;
+
+/**
+ * The measurements of one benchmark run: the frame loop statistics over
+ * the measured frames, the wall clock time and the bytes allocated.
+ */
+class BenchmarkResult {
+
+private final String name;
+private final long elapsedTime;
+private final long allocatedBytes;
+private final long frames;
+private final long[] phaseTimes = new long[FrameStatistics.PHASE_COUNT];
+private final long[] messageCounts = new long[FrameStatistics.PHASE_COUNT];
+
+BenchmarkResult(String name, long elapsedTime, long allocatedBytes,
+		FrameStatistics start, FrameStatistics end) {
+	this.name = name;
+	this.elapsedTime = elapsedTime;
+	this.allocatedBytes = allocatedBytes;
+	frames = end.getFrameCount() - start.getFrameCount();
+	for (int i = 0; i < FrameStatistics.PHASE_COUNT; i++) {
+		phaseTimes[i] = end.getPhaseTime(i) - start.getPhaseTime(i);
+		messageCounts[i] = end.getMessageCount(i) - start.getMessageCount(i);
+	}
+}
+
+String getName() {
+	return name;
+}
+
+double getFramesPerSecond() {
+	return frames * 1.0e9 / elapsedTime;
+}
+
+/**
+ * Returns the allocation rate in MB per second, or -1 if unknown.
+ */
+double getAllocationRate() {
+	if (allocatedBytes < 0)
+		return -1.0;
+	return allocatedBytes * 1.0e9 / elapsedTime / (1024.0 * 1024.0);
+}
+
+/**
+ * Returns the bytes allocated per frame, or -1 if unknown.
+ */
+long getBytesPerFrame() {
+	if (allocatedBytes < 0 || frames == 0)
+		return -1L;
+	return allocatedBytes / frames;
+}
+
+/**
+ * Returns the average time of the phase per frame, in milliseconds.
+ */
+double getPhaseTime(int phase) {
+	if (frames == 0)
+		return 0.0;
+	return phaseTimes[phase] / 1.0e6 / frames;
+}
+
+void print(PrintStream out) {
+	out.println(name + ":");
+	out.println(String.format("    %-32s %10d", "frames", frames));
+	out.println(String.format("    %-32s %10.2f", "frames/s", getFramesPerSecond()));
+	if (allocatedBytes >= 0) {
+		out.println(String.format("    %-32s %10.2f", "allocation (MB/s)", getAllocationRate()));
+		out.println(String.format("    %-32s %10d", "allocation (bytes/frame)", getBytesPerFrame()));
+	}
+	for (int i = 0; i < FrameStatistics.PHASE_COUNT; i++) {
+		if (phaseTimes[i] == 0)
+			continue;
+
+		String phase = FrameStatistics.getPhaseName(i) + " (ms/frame)";
+		if (messageCounts[i] != 0) {
+			out.println(String.format("    %-32s %10.3f  %d msgs", phase,
+						  getPhaseTime(i), messageCounts[i]));
+		} else {
+			out.println(String.format("    %-32s %10.3f", phase, getPhaseTime(i)));
+		}
+	}
+}
+
+static void printCsvHeader(PrintStream out) {
+	StringBuilder buf = new StringBuilder("benchmark,frames,fps,allocMBps,bytesPerFrame");
+	for (int i = 0; i < FrameStatistics.PHASE_COUNT; i++)
+		buf.append(',').append(FrameStatistics.getPhaseName(i)).append("Ms");
+	out.println(buf);
+}
+
+void printCsv(PrintStream out) {
+	StringBuilder buf = new StringBuilder(name);
+	buf.append(',').append(frames);
+	buf.append(',').append(String.format("%.2f", getFramesPerSecond()));
+	buf.append(',').append(String.format("%.2f", getAllocationRate()));
+	buf.append(',').append(getBytesPerFrame());
+	for (int i = 0; i < FrameStatistics.PHASE_COUNT; i++)
+		buf.append(',').append(String.format("%.4f", getPhaseTime(i)));
+	out.println(buf);
+}
+}
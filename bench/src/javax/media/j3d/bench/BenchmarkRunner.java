@@ -0,0 +1,111 @@
+/*
+ * Copyright 2013 Harvey Harrison
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Sun designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Sun in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package javax.media.j3d.bench;
+
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+
+/**
+ * Runs the scene benchmarks on the noop pipeline and prints their results.
+ * Run with "ant bench", or directly:
+ * <pre>
+ * java javax.media.j3d.bench.BenchmarkRunner [-warmup n] [-frames n]
+ *     [-scale f] [-csv file] [benchmark ...]
+ * </pre>
+ * The scale multiplies the number of objects in every scene.  Without
+ * benchmark names all of them are run.  The noop pipeline draws nothing,
+ * so the results are the CPU cost of the Java 3D engine alone; a display
+ * (or a virtual one such as Xvfb) is still needed for the AWT graphics
+ * configuration of the off-screen canvas.
+ */
+public class BenchmarkRunner {
+
+private static final int DEFAULT_WARMUP_FRAMES = 200;
+private static final int DEFAULT_FRAMES = 500;
+
+private BenchmarkRunner() {
+}
+
+private static ArrayList<SceneBenchmark> createBenchmarks(double scale) {
+	ArrayList<SceneBenchmark> list = new ArrayList<SceneBenchmark>();
+	list.add(new AnimatedTransformsBenchmark((int)(2000 * scale), false));
+	list.add(new AnimatedTransformsBenchmark((int)(2000 * scale), true));
+	list.add(new ManyShapesBenchmark((int)(5000 * scale)));
+	list.add(new PickingBenchmark((int)(2000 * scale), 100, false));
+	list.add(new PickingBenchmark((int)(2000 * scale), 100, true));
+	list.add(new BehaviorsBenchmark((int)(1000 * scale)));
+	return list;
+}
+
+private static void usage() {
+	System.err.println("Usage: BenchmarkRunner [-warmup n] [-frames n] [-scale f] [-csv file] [benchmark ...]");
+	System.exit(1);
+}
+
+public static void main(String[] args) throws FileNotFoundException {
+	// Must be set before Java 3D loads its pipeline
+	if (System.getProperty("j3d.rend") == null)
+		System.setProperty("j3d.rend", "noop");
+
+	int warmupFrames = DEFAULT_WARMUP_FRAMES;
+	int frames = DEFAULT_FRAMES;
+	double scale = 1.0;
+	String csvFile = null;
+	ArrayList<String> names = new ArrayList<String>();
+
+	for (int i = 0; i < args.length; i++) {
+		String arg = args[i];
+		if (arg.startsWith("-") && i + 1 >= args.length)
+			usage();
+
+		if (arg.equals("-warmup"))
+			warmupFrames = Integer.parseInt(args[++i]);
+		else if (arg.equals("-frames"))
+			frames = Integer.parseInt(args[++i]);
+		else if (arg.equals("-scale"))
+			scale = Double.parseDouble(args[++i]);
+		else if (arg.equals("-csv"))
+			csvFile = args[++i];
+		else if (arg.startsWith("-"))
+			usage();
+		else
+			names.add(arg);
+	}
+
+	ArrayList<BenchmarkResult> results = new ArrayList<BenchmarkResult>();
+	for (SceneBenchmark b : createBenchmarks(scale)) {
+		if (!names.isEmpty() && !names.contains(b.getName()))
+			continue;
+
+		BenchmarkResult r = b.run(warmupFrames, frames);
+		r.print(System.out);
+		results.add(r);
+	}
+
+	if (csvFile != null) {
+		PrintStream out = new PrintStream(new FileOutputStream(csvFile));
+		BenchmarkResult.printCsvHeader(out);
+		for (BenchmarkResult r : results)
+			r.printCsv(out);
+		out.close();
+	}
+
+	// The Java 3D threads are not daemon threads
+	System.exit(0);
+}
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2013 Harvey Harrison
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Sun designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Sun in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package javax.media.j3d.bench;
+
+import javax.media.j3d.Appearance;
+import javax.media.j3d.BranchGroup;
+import javax.media.j3d.DirectionalLight;
+import javax.media.j3d.Shape3D;
+import javax.media.j3d.Transform3D;
+import javax.media.j3d.TransformGroup;
+import javax.media.j3d.TriangleArray;
+import javax.vecmath.Vector3d;
+
+/**
+ * Thousands of static shapes with the view flying over them, so the set of
+ * visible shapes changes every frame.  Stresses view frustum culling and
+ * the RenderBin.
+ */
+class ManyShapesBenchmark extends SceneBenchmark {
+
+private final int count;
+private final Vector3d viewPosition = new Vector3d();
+
+ManyShapesBenchmark(int count) {
+	this.count = count;
+}
+
+@Override
+String getName() {
+	return "ManyShapes";
+}
+
+@Override
+BranchGroup createScene(OffScreenUniverse universe) {
+	BranchGroup root = new BranchGroup();
+	TriangleArray cube = createCube(0.5f, false);
+	Appearance[] apps = createAppearances(8);
+
+	DirectionalLight light = new DirectionalLight();
+	light.setInfluencingBounds(INFINITE_BOUNDS);
+	root.addChild(light);
+
+	int side = gridSize(count);
+	Transform3D t = new Transform3D();
+	for (int i = 0; i < count; i++) {
+		t.setTranslation(new Vector3d((i % side) - side / 2.0,
+					      (i / side) - side / 2.0, 0.0));
+		TransformGroup tg = new TransformGroup(t);
+		tg.addChild(new Shape3D(cube, apps[i % apps.length]));
+		root.addChild(tg);
+	}
+	return root;
+}
+
+@Override
+void beforeFrame(OffScreenUniverse universe, int frame) {
+	// Circle over the grid, close enough that only part of it is visible
+	double angle = frame * 0.02;
+	double radius = gridSize(count) / 4.0;
+	viewPosition.set(radius * Math.cos(angle), radius * Math.sin(angle), 10.0);
+	universe.setViewPosition(viewPosition);
+}
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2013 Harvey Harrison
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Sun designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Sun in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package javax.media.j3d.bench;
+
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.image.BufferedImage;
+
+import javax.media.j3d.BranchGroup;
+import javax.media.j3d.Canvas3D;
+import javax.media.j3d.GraphicsConfigTemplate3D;
+import javax.media.j3d.ImageComponent;
+import javax.media.j3d.ImageComponent2D;
+import javax.media.j3d.Locale;
+import javax.media.j3d.PhysicalBody;
+import javax.media.j3d.PhysicalEnvironment;
+import javax.media.j3d.Screen3D;
+import javax.media.j3d.Transform3D;
+import javax.media.j3d.TransformGroup;
+import javax.media.j3d.View;
+import javax.media.j3d.ViewPlatform;
+import javax.media.j3d.VirtualUniverse;
+import javax.vecmath.Vector3d;
+
+/**
+ * A VirtualUniverse with a single View rendering into an off-screen
+ * Canvas3D.  Each call to renderFrame() renders one frame and waits for
+ * it, which paces the frame loop from the benchmark thread.
+ */
+class OffScreenUniverse {
+
+private static final int WIDTH = 640;
+private static final int HEIGHT = 480;
+
+// 90 dpi, only used to give the screen a physical size
+private static final double METERS_PER_PIXEL = 0.0254 / 90.0;
+
+private final VirtualUniverse universe;
+private final Locale locale;
+private final View view;
+private final Canvas3D canvas;
+private final TransformGroup viewTransform;
+
+OffScreenUniverse() {
+	universe = new VirtualUniverse();
+	locale = new Locale(universe);
+
+	GraphicsConfiguration config = GraphicsEnvironment
+		.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+		.getBestConfiguration(new GraphicsConfigTemplate3D());
+
+	canvas = new Canvas3D(config, true);
+	Screen3D screen = canvas.getScreen3D();
+	screen.setSize(WIDTH, HEIGHT);
+	screen.setPhysicalScreenWidth(WIDTH * METERS_PER_PIXEL);
+	screen.setPhysicalScreenHeight(HEIGHT * METERS_PER_PIXEL);
+
+	BufferedImage image = new BufferedImage(WIDTH, HEIGHT,
+						BufferedImage.TYPE_INT_ARGB);
+	canvas.setOffScreenBuffer(new ImageComponent2D(ImageComponent.FORMAT_RGBA,
+						       image, true, false));
+
+	ViewPlatform platform = new ViewPlatform();
+	viewTransform = new TransformGroup();
+	viewTransform.setCapability(TransformGroup.ALLOW_TRANSFORM_WRITE);
+	viewTransform.addChild(platform);
+	setViewPosition(new Vector3d(0.0, 0.0, 50.0));
+
+	view = new View();
+	view.setPhysicalBody(new PhysicalBody());
+	view.setPhysicalEnvironment(new PhysicalEnvironment());
+	view.setBackClipDistance(500.0);
+	view.attachViewPlatform(platform);
+	view.addCanvas3D(canvas);
+
+	BranchGroup viewBranch = new BranchGroup();
+	viewBranch.addChild(viewTransform);
+	locale.addBranchGraph(viewBranch);
+}
+
+Locale getLocale() {
+	return locale;
+}
+
+View getView() {
+	return view;
+}
+
+/**
+ * Returns the TransformGroup above the ViewPlatform, its transform may be
+ * written at any time.
+ */
+TransformGroup getViewTransform() {
+	return viewTransform;
+}
+
+void setViewPosition(Vector3d position) {
+	Transform3D t = new Transform3D();
+	t.setTranslation(position);
+	viewTransform.setTransform(t);
+}
+
+void addBranchGraph(BranchGroup branch) {
+	locale.addBranchGraph(branch);
+}
+
+/**
+ * Render one frame into the off-screen buffer and wait for it.  Returns
+ * immediately, rendering nothing, until the view has been activated.
+ */
+void renderFrame() {
+	canvas.renderOffScreenBuffer();
+	canvas.waitForOffScreenRendering();
+}
+
+void dispose() {
+	view.removeAllCanvas3Ds();
+	view.attachViewPlatform(null);
+	universe.removeAllLocales();
+}
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2013 Harvey Harrison
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Sun designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Sun in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package javax.media.j3d.bench;
+
+import java.util.Random;
+
+import javax.media.j3d.BranchGroup;
+import javax.media.j3d.Locale;
+import javax.media.j3d.PickInfo;
+import javax.media.j3d.PickRay;
+import javax.media.j3d.Shape3D;
+import javax.media.j3d.Transform3D;
+import javax.media.j3d.TransformGroup;
+import javax.media.j3d.TriangleArray;
+import javax.vecmath.Point3d;
+import javax.vecmath.Vector3d;
+
+/**
+ * A grid of pickable shapes hit by a batch of geometry picks before every
+ * frame, as an application tracking many pointers or doing line of sight
+ * tests would.  Half the rays are aimed at shapes, the others are spread
+ * over the grid.  Stresses the GeometryStructure pick traversal and the
+ * geometry intersection code.  In batch mode all the rays of a frame are
+ * picked with one pickClosest call.
+ */
+class PickingBenchmark extends SceneBenchmark {
+
+private final int count;
+private final int picksPerFrame;
+private final boolean batch;
+
+// Fixed seed, so that every run picks the same rays
+private final Random random = new Random(42L);
+private final PickRay ray = new PickRay();
+private PickRay[] rays;
+private final Point3d origin = new Point3d();
+private final Vector3d direction = new Vector3d(0.0, 0.0, -1.0);
+private int side;
+
+PickingBenchmark(int count, int picksPerFrame, boolean batch) {
+	this.count = count;
+	this.picksPerFrame = picksPerFrame;
+	this.batch = batch;
+	if (batch) {
+		rays = new PickRay[picksPerFrame];
+		for (int i = 0; i < picksPerFrame; i++)
+			rays[i] = new PickRay();
+	}
+}
+
+@Override
+String getName() {
+	return batch ? "PickingBatch" : "Picking";
+}
+
+@Override
+BranchGroup createScene(OffScreenUniverse universe) {
+	BranchGroup root = new BranchGroup();
+	TriangleArray cube = createCube(0.5f, true);
+
+	side = gridSize(count);
+	Transform3D t = new Transform3D();
+	for (int i = 0; i < count; i++) {
+		t.setTranslation(new Vector3d((i % side) - side / 2.0,
+					      (i / side) - side / 2.0, 0.0));
+		TransformGroup tg = new TransformGroup(t);
+		Shape3D shape = new Shape3D(cube);
+		shape.setPickable(true);
+		tg.addChild(shape);
+		root.addChild(tg);
+	}
+	return root;
+}
+
+@Override
+void beforeFrame(OffScreenUniverse universe, int frame) {
+	Locale locale = universe.getLocale();
+	int flags = PickInfo.NODE | PickInfo.CLOSEST_INTERSECTION_POINT;
+	for (int i = 0; i < picksPerFrame; i++) {
+		// Cells are one unit apart and the cubes half a unit wide,
+		// even rays go through a cube center
+		double x = Math.floor(random.nextDouble() * side) - side / 2.0;
+		double y = Math.floor(random.nextDouble() * side) - side / 2.0;
+		if ((i & 1) != 0) {
+			x += random.nextDouble();
+			y += random.nextDouble();
+		}
+		origin.set(x, y, 10.0);
+		if (batch) {
+			rays[i].set(origin, direction);
+		} else {
+			ray.set(origin, direction);
+			locale.pickClosest(PickInfo.PICK_GEOMETRY, flags, ray);
+		}
+	}
+
+	if (batch)
+		locale.pickClosest(PickInfo.PICK_GEOMETRY, flags, rays);
+}
+}
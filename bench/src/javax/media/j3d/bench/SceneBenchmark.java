@@ -0,0 +1,203 @@
+/*
+ * Copyright 2013 Harvey Harrison
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Sun designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Sun in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package javax.media.j3d.bench;
+
+import javax.media.j3d.Appearance;
+import javax.media.j3d.BoundingSphere;
+import javax.media.j3d.BranchGroup;
+import javax.media.j3d.FrameStatistics;
+import javax.media.j3d.FrameStatisticsListener;
+import javax.media.j3d.GeometryArray;
+import javax.media.j3d.Material;
+import javax.media.j3d.TriangleArray;
+import javax.media.j3d.VirtualUniverse;
+import javax.vecmath.Color3f;
+import javax.vecmath.Point3d;
+
+/**
+ * A scene run through the Java 3D frame loop on the noop pipeline.
+ * Subclasses build the scene graph and may do work on the benchmark thread
+ * between frames (picking for instance); everything else runs on the Java
+ * 3D threads as it would in an application.
+ *
+ * The frame rate is the number of frames completed by MasterControl per
+ * second of wall clock time, the per-phase times come from the frame
+ * statistics (see VirtualUniverse.getFrameStatistics).
+ */
+abstract class SceneBenchmark {
+
+static final BoundingSphere INFINITE_BOUNDS =
+	new BoundingSphere(new Point3d(), Double.MAX_VALUE);
+
+/**
+ * Number of frames to wait for the view to become active before giving up
+ */
+private static final int MAX_STARTUP_FRAMES = 10000;
+
+// Enables the frame statistics while a benchmark runs
+private static final FrameStatisticsListener statisticsEnabler =
+	new FrameStatisticsListener() {
+		@Override
+		public void frameCompleted(FrameStatistics stats) {
+		}
+	};
+
+/**
+ * Returns the name used to select the benchmark and to report its results.
+ */
+abstract String getName();
+
+/**
+ * Builds the scene, called once before the universe is running.  The
+ * returned branch is added to the locale of the universe.
+ */
+abstract BranchGroup createScene(OffScreenUniverse universe);
+
+/**
+ * Called on the benchmark thread before each frame.  Does nothing by
+ * default.
+ */
+void beforeFrame(OffScreenUniverse universe, int frame) {
+}
+
+/**
+ * Runs the benchmark.
+ *
+ * @param warmupFrames the number of frames run before measuring
+ * @param frames the number of frames measured
+ */
+final BenchmarkResult run(int warmupFrames, int frames) {
+	OffScreenUniverse universe = new OffScreenUniverse();
+	universe.addBranchGraph(createScene(universe));
+
+	VirtualUniverse.addFrameStatisticsListener(statisticsEnabler);
+	try {
+		waitForFrames(universe, 1);
+		for (int i = 0; i < warmupFrames; i++) {
+			beforeFrame(universe, i);
+			universe.renderFrame();
+		}
+
+		FrameStatistics startStats = VirtualUniverse.getFrameStatistics();
+		long startBytes = AllocationCounter.getAllocatedBytes();
+		long startTime = System.nanoTime();
+
+		for (int i = 0; i < frames; i++) {
+			beforeFrame(universe, warmupFrames + i);
+			universe.renderFrame();
+		}
+
+		long elapsed = System.nanoTime() - startTime;
+		long allocated = AllocationCounter.getAllocatedBytes() - startBytes;
+		FrameStatistics endStats = VirtualUniverse.getFrameStatistics();
+
+		return new BenchmarkResult(getName(), elapsed,
+					   (startBytes < 0 ? -1L : allocated),
+					   startStats, endStats);
+	}
+	finally {
+		VirtualUniverse.removeFrameStatisticsListener(statisticsEnabler);
+		universe.dispose();
+	}
+}
+
+/**
+ * Render until MasterControl has completed the given number of frames,
+ * so that the measured frames all find the view active.
+ */
+private static void waitForFrames(OffScreenUniverse universe, int count) {
+	long start = VirtualUniverse.getFrameStatistics().getFrameCount();
+	for (int i = 0; i < MAX_STARTUP_FRAMES; i++) {
+		universe.renderFrame();
+		if (VirtualUniverse.getFrameStatistics().getFrameCount() - start >= count)
+			return;
+		Thread.yield();
+	}
+	throw new IllegalStateException("The view never became active");
+}
+
+// Scene building helpers
+
+/**
+ * Creates a cube with normals, centered on the origin.
+ *
+ * @param size the length of an edge
+ * @param pickable if true the coordinates may be read for geometry picking
+ */
+static TriangleArray createCube(float size, boolean pickable) {
+	float s = size / 2.0f;
+	float[][] faces = {
+		// normal, then the four corners of the face
+		{ 0, 0, 1,    -s,-s, s,   s,-s, s,   s, s, s,  -s, s, s },
+		{ 0, 0,-1,     s,-s,-s,  -s,-s,-s,  -s, s,-s,   s, s,-s },
+		{ 1, 0, 0,     s,-s, s,   s,-s,-s,   s, s,-s,   s, s, s },
+		{-1, 0, 0,    -s,-s,-s,  -s,-s, s,  -s, s, s,  -s, s,-s },
+		{ 0, 1, 0,    -s, s, s,   s, s, s,   s, s,-s,  -s, s,-s },
+		{ 0,-1, 0,    -s,-s,-s,   s,-s,-s,   s,-s, s,  -s,-s, s },
+	};
+	// Two triangles per face: corners 0,1,2 and 0,2,3
+	int[] corners = { 0, 1, 2, 0, 2, 3 };
+
+	float[] coords = new float[6 * 6 * 3];
+	float[] normals = new float[6 * 6 * 3];
+	int n = 0;
+	for (int f = 0; f < faces.length; f++) {
+		for (int c = 0; c < corners.length; c++) {
+			int src = 3 + corners[c] * 3;
+			for (int k = 0; k < 3; k++) {
+				coords[n + k] = faces[f][src + k];
+				normals[n + k] = faces[f][k];
+			}
+			n += 3;
+		}
+	}
+
+	TriangleArray cube = new TriangleArray(36, GeometryArray.COORDINATES |
+						   GeometryArray.NORMALS);
+	cube.setCoordinates(0, coords);
+	cube.setNormals(0, normals);
+	if (pickable) {
+		cube.setCapability(GeometryArray.ALLOW_INTERSECT);
+		cube.setCapability(GeometryArray.ALLOW_COORDINATE_READ);
+		cube.setCapability(GeometryArray.ALLOW_COUNT_READ);
+		cube.setCapability(GeometryArray.ALLOW_FORMAT_READ);
+	}
+	return cube;
+}
+
+/**
+ * Creates a few lit appearances, so that the render bin has more than
+ * one attribute bin to sort the shapes into.
+ */
+static Appearance[] createAppearances(int count) {
+	Appearance[] apps = new Appearance[count];
+	for (int i = 0; i < count; i++) {
+		float c = (float)(i + 1) / count;
+		Material m = new Material();
+		m.setDiffuseColor(new Color3f(c, 1.0f - c, 0.5f));
+		apps[i] = new Appearance();
+		apps[i].setMaterial(m);
+	}
+	return apps;
+}
+
+/**
+ * Returns the side of the square grid holding count objects.
+ */
+static int gridSize(int count) {
+	return (int)Math.ceil(Math.sqrt(count));
+}
+}
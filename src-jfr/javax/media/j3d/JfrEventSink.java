@@ -0,0 +1,307 @@
+/*
+ * Copyright 2013 Harvey Harrison
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Sun designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Sun in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package javax.media.j3d;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The Java Flight Recorder implementation of J3dEventSink.  This class needs
+ * Java 11 and is built by the compile-jfr target, J3dEventSink loads it
+ * reflectively.
+ *
+ * Each begin method checks a shared instance of the event class first, so
+ * nothing is allocated unless the event is enabled in a running recording.
+ */
+class JfrEventSink extends J3dEventSink {
+
+private static final String CATEGORY = "Java 3D";
+
+@Name("javax.media.j3d.Frame")
+@Label("Frame")
+@Category(CATEGORY)
+@Description("One iteration of the MasterControl frame loop")
+static class FrameEvent extends Event {
+	@Label("Views")
+	int views;
+
+	@Label("State Threads")
+	int stateThreads;
+
+	@Label("Render Threads")
+	int renderThreads;
+}
+
+@Name("javax.media.j3d.ThreadWork")
+@Label("Thread Work")
+@Category(CATEGORY)
+@Description("One doWork invocation of a Java 3D thread")
+static class ThreadWorkEvent extends Event {
+	@Label("Thread Type")
+	String threadType;
+
+	@Label("Thread Name")
+	String threadName;
+
+	@Label("Messages")
+	int messages;
+}
+
+@Name("javax.media.j3d.RenderAtomUpdate")
+@Label("Render Atom Update")
+@Category(CATEGORY)
+@Description("Render atoms inserted into and removed from a RenderBin while processing its messages")
+static class RenderAtomUpdateEvent extends Event {
+	@Label("View")
+	String view;
+
+	@Label("Inserted")
+	int inserted;
+
+	@Label("Removed")
+	int removed;
+}
+
+@Name("javax.media.j3d.TextureUpload")
+@Label("Texture Upload")
+@Category(CATEGORY)
+@Description("Texture image download to the graphics context")
+static class TextureUploadEvent extends Event {
+	@Label("Width")
+	int width;
+
+	@Label("Height")
+	int height;
+
+	@Label("Levels")
+	int levels;
+
+	@Label("Full Reload")
+	boolean reload;
+}
+
+@Name("javax.media.j3d.DisplayListUpdate")
+@Label("Display List Update")
+@Category(CATEGORY)
+@Description("Display list compilation by the Renderer")
+static class DisplayListUpdateEvent extends Event {
+	@Label("Canvas")
+	String canvas;
+
+	@Label("Rebuild All")
+	boolean rebuildAll;
+}
+
+@Name("javax.media.j3d.Pick")
+@Label("Pick")
+@Category(CATEGORY)
+@Description("A pick on a Locale or BranchGroup")
+static class PickEvent extends Event {
+	@Label("Source")
+	String source;
+
+	@Label("Pick Type")
+	String pickType;
+
+	@Label("Geometry Pick")
+	boolean geometry;
+
+	@Label("Results")
+	int results;
+}
+
+private static final String[] pickTypeNames = {
+	"pickAll", "pickAllSorted", "pickClosest", "pickAny",
+};
+
+// Used only to ask whether each event type is enabled
+private static final FrameEvent frameProbe = new FrameEvent();
+private static final ThreadWorkEvent threadWorkProbe = new ThreadWorkEvent();
+private static final RenderAtomUpdateEvent renderAtomProbe = new RenderAtomUpdateEvent();
+private static final TextureUploadEvent textureProbe = new TextureUploadEvent();
+private static final DisplayListUpdateEvent displayListProbe = new DisplayListUpdateEvent();
+private static final PickEvent pickProbe = new PickEvent();
+
+private static String getThreadTypeName(J3dThread thread) {
+	switch (thread.type) {
+	case J3dThread.BEHAVIOR_SCHEDULER:
+		return "BehaviorScheduler";
+	case J3dThread.SOUND_SCHEDULER:
+		return "SoundScheduler";
+	case J3dThread.INPUT_DEVICE_SCHEDULER:
+		return "InputDeviceScheduler";
+	case J3dThread.RENDER_THREAD:
+		return "Renderer";
+	case J3dThread.UPDATE_GEOMETRY:
+		return "GeometryStructure";
+	case J3dThread.UPDATE_RENDER:
+		return "RenderBin";
+	case J3dThread.UPDATE_BEHAVIOR:
+		return "BehaviorStructure";
+	case J3dThread.UPDATE_SOUND:
+		return "SoundStructure";
+	case J3dThread.UPDATE_RENDERING_ATTRIBUTES:
+		return "RenderingAttributesStructure";
+	case J3dThread.UPDATE_RENDERING_ENVIRONMENT:
+		return "RenderingEnvironmentStructure";
+	case J3dThread.UPDATE_TRANSFORM:
+		return "TransformStructure";
+	default:
+		return "Unknown";
+	}
+}
+
+@Override
+Object beginFrame() {
+	if (!frameProbe.isEnabled())
+		return null;
+
+	FrameEvent event = new FrameEvent();
+	event.begin();
+	return event;
+}
+
+@Override
+void endFrame(Object e, int numViews, int numStateThreads,
+	      int numRenderThreads) {
+	FrameEvent event = (FrameEvent)e;
+	event.end();
+	if (event.shouldCommit()) {
+		event.views = numViews;
+		event.stateThreads = numStateThreads;
+		event.renderThreads = numRenderThreads;
+		event.commit();
+	}
+}
+
+@Override
+Object beginThreadWork() {
+	if (!threadWorkProbe.isEnabled())
+		return null;
+
+	ThreadWorkEvent event = new ThreadWorkEvent();
+	event.begin();
+	return event;
+}
+
+@Override
+void endThreadWork(Object e, J3dThread thread, int messageCount) {
+	ThreadWorkEvent event = (ThreadWorkEvent)e;
+	event.end();
+	if (event.shouldCommit()) {
+		event.threadType = getThreadTypeName(thread);
+		event.threadName = thread.getName();
+		event.messages = messageCount;
+		event.commit();
+	}
+}
+
+@Override
+Object beginRenderAtomUpdate() {
+	if (!renderAtomProbe.isEnabled())
+		return null;
+
+	RenderAtomUpdateEvent event = new RenderAtomUpdateEvent();
+	event.begin();
+	return event;
+}
+
+@Override
+void endRenderAtomUpdate(Object e, View view, int added, int removed) {
+	RenderAtomUpdateEvent event = (RenderAtomUpdateEvent)e;
+	if (added == 0 && removed == 0)
+		return;
+
+	event.end();
+	if (event.shouldCommit()) {
+		event.view = String.valueOf(view);
+		event.inserted = added;
+		event.removed = removed;
+		event.commit();
+	}
+}
+
+@Override
+Object beginTextureUpload() {
+	if (!textureProbe.isEnabled())
+		return null;
+
+	TextureUploadEvent event = new TextureUploadEvent();
+	event.begin();
+	return event;
+}
+
+@Override
+void endTextureUpload(Object e, TextureRetained texture, boolean reload) {
+	TextureUploadEvent event = (TextureUploadEvent)e;
+	event.end();
+	if (event.shouldCommit()) {
+		event.width = texture.width;
+		event.height = texture.height;
+		event.levels = texture.maxLevels;
+		event.reload = reload;
+		event.commit();
+	}
+}
+
+@Override
+Object beginDisplayListUpdate() {
+	if (!displayListProbe.isEnabled())
+		return null;
+
+	DisplayListUpdateEvent event = new DisplayListUpdateEvent();
+	event.begin();
+	return event;
+}
+
+@Override
+void endDisplayListUpdate(Object e, Canvas3D canvas, boolean rebuildAll) {
+	DisplayListUpdateEvent event = (DisplayListUpdateEvent)e;
+	event.end();
+	if (event.shouldCommit()) {
+		event.canvas = canvas.getName();
+		event.rebuildAll = rebuildAll;
+		event.commit();
+	}
+}
+
+@Override
+Object beginPick() {
+	if (!pickProbe.isEnabled())
+		return null;
+
+	PickEvent event = new PickEvent();
+	event.begin();
+	return event;
+}
+
+@Override
+void endPick(Object e, boolean locale, int pickKind, int mode,
+	     int numResults) {
+	PickEvent event = (PickEvent)e;
+	event.end();
+	if (event.shouldCommit()) {
+		event.source = locale ? "Locale" : "BranchGroup";
+		event.pickType = pickTypeNames[pickKind];
+		event.geometry = (mode == PickInfo.PICK_GEOMETRY);
+		event.results = numResults;
+		event.commit();
+	}
+}
+}
@@ -144,6 +144,23 @@ public class Alpha extends NodeComponent {
     // Start time in milliseconds
     private long startTime = MasterControl.systemStartTime;
 
+    // The value at the last frame time, see MasterControl.alphaFrameCache,
+    // and the number of changes to the parameters it was computed with
+    private volatile FrameValue frameValue = null;
+    private volatile int changeCount = 0;
+
+    private static final class FrameValue {
+	final long time;
+	final int changeCount;
+	final float value;
+
+	FrameValue(long time, int changeCount, float value) {
+	    this.time = time;
+	    this.changeCount = changeCount;
+	    this.value = value;
+	}
+    }
+
     /**
      * Constructs an Alpha object with default parameters.  The default
      * values are as follows:
@@ -341,6 +358,7 @@ public class Alpha extends NodeComponent {
 
 	paused = true;
 	pauseTime = time;
+	changeCount++;
 	VirtualUniverse.mc.sendRunMessage(J3dThread.RENDER_THREAD);
     }
 
@@ -433,10 +451,29 @@ public class Alpha extends NodeComponent {
      * @return a value between 0.0 and 1.0 based on the current time
      */
     public float value() {
+	long frameTime = MasterControl.alphaFrameTime;
+	if (frameTime != 0L) {
+	    return frameValue(frameTime);
+	}
+
 	long currentTime = paused ? pauseTime : J3dClock.currentTimeMillis();
 	return this.value(currentTime);
     }
 
+    // The value at the frame time, computed once per frame and shared
+    // by all the callers
+    private float frameValue(long frameTime) {
+	int count = changeCount;
+	long currentTime = paused ? pauseTime : frameTime;
+	FrameValue v = frameValue;
+	if ((v == null) || (v.time != currentTime) ||
+	    (v.changeCount != count)) {
+	    v = new FrameValue(currentTime, count, this.value(currentTime));
+	    frameValue = v;
+	}
+	return v.value;
+    }
+
     /**
      * This method returns a value between 0.0 and 1.0 inclusive,
      * based on the specified time and the time-to-alpha parameters
@@ -761,6 +798,7 @@ public class Alpha extends NodeComponent {
      */
     public void setStartTime(long startTime) {
 	this.startTime = startTime;
+	changeCount++;
 	// This is used for passive wakeupOnElapsedFrame in
 	// Interpolator to restart behavior after alpha.finished()
 	VirtualUniverse.mc.sendRunMessage(J3dThread.RENDER_THREAD);
@@ -781,6 +819,7 @@ public class Alpha extends NodeComponent {
     public void setLoopCount(int loopCount) {
 	this.loopCount = loopCount;
 	computeStopTime();
+	changeCount++;
 	VirtualUniverse.mc.sendRunMessage(J3dThread.RENDER_THREAD);
     }
 
@@ -808,6 +847,7 @@ public class Alpha extends NodeComponent {
     public void setMode(int mode) {
 	this.mode = mode;
 	computeStopTime();
+	changeCount++;
 	VirtualUniverse.mc.sendRunMessage(J3dThread.RENDER_THREAD);
     }
 
@@ -826,6 +866,7 @@ public class Alpha extends NodeComponent {
     public void setTriggerTime(long triggerTime) {
 	this.triggerTime = (float) triggerTime * .001f;
 	computeStopTime();
+	changeCount++;
 	VirtualUniverse.mc.sendRunMessage(J3dThread.RENDER_THREAD);
     }
 
@@ -845,6 +886,7 @@ public class Alpha extends NodeComponent {
     public void setPhaseDelayDuration(long phaseDelayDuration) {
 	this.phaseDelay = (float) phaseDelayDuration * .001f;
 	computeStopTime();
+	changeCount++;
 	VirtualUniverse.mc.sendRunMessage(J3dThread.RENDER_THREAD);
     }
 
@@ -864,6 +906,7 @@ public class Alpha extends NodeComponent {
     public void setIncreasingAlphaDuration(long increasingAlphaDuration) {
 	this.increasingAlpha = (float) increasingAlphaDuration * .001f;
 	computeStopTime();
+	changeCount++;
 	VirtualUniverse.mc.sendRunMessage(J3dThread.RENDER_THREAD);
     }
 
@@ -886,6 +929,7 @@ public class Alpha extends NodeComponent {
 	if (incAlphaRampInternal > (0.5f * increasingAlpha)) {
 	    incAlphaRampInternal = 0.5f * increasingAlpha;
 	}
+	changeCount++;
 	VirtualUniverse.mc.sendRunMessage(J3dThread.RENDER_THREAD);
     }
 
@@ -905,6 +949,7 @@ public class Alpha extends NodeComponent {
     public void setAlphaAtOneDuration(long alphaAtOneDuration) {
 	this.alphaAtOne = (float) alphaAtOneDuration * .001f;
 	computeStopTime();
+	changeCount++;
 	VirtualUniverse.mc.sendRunMessage(J3dThread.RENDER_THREAD);
     }
 
@@ -924,6 +969,7 @@ public class Alpha extends NodeComponent {
     public void setDecreasingAlphaDuration(long decreasingAlphaDuration) {
 	this.decreasingAlpha = (float) decreasingAlphaDuration * .001f;
 	computeStopTime();
+	changeCount++;
 	VirtualUniverse.mc.sendRunMessage(J3dThread.RENDER_THREAD);
     }
 
@@ -946,6 +992,7 @@ public class Alpha extends NodeComponent {
 	if (decAlphaRampInternal > (0.5f * decreasingAlpha)) {
 	    decAlphaRampInternal = 0.5f * decreasingAlpha;
 	}
+	changeCount++;
 	VirtualUniverse.mc.sendRunMessage(J3dThread.RENDER_THREAD);
     }
 
@@ -965,6 +1012,7 @@ public class Alpha extends NodeComponent {
     public void setAlphaAtZeroDuration(long alphaAtZeroDuration) {
 	this.alphaAtZero = (float) alphaAtZeroDuration * .001f;
 	computeStopTime();
+	changeCount++;
 	VirtualUniverse.mc.sendRunMessage(J3dThread.RENDER_THREAD);
     }
 
@@ -974,7 +1022,10 @@ public class Alpha extends NodeComponent {
      * @return true if no longer looping, false otherwise
      */
     public boolean finished() {
-	long currentTime = paused ? pauseTime : J3dClock.currentTimeMillis();
+	long currentTime = paused ? pauseTime : MasterControl.alphaFrameTime;
+	if (currentTime == 0L) {
+	    currentTime = J3dClock.currentTimeMillis();
+	}
 	return ((loopCount != -1) &&
  	        ((float)(currentTime - startTime) * .001f > stopTime));
     }
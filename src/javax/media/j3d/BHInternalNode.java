@@ -34,6 +34,13 @@ class BHInternalNode extends BHNode {
     BHNode rChild;
     BHNode lChild;
 
+    // The summed surface area of the children over the surface area of
+    // this node when the subtree was built with the surface area
+    // heuristic, 0 if it wasn't.  BHTree rebuilds the subtree once this
+    // ratio exceeds buildQuality * bhTreeRebuildThreshold / 100, with the
+    // default of 130 once it grew by more than 30 percent since the build.
+    float buildQuality = 0.0f;
+
     BHInternalNode() {
 	super();
 	nodeType = BH_TYPE_INTERNAL;
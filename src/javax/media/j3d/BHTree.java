@@ -55,6 +55,27 @@ class BHTree  {
     static final int INCR_DEPTH_BOUND = 5;
     int  depthUpperBound = DEPTH_UPPER_BOUND;
 
+    // Number of bins per axis of the surface area heuristic build
+    static final int SAH_BINS = 16;
+
+    // Scratch arrays of the surface area heuristic build, see constructTreeSAH
+    private SAHBins sahBins = null;
+    private float[] sahCenters = null;
+
+    // the degraded subtrees found by refit
+    private ArrayList<BHInternalNode> rebuildList = null;
+
+    // Counters printed by gatherTreeStatistics
+    private int numRefits = 0;
+    private int numSubtreeRebuilds = 0;
+    private int numRebuiltLeaves = 0;
+
+    // Bumped by every change of the tree, and of its nodes for
+    // structureVersion, so that the PickSnapshot of an unchanged tree is
+    // kept, see createPickSnapshot
+    private int version = 0;
+    private int structureVersion = 0;
+
     BHTree() {
 	locale = null;
 	root = null;
@@ -99,6 +120,11 @@ class BHTree  {
 	    return;
 	}
 
+	if (VirtualUniverse.mc.sahBHTree) {
+	    constructTreeSAH(root, bhArr, bhArr.length);
+	    return;
+	}
+
 	int centerValuesIndex[] = new int[bhArr.length];
 	float centerValues[][] = computeCenterValues(bhArr, centerValuesIndex);
 
@@ -109,11 +135,117 @@ class BHTree  {
     // bhArr can only contains BHLeafNode.
 
     void boundsChanged(BHNode bhArr[], int size) {
+	version++;
+
 	// Mark phase.
 	markParentChain(bhArr, size);
 
 	// Compute phase.
-	root.updateMarkedBoundingHull();
+	if (VirtualUniverse.mc.sahBHTree) {
+	    refit();
+	} else {
+	    root.updateMarkedBoundingHull();
+	}
+    }
+
+    // Refit the bounds of the marked nodes in place, then rebuild the
+    // topmost subtrees whose quality degraded past the threshold.
+    private void refit() {
+	if (rebuildList == null) {
+	    rebuildList = new ArrayList<BHInternalNode>();
+	}
+
+	numRefits++;
+	float threshold = VirtualUniverse.mc.bhTreeRebuildThreshold / 100.0f;
+	refitMarked(root, threshold);
+
+	int size = rebuildList.size();
+	if (size == 0) {
+	    return;
+	}
+
+	// A subtree is rebuilt as a whole, skip the degraded nodes below
+	// another degraded node
+	for (int i = 0; i < size; i++) {
+	    rebuildList.get(i).mark = true;
+	}
+	for (int i = 0; i < size; i++) {
+	    BHInternalNode node = rebuildList.get(i);
+	    BHNode p = node.parent;
+	    while ((p != null) && !p.mark) {
+		p = p.parent;
+	    }
+	    if (p == null) {
+		rebuildSubtree(node);
+	    }
+	}
+	for (int i = 0; i < size; i++) {
+	    rebuildList.get(i).mark = false;
+	}
+	rebuildList.clear();
+    }
+
+    // Same as updateMarkedBoundingHull, also collecting the internal
+    // nodes whose quality, see computeQuality, exceeds their build quality
+    // times threshold, bhTreeRebuildThreshold / 100
+    private void refitMarked(BHNode node, float threshold) {
+	if (!node.mark) {
+	    return;
+	}
+
+	if (node.nodeType == BHNode.BH_TYPE_LEAF) {
+	    node.updateMarkedBoundingHull();
+	    return;
+	}
+
+	BHInternalNode iNode = (BHInternalNode)node;
+	refitMarked(iNode.rChild, threshold);
+	refitMarked(iNode.lChild, threshold);
+	iNode.computeBoundingHull();
+	iNode.mark = false;
+
+	if ((iNode.buildQuality > 0.0f) &&
+	    (computeQuality(iNode) > iNode.buildQuality * threshold)) {
+	    rebuildList.add(iNode);
+	}
+    }
+
+    // Rebuild the subtree below node in place, node keeps its parent and
+    // bounds
+    private void rebuildSubtree(BHInternalNode node) {
+	structureVersion++;
+	int leafCount = node.countNumberOfLeaves();
+	BHNode bhArr[] = new BHNode[leafCount];
+	int index[] = new int[1];
+	node.destroyTree(bhArr, index);
+
+	constructTreeSAH(node, bhArr, index[0]);
+
+	numSubtreeRebuilds++;
+	numRebuiltLeaves += index[0];
+    }
+
+    // The summed surface area of the children over the surface area of
+    // the node, the lower the better
+    private static float computeQuality(BHInternalNode node) {
+	double area = surfaceArea(node.bHull);
+	if (area <= 0.0) {
+	    return 0.0f;
+	}
+	return (float)((surfaceArea(node.rChild.bHull) +
+			surfaceArea(node.lChild.bHull)) / area);
+    }
+
+    // Half the surface area of the box, enough to compare boxes
+    static double surfaceArea(BoundingBox box) {
+	if (box == null || box.boundsIsEmpty) {
+	    return 0.0;
+	}
+
+	double dx = box.upper.x - box.lower.x;
+	double dy = box.upper.y - box.lower.y;
+	double dz = box.upper.z - box.lower.z;
+	return dx * dy + dy * dz + dz * dx;
     }
 
 
@@ -257,51 +389,13 @@ class BHTree  {
 	}
 	switch (bh.nodeType) {
 	case BHNode.BH_TYPE_LEAF:
-	    BHLeafInterface leaf = ((BHLeafNode) bh).leafIF;
-	    GeometryAtom atom;
-	    int i;
-
-	    if (leaf instanceof GeometryAtom) {
-		GeometryAtom leafAtom = (GeometryAtom) leaf;
-
-		if (((BHLeafNode) bh).isEnable() &&
-		    leafAtom.source.isCollidable) {
-
-		    // atom self intersection between atoms[]
-		    for (i=atomSize-1; i >=0; i--) {
-			if (atoms[i] == leafAtom) {
-			    return null;
-			}
-		    }
-		    for (i=atomSize-1; i >=0; i--) {
-			atom = atoms[i];
-			if ((atom.source.sourceNode != leafAtom.source.sourceNode) &&
-			    (atom.source.collisionVwcBound.intersect(leafAtom.source.collisionVwcBound)) &&
-			    ((accurancyMode == WakeupOnCollisionEntry.USE_BOUNDS) ||
-			     ((leafAtom.source.geometryList != null) &&
-			      (atom.source.intersectGeometryList(leafAtom.source))))) {
-			    return bh;
-			}
-		    }
-		}
-	    } else if (leaf instanceof GroupRetained) {
-		if (((BHLeafNode) bh).isEnable() &&
-		    ((GroupRetained) leaf).sourceNode.collidable) {
-		    for (i=atomSize-1; i >=0; i--) {
-			atom = atoms[i];
-			if (atom.source.collisionVwcBound.intersect(bh.bHull) &&
-			    ((accurancyMode == WakeupOnCollisionEntry.USE_BOUNDS) ||
-			     (atom.source.intersectGeometryList(
-			     atom.source.getCurrentLocalToVworld(0), bh.bHull)))) {
-			    return bh;
-			}
-		    }
-		}
+	    if (collides((BHLeafNode) bh, atoms, atomSize, accurancyMode)) {
+		return bh;
 	    }
 	    return null;
 	case BHNode.BH_TYPE_INTERNAL:
-	    for (i=atomSize-1; i >=0; i--) {
-		atom = atoms[i];
+	    for (int i=atomSize-1; i >=0; i--) {
+		GeometryAtom atom = atoms[i];
 		if (atom.source.collisionVwcBound.intersect(bh.bHull))
 		    {
 			BHNode hitNode = doSelectAny(atoms,
@@ -328,27 +422,8 @@ class BHTree  {
 	}
 	switch (bh.nodeType) {
 	case BHNode.BH_TYPE_LEAF:
-	    BHLeafInterface leaf = ((BHLeafNode) bh).leafIF;
-	    if (leaf instanceof GeometryAtom) {
-		GeometryAtom leafAtom = (GeometryAtom) leaf;
-		if ((atom.source.sourceNode != leafAtom.source.sourceNode) &&
-		    (((BHLeafNode) bh).isEnable()) &&
-		    (leafAtom.source.isCollidable) &&
-		    (atom.source.collisionVwcBound.intersect(leafAtom.source.collisionVwcBound)) &&
-		    ((accurancyMode == WakeupOnCollisionEntry.USE_BOUNDS) ||
-		     ((leafAtom.source.geometryList != null) &&
-		      (atom.source.intersectGeometryList(leafAtom.source))))) {
-		    return bh;
-		}
-	    } else if (leaf instanceof GroupRetained) {
-		if (((BHLeafNode) bh).isEnable() &&
-		    ((GroupRetained) leaf).sourceNode.collidable &&
-		    atom.source.collisionVwcBound.intersect(bh.bHull) &&
-		    ((accurancyMode == WakeupOnCollisionEntry.USE_BOUNDS) ||
-		     (atom.source.intersectGeometryList(
-			atom.source.getCurrentLocalToVworld(0), bh.bHull)))) {
-		    return bh;
-		}
+	    if (collides((BHLeafNode) bh, atom, accurancyMode)) {
+		return bh;
 	    }
 	    return null;
 	case BHNode.BH_TYPE_INTERNAL:
@@ -388,25 +463,8 @@ class BHTree  {
 
 	switch (bh.nodeType) {
 	case BHNode.BH_TYPE_LEAF:
-	    BHLeafInterface leaf = ((BHLeafNode) bh).leafIF;
-	    if (leaf instanceof GeometryAtom) {
-		GeometryAtom leafAtom = (GeometryAtom) leaf;
-		if ((((BHLeafNode) bh).isEnable()) &&
-		    (leafAtom.source.isCollidable) &&
-		    (bound.intersect(leafAtom.source.collisionVwcBound)) &&
-		    ((accurancyMode == WakeupOnCollisionEntry.USE_BOUNDS) ||
-		     ((leafAtom.source.geometryList != null) &&
-		      (leafAtom.source.intersectGeometryList(
-			leafAtom.source.getCurrentLocalToVworld(0), bound))))) {
-		    return bh;
-		}
-	    } else if (leaf instanceof GroupRetained) {
-		if ((leaf != armingNode) &&
-		    ((BHLeafNode) bh).isEnable() &&
-		    ((GroupRetained) leaf).sourceNode.collidable &&
-		    bound.intersect(bh.bHull)) {
-		    return bh;
-		}
+	    if (collides((BHLeafNode) bh, bound, accurancyMode, armingNode)) {
+		return bh;
 	    }
 	    return null;
 	case BHNode.BH_TYPE_INTERNAL:
@@ -448,29 +506,8 @@ class BHTree  {
 	}
 	switch (bh.nodeType) {
 	case BHNode.BH_TYPE_LEAF:
-	    BHLeafInterface leaf = ((BHLeafNode) bh).leafIF;
-
-	    if (leaf instanceof GeometryAtom) {
-		GeometryAtom leafAtom = (GeometryAtom) leaf;
-		if ((((BHLeafNode) bh).isEnable()) &&
-		    (leafAtom.source.isCollidable) &&
-		    (bound.intersect(leafAtom.source.collisionVwcBound)) &&
-	 	    (!isDescendent(leafAtom.source.sourceNode,
-				   armingGroup, leafAtom.source.key)) &&
-		    ((accurancyMode == WakeupOnCollisionEntry.USE_BOUNDS) ||
-		     ((leafAtom.source.geometryList != null) &&
-		      (leafAtom.source.intersectGeometryList(
-			leafAtom.source.getCurrentLocalToVworld(0), bound))))) {
-		    return bh;
-		}
-	    } else if (leaf instanceof GroupRetained) {
-		GroupRetained group = (GroupRetained) leaf;
-		if (((BHLeafNode) bh).isEnable() &&
-		    group.sourceNode.collidable &&
-		    bound.intersect(bh.bHull) &&
-		    !isDescendent(group.sourceNode, armingGroup, group.key)) {
-			return bh;
-		}
+	    if (collides((BHLeafNode) bh, bound, accurancyMode, armingGroup)) {
+		return bh;
 	    }
 	    return null;
 	case BHNode.BH_TYPE_INTERNAL:
@@ -492,8 +529,125 @@ class BHTree  {
 	return null;
     }
 
+    // The leaf tests of the selectAny variants, also used by
+    // CollisionBroadphase for the leaves its sweep finds
+
+    static boolean collides(BHLeafNode bh, GeometryAtom atoms[],
+			    int atomSize, int accurancyMode) {
+	BHLeafInterface leaf = bh.leafIF;
+	GeometryAtom atom;
+	int i;
+
+	if (leaf instanceof GeometryAtom) {
+	    GeometryAtom leafAtom = (GeometryAtom) leaf;
+
+	    if (bh.isEnable() &&
+		leafAtom.source.isCollidable) {
+
+		// atom self intersection between atoms[]
+		for (i=atomSize-1; i >=0; i--) {
+		    if (atoms[i] == leafAtom) {
+			return false;
+		    }
+		}
+		for (i=atomSize-1; i >=0; i--) {
+		    atom = atoms[i];
+		    if ((atom.source.sourceNode != leafAtom.source.sourceNode) &&
+			(atom.source.collisionVwcBound.intersect(leafAtom.source.collisionVwcBound)) &&
+			((accurancyMode == WakeupOnCollisionEntry.USE_BOUNDS) ||
+			 ((leafAtom.source.geometryList != null) &&
+			  (atom.source.intersectGeometryList(leafAtom.source))))) {
+			return true;
+		    }
+		}
+	    }
+	} else if (leaf instanceof GroupRetained) {
+	    if (bh.isEnable() &&
+		((GroupRetained) leaf).sourceNode.collidable) {
+		for (i=atomSize-1; i >=0; i--) {
+		    atom = atoms[i];
+		    if (atom.source.collisionVwcBound.intersect(bh.bHull) &&
+			((accurancyMode == WakeupOnCollisionEntry.USE_BOUNDS) ||
+			 (atom.source.intersectGeometryList(
+			 atom.source.getCurrentLocalToVworld(0), bh.bHull)))) {
+			return true;
+		    }
+		}
+	    }
+	}
+	return false;
+    }
+
+    static boolean collides(BHLeafNode bh, GeometryAtom atom,
+			    int accurancyMode) {
+	BHLeafInterface leaf = bh.leafIF;
+	if (leaf instanceof GeometryAtom) {
+	    GeometryAtom leafAtom = (GeometryAtom) leaf;
+	    return ((atom.source.sourceNode != leafAtom.source.sourceNode) &&
+		    (bh.isEnable()) &&
+		    (leafAtom.source.isCollidable) &&
+		    (atom.source.collisionVwcBound.intersect(leafAtom.source.collisionVwcBound)) &&
+		    ((accurancyMode == WakeupOnCollisionEntry.USE_BOUNDS) ||
+		     ((leafAtom.source.geometryList != null) &&
+		      (atom.source.intersectGeometryList(leafAtom.source)))));
+	} else if (leaf instanceof GroupRetained) {
+	    return (bh.isEnable() &&
+		    ((GroupRetained) leaf).sourceNode.collidable &&
+		    atom.source.collisionVwcBound.intersect(bh.bHull) &&
+		    ((accurancyMode == WakeupOnCollisionEntry.USE_BOUNDS) ||
+		     (atom.source.intersectGeometryList(
+			atom.source.getCurrentLocalToVworld(0), bh.bHull))));
+	}
+	return false;
+    }
+
+    static boolean collides(BHLeafNode bh, Bounds bound, int accurancyMode,
+			    NodeRetained armingNode) {
+	BHLeafInterface leaf = bh.leafIF;
+	if (leaf instanceof GeometryAtom) {
+	    GeometryAtom leafAtom = (GeometryAtom) leaf;
+	    return ((bh.isEnable()) &&
+		    (leafAtom.source.isCollidable) &&
+		    (bound.intersect(leafAtom.source.collisionVwcBound)) &&
+		    ((accurancyMode == WakeupOnCollisionEntry.USE_BOUNDS) ||
+		     ((leafAtom.source.geometryList != null) &&
+		      (leafAtom.source.intersectGeometryList(
+			leafAtom.source.getCurrentLocalToVworld(0), bound)))));
+	} else if (leaf instanceof GroupRetained) {
+	    return ((leaf != armingNode) &&
+		    bh.isEnable() &&
+		    ((GroupRetained) leaf).sourceNode.collidable &&
+		    bound.intersect(bh.bHull));
+	}
+	return false;
+    }
+
+    static boolean collides(BHLeafNode bh, Bounds bound, int accurancyMode,
+			    GroupRetained armingGroup) {
+	BHLeafInterface leaf = bh.leafIF;
+	if (leaf instanceof GeometryAtom) {
+	    GeometryAtom leafAtom = (GeometryAtom) leaf;
+	    return ((bh.isEnable()) &&
+		    (leafAtom.source.isCollidable) &&
+		    (bound.intersect(leafAtom.source.collisionVwcBound)) &&
+		    (!isDescendent(leafAtom.source.sourceNode,
+				   armingGroup, leafAtom.source.key)) &&
+		    ((accurancyMode == WakeupOnCollisionEntry.USE_BOUNDS) ||
+		     ((leafAtom.source.geometryList != null) &&
+		      (leafAtom.source.intersectGeometryList(
+			leafAtom.source.getCurrentLocalToVworld(0), bound)))));
+	} else if (leaf instanceof GroupRetained) {
+	    GroupRetained group = (GroupRetained) leaf;
+	    return (bh.isEnable() &&
+		    group.sourceNode.collidable &&
+		    bound.intersect(bh.bHull) &&
+		    !isDescendent(group.sourceNode, armingGroup, group.key));
+	}
+	return false;
+    }
+
     // Return true if node is a descendent of group
-    private boolean isDescendent(NodeRetained node,
+    private static boolean isDescendent(NodeRetained node,
 				 GroupRetained group,
 				 HashKey key) {
 
@@ -533,6 +687,25 @@ class BHTree  {
     }
 
 
+    // Returns an immutable copy of the tree for picking, see PickSnapshot.
+    // prev, the last snapshot of this tree or null, is returned when the
+    // tree did not change since, and shares its nodes with the copy when
+    // only bounds changed.
+    PickSnapshot createPickSnapshot(PickSnapshot prev) {
+	if (prev != null) {
+	    if (prev.version == version) {
+		return prev;
+	    }
+	    if (prev.structureVersion == structureVersion) {
+		PickSnapshot snapshot = prev.refit(root, version);
+		if (snapshot != null) {
+		    return snapshot;
+		}
+	    }
+	}
+	return new PickSnapshot(locale, root, version, structureVersion);
+    }
+
     void select(PickShape pickShape, UnorderList hitArrList) {
 
 	if((pickShape == null)||(root == null))
@@ -575,6 +748,85 @@ class BHTree  {
 	}
     }
 
+    /**
+     * Selects the pickable leaves hit by each of the pickShapes in a single
+     * traversal, the leaves hit by pickShapes[i] are added to
+     * hitArrLists[i] in the same order as select(pickShapes[i], ...) would
+     * add them.  Null pick shapes hit nothing.
+     */
+    void select(PickShape[] pickShapes, UnorderList[] hitArrLists) {
+
+	if((pickShapes == null)||(root == null))
+	    return;
+
+	int[] active = new int[pickShapes.length];
+	int count = 0;
+	for (int i = 0; i < pickShapes.length; i++) {
+	    if (pickShapes[i] != null)
+		active[count++] = i;
+	}
+
+	if (count > 0)
+	    doSelect(pickShapes, hitArrLists, root, active, count,
+		     new Point4d());
+    }
+
+    // The first count elements of active are the indices of the pick
+    // shapes that hit every ancestor of bh
+    private void doSelect(PickShape[] pickShapes, UnorderList[] hitArrLists,
+			  BHNode bh, int[] active, int count,
+			  Point4d pickPos) {
+
+	if ((bh == null) || (bh.bHull.isEmpty())) {
+	    return;
+	}
+
+	switch(bh.nodeType) {
+	case BHNode.BH_TYPE_LEAF:
+	    if (((BHLeafNode)(bh)).isEnable() &&
+		(((BHLeafNode) bh).leafIF instanceof GeometryAtom) &&
+		 ((GeometryAtom) (((BHLeafNode)
+				   bh).leafIF)).source.isPickable) {
+		for (int i = 0; i < count; i++) {
+		    int s = active[i];
+		    if (pickShapes[s].intersect(bh.bHull, pickPos))
+			hitArrLists[s].add(bh);
+		}
+	    }
+	    break;
+	case BHNode.BH_TYPE_INTERNAL:
+	    // The shapes hitting this node, active itself is reused
+	    // while all of them do
+	    int[] hits = active;
+	    int numHits = 0;
+	    for (int i = 0; i < count; i++) {
+		int s = active[i];
+		if (pickShapes[s].intersect(bh.bHull, pickPos)) {
+		    if (hits != active)
+			hits[numHits] = s;
+		    numHits++;
+		} else if (hits == active) {
+		    hits = new int[count - 1];
+		    System.arraycopy(active, 0, hits, 0, numHits);
+		}
+	    }
+
+	    if (numHits > 0) {
+		doSelect(pickShapes,
+			 hitArrLists,
+			 ((BHInternalNode)bh).getRightChild(),
+			 hits, numHits,
+			 pickPos);
+		doSelect(pickShapes,
+			 hitArrLists,
+			 ((BHInternalNode)bh).getLeftChild(),
+			 hits, numHits,
+			 pickPos);
+	    }
+	    break;
+	}
+    }
+
     BHNode selectAny(PickShape pickShape) {
 
 	if((pickShape == null)||(root == null))
@@ -636,6 +888,15 @@ class BHTree  {
 	    return;
 	}
 
+	if (VirtualUniverse.mc.sahBHTree) {
+	    root = new BHInternalNode();
+	    constructTreeSAH((BHInternalNode)root, bhArr, bhArr.length);
+
+	    if(J3dDebug.devPhase && J3dDebug.debug)
+		gatherTreeStatistics();
+	    return;
+	}
+
 	int centerValuesIndex[] = new int[bhArr.length];
 	float centerValues[][] = computeCenterValues(bhArr, centerValuesIndex);
 
@@ -658,6 +919,9 @@ class BHTree  {
     }
 
     void insert(BHNode bhArr[], int size) {
+	version++;
+	structureVersion++;
+
 	// first pass: add all elements to the tree creating k array internal
 	// nodes using the auxiliaryInsertStucture
 	// second pass: go through all elements of the auxiliaryInsertStructure
@@ -803,6 +1067,9 @@ class BHTree  {
     void delete(BHNode bhArr[], int size) {
 	BHNode node;
 
+	version++;
+	structureVersion++;
+
 	/*
 	  if((bhArr == null) || (bhArr.length < 1))
 	  return;
@@ -1062,11 +1329,21 @@ class BHTree  {
 	    }
 	}
 
+	// A large right set is built by the task pool while this thread
+	// builds the left set
+	ConstructTask rightTask = null;
 	if (rightSet.length != 1) {
 	    parent.rChild = new BHInternalNode();
 	    parent.rChild.setParent(parent);
-	    constructTree((BHInternalNode)(parent.rChild),  rightSet, centerValues,
-			  centerValuesIndexR);
+	    if (forkSubtree(rightSet.length)) {
+		rightTask = new ConstructTask((BHInternalNode)(parent.rChild),
+					      rightSet, centerValues,
+					      centerValuesIndexR);
+		fork(rightTask);
+	    } else {
+		constructTree((BHInternalNode)(parent.rChild),  rightSet, centerValues,
+			      centerValuesIndexR);
+	    }
 	} else {
 	    parent.rChild = rightSet[0];
 	    parent.rChild.setParent(parent);
@@ -1082,9 +1359,291 @@ class BHTree  {
 	    parent.lChild.setParent(parent);
 	}
 
+	if (rightTask != null) {
+	    VirtualUniverse.mc.getTaskPool().join(rightTask);
+	}
+
+	parent.combineBHull(parent.rChild, parent.lChild);
+    }
+
+
+    // Build the subtree below parent from the first size nodes of bhArr
+    // (size >= 2) with the binned surface area heuristic.  Only the order
+    // of the bhArr elements is changed.
+    void constructTreeSAH(BHInternalNode parent, BHNode bhArr[], int size) {
+	if (sahBins == null) {
+	    sahBins = new SAHBins();
+	}
+	if (sahCenters == null || sahCenters.length < size * 3) {
+	    sahCenters = new float[size * 3];
+	}
+
+	for (int i = 0; i < size; i++) {
+	    BHNode node = bhArr[i];
+	    node.computeBoundingHull();
+	    BoundingBox b = node.bHull;
+	    sahCenters[i*3]   = (float)((b.upper.x + b.lower.x) * 0.5);
+	    sahCenters[i*3+1] = (float)((b.upper.y + b.lower.y) * 0.5);
+	    sahCenters[i*3+2] = (float)((b.upper.z + b.lower.z) * 0.5);
+	}
+
+	constructTreeSAH(parent, bhArr, 0, size, sahBins);
+    }
+
+    private void constructTreeSAH(BHInternalNode parent, BHNode bhArr[],
+				  int start, int end, SAHBins bins) {
+	int count = end - start;
+	int mid = start + count / 2;
+
+	// the bounds of the node centers
+	float cMin[] = { Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE };
+	float cMax[] = { -Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE };
+	for (int i = start; i < end; i++) {
+	    for (int a = 0; a < 3; a++) {
+		float c = sahCenters[i*3+a];
+		if (c < cMin[a]) cMin[a] = c;
+		if (c > cMax[a]) cMax[a] = c;
+	    }
+	}
+
+	int bestAxis = -1;
+	int bestBin = 0;
+	double bestCost = Double.MAX_VALUE;
+
+	if (count > 2) {
+	    for (int a = 0; a < 3; a++) {
+		float extent = cMax[a] - cMin[a];
+		if (!(extent > 0.0f)) {
+		    continue;
+		}
+
+		binNodes(bhArr, start, end, a, cMin[a], extent, bins);
+
+		// sweep from the left, then evaluate the splits from the right
+		double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, minZ = Double.MAX_VALUE;
+		double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE, maxZ = -Double.MAX_VALUE;
+		int n = 0;
+		for (int b = 0; b < SAH_BINS - 1; b++) {
+		    if (bins.counts[b] > 0) {
+			minX = Math.min(minX, bins.bounds[b*6]);
+			minY = Math.min(minY, bins.bounds[b*6+1]);
+			minZ = Math.min(minZ, bins.bounds[b*6+2]);
+			maxX = Math.max(maxX, bins.bounds[b*6+3]);
+			maxY = Math.max(maxY, bins.bounds[b*6+4]);
+			maxZ = Math.max(maxZ, bins.bounds[b*6+5]);
+			n += bins.counts[b];
+		    }
+		    bins.countLeft[b] = n;
+		    bins.areaLeft[b] = boxArea(minX, minY, minZ, maxX, maxY, maxZ);
+		}
+
+		minX = minY = minZ = Double.MAX_VALUE;
+		maxX = maxY = maxZ = -Double.MAX_VALUE;
+		n = 0;
+		for (int b = SAH_BINS - 1; b > 0; b--) {
+		    if (bins.counts[b] > 0) {
+			minX = Math.min(minX, bins.bounds[b*6]);
+			minY = Math.min(minY, bins.bounds[b*6+1]);
+			minZ = Math.min(minZ, bins.bounds[b*6+2]);
+			maxX = Math.max(maxX, bins.bounds[b*6+3]);
+			maxY = Math.max(maxY, bins.bounds[b*6+4]);
+			maxZ = Math.max(maxZ, bins.bounds[b*6+5]);
+			n += bins.counts[b];
+		    }
+
+		    // split between bin b-1 and bin b
+		    int nLeft = bins.countLeft[b-1];
+		    if (nLeft == 0 || n == 0) {
+			continue;
+		    }
+		    double cost = bins.areaLeft[b-1] * nLeft +
+			boxArea(minX, minY, minZ, maxX, maxY, maxZ) * n;
+		    if (cost < bestCost) {
+			bestCost = cost;
+			bestAxis = a;
+			bestBin = b;
+		    }
+		}
+	    }
+	}
+
+	if (bestAxis >= 0) {
+	    // partition in place, nodes in the bins below bestBin go left
+	    float extent = cMax[bestAxis] - cMin[bestAxis];
+	    int i = start;
+	    int j = end - 1;
+	    while (i <= j) {
+		if (binIndex(sahCenters[i*3+bestAxis], cMin[bestAxis], extent) < bestBin) {
+		    i++;
+		} else {
+		    swapSAH(bhArr, i, j);
+		    j--;
+		}
+	    }
+	    if (i > start && i < end) {
+		mid = i;
+	    }
+	}
+
+	// left set is [start, mid), right set is [mid, end).  A large
+	// right set is built by the task pool while this thread builds the
+	// left set.
+	SAHTask rightTask = null;
+	if (end - mid != 1) {
+	    BHInternalNode node = new BHInternalNode();
+	    parent.rChild = node;
+	    if (forkSubtree(end - mid)) {
+		rightTask = new SAHTask(node, bhArr, mid, end);
+		fork(rightTask);
+	    } else {
+		constructTreeSAH(node, bhArr, mid, end, bins);
+	    }
+	} else {
+	    parent.rChild = bhArr[mid];
+	}
+	parent.rChild.setParent(parent);
+
+	if (mid - start != 1) {
+	    BHInternalNode node = new BHInternalNode();
+	    parent.lChild = node;
+	    constructTreeSAH(node, bhArr, start, mid, bins);
+	} else {
+	    parent.lChild = bhArr[start];
+	}
+	parent.lChild.setParent(parent);
+
+	if (rightTask != null) {
+	    VirtualUniverse.mc.getTaskPool().join(rightTask);
+	}
+
 	parent.combineBHull(parent.rChild, parent.lChild);
+	parent.buildQuality = computeQuality(parent);
+    }
+
+    // Fill bins with the nodes of [start, end) binned
+    // by their center along the axis
+    private void binNodes(BHNode bhArr[], int start, int end, int axis,
+			  float cMin, float extent, SAHBins bins) {
+	for (int b = 0; b < SAH_BINS; b++) {
+	    bins.counts[b] = 0;
+	}
+
+	for (int i = start; i < end; i++) {
+	    int b = binIndex(sahCenters[i*3+axis], cMin, extent);
+	    BoundingBox box = bhArr[i].bHull;
+	    int k = b * 6;
+	    if (bins.counts[b]++ == 0) {
+		bins.bounds[k]   = box.lower.x;
+		bins.bounds[k+1] = box.lower.y;
+		bins.bounds[k+2] = box.lower.z;
+		bins.bounds[k+3] = box.upper.x;
+		bins.bounds[k+4] = box.upper.y;
+		bins.bounds[k+5] = box.upper.z;
+	    } else {
+		bins.bounds[k]   = Math.min(bins.bounds[k],   box.lower.x);
+		bins.bounds[k+1] = Math.min(bins.bounds[k+1], box.lower.y);
+		bins.bounds[k+2] = Math.min(bins.bounds[k+2], box.lower.z);
+		bins.bounds[k+3] = Math.max(bins.bounds[k+3], box.upper.x);
+		bins.bounds[k+4] = Math.max(bins.bounds[k+4], box.upper.y);
+		bins.bounds[k+5] = Math.max(bins.bounds[k+5], box.upper.z);
+	    }
+	}
+    }
+
+    // The scratch arrays of one thread of the surface area heuristic build
+    private static class SAHBins {
+	final int[] counts = new int[SAH_BINS];
+	final double[] bounds = new double[SAH_BINS * 6];
+	final double[] areaLeft = new double[SAH_BINS];
+	final int[] countLeft = new int[SAH_BINS];
+    }
+
+    // true if a subtree of this many nodes is worth building on another
+    // thread
+    private static boolean forkSubtree(int size) {
+	int threshold = VirtualUniverse.mc.parallelBHTreeThreshold;
+	return (threshold > 0) && (size >= threshold);
+    }
+
+    private static void fork(J3dTaskPool.Task task) {
+	task.reset();
+	VirtualUniverse.mc.getTaskPool().execute(task);
+    }
+
+    // Builds a subtree with constructTree on the task pool.  The subtrees
+    // built by different tasks share no nodes, and centerValues is only
+    // read.
+    private class ConstructTask extends J3dTaskPool.Task {
+	private final BHInternalNode parent;
+	private final BHNode bhArr[];
+	private final float[][] centerValues;
+	private final int[] centerValuesIndex;
+
+	ConstructTask(BHInternalNode parent, BHNode bhArr[],
+		      float[][] centerValues, int[] centerValuesIndex) {
+	    this.parent = parent;
+	    this.bhArr = bhArr;
+	    this.centerValues = centerValues;
+	    this.centerValuesIndex = centerValuesIndex;
+	}
+
+	@Override
+	void compute() {
+	    constructTree(parent, bhArr, centerValues, centerValuesIndex);
+	}
+    }
+
+    // Builds a subtree with constructTreeSAH on the task pool.  Each task
+    // only touches its own range of bhArr and sahCenters, and has its own
+    // bins.
+    private class SAHTask extends J3dTaskPool.Task {
+	private final BHInternalNode parent;
+	private final BHNode bhArr[];
+	private final int start;
+	private final int end;
+
+	SAHTask(BHInternalNode parent, BHNode bhArr[], int start, int end) {
+	    this.parent = parent;
+	    this.bhArr = bhArr;
+	    this.start = start;
+	    this.end = end;
+	}
+
+	@Override
+	void compute() {
+	    constructTreeSAH(parent, bhArr, start, end, new SAHBins());
+	}
     }
 
+    private static int binIndex(float center, float cMin, float extent) {
+	int b = (int)((center - cMin) * SAH_BINS / extent);
+	if (b < 0) return 0;
+	if (b >= SAH_BINS) return SAH_BINS - 1;
+	return b;
+    }
+
+    private static double boxArea(double minX, double minY, double minZ,
+				  double maxX, double maxY, double maxZ) {
+	if (minX > maxX) {
+	    return 0.0;
+	}
+	double dx = maxX - minX;
+	double dy = maxY - minY;
+	double dz = maxZ - minZ;
+	return dx * dy + dy * dz + dz * dx;
+    }
+
+    private void swapSAH(BHNode bhArr[], int i, int j) {
+	BHNode tmpNode = bhArr[i];
+	bhArr[i] = bhArr[j];
+	bhArr[j] = tmpNode;
+
+	for (int a = 0; a < 3; a++) {
+	    float tmp = sahCenters[i*3+a];
+	    sahCenters[i*3+a] = sahCenters[j*3+a];
+	    sahCenters[j*3+a] = tmp;
+	}
+    }
 
     void reConstructTree(int numOfLeaf) {
 	if(root == null)
@@ -1120,12 +1679,36 @@ class BHTree  {
 	System.err.println("Number of Internal Nodes = " + internalCount );
 	System.err.println("Maximum Leaf depth = " + maxDepth );
 	System.err.println("Average Leaf depth = " + averageDepth );
+	System.err.println("Surface area heuristic cost = " + computeSAHCost());
+	System.err.println("Number of refits = " + numRefits );
+	System.err.println("Number of subtree rebuilds = " + numSubtreeRebuilds );
+	System.err.println("Number of rebuilt leaves = " + numRebuiltLeaves );
 	System.err.println("root.bHull = " + root.bHull);
 	// printTree(root);
 
     }
 
 
+    // The expected number of nodes visited by a random ray through the
+    // root, relative to the root: the summed surface area of all nodes
+    // over the surface area of the root.
+    float computeSAHCost() {
+	double rootArea = surfaceArea(root.bHull);
+	if (rootArea <= 0.0) {
+	    return 0.0f;
+	}
+	return (float)(sumSurfaceArea(root) / rootArea);
+    }
+
+    private static double sumSurfaceArea(BHNode node) {
+	double area = surfaceArea(node.bHull);
+	if (node.nodeType == BHNode.BH_TYPE_INTERNAL) {
+	    area += sumSurfaceArea(((BHInternalNode)node).rChild);
+	    area += sumSurfaceArea(((BHInternalNode)node).lChild);
+	}
+	return area;
+    }
+
     void printTree(BHNode bh) {
 	if(bh!= null) {
 	    if(bh.nodeType == BHNode.BH_TYPE_INTERNAL) {
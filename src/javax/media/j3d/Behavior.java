@@ -241,7 +241,7 @@ public abstract class Behavior extends Leaf {
      * @param criteria an enumeration of triggered wakeup criteria for this
      * behavior
      */
-    public abstract void processStimulus(Enumeration criteria);
+    public abstract void processStimulus(Enumeration<?> criteria);
 
     /**
      * Set the Behavior's scheduling region to the specified bounds.
@@ -359,6 +359,41 @@ public abstract class Behavior extends Leaf {
 	return ((BehaviorRetained)this.retained).getEnable();
     }
 
+    /**
+     * Declares whether the processStimulus method of this Behavior may run
+     * concurrently with the other behaviors.  When Java 3D is run with the
+     * j3d.parallelBehaviors property set to true, the thread safe behaviors
+     * that are triggered in the same scheduling interval may have their
+     * processStimulus methods called at the same time, from other threads
+     * than the behavior scheduler.  All the behaviors of a scheduling
+     * interval still complete before those of the next interval run.  A
+     * thread safe behavior must synchronize its access to any state it
+     * shares with other behaviors or with the application.  As from any
+     * behavior, the methods that must not be called from a behavior,
+     * such as View.stopBehaviorScheduler, throw IllegalStateException.
+     * The default value is false.
+     *
+     * @param threadSafe true if processStimulus may run concurrently
+     * with the other behaviors
+     *
+     * @since Java 3D 1.6
+     */
+    public void setThreadSafe(boolean threadSafe) {
+	((BehaviorRetained)this.retained).setThreadSafe(threadSafe);
+    }
+
+    /**
+     * Retrieves whether the processStimulus method of this Behavior may run
+     * concurrently with the other behaviors.
+     *
+     * @return true if the behavior is declared thread safe
+     *
+     * @since Java 3D 1.6
+     */
+    public boolean getThreadSafe() {
+	return ((BehaviorRetained)this.retained).getThreadSafe();
+    }
+
     /**
      * Returns the number of scheduling intervals supported by this
      * implementation of Java 3D.  The minimum number of supported
@@ -474,6 +509,7 @@ public abstract class Behavior extends Leaf {
 	rt.setEnable(attr.getEnable());
 	rt.setSchedulingBounds(attr.getSchedulingBounds());
 	rt.setSchedulingInterval(attr.getSchedulingInterval());
+	rt.setThreadSafe(attr.getThreadSafe());
 	// will set to the correct one in updateNodeReferences
 	rt.setSchedulingBoundingLeaf(attr.getSchedulingBoundingLeaf());
 
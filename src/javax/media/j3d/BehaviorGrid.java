@@ -0,0 +1,250 @@
+/*
+ * Copyright 2013 Harvey Harrison
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Sun designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Sun in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package javax.media.j3d;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+/**
+ * A uniform grid over the vworld scheduling regions of the behaviors of a
+ * BehaviorStructure, used when MasterControl.behaviorGridSize is set so
+ * that a ViewPlatform move only re-evaluates the behaviors near the
+ * ViewPlatforms instead of all of them.
+ *
+ * Each behavior is filed in the cells its region's bounding box overlaps.
+ * The regions spanning too many cells, the infinite ones and the ones
+ * shared with a BoundingLeaf, which can change without the behavior being
+ * told, are kept in a list returned by every query.  Behaviors without a
+ * region or with an empty one are not filed, they can never be scheduled.
+ * A query returns a superset of the behaviors whose region intersects the
+ * query bounds, so the caller still does the exact test.
+ */
+class BehaviorGrid {
+
+// Regions spanning more cells are kept in the large list
+private static final int MAX_ENTRY_CELLS = 64;
+// Queries spanning more cells give up, the caller checks every behavior
+private static final int MAX_QUERY_CELLS = 4096;
+// The cell coordinates must fit in 21 bits to be packed in a key
+private static final long MAX_COORD = (1L << 20) - 1;
+
+private static final int NONE = 0;
+private static final int CELLS = 1;
+private static final int LARGE = 2;
+
+private static class Entry {
+	final BehaviorRetained behav;
+	int state = NONE;
+	long x0, y0, z0, x1, y1, z1;
+	// The last query that returned this entry
+	int queryStamp = 0;
+
+	Entry(BehaviorRetained behav) {
+		this.behav = behav;
+	}
+}
+
+private final double cellSize;
+private final HashMap<Long, ArrayList<Entry>> cells = new HashMap<Long, ArrayList<Entry>>();
+private final IdentityHashMap<BehaviorRetained, Entry> entries = new IdentityHashMap<BehaviorRetained, Entry>();
+private final ArrayList<Entry> largeEntries = new ArrayList<Entry>();
+private int queryStamp = 0;
+
+// Scratch values of the last computed cell range
+private final BoundingBox box = new BoundingBox();
+private long rx0, ry0, rz0, rx1, ry1, rz1;
+
+BehaviorGrid(double cellSize) {
+	this.cellSize = cellSize;
+}
+
+/**
+ * Adds the behavior, or refiles it if it is already in the grid.
+ */
+void add(BehaviorRetained behav) {
+	Entry e = entries.get(behav);
+	if (e == null) {
+		e = new Entry(behav);
+		entries.put(behav, e);
+	}
+	refile(e);
+}
+
+/**
+ * Refiles the behavior after a change of its region, behaviors not in the
+ * grid are ignored.
+ */
+void update(BehaviorRetained behav) {
+	Entry e = entries.get(behav);
+	if (e != null)
+		refile(e);
+}
+
+void remove(BehaviorRetained behav) {
+	Entry e = entries.remove(behav);
+	if (e != null)
+		unlink(e);
+}
+
+void clear() {
+	cells.clear();
+	entries.clear();
+	largeEntries.clear();
+}
+
+/**
+ * Starts a new query, the behaviors found by the following calls to query
+ * are only returned once.
+ */
+void startQuery() {
+	queryStamp++;
+}
+
+/**
+ * Adds to the list the behaviors whose region may intersect the bounds.
+ * Returns false if the bounds span too many cells, the list is then
+ * incomplete and every behavior has to be checked.
+ */
+boolean query(Bounds bounds, ArrayList<BehaviorRetained> found) {
+	if ((bounds == null) || bounds.isEmpty())
+		return true;
+
+	int state = cellRange(bounds, MAX_QUERY_CELLS);
+	if (state == LARGE)
+		return false;
+
+	for (int i = largeEntries.size() - 1; i >= 0; i--)
+		collect(largeEntries.get(i), found);
+
+	for (long x = rx0; x <= rx1; x++) {
+		for (long y = ry0; y <= ry1; y++) {
+			for (long z = rz0; z <= rz1; z++) {
+				ArrayList<Entry> cell = cells.get(Long.valueOf(key(x, y, z)));
+				if (cell == null)
+					continue;
+
+				for (int i = cell.size() - 1; i >= 0; i--)
+					collect(cell.get(i), found);
+			}
+		}
+	}
+	return true;
+}
+
+private void collect(Entry e, ArrayList<BehaviorRetained> found) {
+	if (e.queryStamp == queryStamp)
+		return;
+
+	e.queryStamp = queryStamp;
+	found.add(e.behav);
+}
+
+private void refile(Entry e) {
+	BehaviorRetained behav = e.behav;
+	int state;
+	if (behav.boundingLeaf != null)
+		state = LARGE;
+	else
+		state = cellRange(behav.transformedRegion, MAX_ENTRY_CELLS);
+
+	// Small moves within the same cells cost nothing
+	if ((state == e.state) &&
+	    ((state != CELLS) ||
+	     ((rx0 == e.x0) && (ry0 == e.y0) && (rz0 == e.z0) &&
+	      (rx1 == e.x1) && (ry1 == e.y1) && (rz1 == e.z1))))
+		return;
+
+	unlink(e);
+	e.state = state;
+	if (state == LARGE) {
+		largeEntries.add(e);
+	}
+	else if (state == CELLS) {
+		e.x0 = rx0; e.y0 = ry0; e.z0 = rz0;
+		e.x1 = rx1; e.y1 = ry1; e.z1 = rz1;
+		for (long x = rx0; x <= rx1; x++) {
+			for (long y = ry0; y <= ry1; y++) {
+				for (long z = rz0; z <= rz1; z++) {
+					Long k = Long.valueOf(key(x, y, z));
+					ArrayList<Entry> cell = cells.get(k);
+					if (cell == null) {
+						cell = new ArrayList<Entry>(4);
+						cells.put(k, cell);
+					}
+					cell.add(e);
+				}
+			}
+		}
+	}
+}
+
+private void unlink(Entry e) {
+	if (e.state == LARGE) {
+		largeEntries.remove(e);
+	}
+	else if (e.state == CELLS) {
+		for (long x = e.x0; x <= e.x1; x++) {
+			for (long y = e.y0; y <= e.y1; y++) {
+				for (long z = e.z0; z <= e.z1; z++) {
+					Long k = Long.valueOf(key(x, y, z));
+					ArrayList<Entry> cell = cells.get(k);
+					cell.remove(e);
+					if (cell.isEmpty())
+						cells.remove(k);
+				}
+			}
+		}
+	}
+	e.state = NONE;
+}
+
+// Computes the cell range of the bounds into rx0..rz1, returns CELLS, or
+// NONE for no bounds, or LARGE if they span more than maxCells cells
+private int cellRange(Bounds bounds, long maxCells) {
+	if ((bounds == null) || bounds.isEmpty())
+		return NONE;
+
+	box.set(bounds);
+	if (box.boundsIsInfinite)
+		return LARGE;
+
+	rx0 = cell(box.lower.x); ry0 = cell(box.lower.y); rz0 = cell(box.lower.z);
+	rx1 = cell(box.upper.x); ry1 = cell(box.upper.y); rz1 = cell(box.upper.z);
+	if ((Math.min(rx0, Math.min(ry0, rz0)) < -MAX_COORD) ||
+	    (Math.max(rx1, Math.max(ry1, rz1)) > MAX_COORD))
+		return LARGE;
+
+	long nx = rx1 - rx0 + 1, ny = ry1 - ry0 + 1, nz = rz1 - rz0 + 1;
+	if ((nx > maxCells) || (ny > maxCells) || (nz > maxCells))
+		return LARGE;
+	return (nx * ny * nz > maxCells) ? LARGE : CELLS;
+}
+
+private long cell(double v) {
+	double c = Math.floor(v / cellSize);
+	// Also clamps NaN and infinities, which are then too large
+	if (!(c > -MAX_COORD - 1))
+		return -MAX_COORD - 1;
+	if (!(c < MAX_COORD + 1))
+		return MAX_COORD + 1;
+	return (long)c;
+}
+
+private static long key(long x, long y, long z) {
+	return ((x & 0x1FFFFF) << 42) | ((y & 0x1FFFFF) << 21) | (z & 0x1FFFFF);
+}
+}
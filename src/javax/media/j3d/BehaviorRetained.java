@@ -105,6 +105,12 @@ class BehaviorRetained extends LeafRetained  {
      */
     int schedulingInterval = NUM_SCHEDULING_INTERVALS / 2;
 
+    /**
+     * Flag indicating whether processStimulus may run concurrently
+     * with the other behaviors, only read by the BehaviorScheduler.
+     */
+    boolean threadSafe = false;
+
     /**
      * This is a flag that tells the behavior scheduler whether the
      * user-programmed process stimulus called wakeupOn, if it did
@@ -272,6 +278,14 @@ class BehaviorRetained extends LeafRetained  {
 	return schedulingInterval;
     }
 
+    void setThreadSafe(boolean threadSafe) {
+	this.threadSafe = threadSafe;
+    }
+
+    boolean getThreadSafe() {
+	return threadSafe;
+    }
+
 
     /**
      * Get the Behavior's scheduling region
@@ -26,6 +26,7 @@
 
 package javax.media.j3d;
 
+import java.util.Arrays;
 import java.util.logging.Level;
 
 class BehaviorScheduler extends J3dThread {
@@ -56,6 +57,21 @@ class BehaviorScheduler extends J3dThread {
     // lock to ensure consistency of interval values read
     Object intervalTimeLock = new Object();
 
+    // The thread safe behaviors of the current scheduling interval and
+    // their wakeup conditions, see MasterControl.parallelBehaviors
+    private BehaviorRetained[] threadSafeBehaviors = new BehaviorRetained[16];
+    private WakeupCondition[] threadSafeConds = new WakeupCondition[16];
+
+    // The Position, Rotation and ScaleInterpolators of the current
+    // scheduling interval, null unless MasterControl.interpolatorBatching
+    // is set
+    InterpolatorBatch interpolatorBatch = null;
+
+    // The universe whose thread safe behaviors the current pool thread is
+    // running, see isBehaviorThread()
+    private static final ThreadLocal<VirtualUniverse> behaviorUniverse =
+	new ThreadLocal<VirtualUniverse>();
+
     /**
      * Some variables used to name threads correctly
      */
@@ -82,6 +98,9 @@ class BehaviorScheduler extends J3dThread {
 	scheduleList = behaviorStructure.scheduleList;
 	processList = behaviorStructure.processList;
 	type = J3dThread.BEHAVIOR_SCHEDULER;
+	if (VirtualUniverse.mc.interpolatorBatching) {
+	    interpolatorBatch = new InterpolatorBatch();
+	}
     }
 
     void stopBehaviorScheduler(long[] intervalTime) {
@@ -137,6 +156,8 @@ class BehaviorScheduler extends J3dThread {
 	}
 
 
+	boolean parallel = VirtualUniverse.mc.parallelBehaviors;
+
 	for (interval = 0;
 	     interval < BehaviorRetained.NUM_SCHEDULING_INTERVALS;
 	     interval++) {
@@ -150,75 +171,40 @@ class BehaviorScheduler extends J3dThread {
 
 	    size = list.arraySize();
 
+	    int numThreadSafe = 0;
 	    for (i = 0; i < size ; i++) {
 		BehaviorRetained behavret = arr[i];
 
+		// Thread safe behaviors are run together at the end of
+		// the interval
+		if (parallel && behavret.threadSafe) {
+		    if (numThreadSafe == threadSafeBehaviors.length) {
+			threadSafeBehaviors = Arrays.copyOf(threadSafeBehaviors,
+							    numThreadSafe * 2);
+		    }
+		    threadSafeBehaviors[numThreadSafe++] = behavret;
+		    continue;
+		}
 
 		synchronized (behavret) {
-		    Behavior behav = (Behavior) behavret.source;
-
-		    if (!behav.isLive() ||
-			!behavret.conditionSet ||
-			(behavret.wakeupCondition == null)) {
+		    WakeupCondition wakeupCond = prepareStimulus(behavret);
+		    if (wakeupCond == null) {
 			continue;
 		    }
 
-		    if (behavret.wakeupCondition.trigEnum == null) {
-			behavret.wakeupCondition.trigEnum =
-			    new WakeupCriteriaEnumerator(behavret.wakeupCondition,
-							 WakeupCondition.TRIGGERED_ELEMENTS);
-		    } else {
-			behavret.wakeupCondition.trigEnum.reset(
-								behavret.wakeupCondition,
-								WakeupCondition.TRIGGERED_ELEMENTS);
-		    }
-
-		    // BehaviorRetained now cache the old
-		    // wakeupCondition in order to
-		    // reuse it without the heavyweight cleanTree()
-		    // behavret.wakeupCondition.cleanTree();
-
-		    behavret.conditionSet = false;
-		    WakeupCondition wakeupCond = behavret.wakeupCondition;
-
-		    synchronized (behavret) {
-			behavret.inCallback = true;
-			univ.inBehavior = true;
-			try {
-			    behav.processStimulus(wakeupCond.trigEnum);
-			}
-			catch (RuntimeException e) {
-			    // Force behavior condition to be unset
-			    // Issue 21: don't call cleanTree here
-			    behavret.conditionSet = false;
-			    System.err.println("Exception occurred during Behavior execution:");
-			    e.printStackTrace();
-			}
-			catch (Error e) {
-			    // Force behavior condition to be unset
-                            // Fix for issue 264
-			    behavret.conditionSet = false;
-			    System.err.println("Error occurred during Behavior execution:");
-			    e.printStackTrace();
-			}
-			univ.inBehavior = false;
-			behavret.inCallback = false;
-		    }
-		    // note that if the behavior wasn't reset, we need to make the
-		    // wakeupcondition equal to null
-		    if (behavret.conditionSet == false) {
-			if (wakeupCond != null) {
-			    wakeupCond.cleanTree(behaviorStructure);
-			}
-			behavret.wakeupCondition = null;
-			behavret.active = false;
-			scheduleList.remove(behavret);
-		    } else {
-			behavret.handleLastWakeupOn(wakeupCond,
-						    behaviorStructure);
-		    }
+		    univ.inBehavior = true;
+		    processStimulus(behavret, wakeupCond);
+		    univ.inBehavior = false;
+		    finishStimulus(behavret, wakeupCond);
 		}
 	    }
+
+	    if (numThreadSafe > 0) {
+		processThreadSafe(numThreadSafe);
+	    }
+	    if (interpolatorBatch != null) {
+		interpolatorBatch.flush();
+	    }
 	    list.clear();
 	}
 
@@ -231,6 +217,194 @@ class BehaviorScheduler extends J3dThread {
         }
     }
 
+    /**
+     * Resets the triggered criteria of the behavior and returns its wakeup
+     * condition, or null if the behavior must not run.  The caller holds
+     * the behavior lock.
+     */
+    private WakeupCondition prepareStimulus(BehaviorRetained behavret) {
+	Behavior behav = (Behavior) behavret.source;
+
+	if (!behav.isLive() ||
+	    !behavret.conditionSet ||
+	    (behavret.wakeupCondition == null)) {
+	    return null;
+	}
+
+	if (behavret.wakeupCondition.trigEnum == null) {
+	    behavret.wakeupCondition.trigEnum =
+		new WakeupCriteriaEnumerator(behavret.wakeupCondition,
+					     WakeupCondition.TRIGGERED_ELEMENTS);
+	} else {
+	    behavret.wakeupCondition.trigEnum.reset(
+						    behavret.wakeupCondition,
+						    WakeupCondition.TRIGGERED_ELEMENTS);
+	}
+
+	// BehaviorRetained now cache the old
+	// wakeupCondition in order to
+	// reuse it without the heavyweight cleanTree()
+	// behavret.wakeupCondition.cleanTree();
+
+	behavret.conditionSet = false;
+	return behavret.wakeupCondition;
+    }
+
+    /**
+     * Calls processStimulus, from the scheduler or from a task of the
+     * pool for the thread safe behaviors.
+     */
+    private static void processStimulus(BehaviorRetained behavret,
+					WakeupCondition wakeupCond) {
+	synchronized (behavret) {
+	    behavret.inCallback = true;
+	    try {
+		((Behavior) behavret.source).processStimulus(wakeupCond.trigEnum);
+	    }
+	    catch (RuntimeException e) {
+		// Force behavior condition to be unset
+		// Issue 21: don't call cleanTree here
+		behavret.conditionSet = false;
+		System.err.println("Exception occurred during Behavior execution:");
+		e.printStackTrace();
+	    }
+	    catch (Error e) {
+		// Force behavior condition to be unset
+		// Fix for issue 264
+		behavret.conditionSet = false;
+		System.err.println("Error occurred during Behavior execution:");
+		e.printStackTrace();
+	    }
+	    behavret.inCallback = false;
+	}
+    }
+
+    /**
+     * Rearms or drops the wakeup condition once processStimulus returned.
+     * The caller holds the behavior lock.
+     */
+    private void finishStimulus(BehaviorRetained behavret,
+				WakeupCondition wakeupCond) {
+	// note that if the behavior wasn't reset, we need to make the
+	// wakeupcondition equal to null
+	if (behavret.conditionSet == false) {
+	    if (wakeupCond != null) {
+		wakeupCond.cleanTree(behaviorStructure);
+	    }
+	    behavret.wakeupCondition = null;
+	    behavret.active = false;
+	    scheduleList.remove(behavret);
+	} else {
+	    behavret.handleLastWakeupOn(wakeupCond,
+					behaviorStructure);
+	}
+    }
+
+    /**
+     * Runs the processStimulus of the first count threadSafeBehaviors
+     * concurrently.  Only the calls to processStimulus run on the pool,
+     * the wakeup conditions are prepared and rearmed by the scheduler, in
+     * the order of the processList.
+     */
+    private void processThreadSafe(int count) {
+	if (threadSafeConds.length < count) {
+	    threadSafeConds = new WakeupCondition[threadSafeBehaviors.length];
+	}
+
+	int numRun = 0;
+	for (int i = 0; i < count; i++) {
+	    BehaviorRetained behavret = threadSafeBehaviors[i];
+	    synchronized (behavret) {
+		WakeupCondition wakeupCond = prepareStimulus(behavret);
+		if (wakeupCond != null) {
+		    threadSafeBehaviors[numRun] = behavret;
+		    threadSafeConds[numRun++] = wakeupCond;
+		}
+	    }
+	}
+
+	univ.inBehavior = true;
+	if (numRun < VirtualUniverse.mc.parallelBehaviorThreshold) {
+	    for (int i = 0; i < numRun; i++) {
+		processStimulus(threadSafeBehaviors[i], threadSafeConds[i]);
+	    }
+	} else {
+	    // Several tasks per thread, the cost of the behaviors varies
+	    J3dTaskPool pool = VirtualUniverse.mc.getTaskPool();
+	    int numTasks = Math.min(numRun, pool.getParallelism() * 4);
+	    StimulusTask[] tasks = new StimulusTask[numTasks];
+	    for (int i = 0; i < numTasks; i++) {
+		tasks[i] = new StimulusTask(univ, threadSafeBehaviors,
+					    threadSafeConds,
+					    (int)((long)numRun * i / numTasks),
+					    (int)((long)numRun * (i + 1) / numTasks));
+	    }
+	    pool.invokeAll(tasks, numTasks);
+	}
+	univ.inBehavior = false;
+
+	for (int i = 0; i < numRun; i++) {
+	    BehaviorRetained behavret = threadSafeBehaviors[i];
+	    synchronized (behavret) {
+		finishStimulus(behavret, threadSafeConds[i]);
+	    }
+	}
+
+	Arrays.fill(threadSafeBehaviors, 0, count, null);
+	Arrays.fill(threadSafeConds, 0, numRun, null);
+    }
+
+    /**
+     * Returns true if the current thread runs behaviors: it is the
+     * BehaviorScheduler of the universe, or a pool thread running thread
+     * safe behaviors of the universe.  A null universe matches any
+     * universe.
+     */
+    static boolean isBehaviorThread(VirtualUniverse universe) {
+	Thread me = Thread.currentThread();
+	if (me instanceof BehaviorScheduler) {
+	    return (universe == null) || (universe.behaviorScheduler == me);
+	}
+
+	VirtualUniverse poolUniverse = behaviorUniverse.get();
+	if (poolUniverse == null) {
+	    return false;
+	}
+	return (universe == null) || (universe == poolUniverse);
+    }
+
+    private static class StimulusTask extends J3dTaskPool.Task {
+	private final VirtualUniverse universe;
+	private final BehaviorRetained[] behaviors;
+	private final WakeupCondition[] conds;
+	private final int start;
+	private final int end;
+
+	StimulusTask(VirtualUniverse universe, BehaviorRetained[] behaviors,
+		     WakeupCondition[] conds, int start, int end) {
+	    this.universe = universe;
+	    this.behaviors = behaviors;
+	    this.conds = conds;
+	    this.start = start;
+	    this.end = end;
+	}
+
+	@Override
+	void compute() {
+	    // The task may also run on the scheduler thread itself
+	    VirtualUniverse prev = behaviorUniverse.get();
+	    behaviorUniverse.set(universe);
+	    try {
+		for (int i = start; i < end; i++) {
+		    processStimulus(behaviors[i], conds[i]);
+		}
+	    }
+	    finally {
+		behaviorUniverse.set(prev);
+	    }
+	}
+    }
+
     void free() {
 	behaviorStructure = null;
 	getThreadData(null, null).thread = null;
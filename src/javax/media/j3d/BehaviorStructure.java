@@ -31,6 +31,8 @@ import java.awt.event.ComponentEvent;
 import java.awt.event.FocusEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.util.ArrayList;
 import java.util.Arrays;
 
 import javax.vecmath.Point3d;
@@ -59,6 +61,16 @@ class BehaviorStructure extends J3dStructure {
      */
     IndexedUnorderSet scheduleList;
 
+    /**
+     * The scheduling regions of the behaviors, null unless
+     * MasterControl.behaviorGridSize is set
+     */
+    BehaviorGrid behaviorGrid = null;
+
+    // The behaviors found near the ViewPlatforms by behaviorGrid
+    private final ArrayList<BehaviorRetained> gridBehaviors =
+	new ArrayList<BehaviorRetained>();
+
     /**
      * An array of process behaviors
      */
@@ -126,6 +138,11 @@ class BehaviorStructure extends J3dStructure {
      */
     UnorderList awtEventsBuffer = new UnorderList(AWTEvent.class);
 
+    // The sources of the events being coalesced and the index of the last
+    // event of each, see coalesceMouseEvents()
+    private Object[] coalesceSources = new Object[4];
+    private int[] coalesceLast = new int[4];
+
     // Use generic integer array to avoid new Integer() for individual element
     int postIDBuffer[] = new int[10]; // size of default UnorderList
     int clonePostIDBuffer[] = new int[postIDBuffer.length];
@@ -195,6 +212,9 @@ class BehaviorStructure extends J3dStructure {
 	wakeupOnSensorExit = new WakeupIndexedList(WakeupOnSensorExit.class,
 						   WakeupOnSensorExit.COND_IN_BS_LIST, u);
 
+	if (VirtualUniverse.mc.behaviorGridSize > 0) {
+	    behaviorGrid = new BehaviorGrid(VirtualUniverse.mc.behaviorGridSize);
+	}
     }
 
     @Override
@@ -364,6 +384,9 @@ class BehaviorStructure extends J3dStructure {
 		behav.conditionSet = true;
 		behaviors.add(behav);
 		behav.updateTransformRegion();
+		if (behaviorGrid != null) {
+		    behaviorGrid.add(behav);
+		}
 		addToScheduleList(behav);
 	    }
 	}
@@ -585,6 +608,9 @@ class BehaviorStructure extends J3dStructure {
 
     void removeBehavior(BehaviorRetained behav) {
 	behaviors.remove(behav);
+	if (behaviorGrid != null) {
+	    behaviorGrid.remove(behav);
+	}
 
 	if ((behav.wakeupCondition != null) &&
 	    (behav.wakeupCondition.behav != null)) {
@@ -674,6 +700,9 @@ class BehaviorStructure extends J3dStructure {
 	    awtBufferSize = awtEventsBuffer.size();
 	    awtEventsBuffer.clear();
 	}
+	if (VirtualUniverse.mc.coalesceMouseEvents) {
+	    awtBufferSize = coalesceMouseEvents(events, awtBufferSize);
+	}
 	WakeupOnAWTEvent awtCond;
 	AWTEvent evt;
 	int id;
@@ -732,6 +761,91 @@ class BehaviorStructure extends J3dStructure {
     }
 
 
+    /**
+     * Merges each run of MOUSE_MOVED, MOUSE_DRAGGED or MOUSE_WHEEL events
+     * of the same source, with the same modifiers, into its last event.
+     * The wheel rotations of a run are added up.  Other events end the
+     * run of their source, so the order of the events of a source is kept.
+     * Returns the new number of events, the others are cleared.
+     */
+    private int coalesceMouseEvents(AWTEvent[] events, int size) {
+	int count = 0;
+	int numSources = 0;
+
+	for (int i=0; i < size; i++) {
+	    AWTEvent evt = events[i];
+	    Object source = evt.getSource();
+	    int s;
+	    for (s=0; s < numSources; s++) {
+		if (coalesceSources[s] == source) {
+		    break;
+		}
+	    }
+
+	    if (s < numSources) {
+		AWTEvent last = events[coalesceLast[s]];
+		if (canCoalesce(last, evt)) {
+		    events[coalesceLast[s]] = coalesce(last, evt);
+		    continue;
+		}
+	    } else {
+		if (numSources == coalesceSources.length) {
+		    coalesceSources = Arrays.copyOf(coalesceSources, numSources*2);
+		    coalesceLast = Arrays.copyOf(coalesceLast, numSources*2);
+		}
+		coalesceSources[numSources++] = source;
+	    }
+	    coalesceLast[s] = count;
+	    events[count++] = evt;
+	}
+
+	Arrays.fill(events, count, size, null);
+	Arrays.fill(coalesceSources, 0, numSources, null);
+	return count;
+    }
+
+    private static boolean canCoalesce(AWTEvent last, AWTEvent evt) {
+	int id = evt.getID();
+	if ((last.getID() != id) ||
+	    ((id != MouseEvent.MOUSE_MOVED) &&
+	     (id != MouseEvent.MOUSE_DRAGGED) &&
+	     (id != MouseEvent.MOUSE_WHEEL))) {
+	    return false;
+	}
+
+	if (((MouseEvent) last).getModifiersEx() !=
+	    ((MouseEvent) evt).getModifiersEx()) {
+	    return false;
+	}
+
+	if (id == MouseEvent.MOUSE_WHEEL) {
+	    MouseWheelEvent lastWheel = (MouseWheelEvent) last;
+	    MouseWheelEvent wheel = (MouseWheelEvent) evt;
+	    return ((lastWheel.getScrollType() == wheel.getScrollType()) &&
+		    (lastWheel.getScrollAmount() == wheel.getScrollAmount()));
+	}
+	return true;
+    }
+
+    // Returns the latest event, with the wheel rotations added up
+    private static AWTEvent coalesce(AWTEvent last, AWTEvent evt) {
+	if (evt.getID() != MouseEvent.MOUSE_WHEEL) {
+	    return evt;
+	}
+
+	MouseWheelEvent lastWheel = (MouseWheelEvent) last;
+	MouseWheelEvent wheel = (MouseWheelEvent) evt;
+	return new MouseWheelEvent(wheel.getComponent(), wheel.getID(),
+				   wheel.getWhen(),
+				   wheel.getModifiers() | wheel.getModifiersEx(),
+				   wheel.getX(), wheel.getY(),
+				   wheel.getXOnScreen(), wheel.getYOnScreen(),
+				   wheel.getClickCount(), wheel.isPopupTrigger(),
+				   wheel.getScrollType(), wheel.getScrollAmount(),
+				   lastWheel.getWheelRotation() +
+				   wheel.getWheelRotation());
+    }
+
     void handleBehaviorPost(Behavior behav, int postid) {
 
 	synchronized (behaviorPostBuffer) {
@@ -1115,6 +1229,10 @@ class BehaviorStructure extends J3dStructure {
 
     // assume behav.updateTransformRegion() invoke before
     final void processBehaviorTransform(BehaviorRetained behav) {
+	if (behaviorGrid != null) {
+	    behaviorGrid.update(behav);
+	}
+
 	if ((behav.wakeupMask & BehaviorRetained.WAKEUP_VP_ENTRY) != 0) {
 	    updateVPEntryTransformRegion(behav);
 	}
@@ -1143,17 +1261,19 @@ class BehaviorStructure extends J3dStructure {
 	    return;
 	}
 
-	BehaviorRetained behavArr[] = (BehaviorRetained []) behaviors.toArray(false);
+	if ((behaviorGrid == null) || !reEvaluateGridBehaviors()) {
+	    BehaviorRetained behavArr[] = (BehaviorRetained []) behaviors.toArray(false);
 
-	// re-evaulate all behaviors affected by this vp
-	for (i=behaviors.arraySize()-1; i>=0; i--) {
-	    behav = behavArr[i];
-	    if (behav.active) {
-		if (!intersectVPRegion(behav.transformedRegion)) {
-		    removeFromScheduleList(behav);
+	    // re-evaulate all behaviors affected by this vp
+	    for (i=behaviors.arraySize()-1; i>=0; i--) {
+		behav = behavArr[i];
+		if (behav.active) {
+		    if (!intersectVPRegion(behav.transformedRegion)) {
+			removeFromScheduleList(behav);
+		    }
+		} else {
+		    addToScheduleList(behav);
 		}
-	    } else {
-		addToScheduleList(behav);
 	    }
 	}
 
@@ -1379,6 +1499,51 @@ Sensor sensorIntersect(Bounds behregion) {
 }
 
 
+    /**
+     * Re-evaluates the active behaviors, and the inactive ones the
+     * behaviorGrid finds near the active ViewPlatforms, which are the only
+     * ones intersectVPRegion may accept.  Returns false, without doing
+     * anything, if a scheduling sphere is too large for the grid.
+     */
+    private boolean reEvaluateGridBehaviors() {
+	ViewPlatformRetained vp;
+	ViewPlatformRetained vpLists[] = (ViewPlatformRetained [])
+	                                    viewPlatforms.toArray(false);
+
+	gridBehaviors.clear();
+	behaviorGrid.startQuery();
+	for (int i=viewPlatforms.arraySize()- 1; i>=0; i--) {
+	    vp = vpLists[i];
+	    if (vp.isActiveViewPlatform() &&
+		!behaviorGrid.query(vp.schedSphere, gridBehaviors)) {
+		gridBehaviors.clear();
+		return false;
+	    }
+	}
+
+	BehaviorRetained behav;
+	BehaviorRetained behavArr[] = (BehaviorRetained []) scheduleList.toArray(false);
+
+	// removeFromScheduleList() moves the last behavior in place of
+	// the removed one, which is then already checked
+	for (int i=scheduleList.arraySize()-1; i>=0; i--) {
+	    behav = behavArr[i];
+	    if (behav.active &&
+		!intersectVPRegion(behav.transformedRegion)) {
+		removeFromScheduleList(behav);
+	    }
+	}
+
+	for (int i=gridBehaviors.size()-1; i>=0; i--) {
+	    behav = gridBehaviors.get(i);
+	    if (!behav.active) {
+		addToScheduleList(behav);
+	    }
+	}
+	gridBehaviors.clear();
+	return true;
+    }
+
     /**
      * return true if one of ViewPlatforms intersect behregion
      */
@@ -1656,6 +1821,9 @@ Sensor sensorIntersect(Bounds behregion) {
     @Override
     void cleanup() {
 	behaviors.clear();
+	if (behaviorGrid != null) {
+	    behaviorGrid.clear();
+	}
 	viewPlatforms.clear();
 	scheduleList.clear();
 	boundsEntryList.clear();
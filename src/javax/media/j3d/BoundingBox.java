@@ -638,14 +638,45 @@ public void setUpper(Point3d p1) {
 		this.transform(matrix);
 	}
 	else if(boundsObject.boundId == BOUNDING_SPHERE) {
-		BoundingSphere tmpSphere = new BoundingSphere(boundsObject);
-		tmpSphere.transform(matrix);
-		this.set(tmpSphere);
+		// Same as transforming a copy of the sphere and setting this
+		// box from it, without the copy
+		BoundingSphere sphere = (BoundingSphere)boundsObject;
+		double[] m = matrix.mat;
+		double cx = sphere.center.x, cy = sphere.center.y, cz = sphere.center.z;
+		double r = sphere.radius * matrix.getDistanceScale();
+		if (Double.isNaN(r)) {
+			setEmptyBounds();
+			return;
+		}
+		double x = m[0]*cx + m[1]*cy + m[2]*cz + m[3];
+		double y = m[4]*cx + m[5]*cy + m[6]*cz + m[7];
+		double z = m[8]*cx + m[9]*cy + m[10]*cz + m[11];
+		lower.set(x - r, y - r, z - r);
+		upper.set(x + r, y + r, z + r);
+		updateBoundsStates();
 	}
 	else if(boundsObject.boundId == BOUNDING_POLYTOPE) {
-		BoundingPolytope tmpPolytope = new BoundingPolytope(boundsObject);
-		tmpPolytope.transform(matrix);
-		this.set(tmpPolytope);
+		// Bound the transformed vertices, without copying the polytope
+		BoundingPolytope polytope = (BoundingPolytope)boundsObject;
+		double[] m = matrix.mat;
+		for (int i = 0; i < polytope.nVerts; i++) {
+			Point3d p = polytope.verts[i];
+			double x = m[0]*p.x + m[1]*p.y + m[2]*p.z + m[3];
+			double y = m[4]*p.x + m[5]*p.y + m[6]*p.z + m[7];
+			double z = m[8]*p.x + m[9]*p.y + m[10]*p.z + m[11];
+			if (i == 0) {
+				lower.set(x, y, z);
+				upper.set(x, y, z);
+				continue;
+			}
+			if (x < lower.x) lower.x = x;
+			if (y < lower.y) lower.y = y;
+			if (z < lower.z) lower.z = z;
+			if (x > upper.x) upper.x = x;
+			if (y > upper.y) upper.y = y;
+			if (z > upper.z) upper.z = z;
+		}
+		updateBoundsStates();
 	}
 	else {
 	    throw new IllegalArgumentException(J3dI18N.getString("BoundingBox5"));
@@ -662,84 +693,58 @@ public void setUpper(Point3d p1) {
 	if (boundsIsInfinite)
 		return;
 
-	Point3d tmpP3d = new Point3d();
-
-	double ux, uy, uz, lx, ly, lz;
-	ux = upper.x; uy = upper.y; uz = upper.z;
-	lx = lower.x; ly = lower.y; lz = lower.z;
-
-	tmpP3d.set(ux, uy, uz);
-	matrix.transform( tmpP3d );
-	upper.x = tmpP3d.x;
-	upper.y = tmpP3d.y;
-	upper.z = tmpP3d.z;
-	lower.x = tmpP3d.x;
-	lower.y = tmpP3d.y;
-	lower.z = tmpP3d.z;
-
-	tmpP3d.set(lx, uy, uz);
-	matrix.transform( tmpP3d );
-	if ( tmpP3d.x  > upper.x ) upper.x = tmpP3d.x;
-	if ( tmpP3d.y  > upper.y ) upper.y = tmpP3d.y;
-	if ( tmpP3d.z  > upper.z ) upper.z = tmpP3d.z;
-	if ( tmpP3d.x  < lower.x ) lower.x = tmpP3d.x;
-	if ( tmpP3d.y  < lower.y ) lower.y = tmpP3d.y;
-	if ( tmpP3d.z  < lower.z ) lower.z = tmpP3d.z;
-
-	tmpP3d.set(lx, ly, uz);
-	matrix.transform( tmpP3d );
-	if ( tmpP3d.x  > upper.x ) upper.x = tmpP3d.x;
-	if ( tmpP3d.y  > upper.y ) upper.y = tmpP3d.y;
-	if ( tmpP3d.z  > upper.z ) upper.z = tmpP3d.z;
-	if ( tmpP3d.x  < lower.x ) lower.x = tmpP3d.x;
-	if ( tmpP3d.y  < lower.y ) lower.y = tmpP3d.y;
-	if ( tmpP3d.z  < lower.z ) lower.z = tmpP3d.z;
-
-	tmpP3d.set(ux, ly, uz);
-	matrix.transform( tmpP3d );
-	if ( tmpP3d.x > upper.x ) upper.x = tmpP3d.x;
-	if ( tmpP3d.y > upper.y ) upper.y = tmpP3d.y;
-	if ( tmpP3d.z > upper.z ) upper.z = tmpP3d.z;
-	if ( tmpP3d.x < lower.x ) lower.x = tmpP3d.x;
-	if ( tmpP3d.y < lower.y ) lower.y = tmpP3d.y;
-	if ( tmpP3d.z < lower.z ) lower.z = tmpP3d.z;
-
-	tmpP3d.set(lx, uy, lz);
-	matrix.transform( tmpP3d );
-	if ( tmpP3d.x > upper.x ) upper.x = tmpP3d.x;
-	if ( tmpP3d.y > upper.y ) upper.y = tmpP3d.y;
-	if ( tmpP3d.z > upper.z ) upper.z = tmpP3d.z;
-	if ( tmpP3d.x < lower.x ) lower.x = tmpP3d.x;
-	if ( tmpP3d.y < lower.y ) lower.y = tmpP3d.y;
-	if ( tmpP3d.z < lower.z ) lower.z = tmpP3d.z;
-
-	tmpP3d.set(ux, uy, lz);
-	matrix.transform( tmpP3d );
-	if ( tmpP3d.x > upper.x ) upper.x = tmpP3d.x;
-	if ( tmpP3d.y > upper.y ) upper.y = tmpP3d.y;
-	if ( tmpP3d.z > upper.z ) upper.z = tmpP3d.z;
-	if ( tmpP3d.x < lower.x ) lower.x = tmpP3d.x;
-	if ( tmpP3d.y < lower.y ) lower.y = tmpP3d.y;
-	if ( tmpP3d.z < lower.z ) lower.z = tmpP3d.z;
-
-	tmpP3d.set(lx, ly, lz);
-	matrix.transform( tmpP3d );
-	if ( tmpP3d.x > upper.x ) upper.x = tmpP3d.x;
-	if ( tmpP3d.y > upper.y ) upper.y = tmpP3d.y;
-	if ( tmpP3d.z > upper.z ) upper.z = tmpP3d.z;
-	if ( tmpP3d.x < lower.x ) lower.x = tmpP3d.x;
-	if ( tmpP3d.y < lower.y ) lower.y = tmpP3d.y;
-	if ( tmpP3d.z < lower.z ) lower.z = tmpP3d.z;
-
-	tmpP3d.set(ux, ly, lz);
-	matrix.transform( tmpP3d );
-	if ( tmpP3d.x > upper.x ) upper.x = tmpP3d.x;
-	if ( tmpP3d.y > upper.y ) upper.y = tmpP3d.y;
-	if ( tmpP3d.z > upper.z ) upper.z = tmpP3d.z;
-	if ( tmpP3d.x < lower.x ) lower.x = tmpP3d.x;
-	if ( tmpP3d.y < lower.y ) lower.y = tmpP3d.y;
-	if ( tmpP3d.z < lower.z ) lower.z = tmpP3d.z;
+	double[] m = matrix.mat;
+	double lx = lower.x, ly = lower.y, lz = lower.z;
+	double ux = upper.x, uy = upper.y, uz = upper.z;
 
+	lower.x = transformLower(m, 0, lx, ly, lz, ux, uy, uz);
+	upper.x = transformUpper(m, 0, lx, ly, lz, ux, uy, uz);
+	lower.y = transformLower(m, 4, lx, ly, lz, ux, uy, uz);
+	upper.y = transformUpper(m, 4, lx, ly, lz, ux, uy, uz);
+	lower.z = transformLower(m, 8, lx, ly, lz, ux, uy, uz);
+	upper.z = transformUpper(m, 8, lx, ly, lz, ux, uy, uz);
+    }
+
+    /**
+     * Returns the minimum along one axis of the box (lx, ly, lz) -
+     * (ux, uy, uz) transformed by the affine matrix m, row is the offset of
+     * the axis' row in m (0, 4 or 8).  Each term of the row is smallest at
+     * either the lower or the upper coordinate, so the eight corners need
+     * not be transformed (J. Arvo, "Transforming Axis-Aligned Bounding
+     * Boxes", Graphics Gems, 1990).
+     */
+    static double transformLower(double[] m, int row,
+				 double lx, double ly, double lz,
+				 double ux, double uy, double uz) {
+	double a, b;
+	double min = m[row + 3];
+
+	a = m[row] * lx; b = m[row] * ux;
+	min += (a < b) ? a : b;
+	a = m[row + 1] * ly; b = m[row + 1] * uy;
+	min += (a < b) ? a : b;
+	a = m[row + 2] * lz; b = m[row + 2] * uz;
+	min += (a < b) ? a : b;
+	return min;
+    }
+
+    /**
+     * Returns the maximum along one axis of the transformed box, see
+     * transformLower.
+     */
+    static double transformUpper(double[] m, int row,
+				 double lx, double ly, double lz,
+				 double ux, double uy, double uz) {
+	double a, b;
+	double max = m[row + 3];
+
+	a = m[row] * lx; b = m[row] * ux;
+	max += (a > b) ? a : b;
+	a = m[row + 1] * ly; b = m[row + 1] * uy;
+	max += (a > b) ? a : b;
+	a = m[row + 2] * lz; b = m[row + 2] * uz;
+	max += (a > b) ? a : b;
+	return max;
     }
 
     /**
@@ -1417,8 +1422,11 @@ public void setUpper(Point3d p1) {
 	else if( boundsObject.boundId == BOUNDING_SPHERE) {
 	    BoundingSphere sphere = (BoundingSphere)boundsObject;
 	    if( this.intersect( sphere) ) {
-		BoundingBox sbox = new BoundingBox( sphere );
-		this.intersect( sbox, newBoundBox );
+		double r = sphere.radius;
+		intersectBox(sphere.center.x - r, sphere.center.y - r,
+			     sphere.center.z - r, sphere.center.x + r,
+			     sphere.center.y + r, sphere.center.z + r,
+			     newBoundBox);
 		return true;
 	    } else {
 		// Negative volume.
@@ -1431,8 +1439,7 @@ public void setUpper(Point3d p1) {
 	else if(boundsObject.boundId == BOUNDING_POLYTOPE) {
 	    BoundingPolytope polytope = (BoundingPolytope)boundsObject;
 	    if( this.intersect( polytope)) {
-		BoundingBox pbox = new BoundingBox( polytope); // convert polytope to box
-		this.intersect( pbox, newBoundBox );
+		intersectPolytopeBox(polytope, newBoundBox);
 		return true;
 	    } else {
 		// Negative volume.
@@ -1444,6 +1451,51 @@ public void setUpper(Point3d p1) {
         }
     }
 
+    /**
+     * Intersects this box with the box (lx, ly, lz) - (ux, uy, uz) and
+     * places the result in newBoundBox, the same as intersecting with a
+     * BoundingBox of those bounds but without creating one.
+     */
+    private void intersectBox(double lx, double ly, double lz,
+			      double ux, double uy, double uz,
+			      BoundingBox newBoundBox) {
+	if (upper.x > lx && ux > lower.x &&
+	    upper.y > ly && uy > lower.y &&
+	    upper.z > lz && uz > lower.z) {
+	    newBoundBox.upper.x = (upper.x > ux) ? ux : upper.x;
+	    newBoundBox.upper.y = (upper.y > uy) ? uy : upper.y;
+	    newBoundBox.upper.z = (upper.z > uz) ? uz : upper.z;
+	    newBoundBox.lower.x = (lower.x < lx) ? lx : lower.x;
+	    newBoundBox.lower.y = (lower.y < ly) ? ly : lower.y;
+	    newBoundBox.lower.z = (lower.z < lz) ? lz : lower.z;
+	    newBoundBox.updateBoundsStates();
+	} else {
+	    // Negative volume.
+	    newBoundBox.set((Bounds)null);
+	}
+    }
+
+    /**
+     * Intersects this box with the box enclosing the vertices of the
+     * polytope and places the result in newBoundBox.
+     */
+    private void intersectPolytopeBox(BoundingPolytope polytope,
+				      BoundingBox newBoundBox) {
+	Point3d[] verts = polytope.verts;
+	double lx = verts[0].x, ly = verts[0].y, lz = verts[0].z;
+	double ux = lx, uy = ly, uz = lz;
+
+	for (int i = 1; i < polytope.nVerts; i++) {
+	    if (verts[i].x < lx) lx = verts[i].x;
+	    if (verts[i].y < ly) ly = verts[i].y;
+	    if (verts[i].z < lz) lz = verts[i].z;
+	    if (verts[i].x > ux) ux = verts[i].x;
+	    if (verts[i].y > uy) uy = verts[i].y;
+	    if (verts[i].z > uz) uz = verts[i].z;
+	}
+	intersectBox(lx, ly, lz, ux, uy, uz, newBoundBox);
+    }
+
     /**
      * Test for intersection with an array of  bounds objects.
      * @param boundsObjects an array of  bounds objects
@@ -1520,8 +1572,11 @@ public void setUpper(Point3d p1) {
 	   else if( boundsObjects[i].boundId == BOUNDING_SPHERE) {
 	       BoundingSphere sphere = (BoundingSphere)boundsObjects[i];
 	       if( this.intersect(sphere)) {
-		   BoundingBox sbox = new BoundingBox( sphere ); // convert sphere to box
-		   this.intersect(sbox,tbox); // insersect two boxes
+		   double r = sphere.radius;
+		   intersectBox(sphere.center.x - r, sphere.center.y - r,
+				sphere.center.z - r, sphere.center.x + r,
+				sphere.center.y + r, sphere.center.z + r,
+				tbox); // insersect two boxes
 		   if( status ) {
 		       newBoundBox.combine( tbox );
 		   } else {
@@ -1534,8 +1589,7 @@ public void setUpper(Point3d p1) {
 	   else if(boundsObjects[i].boundId == BOUNDING_POLYTOPE) {
 	       BoundingPolytope polytope = (BoundingPolytope)boundsObjects[i];
 	       if( this.intersect( polytope)) {
-		   BoundingBox pbox = new BoundingBox( polytope ); // convert polytope to box
-		   this.intersect(pbox,tbox); // insersect two boxes
+		   intersectPolytopeBox(polytope, tbox); // insersect two boxes
 		   if ( status ) {
 		       newBoundBox.combine( tbox );
 		   } else {
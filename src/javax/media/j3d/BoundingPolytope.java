@@ -63,6 +63,10 @@ public class BoundingPolytope extends Bounds {
     Point3d boxVerts[];
     boolean allocBoxVerts = false;
 
+    // Inverse transpose of the last transform, so that transform() does
+    // not create garbage
+    private Transform3D invTrans = null;
+
     /**
      * Constructs a BoundingPolytope using the specified planes.
      * @param planes a set of planes defining the polytope.
@@ -820,9 +824,9 @@ public class BoundingPolytope extends Bounds {
 	    box.transform(matrix);
 	    this.set(box);
 	} else if(boundsObject.boundId == BOUNDING_POLYTOPE) {
-	    BoundingPolytope polytope = new BoundingPolytope(boundsObject);
-	    polytope.transform(matrix);
-	    this.set(polytope);
+	    // Transform in place rather than a copy of the polytope
+	    this.set(boundsObject);
+	    this.transform(matrix);
 	} else {
 	    throw new IllegalArgumentException(J3dI18N.getString("BoundingPolytope5"));
 	}
@@ -840,8 +844,10 @@ public class BoundingPolytope extends Bounds {
 
 	int i;
 	double invMag;
-	Transform3D invTrans = new Transform3D(matrix);
+	if (invTrans == null)
+	    invTrans = new Transform3D();
 
+	invTrans.set(matrix);
 	invTrans.invert();
 	invTrans.transpose();
 
@@ -859,9 +865,7 @@ public class BoundingPolytope extends Bounds {
 	    mag[i] = Math.sqrt(planes[i].x*planes[i].x + planes[i].y*planes[i].y +
 			       planes[i].z*planes[i].z);
 	    invMag = 1.0/mag[i];
-	    this.planes[i] = new Vector4d( planes[i].x*invMag, planes[i].y*invMag,
-					   planes[i].z*invMag, planes[i].w*invMag );
-
+	    planes[i].scale(invMag);
 	}
 
 	for (i=0; i < verts.length; i++) {
@@ -764,9 +764,25 @@ public void setCenter(Point3d center) {
 	}
 
 	if (boundsObject.boundId == BOUNDING_BOX) {
-		BoundingBox tmpBox = new BoundingBox(boundsObject);
-		tmpBox.transform(matrix);
-		this.set(tmpBox);
+		// Same as transforming a copy of the box and setting this
+		// sphere from it, without the copy
+		BoundingBox box = (BoundingBox)boundsObject;
+		double[] m = matrix.mat;
+		double lx = box.lower.x, ly = box.lower.y, lz = box.lower.z;
+		double ux = box.upper.x, uy = box.upper.y, uz = box.upper.z;
+		double tlx = BoundingBox.transformLower(m, 0, lx, ly, lz, ux, uy, uz);
+		double tux = BoundingBox.transformUpper(m, 0, lx, ly, lz, ux, uy, uz);
+		double tly = BoundingBox.transformLower(m, 4, lx, ly, lz, ux, uy, uz);
+		double tuy = BoundingBox.transformUpper(m, 4, lx, ly, lz, ux, uy, uz);
+		double tlz = BoundingBox.transformLower(m, 8, lx, ly, lz, ux, uy, uz);
+		double tuz = BoundingBox.transformUpper(m, 8, lx, ly, lz, ux, uy, uz);
+		center.x = (tux + tlx) / 2.0;
+		center.y = (tuy + tly) / 2.0;
+		center.z = (tuz + tlz) / 2.0;
+		radius = 0.5 * Math.sqrt((tux - tlx) * (tux - tlx) +
+					 (tuy - tly) * (tuy - tly) +
+					 (tuz - tlz) * (tuz - tlz));
+		updateBoundsStates();
 	}
 	else if (boundsObject.boundId == BOUNDING_SPHERE) {
 		this.set(boundsObject);
@@ -823,14 +839,14 @@ public void setCenter(Point3d center) {
 	}
 
 	double l2oc,rad2,tca,t2hc,t,invMag;
-	Vector3d dir = new Vector3d();  // normalized direction of ray
-	Point3d oc  = new Point3d();  // vector from sphere center to ray origin
+	double dirx, diry, dirz;  // normalized direction of ray
+	double ocx, ocy, ocz;  // vector from sphere center to ray origin
 
-	oc.x = center.x - origin.x;
-	oc.y = center.y - origin.y;
-	oc.z = center.z - origin.z;
+	ocx = center.x - origin.x;
+	ocy = center.y - origin.y;
+	ocz = center.z - origin.z;
 
-	l2oc = oc.x*oc.x + oc.y*oc.y + oc.z*oc.z; // center to origin squared
+	l2oc = ocx*ocx + ocy*ocy + ocz*ocz; // center to origin squared
 
 	rad2 = radius*radius;
 	if( l2oc < rad2 ){
@@ -841,10 +857,10 @@ public void setCenter(Point3d center) {
 	invMag = 1.0/Math.sqrt(direction.x*direction.x +
 			       direction.y*direction.y +
 			       direction.z*direction.z);
-	dir.x = direction.x*invMag;
-	dir.y = direction.y*invMag;
-	dir.z = direction.z*invMag;
-	tca = oc.x*dir.x + oc.y*dir.y + oc.z*dir.z;
+	dirx = direction.x*invMag;
+	diry = direction.y*invMag;
+	dirz = direction.z*invMag;
+	tca = ocx*dirx + ocy*diry + ocz*dirz;
 
 	if( tca <= 0.0 ) {
 	    //      System.err.println("ray points away from sphere" );
@@ -856,9 +872,9 @@ public void setCenter(Point3d center) {
 	if( t2hc > 0.0 ){
 	    t = tca - Math.sqrt(t2hc);
 	    //      System.err.println("ray  hits sphere:"+this.toString()+" t="+t+" direction="+dir );
-	    position.x = origin.x + dir.x*t;
-	    position.y = origin.y + dir.y*t;
-	    position.z = origin.z + dir.z*t;
+	    position.x = origin.x + dirx*t;
+	    position.y = origin.y + diry*t;
+	    position.z = origin.z + dirz*t;
 	    position.w = t;
 	    return true;   // ray hits sphere
 	}else {
@@ -930,25 +946,25 @@ public void setCenter(Point3d center) {
 	}
 
 	double l2oc,rad2,tca,t2hc,invMag,t;
-	Vector3d dir = new Vector3d();  // normalized direction of ray
-	Point3d oc  = new Point3d();  // vector from sphere center to ray origin
-	Vector3d direction = new Vector3d();
-
-	oc.x = center.x - start.x;
-	oc.y = center.y - start.y;
-	oc.z = center.z - start.z;
-	direction.x = end.x - start.x;
-	direction.y = end.y - start.y;
-	direction.z = end.z - start.z;
-	invMag = 1.0/Math.sqrt( direction.x*direction.x +
-				direction.y*direction.y +
-				direction.z*direction.z);
-	dir.x = direction.x*invMag;
-	dir.y = direction.y*invMag;
-	dir.z = direction.z*invMag;
-
-
-	l2oc = oc.x*oc.x + oc.y*oc.y + oc.z*oc.z; // center to origin squared
+	double dirx, diry, dirz;  // normalized direction of ray
+	double ocx, ocy, ocz;  // vector from sphere center to ray origin
+	double dx, dy, dz;  // direction of the segment
+
+	ocx = center.x - start.x;
+	ocy = center.y - start.y;
+	ocz = center.z - start.z;
+	dx = end.x - start.x;
+	dy = end.y - start.y;
+	dz = end.z - start.z;
+	invMag = 1.0/Math.sqrt( dx*dx +
+				dy*dy +
+				dz*dz);
+	dirx = dx*invMag;
+	diry = dy*invMag;
+	dirz = dz*invMag;
+
+
+	l2oc = ocx*ocx + ocy*ocy + ocz*ocz; // center to origin squared
 
 	rad2 = radius*radius;
 	if( l2oc < rad2 ){
@@ -956,7 +972,7 @@ public void setCenter(Point3d center) {
 	    return true;   // ray origin inside sphere
 	}
 
-	tca = oc.x*dir.x + oc.y*dir.y + oc.z*dir.z;
+	tca = ocx*dirx + ocy*diry + ocz*dirz;
 
 	if( tca <= 0.0 ) {
 	    //      System.err.println("ray points away from sphere" );
@@ -971,9 +987,9 @@ public void setCenter(Point3d center) {
 			(end.y-start.y)*(end.y-start.y)+
 			(end.z-start.z)*(end.z-start.z))){
 
-		position.x = start.x + dir.x*t;
-		position.y = start.y + dir.x*t;
-		position.z = start.z + dir.x*t;
+		position.x = start.x + dirx*t;
+		position.y = start.y + dirx*t;
+		position.z = start.z + dirx*t;
 		position.w = t;
 		return true;   // segment hits sphere
 	    }
@@ -999,14 +1015,14 @@ public void setCenter(Point3d center) {
 	}
 
 	double l2oc,rad2,tca,t2hc,mag;
-	Vector3d dir = new Vector3d();  // normalized direction of ray
-	Point3d oc  = new Point3d();  // vector from sphere center to ray origin
+	double dirx, diry, dirz;  // normalized direction of ray
+	double ocx, ocy, ocz;  // vector from sphere center to ray origin
 
-	oc.x = center.x - origin.x;
-	oc.y = center.y - origin.y;
-	oc.z = center.z - origin.z;
+	ocx = center.x - origin.x;
+	ocy = center.y - origin.y;
+	ocz = center.z - origin.z;
 
-	l2oc = oc.x*oc.x + oc.y*oc.y + oc.z*oc.z; // center to origin squared
+	l2oc = ocx*ocx + ocy*ocy + ocz*ocz; // center to origin squared
 
 	rad2 = radius*radius;
 	if( l2oc < rad2 ){
@@ -1017,10 +1033,10 @@ public void setCenter(Point3d center) {
 	mag = Math.sqrt(direction.x*direction.x +
 			direction.y*direction.y +
 			direction.z*direction.z);
-	dir.x = direction.x/mag;
-	dir.y = direction.y/mag;
-	dir.z = direction.z/mag;
-	tca = oc.x*dir.x + oc.y*dir.y + oc.z*dir.z;
+	dirx = direction.x/mag;
+	diry = direction.y/mag;
+	dirz = direction.z/mag;
+	tca = ocx*dirx + ocy*diry + ocz*dirz;
 
 	if( tca <= 0.0 ) {
 	    //	System.err.println("ray points away from sphere" );
@@ -1058,14 +1074,14 @@ public void setCenter(Point3d center) {
 	}
 
 	double l2oc,rad2,tca,t2hc,mag,t;
-	Point3d dir = new Point3d();  // normalized direction of ray
-	Point3d oc  = new Point3d();  // vector from sphere center to ray origin
+	double dirx, diry, dirz;  // normalized direction of ray
+	double ocx, ocy, ocz;  // vector from sphere center to ray origin
 
-	oc.x = center.x - origin.x;   // XXXX: check if this method is still needed
-	oc.y = center.y - origin.y;
-	oc.z = center.z - origin.z;
+	ocx = center.x - origin.x;   // XXXX: check if this method is still needed
+	ocy = center.y - origin.y;
+	ocz = center.z - origin.z;
 
-	l2oc = oc.x*oc.x + oc.y*oc.y + oc.z*oc.z; // center to origin squared
+	l2oc = ocx*ocx + ocy*ocy + ocz*ocz; // center to origin squared
 
 	rad2 = radius*radius;
 	if( l2oc < rad2 ){
@@ -1076,10 +1092,10 @@ public void setCenter(Point3d center) {
 	mag = Math.sqrt(direction.x*direction.x +
 			direction.y*direction.y +
 			direction.z*direction.z);
-	dir.x = direction.x/mag;
-	dir.y = direction.y/mag;
-	dir.z = direction.z/mag;
-	tca = oc.x*dir.x + oc.y*dir.y + oc.z*dir.z;
+	dirx = direction.x/mag;
+	diry = direction.y/mag;
+	dirz = direction.z/mag;
+	tca = ocx*dirx + ocy*diry + ocz*dirz;
 
 	if( tca <= 0.0 ) {
 	    //	System.err.println("ray points away from sphere" );
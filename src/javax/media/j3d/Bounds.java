@@ -569,9 +569,9 @@ public abstract void getCenter(Point3d center);
 	planes[5] = new Vector4d(  0.0, 0.0, 1.0,-box.upper.z);
 
 
-	BoundingPolytope pbox = new BoundingPolytope( planes);
-
-	boolean result = intersect_ptope_ptope( polyTope, pbox );
+	// Only the planes of the box are needed, a BoundingPolytope would
+	// also compute the vertices
+	boolean result = intersect_ptope_ptope( polyTope.planes, planes );
 	if (debug) {
 	    System.err.println("ptope_abox returns " + result);
 	}
@@ -581,6 +581,14 @@ public abstract void getCenter(Point3d center);
 
     boolean intersect_ptope_ptope( BoundingPolytope poly1,
 					BoundingPolytope poly2) {
+	return intersect_ptope_ptope(poly1.planes, poly2.planes);
+    }
+
+    /**
+     * Tests for intersection of the polytopes bounded by planes1 and
+     * planes2.
+     */
+    boolean intersect_ptope_ptope(Vector4d[] planes1, Vector4d[] planes2) {
 	boolean intersect;
 	Point3d p = new Point3d();
 	Point3d g = new Point3d();
@@ -594,13 +602,13 @@ public abstract void getCenter(Point3d center);
 	p.z = 0.0;
 
 	//  start from an arbitrary point on poly1
-	closest_point( p, poly1.planes, g);
+	closest_point( p, planes1, g);
 
 	// get the closest points on each polytope
 	if (debug) {
 	    System.err.println("ptope_ptope: first g = "+g);
 	}
-	intersect = closest_point( g, poly2.planes, p);
+	intersect = closest_point( g, planes2, p);
 
 	if (intersect) {
 	    return true;
@@ -609,7 +617,7 @@ public abstract void getCenter(Point3d center);
 	if (debug) {
 	    System.err.println("first p = "+p+"\n");
 	}
-	 intersect = closest_point( p, poly1.planes, gnew);
+	 intersect = closest_point( p, planes1, gnew);
 	if (debug) {
 	    System.err.println("gnew = "+gnew+" intersect="+intersect);
 	}
@@ -625,7 +633,7 @@ public abstract void getCenter(Point3d center);
 
 	    if (dist < prevDist) {
 		g.set(gnew);
-		intersect = closest_point( g, poly2.planes, pnew );
+		intersect = closest_point( g, planes2, pnew );
 		if (debug) {
 		    System.err.println("pnew = "+pnew+" intersect="+intersect);
 		}
@@ -639,7 +647,7 @@ public abstract void getCenter(Point3d center);
 	    if (dist < prevDist) {
 		p.set(pnew);
 		if( !intersect ) {
-		    intersect = closest_point( p, poly1.planes, gnew );
+		    intersect = closest_point( p, planes1, gnew );
 		    if (debug) {
 			System.err.println("gnew = "+gnew+" intersect="+
 			    intersect);
@@ -158,6 +158,17 @@ public class BranchGroup extends Group {
 
     }
 
+    // The state, mode and flags are checked before the pick shapes, so that
+    // an empty array is rejected as a single pick shape would be
+    void validateModeFlagAndPickShapes(int mode, int flags, PickShape[] pickShapes) {
+
+        validateModeFlagAndPickShape(mode, flags, (PickShape)null);
+
+	for (int i = 0; i < pickShapes.length; i++) {
+	    validateModeFlagAndPickShape(mode, flags, pickShapes[i]);
+	}
+    }
+
   /**
    * Returns an array referencing all the items that are pickable below this
    * <code>BranchGroup</code> that intersect with PickShape.
@@ -252,7 +263,16 @@ public class BranchGroup extends Group {
     public PickInfo[] pickAll( int mode, int flags, PickShape pickShape ) {
 
         validateModeFlagAndPickShape(mode, flags, pickShape);
-        return ((BranchGroupRetained)this.retained).pickAll(mode, flags, pickShape);
+
+	Object event = J3dEventSink.pickBegin();
+	PickInfo[] pickInfo = null;
+	try {
+	    pickInfo = ((BranchGroupRetained)this.retained).pickAll(mode, flags, pickShape);
+	} finally {
+	    J3dEventSink.pickEnd(event, false, J3dEventSink.PICK_ALL, mode,
+				 (pickInfo == null ? 0 : pickInfo.length));
+	}
+	return pickInfo;
 
     }
 
@@ -356,7 +376,16 @@ public class BranchGroup extends Group {
     public PickInfo[] pickAllSorted( int mode, int flags, PickShape pickShape ) {
 
         validateModeFlagAndPickShape(mode, flags, pickShape);
-        return ((BranchGroupRetained)this.retained).pickAllSorted(mode, flags, pickShape);
+
+	Object event = J3dEventSink.pickBegin();
+	PickInfo[] pickInfo = null;
+	try {
+	    pickInfo = ((BranchGroupRetained)this.retained).pickAllSorted(mode, flags, pickShape);
+	} finally {
+	    J3dEventSink.pickEnd(event, false, J3dEventSink.PICK_ALL_SORTED, mode,
+				 (pickInfo == null ? 0 : pickInfo.length));
+	}
+	return pickInfo;
 
     }
 
@@ -454,7 +483,16 @@ public class BranchGroup extends Group {
     public PickInfo pickClosest( int mode, int flags, PickShape pickShape ) {
 
         validateModeFlagAndPickShape(mode, flags, pickShape);
-        return ((BranchGroupRetained)this.retained).pickClosest(mode, flags, pickShape);
+
+	Object event = J3dEventSink.pickBegin();
+	PickInfo pickInfo = null;
+	try {
+	    pickInfo = ((BranchGroupRetained)this.retained).pickClosest(mode, flags, pickShape);
+	} finally {
+	    J3dEventSink.pickEnd(event, false, J3dEventSink.PICK_CLOSEST, mode,
+				 (pickInfo == null ? 0 : 1));
+	}
+	return pickInfo;
 
     }
 
@@ -550,8 +588,163 @@ public class BranchGroup extends Group {
     public PickInfo pickAny( int mode, int flags, PickShape pickShape ) {
 
         validateModeFlagAndPickShape(mode, flags, pickShape);
-        return ((BranchGroupRetained)this.retained).pickAny(mode, flags, pickShape);
 
+	Object event = J3dEventSink.pickBegin();
+	PickInfo pickInfo = null;
+	try {
+	    pickInfo = ((BranchGroupRetained)this.retained).pickAny(mode, flags, pickShape);
+	} finally {
+	    J3dEventSink.pickEnd(event, false, J3dEventSink.PICK_ANY, mode,
+				 (pickInfo == null ? 0 : 1));
+	}
+	return pickInfo;
+
+    }
+
+    /**
+     * Picks with each of the pick shapes, returning for each of them what
+     * <code>pickAll(mode, flags, pickShapes[i])</code> would.  The
+     * bounds hierarchy is traversed once for all the pick shapes, which
+     * is much faster than picking with them one at a time when there are
+     * many of them.  When the <code>j3d.parallelPick</code> property is
+     * true, the PICK_GEOMETRY intersection of the pick shapes is computed
+     * in parallel.
+     *
+     * @param mode  picking mode, one of <code>PickInfo.PICK_BOUNDS</code> or <code>PickInfo.PICK_GEOMETRY</code>.
+     *
+     * @param flags a mask indicating which components are present in each
+     * PickInfo object, see {@link #pickAll(int,int,PickShape)}.
+     *
+     * @param pickShapes the pick shapes, null elements are allowed and
+     * pick nothing.
+     *
+     * @return an array with an element per pick shape, element i is null
+     * if nothing intersects pickShapes[i] and the unordered array of
+     * PickInfo of the items intersecting it otherwise.
+     *
+     * @exception IllegalArgumentException under the same conditions as
+     * {@link #pickAll(int,int,PickShape)} for any of the pick shapes.
+     *
+     * @exception IllegalStateException under the same conditions as
+     * {@link #pickAll(int,int,PickShape)} for any of the pick shapes.
+     *
+     * @exception CapabilityNotSetException under the same conditions as
+     * {@link #pickAll(int,int,PickShape)} for any of the pick shapes.
+     *
+     * @see Locale#pickAll(int,int,javax.media.j3d.PickShape[])
+     *
+     * @since Java 3D 1.6
+     */
+    public PickInfo[][] pickAll(int mode, int flags, PickShape[] pickShapes) {
+
+	validateModeFlagAndPickShapes(mode, flags, pickShapes);
+
+	Object event = J3dEventSink.pickBegin();
+	PickInfo[][] pickInfoArrs = null;
+	try {
+	    pickInfoArrs = ((BranchGroupRetained)this.retained).pick(
+		mode, flags, pickShapes, PickInfo.PICK_ALL);
+	} finally {
+	    J3dEventSink.pickEnd(event, false, J3dEventSink.PICK_ALL, mode,
+				 PickInfo.countPickInfos(pickInfoArrs));
+	}
+	return pickInfoArrs;
+    }
+
+    /**
+     * Picks with each of the pick shapes, returning for each of them what
+     * <code>pickClosest(mode, flags, pickShapes[i])</code> would.  The
+     * bounds hierarchy is traversed once for all the pick shapes, see
+     * {@link #pickAll(int,int,PickShape[])}.
+     *
+     * @param mode  picking mode, one of <code>PickInfo.PICK_BOUNDS</code> or <code>PickInfo.PICK_GEOMETRY</code>.
+     *
+     * @param flags a mask indicating which components are present in each
+     * PickInfo object, see {@link #pickClosest(int,int,PickShape)}.
+     *
+     * @param pickShapes the pick shapes, null elements are allowed and
+     * pick nothing.
+     *
+     * @return an array with an element per pick shape, element i is null
+     * if nothing intersects pickShapes[i] and the PickInfo of the
+     * intersected item closest to its origin otherwise.
+     *
+     * @exception IllegalArgumentException under the same conditions as
+     * {@link #pickClosest(int,int,PickShape)} for any of the pick shapes.
+     *
+     * @exception IllegalStateException under the same conditions as
+     * {@link #pickClosest(int,int,PickShape)} for any of the pick shapes.
+     *
+     * @exception CapabilityNotSetException under the same conditions as
+     * {@link #pickClosest(int,int,PickShape)} for any of the pick shapes.
+     *
+     * @see Locale#pickClosest(int,int,javax.media.j3d.PickShape[])
+     *
+     * @since Java 3D 1.6
+     */
+    public PickInfo[] pickClosest(int mode, int flags, PickShape[] pickShapes) {
+
+	validateModeFlagAndPickShapes(mode, flags, pickShapes);
+
+	Object event = J3dEventSink.pickBegin();
+	PickInfo[] pickInfos = null;
+	try {
+	    pickInfos = PickInfo.firstPickInfos(
+		((BranchGroupRetained)this.retained).pick(
+		    mode, flags, pickShapes, PickInfo.PICK_ALL_SORTED));
+	} finally {
+	    J3dEventSink.pickEnd(event, false, J3dEventSink.PICK_CLOSEST, mode,
+				 PickInfo.countPickInfos(pickInfos));
+	}
+	return pickInfos;
+    }
+
+    /**
+     * Picks with each of the pick shapes, returning for each of them what
+     * <code>pickAny(mode, flags, pickShapes[i])</code> would.  The
+     * bounds hierarchy is traversed once for all the pick shapes, see
+     * {@link #pickAll(int,int,PickShape[])}.
+     *
+     * @param mode  picking mode, one of <code>PickInfo.PICK_BOUNDS</code> or <code>PickInfo.PICK_GEOMETRY</code>.
+     *
+     * @param flags a mask indicating which components are present in each
+     * PickInfo object, see {@link #pickAny(int,int,PickShape)}.
+     *
+     * @param pickShapes the pick shapes, null elements are allowed and
+     * pick nothing.
+     *
+     * @return an array with an element per pick shape, element i is null
+     * if nothing intersects pickShapes[i] and the PickInfo of any
+     * intersected item otherwise.
+     *
+     * @exception IllegalArgumentException under the same conditions as
+     * {@link #pickAny(int,int,PickShape)} for any of the pick shapes.
+     *
+     * @exception IllegalStateException under the same conditions as
+     * {@link #pickAny(int,int,PickShape)} for any of the pick shapes.
+     *
+     * @exception CapabilityNotSetException under the same conditions as
+     * {@link #pickAny(int,int,PickShape)} for any of the pick shapes.
+     *
+     * @see Locale#pickAny(int,int,javax.media.j3d.PickShape[])
+     *
+     * @since Java 3D 1.6
+     */
+    public PickInfo[] pickAny(int mode, int flags, PickShape[] pickShapes) {
+
+	validateModeFlagAndPickShapes(mode, flags, pickShapes);
+
+	Object event = J3dEventSink.pickBegin();
+	PickInfo[] pickInfos = null;
+	try {
+	    pickInfos = PickInfo.firstPickInfos(
+		((BranchGroupRetained)this.retained).pick(
+		    mode, flags, pickShapes, PickInfo.PICK_ANY));
+	} finally {
+	    J3dEventSink.pickEnd(event, false, J3dEventSink.PICK_ANY, mode,
+				 PickInfo.countPickInfos(pickInfos));
+	}
+	return pickInfos;
     }
 
    /**
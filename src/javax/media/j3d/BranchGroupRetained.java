@@ -374,4 +374,20 @@ class BranchGroupRetained extends GroupRetained {
         return pickInfoArr[0];
 
     }
+
+    // Batched pick, pickType is one of PickInfo.PICK_ALL,
+    // PickInfo.PICK_ALL_SORTED or PickInfo.PICK_ANY
+    PickInfo[][] pick(int mode, int flags, PickShape[] pickShapes,
+		      int pickType) {
+
+	if (inSharedGroup) {
+	    throw new RestrictedAccessException(J3dI18N.getString("BranchGroup9"));
+	}
+
+	GeometryAtom[][] geomAtoms =
+	    locale.universe.geometryStructure.pickAll(locale, pickShapes);
+
+	return PickInfo.pick(this, geomAtoms, mode, flags, pickShapes,
+			     pickType);
+    }
 }
@@ -2082,9 +2082,9 @@ ArrayList<TextureRetained> textureIDResourceTable = new ArrayList<TextureRetaine
 		  VirtualUniverse.mc.setWorkForRequestRenderer();
 	    }
 
-        } else if (Thread.currentThread() instanceof BehaviorScheduler) {
+        } else if (BehaviorScheduler.isBehaviorThread(null)) {
 
-	    // If called from behavior scheduler, send a message directly to
+	    // If called from a behavior, send a message directly to
 	    // the renderer message queue.
 	    // Note that we didn't use
 	    // currentThread() == view.universe.behaviorScheduler
@@ -2343,7 +2343,7 @@ ArrayList<TextureRetained> textureIDResourceTable = new ArrayList<TextureRetaine
 
 	if (view != null && graphicsContext3D != null) {
 	    if ((view.universe != null) &&
-		(Thread.currentThread() == view.universe.behaviorScheduler)) {
+		BehaviorScheduler.isBehaviorThread(view.universe)) {
 		graphicsContext3D.sendRenderMessage(false, GraphicsContext3D.SWAP, null, null);
 	    } else {
 		graphicsContext3D.sendRenderMessage(true, GraphicsContext3D.SWAP, null, null);
@@ -4033,7 +4033,7 @@ public Point getLocationOnScreen() {
     private void sendCreateOffScreenBuffer() {
 	// Wait for the buffer to be created unless called from
 	// a Behavior or from a Rendering thread
-	if (!(Thread.currentThread() instanceof BehaviorScheduler) &&
+	if (!BehaviorScheduler.isBehaviorThread(null) &&
 	    !(Thread.currentThread() instanceof Renderer)) {
 
 	    offScreenBufferPending = true;
@@ -4056,7 +4056,7 @@ public Point getLocationOnScreen() {
 	// Wait for the buffer to be destroyed unless called from
 	// a Behavior or from a Rendering thread
 	Thread currentThread = Thread.currentThread();
-	if (!(currentThread instanceof BehaviorScheduler) &&
+	if (!BehaviorScheduler.isBehaviorThread(null) &&
 	    !(currentThread instanceof Renderer)) {
 
 	    offScreenBufferPending = true;
@@ -4103,7 +4103,7 @@ public Point getLocationOnScreen() {
 	    // Wait for the context to be freed unless called from
 	    // a Behavior or from a Rendering thread
 	    Thread currentThread = Thread.currentThread();
-	    if (!(currentThread instanceof BehaviorScheduler) &&
+	    if (!BehaviorScheduler.isBehaviorThread(null) &&
 		!(currentThread instanceof Renderer)) {
 		while (ctxTimeStamp != 0) {
 		    MasterControl.threadYield();
@@ -0,0 +1,492 @@
+/*
+ * Copyright 2013 Harvey Harrison
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Sun designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Sun in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package javax.media.j3d;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+
+/**
+ * Sweep and prune over the vworld bounds of the BHTree leaves, used by the
+ * GeometryStructure to evaluate the armed collision wakeups when
+ * MasterControl.collisionBroadphase is set.
+ *
+ * The leaves are kept in an array sorted by the lower x of their bounds.
+ * The array is re-sorted with an insertion sort at each pass, which is
+ * close to linear as objects move little from one frame to the next.  The
+ * bounds of the wakeups of a pass are swept against the leaves along x,
+ * and the leaves whose bounds overlap those of a wakeup on all three axes
+ * become its candidates.  Only the candidates get the tests BHTree.selectAny
+ * runs on its leaves, see BHTree.collides.
+ *
+ * Only used by the GeometryStructure thread.
+ */
+class CollisionBroadphase {
+
+// The leaves, sorted by the lower x of their bounds at the last sweep
+private BHLeafNode[] leaves = new BHLeafNode[64];
+private Locale[] leafLocales = new Locale[64];
+// Per leaf: lower x, y, z then upper x, y, z, refreshed at each sweep
+private double[] leafBounds = new double[64 * 6];
+private boolean[] leafEmpty = new boolean[64];
+private int numLeaves = 0;
+
+// The wakeups of the current pass, in the order they were added
+private Source[] sources = new Source[16];
+private Source[] sortedSources = new Source[16];
+private int numSources = 0;
+
+// The leaves and wakeups whose x interval contains the sweep position
+private int[] activeLeaves = new int[16];
+private Source[] activeSources = new Source[16];
+
+// Counters of the last pass
+private int numPairs = 0;
+private int numTests = 0;
+
+private final BoundingBox box = new BoundingBox();
+private final double[] movedBounds = new double[6];
+
+private static final Comparator<Source> lowerX = new Comparator<Source>() {
+	@Override
+	public int compare(Source s1, Source s2) {
+		return Double.compare(s1.bounds[0], s2.bounds[0]);
+	}
+};
+
+/**
+ * The arguments of GeometryStructure.collide for one wakeup, the bounds
+ * swept for it and the leaves found to overlap them.
+ */
+private static class Source {
+	Locale locale;
+	int accuracyMode;
+	GeometryAtom[] atoms;
+	int numAtoms;
+	Bounds bound;
+	NodeRetained armingNode;
+	boolean empty;
+	final double[] bounds = new double[6];
+	BHLeafNode[] candidates = new BHLeafNode[8];
+	int numCandidates;
+}
+
+/**
+ * Adds the leaves inserted in a BHTree.
+ */
+void add(BHNode[] nodes, int count) {
+	if (numLeaves + count > leaves.length) {
+		int size = Math.max(leaves.length * 2, numLeaves + count);
+		leaves = Arrays.copyOf(leaves, size);
+		leafLocales = Arrays.copyOf(leafLocales, size);
+		leafBounds = Arrays.copyOf(leafBounds, size * 6);
+		leafEmpty = Arrays.copyOf(leafEmpty, size);
+	}
+
+	// Appended at the end, the next sweep sorts them into place
+	for (int i = 0; i < count; i++) {
+		BHLeafNode leaf = (BHLeafNode)nodes[i];
+		leaves[numLeaves] = leaf;
+		leafLocales[numLeaves] = leaf.getLocale();
+		setLeafBounds(numLeaves);
+		numLeaves++;
+	}
+}
+
+/**
+ * Removes the leaves deleted from a BHTree.
+ */
+void remove(BHNode[] nodes, int count) {
+	// BHNodes are compared by identity
+	HashSet<BHNode> removed = null;
+	if (count > 8) {
+		removed = new HashSet<BHNode>(count * 2);
+		for (int i = 0; i < count; i++)
+			removed.add(nodes[i]);
+	}
+
+	int n = 0;
+	for (int i = 0; i < numLeaves; i++) {
+		if ((removed != null) ? removed.contains(leaves[i]) :
+					contains(nodes, count, leaves[i]))
+			continue;
+
+		if (n != i) {
+			leaves[n] = leaves[i];
+			leafLocales[n] = leafLocales[i];
+			System.arraycopy(leafBounds, i * 6, leafBounds, n * 6, 6);
+			leafEmpty[n] = leafEmpty[i];
+		}
+		n++;
+	}
+	Arrays.fill(leaves, n, numLeaves, null);
+	Arrays.fill(leafLocales, n, numLeaves, null);
+	numLeaves = n;
+}
+
+private static boolean contains(BHNode[] nodes, int count, BHNode node) {
+	for (int i = 0; i < count; i++) {
+		if (nodes[i] == node)
+			return true;
+	}
+	return false;
+}
+
+/**
+ * Forgets the wakeups of the previous pass.
+ */
+void clearSources() {
+	for (int i = 0; i < numSources; i++) {
+		Source s = sources[i];
+		s.locale = null;
+		s.atoms = null;
+		s.bound = null;
+		s.armingNode = null;
+		Arrays.fill(s.candidates, 0, s.numCandidates, null);
+		s.numCandidates = 0;
+	}
+	numSources = 0;
+	numPairs = 0;
+	numTests = 0;
+}
+
+/**
+ * Adds a wakeup to the current pass, the arguments are those of
+ * GeometryStructure.collide.  Returns the index to pass to collide once
+ * the pass has been swept.
+ */
+int addSource(Locale locale, int accuracyMode, UnorderList geomAtoms,
+	      Bounds bound, BoundingLeafRetained boundingLeaf,
+	      NodeRetained armingNode) {
+	if (numSources == sources.length) {
+		sources = Arrays.copyOf(sources, numSources * 2);
+		sortedSources = new Source[sources.length];
+	}
+	Source s = sources[numSources];
+	if (s == null) {
+		s = new Source();
+		sources[numSources] = s;
+	}
+
+	s.locale = locale;
+	s.accuracyMode = accuracyMode;
+	s.armingNode = armingNode;
+	s.atoms = null;
+	s.numAtoms = 0;
+	if (geomAtoms != null) {
+		s.atoms = (GeometryAtom[])geomAtoms.toArray(false);
+		s.numAtoms = geomAtoms.arraySize();
+		// Only the first atom is tested unless the group is armed
+		if (!((bound != null) && (armingNode instanceof GroupRetained)))
+			s.numAtoms = Math.min(s.numAtoms, 1);
+	} else if ((bound == null) && (boundingLeaf != null)) {
+		bound = boundingLeaf.transformedRegion;
+	}
+	s.bound = bound;
+
+	boolean empty = union(s.bounds, 0, s.bound, true);
+	for (int i = 0; i < s.numAtoms; i++)
+		empty = union(s.bounds, 0, s.atoms[i].source.collisionVwcBound,
+			      empty);
+	s.empty = empty;
+
+	return numSources++;
+}
+
+// Extends the box at off in b by the bounds, returns whether it is
+// still empty
+private boolean union(double[] b, int off, Bounds bounds, boolean empty) {
+	if ((bounds == null) || bounds.isEmpty())
+		return empty;
+
+	box.set(bounds);
+	if (empty) {
+		b[off    ] = box.lower.x;
+		b[off + 1] = box.lower.y;
+		b[off + 2] = box.lower.z;
+		b[off + 3] = box.upper.x;
+		b[off + 4] = box.upper.y;
+		b[off + 5] = box.upper.z;
+		return false;
+	}
+
+	b[off    ] = Math.min(b[off    ], box.lower.x);
+	b[off + 1] = Math.min(b[off + 1], box.lower.y);
+	b[off + 2] = Math.min(b[off + 2], box.lower.z);
+	b[off + 3] = Math.max(b[off + 3], box.upper.x);
+	b[off + 4] = Math.max(b[off + 4], box.upper.y);
+	b[off + 5] = Math.max(b[off + 5], box.upper.z);
+	return false;
+}
+
+// A leaf is reached by BHTree.selectAny through its bounding hull, and
+// GeometryAtom leaves are then tested with their collision bounds
+private void setLeafBounds(int i) {
+	BHLeafNode leaf = leaves[i];
+	if ((leaf.bHull == null) || leaf.bHull.isEmpty()) {
+		leafEmpty[i] = true;
+		return;
+	}
+
+	boolean empty = union(leafBounds, i * 6, leaf.bHull, true);
+	if (leaf.leafIF instanceof GeometryAtom) {
+		Bounds collisionBound =
+			((GeometryAtom)leaf.leafIF).source.collisionVwcBound;
+		if (collisionBound != leaf.bHull)
+			empty = union(leafBounds, i * 6, collisionBound, empty);
+	}
+	leafEmpty[i] = empty;
+}
+
+/**
+ * Refreshes the bounds of the leaves, sorts them and sweeps the wakeups
+ * of the current pass against them.
+ */
+void sweep() {
+	if (numSources == 0)
+		return;
+
+	for (int i = 0; i < numLeaves; i++)
+		setLeafBounds(i);
+	sortLeaves();
+
+	int numSorted = 0;
+	for (int i = 0; i < numSources; i++) {
+		if (!sources[i].empty)
+			sortedSources[numSorted++] = sources[i];
+	}
+	Arrays.sort(sortedSources, 0, numSorted, lowerX);
+
+	int numActiveLeaves = 0;
+	int numActiveSources = 0;
+	int l = 0;
+	int s = 0;
+	while ((s < numSorted) && (l < numLeaves)) {
+		if (leafEmpty[l]) {
+			l++;
+			continue;
+		}
+
+		if (leafBounds[l * 6] <= sortedSources[s].bounds[0]) {
+			// Drop the wakeups that end before this leaf starts
+			double x = leafBounds[l * 6];
+			int n = 0;
+			for (int i = 0; i < numActiveSources; i++) {
+				Source src = activeSources[i];
+				if (src.bounds[3] < x)
+					continue;
+
+				activeSources[n++] = src;
+				if (overlaps(src, l))
+					addCandidate(src, l);
+			}
+			Arrays.fill(activeSources, n, numActiveSources, null);
+			numActiveSources = n;
+
+			if (numActiveLeaves == activeLeaves.length)
+				activeLeaves = Arrays.copyOf(activeLeaves, numActiveLeaves * 2);
+			activeLeaves[numActiveLeaves++] = l++;
+		} else {
+			// Drop the leaves that end before this wakeup starts
+			Source src = sortedSources[s];
+			double x = src.bounds[0];
+			int n = 0;
+			for (int i = 0; i < numActiveLeaves; i++) {
+				int leaf = activeLeaves[i];
+				if (leafBounds[leaf * 6 + 3] < x)
+					continue;
+
+				activeLeaves[n++] = leaf;
+				if (overlaps(src, leaf))
+					addCandidate(src, leaf);
+			}
+			numActiveLeaves = n;
+
+			if (numActiveSources == activeSources.length)
+				activeSources = Arrays.copyOf(activeSources, numActiveSources * 2);
+			activeSources[numActiveSources++] = src;
+			s++;
+		}
+	}
+
+	// The leaves that start after the last wakeup only meet the active ones
+	while ((l < numLeaves) && (numActiveSources > 0)) {
+		if (!leafEmpty[l]) {
+			double x = leafBounds[l * 6];
+			int n = 0;
+			for (int i = 0; i < numActiveSources; i++) {
+				Source src = activeSources[i];
+				if (src.bounds[3] < x)
+					continue;
+
+				activeSources[n++] = src;
+				if (overlaps(src, l))
+					addCandidate(src, l);
+			}
+			Arrays.fill(activeSources, n, numActiveSources, null);
+			numActiveSources = n;
+		}
+		l++;
+	}
+
+	// The wakeups that start after the last leaf only meet the active ones
+	for (; s < numSorted; s++) {
+		Source src = sortedSources[s];
+		for (int i = 0; i < numActiveLeaves; i++) {
+			int leaf = activeLeaves[i];
+			if ((leafBounds[leaf * 6 + 3] >= src.bounds[0]) &&
+			    overlaps(src, leaf))
+				addCandidate(src, leaf);
+		}
+	}
+
+	Arrays.fill(activeSources, 0, numActiveSources, null);
+	Arrays.fill(sortedSources, 0, numSorted, null);
+}
+
+// Insertion sort on the lower x, the order of the last sweep is kept for
+// the leaves that did not pass each other
+private void sortLeaves() {
+	for (int i = 1; i < numLeaves; i++) {
+		double x = sortKey(i);
+		int j = i - 1;
+		if (x >= sortKey(j))
+			continue;
+
+		BHLeafNode leaf = leaves[i];
+		Locale locale = leafLocales[i];
+		boolean empty = leafEmpty[i];
+		System.arraycopy(leafBounds, i * 6, movedBounds, 0, 6);
+		while ((j >= 0) && (x < sortKey(j))) {
+			leaves[j + 1] = leaves[j];
+			leafLocales[j + 1] = leafLocales[j];
+			leafEmpty[j + 1] = leafEmpty[j];
+			System.arraycopy(leafBounds, j * 6, leafBounds, (j + 1) * 6, 6);
+			j--;
+		}
+		leaves[j + 1] = leaf;
+		leafLocales[j + 1] = locale;
+		leafEmpty[j + 1] = empty;
+		System.arraycopy(movedBounds, 0, leafBounds, (j + 1) * 6, 6);
+	}
+}
+
+// Empty leaves are never swept, they are kept at the start of the array
+private double sortKey(int i) {
+	return leafEmpty[i] ? Double.NEGATIVE_INFINITY : leafBounds[i * 6];
+}
+
+// The x intervals are known to overlap, test y, z and the locale
+private boolean overlaps(Source src, int leaf) {
+	double[] b = src.bounds;
+	int off = leaf * 6;
+	return ((b[1] <= leafBounds[off + 4]) && (leafBounds[off + 1] <= b[4]) &&
+		(b[2] <= leafBounds[off + 5]) && (leafBounds[off + 2] <= b[5]) &&
+		(src.locale == leafLocales[leaf]));
+}
+
+private void addCandidate(Source src, int leaf) {
+	if (src.numCandidates == src.candidates.length)
+		src.candidates = Arrays.copyOf(src.candidates, src.numCandidates * 2);
+	src.candidates[src.numCandidates++] = leaves[leaf];
+	numPairs++;
+}
+
+/**
+ * Returns the leaf the wakeup collides with, as GeometryStructure.collide
+ * would, using only the candidates found by the sweep.
+ */
+BHLeafInterface collide(int index) {
+	Source s = sources[index];
+	if (s.numCandidates == 0)
+		return null;
+
+	if (s.atoms != null) {
+		if ((s.bound != null) && (s.armingNode instanceof GroupRetained)) {
+			// Check Bound intersect first before process
+			// to individual Shape3D geometryAtoms
+			GroupRetained group = (GroupRetained)s.armingNode;
+			boolean hit = false;
+			for (int i = 0; !hit && i < s.numCandidates; i++) {
+				numTests++;
+				hit = BHTree.collides(s.candidates[i], s.bound,
+						      s.accuracyMode, group);
+			}
+			if (!hit)
+				return null;
+
+			for (int i = 0; i < s.numCandidates; i++) {
+				numTests++;
+				if (BHTree.collides(s.candidates[i], s.atoms,
+						    s.numAtoms, s.accuracyMode))
+					return s.candidates[i].leafIF;
+			}
+			return null;
+		}
+
+		GeometryAtom atom = s.atoms[0];
+		if (atom.source.geometryList == null)
+			return null;
+		for (int i = 0; i < s.numCandidates; i++) {
+			numTests++;
+			if (BHTree.collides(s.candidates[i], atom, s.accuracyMode))
+				return s.candidates[i].leafIF;
+		}
+		return null;
+	}
+
+	for (int i = 0; i < s.numCandidates; i++) {
+		numTests++;
+		boolean hit;
+		if (s.armingNode instanceof GroupRetained)
+			hit = BHTree.collides(s.candidates[i], s.bound,
+					      s.accuracyMode,
+					      (GroupRetained)s.armingNode);
+		else
+			hit = BHTree.collides(s.candidates[i], s.bound,
+					      s.accuracyMode, s.armingNode);
+		if (hit)
+			return s.candidates[i].leafIF;
+	}
+	return null;
+}
+
+/**
+ * Returns the bounds GeometryStructure.collide compares to detect repeated
+ * WakeupOnCollisionMovement events.
+ */
+Bounds getSourceBounds(int index) {
+	Source s = sources[index];
+	if ((s.atoms != null) &&
+	    !((s.bound != null) && (s.armingNode instanceof GroupRetained)))
+		return s.atoms[0].source.vwcBounds;
+	return s.bound;
+}
+
+/**
+ * Returns the number of wakeup and leaf pairs found by the last sweep.
+ */
+int getPairCount() {
+	return numPairs;
+}
+
+/**
+ * Returns the number of leaf tests run by collide since the last sweep.
+ */
+int getTestCount() {
+	return numTests;
+}
+}
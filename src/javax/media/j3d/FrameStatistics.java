@@ -0,0 +1,284 @@
+/*
+ * Copyright 2013 Harvey Harrison
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Sun designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Sun in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package javax.media.j3d;
+
+/**
+ * FrameStatistics is a snapshot of the time spent in each phase of the
+ * Java 3D frame loop over a number of consecutive frames.  The statistics
+ * passed to a FrameStatisticsListener cover a single frame, the statistics
+ * returned by VirtualUniverse.getFrameStatistics cover all the frames since
+ * statistics gathering was enabled.
+ * <p>
+ * Times are in nanoseconds.  Phases that run concurrently with each other
+ * are timed separately, so the sum of the phase times may exceed the frame
+ * time.
+ *
+ * @see FrameStatisticsListener
+ * @see VirtualUniverse#addFrameStatisticsListener
+ *
+ * @since Java 3D 1.6
+ */
+public class FrameStatistics extends Object {
+
+/**
+ * The behavior scheduler, running the processStimulus method of the
+ * triggered behaviors.
+ */
+public static final int BEHAVIOR_SCHEDULER = 0;
+
+/**
+ * The input device scheduler, polling the input devices.
+ */
+public static final int INPUT_DEVICE_SCHEDULER = 1;
+
+/**
+ * The transform structure, processing transform changes.
+ */
+public static final int TRANSFORM_STRUCTURE = 2;
+
+/**
+ * The geometry structure, maintaining the bounds used for picking and
+ * collision.
+ */
+public static final int GEOMETRY_STRUCTURE = 3;
+
+/**
+ * The behavior structure, evaluating wakeup conditions.
+ */
+public static final int BEHAVIOR_STRUCTURE = 4;
+
+/**
+ * The rendering environment structure, maintaining lights, fog, clip,
+ * backgrounds and model clip.
+ */
+public static final int RENDERING_ENVIRONMENT_STRUCTURE = 5;
+
+/**
+ * The sound structure.
+ */
+public static final int SOUND_STRUCTURE = 6;
+
+/**
+ * The rendering attributes structure, updating the mirror copies of
+ * the node components.
+ */
+public static final int RENDERING_ATTRIBUTES_STRUCTURE = 7;
+
+/**
+ * The render bin, processing the scene graph changes for a view.
+ */
+public static final int RENDER_BIN = 8;
+
+/**
+ * The sound scheduler.
+ */
+public static final int SOUND_SCHEDULER = 9;
+
+/**
+ * The renderer, drawing the canvases.
+ */
+public static final int RENDER = 10;
+
+/**
+ * The renderer, swapping the buffers of the canvases.
+ */
+public static final int SWAP = 11;
+
+/**
+ * The end of frame update of the mirror objects, which includes the
+ * render bin update of its render atoms.
+ */
+public static final int UPDATE_OBJECTS = 12;
+
+/**
+ * The number of phases.
+ */
+public static final int PHASE_COUNT = 13;
+
+static final String[] phaseNames = {
+	"BehaviorScheduler",
+	"InputDeviceScheduler",
+	"TransformStructure",
+	"GeometryStructure",
+	"BehaviorStructure",
+	"RenderingEnvironmentStructure",
+	"SoundStructure",
+	"RenderingAttributesStructure",
+	"RenderBin",
+	"SoundScheduler",
+	"Render",
+	"Swap",
+	"UpdateObjects",
+};
+
+private final long frameNumber;
+private final long frameCount;
+private final long frameTime;
+private final long maxFrameTime;
+private final long[] phaseTimes;
+private final long[] messageCounts;
+private final long collisionPairCount;
+private final long collisionTestCount;
+
+FrameStatistics(long frameNumber, long frameCount, long frameTime,
+		long maxFrameTime, long[] phaseTimes, long[] messageCounts,
+		long collisionPairCount, long collisionTestCount) {
+	this.frameNumber = frameNumber;
+	this.frameCount = frameCount;
+	this.frameTime = frameTime;
+	this.maxFrameTime = maxFrameTime;
+	this.phaseTimes = phaseTimes.clone();
+	this.messageCounts = messageCounts.clone();
+	this.collisionPairCount = collisionPairCount;
+	this.collisionTestCount = collisionTestCount;
+}
+
+/**
+ * Returns the number of the last frame covered by these statistics.
+ * Frames are numbered from 1 starting with the first frame run after
+ * statistics gathering was enabled.
+ *
+ * @return the number of the last frame
+ */
+public long getFrameNumber() {
+	return frameNumber;
+}
+
+/**
+ * Returns the number of frames covered by these statistics.
+ *
+ * @return the number of frames
+ */
+public long getFrameCount() {
+	return frameCount;
+}
+
+/**
+ * Returns the total elapsed time of the frames covered by these
+ * statistics, in nanoseconds.
+ *
+ * @return the total frame time
+ */
+public long getFrameTime() {
+	return frameTime;
+}
+
+/**
+ * Returns the elapsed time of the longest frame covered by these
+ * statistics, in nanoseconds.
+ *
+ * @return the longest frame time
+ */
+public long getMaxFrameTime() {
+	return maxFrameTime;
+}
+
+/**
+ * Returns the total time spent in the specified phase, in nanoseconds.
+ * When a phase runs for several universes or views, the times of all of
+ * them are added.
+ *
+ * @param phase one of the phase constants of this class
+ * @return the time spent in the phase
+ *
+ * @exception IllegalArgumentException if phase is not a valid phase
+ */
+public long getPhaseTime(int phase) {
+	checkPhase(phase);
+	return phaseTimes[phase];
+}
+
+/**
+ * Returns the number of messages processed by the specified phase.  This
+ * is zero for the phases that do not process messages.
+ *
+ * @param phase one of the phase constants of this class
+ * @return the number of messages processed
+ *
+ * @exception IllegalArgumentException if phase is not a valid phase
+ */
+public long getMessageCount(int phase) {
+	checkPhase(phase);
+	return messageCounts[phase];
+}
+
+/**
+ * Returns the number of pairs of a collision wakeup condition and a
+ * collidable object whose bounds the collision broadphase found to
+ * overlap.  This is zero unless the broadphase is enabled with the
+ * j3d.collisionBroadphase property.
+ *
+ * @return the number of broadphase pairs
+ */
+public long getCollisionPairCount() {
+	return collisionPairCount;
+}
+
+/**
+ * Returns the number of collision tests, with the bounds or the geometry
+ * depending on the accuracy mode of the wakeup condition, run for the
+ * pairs found by the collision broadphase.  This is zero unless the
+ * broadphase is enabled with the j3d.collisionBroadphase property.
+ *
+ * @return the number of narrowphase collision tests
+ */
+public long getCollisionTestCount() {
+	return collisionTestCount;
+}
+
+/**
+ * Returns a short name for the specified phase.
+ *
+ * @param phase one of the phase constants of this class
+ * @return the name of the phase
+ *
+ * @exception IllegalArgumentException if phase is not a valid phase
+ */
+public static String getPhaseName(int phase) {
+	checkPhase(phase);
+	return phaseNames[phase];
+}
+
+private static void checkPhase(int phase) {
+	if (phase < 0 || phase >= PHASE_COUNT)
+		throw new IllegalArgumentException(J3dI18N.getString("FrameStatistics0"));
+}
+
+/**
+ * Returns a string representation of these statistics.
+ */
+@Override
+public String toString() {
+	StringBuffer buf = new StringBuffer();
+	buf.append("FrameStatistics[frame=").append(frameNumber);
+	buf.append(", frames=").append(frameCount);
+	buf.append(", frameTime=").append(frameTime);
+	for (int i = 0; i < PHASE_COUNT; i++) {
+		if (phaseTimes[i] == 0 && messageCounts[i] == 0)
+			continue;
+
+		buf.append(", ").append(phaseNames[i]).append('=').append(phaseTimes[i]);
+		if (messageCounts[i] != 0)
+			buf.append(" (").append(messageCounts[i]).append(" msgs)");
+	}
+	if (collisionPairCount != 0 || collisionTestCount != 0) {
+		buf.append(", collisionPairs=").append(collisionPairCount);
+		buf.append(", collisionTests=").append(collisionTestCount);
+	}
+	buf.append(']');
+	return buf.toString();
+}
+}
@@ -0,0 +1,336 @@
+/*
+ * Copyright 2013 Harvey Harrison
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Sun designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Sun in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package javax.media.j3d;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanParameterInfo;
+import javax.management.ReflectionException;
+
+/**
+ * Gathers the per-phase timings of the frame loop for FrameStatistics.
+ * Nothing is timed unless a FrameStatisticsListener is registered or the
+ * collector has been registered as an MBean (-Dj3d.frameStatisticsMBean),
+ * so the only cost otherwise is one volatile read per thread iteration.
+ *
+ * The work threads add their times to the current frame concurrently, the
+ * MasterControl thread closes the frame once all of them are done.
+ */
+class FrameStatisticsCollector implements DynamicMBean {
+
+static final String MBEAN_NAME = "javax.media.j3d:type=FrameStatistics";
+
+private volatile boolean hasListeners = false;
+private volatile boolean mbeanRegistered = false;
+private volatile boolean enabled = false;
+
+// The current frame
+private final AtomicLongArray phaseTimes = new AtomicLongArray(FrameStatistics.PHASE_COUNT);
+private final AtomicLongArray messageCounts = new AtomicLongArray(FrameStatistics.PHASE_COUNT);
+private final AtomicLong collisionPairs = new AtomicLong();
+private final AtomicLong collisionTests = new AtomicLong();
+// Set by the MasterControl thread, cleared when disabled
+private volatile long frameStartTime = 0L;
+
+// All the frames since the collector was enabled or reset, guarded by this
+private long frameNumber = 0L;
+private long totalFrameTime = 0L;
+private long maxFrameTime = 0L;
+private final long[] totalPhaseTimes = new long[FrameStatistics.PHASE_COUNT];
+private final long[] totalMessageCounts = new long[FrameStatistics.PHASE_COUNT];
+private long totalCollisionPairs = 0L;
+private long totalCollisionTests = 0L;
+
+// Scratch arrays for the per-frame snapshot, only used by the MC thread
+private final long[] framePhaseTimes = new long[FrameStatistics.PHASE_COUNT];
+private final long[] frameMessageCounts = new long[FrameStatistics.PHASE_COUNT];
+
+final boolean isEnabled() {
+	return enabled;
+}
+
+boolean hasListeners() {
+	return hasListeners;
+}
+
+void setHasListeners(boolean b) {
+	hasListeners = b;
+	updateEnabled();
+}
+
+void setMBeanRegistered(boolean b) {
+	mbeanRegistered = b;
+	updateEnabled();
+}
+
+private void updateEnabled() {
+	boolean b = hasListeners || mbeanRegistered;
+	// A frame started before disabling is never done, it must not be
+	// reported as the first frame once enabled again
+	if (!b)
+		frameStartTime = 0L;
+	enabled = b;
+}
+
+/**
+ * Returns the phase the thread is about to run, or -1 if it is not timed.
+ * Must be called before doWork() as the renderer arguments are cleared
+ * once the work is done.
+ */
+static int getPhase(J3dThread thread) {
+	if (thread instanceof InputDeviceScheduler)
+		return FrameStatistics.INPUT_DEVICE_SCHEDULER;
+
+	switch (thread.type) {
+	case J3dThread.BEHAVIOR_SCHEDULER:
+		return FrameStatistics.BEHAVIOR_SCHEDULER;
+	case J3dThread.UPDATE_TRANSFORM:
+		return FrameStatistics.TRANSFORM_STRUCTURE;
+	case J3dThread.UPDATE_GEOMETRY:
+		return FrameStatistics.GEOMETRY_STRUCTURE;
+	case J3dThread.UPDATE_BEHAVIOR:
+		return FrameStatistics.BEHAVIOR_STRUCTURE;
+	case J3dThread.UPDATE_RENDERING_ENVIRONMENT:
+		return FrameStatistics.RENDERING_ENVIRONMENT_STRUCTURE;
+	case J3dThread.UPDATE_SOUND:
+		return FrameStatistics.SOUND_STRUCTURE;
+	case J3dThread.UPDATE_RENDERING_ATTRIBUTES:
+		return FrameStatistics.RENDERING_ATTRIBUTES_STRUCTURE;
+	case J3dThread.UPDATE_RENDER:
+		return FrameStatistics.RENDER_BIN;
+	case J3dThread.SOUND_SCHEDULER:
+		return FrameStatistics.SOUND_SCHEDULER;
+	case J3dThread.RENDER_THREAD:
+		if (thread.args != null && thread.args[0] instanceof Integer &&
+		    ((Integer)thread.args[0]).intValue() == Renderer.SWAP)
+			return FrameStatistics.SWAP;
+		return FrameStatistics.RENDER;
+	default:
+		return -1;
+	}
+}
+
+/**
+ * Add the time spent by the thread in the given phase to the current frame.
+ */
+void recordPhase(J3dThread thread, int phase, long time) {
+	if (phase < 0)
+		return;
+
+	phaseTimes.addAndGet(phase, time);
+	if (thread instanceof StructureUpdateThread) {
+		J3dStructure s = ((StructureUpdateThread)thread).structure;
+		if (s != null)
+			messageCounts.addAndGet(phase, s.getNumMessage());
+	}
+}
+
+/**
+ * Add the time spent in a phase run by the MasterControl thread.
+ */
+void recordPhase(int phase, long time) {
+	phaseTimes.addAndGet(phase, time);
+}
+
+/**
+ * Add the pairs found and the tests run by a collision broadphase pass to
+ * the current frame.
+ */
+void recordCollisionTests(long pairs, long tests) {
+	collisionPairs.addAndGet(pairs);
+	collisionTests.addAndGet(tests);
+}
+
+/**
+ * Called by the MasterControl thread when it starts running a frame.
+ */
+void frameStarted() {
+	frameStartTime = System.nanoTime();
+}
+
+/**
+ * Called by the MasterControl thread once all the threads of the frame
+ * are done.  Returns the statistics of the frame, or null if the frame was
+ * not fully timed.
+ */
+FrameStatistics frameDone() {
+	if (frameStartTime == 0L) {
+		// Enabled in the middle of the frame, drop the partial times
+		for (int i = 0; i < FrameStatistics.PHASE_COUNT; i++) {
+			phaseTimes.set(i, 0L);
+			messageCounts.set(i, 0L);
+		}
+		collisionPairs.set(0L);
+		collisionTests.set(0L);
+		return null;
+	}
+
+	long frameTime = System.nanoTime() - frameStartTime;
+	frameStartTime = 0L;
+
+	for (int i = 0; i < FrameStatistics.PHASE_COUNT; i++) {
+		framePhaseTimes[i] = phaseTimes.getAndSet(i, 0L);
+		frameMessageCounts[i] = messageCounts.getAndSet(i, 0L);
+	}
+	long framePairs = collisionPairs.getAndSet(0L);
+	long frameTests = collisionTests.getAndSet(0L);
+
+	long n;
+	synchronized (this) {
+		n = ++frameNumber;
+		totalFrameTime += frameTime;
+		if (frameTime > maxFrameTime)
+			maxFrameTime = frameTime;
+		for (int i = 0; i < FrameStatistics.PHASE_COUNT; i++) {
+			totalPhaseTimes[i] += framePhaseTimes[i];
+			totalMessageCounts[i] += frameMessageCounts[i];
+		}
+		totalCollisionPairs += framePairs;
+		totalCollisionTests += frameTests;
+	}
+
+	return new FrameStatistics(n, 1, frameTime, frameTime,
+				   framePhaseTimes, frameMessageCounts,
+				   framePairs, frameTests);
+}
+
+/**
+ * Returns the statistics of all the frames since the collector was
+ * enabled or reset.
+ */
+synchronized FrameStatistics getCumulativeStatistics() {
+	return new FrameStatistics(frameNumber, frameNumber, totalFrameTime,
+				   maxFrameTime, totalPhaseTimes, totalMessageCounts,
+				   totalCollisionPairs, totalCollisionTests);
+}
+
+synchronized void reset() {
+	frameNumber = 0L;
+	totalFrameTime = 0L;
+	maxFrameTime = 0L;
+	for (int i = 0; i < FrameStatistics.PHASE_COUNT; i++) {
+		totalPhaseTimes[i] = 0L;
+		totalMessageCounts[i] = 0L;
+	}
+	totalCollisionPairs = 0L;
+	totalCollisionTests = 0L;
+}
+
+// DynamicMBean implementation, the attributes are the cumulative statistics
+
+@Override
+public Object getAttribute(String name) throws AttributeNotFoundException {
+	FrameStatistics stats = getCumulativeStatistics();
+	if (name.equals("FrameCount"))
+		return Long.valueOf(stats.getFrameCount());
+	if (name.equals("FrameTime"))
+		return Long.valueOf(stats.getFrameTime());
+	if (name.equals("MaxFrameTime"))
+		return Long.valueOf(stats.getMaxFrameTime());
+	if (name.equals("CollisionPairs"))
+		return Long.valueOf(stats.getCollisionPairCount());
+	if (name.equals("CollisionTests"))
+		return Long.valueOf(stats.getCollisionTestCount());
+
+	for (int i = 0; i < FrameStatistics.PHASE_COUNT; i++) {
+		String phase = FrameStatistics.phaseNames[i];
+		if (name.startsWith(phase)) {
+			String suffix = name.substring(phase.length());
+			if (suffix.equals("Time"))
+				return Long.valueOf(stats.getPhaseTime(i));
+			if (suffix.equals("Messages"))
+				return Long.valueOf(stats.getMessageCount(i));
+		}
+	}
+	throw new AttributeNotFoundException(name);
+}
+
+@Override
+public AttributeList getAttributes(String[] names) {
+	AttributeList list = new AttributeList();
+	for (int i = 0; i < names.length; i++) {
+		try {
+			list.add(new Attribute(names[i], getAttribute(names[i])));
+		}
+		catch (AttributeNotFoundException e) {
+			// Skipped, as required by DynamicMBean
+		}
+	}
+	return list;
+}
+
+@Override
+public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+	throw new AttributeNotFoundException(attribute.getName());
+}
+
+@Override
+public AttributeList setAttributes(AttributeList attributes) {
+	return new AttributeList();
+}
+
+@Override
+public Object invoke(String action, Object[] params, String[] signature)
+	throws ReflectionException {
+	if (action.equals("reset") && (params == null || params.length == 0)) {
+		reset();
+		return null;
+	}
+	throw new ReflectionException(new NoSuchMethodException(action));
+}
+
+@Override
+public MBeanInfo getMBeanInfo() {
+	int n = FrameStatistics.PHASE_COUNT;
+	MBeanAttributeInfo[] attrs = new MBeanAttributeInfo[5 + 2 * n];
+	attrs[0] = longAttribute("FrameCount", "Number of frames");
+	attrs[1] = longAttribute("FrameTime", "Total frame time (ns)");
+	attrs[2] = longAttribute("MaxFrameTime", "Longest frame time (ns)");
+	for (int i = 0; i < n; i++) {
+		String phase = FrameStatistics.phaseNames[i];
+		attrs[3 + 2 * i] = longAttribute(phase + "Time",
+						 "Total time in " + phase + " (ns)");
+		attrs[4 + 2 * i] = longAttribute(phase + "Messages",
+						 "Messages processed by " + phase);
+	}
+	attrs[3 + 2 * n] = longAttribute("CollisionPairs",
+					 "Collision broadphase pairs");
+	attrs[4 + 2 * n] = longAttribute("CollisionTests",
+					 "Collision narrowphase tests");
+
+	MBeanOperationInfo[] ops = {
+		new MBeanOperationInfo("reset", "Reset the statistics",
+				       new MBeanParameterInfo[0], "void",
+				       MBeanOperationInfo.ACTION),
+	};
+
+	return new MBeanInfo(getClass().getName(),
+			     "Java 3D frame loop statistics",
+			     attrs, null, ops, null);
+}
+
+private static MBeanAttributeInfo longAttribute(String name, String desc) {
+	return new MBeanAttributeInfo(name, "long", desc, true, false, false);
+}
+}
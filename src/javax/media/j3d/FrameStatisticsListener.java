@@ -0,0 +1,35 @@
+/*
+ * Copyright 2013 Harvey Harrison
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Sun designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Sun in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package javax.media.j3d;
+
+/**
+ * Listener interface for monitoring the time spent in each phase of the
+ * Java 3D frame loop.
+ *
+ * @see VirtualUniverse#addFrameStatisticsListener
+ *
+ * @since Java 3D 1.6
+ */
+public interface FrameStatisticsListener {
+    /**
+     * Invoked after each frame with the statistics for that frame.  The
+     * listener is called asynchronously from a separate notification
+     * thread, so a slow listener does not stall the frame loop.
+     *
+     * @param stats the statistics of the frame.
+     */
+    public void frameCompleted(FrameStatistics stats);
+}
@@ -33,6 +33,7 @@ class FreeListManager {
 
     // constants that represent the freelists managed by the Manager
     static final int DISPLAYLIST = 0;
+    static final int MESSAGE = 1;
 
     private static int maxFreeListNum = 0;
 
@@ -42,9 +43,10 @@ class FreeListManager {
     static MemoryFreeList[] freelist = null;
 
     static void createFreeLists() {
-        maxFreeListNum = 0;
+        maxFreeListNum = 1;
         freelist = new MemoryFreeList[maxFreeListNum+1];
         freelist[DISPLAYLIST] = new IntegerFreeList();
+        freelist[MESSAGE] = new MessageFreeList();
     }
 
     // see if the current list can be shrunk
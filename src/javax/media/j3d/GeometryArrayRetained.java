@@ -358,6 +358,14 @@ ArrayList<ArrayList<MorphRetained>> morphUserLists = null;
 
     IndexedGeometryArrayRetained cloneSourceArray = null;
 
+    // Triangle BVH of a large triangle list geometry, built on its first
+    // PICK_GEOMETRY pick, see getPickTriangles.  Dropped, and
+    // pickBVHVersion incremented, whenever the coordinates or indices
+    // change.  Both are guarded by pickBVHLock.
+    private TriangleBVH pickBVH = null;
+    private int pickBVHVersion = 0;
+    private final Object pickBVHLock = new Object();
+
     static final double EPS = 1.0e-13;
 
     GeometryArrayRetained() {
@@ -369,6 +377,8 @@ ArrayList<ArrayList<MorphRetained>> morphUserLists = null;
     @Override
     void setLive(boolean inBackgroundGroup, int refCount) {
 	dirtyFlag = VERTEX_CHANGED|INDEX_CHANGED;
+	// The geometry may have been changed while it was not live
+	clearPickBVH();
         isEditable = !isWriteStatic();
         super.doSetLive(inBackgroundGroup, refCount);
 	super.markAsLive();
@@ -520,6 +530,10 @@ ArrayList<ArrayList<MorphRetained>> morphUserLists = null;
 
 	    // Initial offset
 	    offset = vIndex * stride+coordinateOffset;
+	    if (computeBoundingBoxParallel(vdata, offset, stride,
+					   validVertexCount))
+		return;
+
 	    // Compute the bounding box
 	    xmin = xmax = vdata[offset];
 	    ymin = ymax = vdata[offset+1];
@@ -571,6 +585,10 @@ ArrayList<ArrayList<MorphRetained>> morphUserLists = null;
 
 	    // Initial offset
 	    offset = vIndex * stride+coordinateOffset;
+	    if (computeBoundingBoxParallel(vdata, offset, stride,
+					   validVertexCount))
+		return;
+
 	    // Compute the bounding box
 	    xmin = xmax = vdata.get(offset);
 	    ymin = ymax = vdata.get(offset+1);
@@ -618,6 +636,9 @@ ArrayList<ArrayList<MorphRetained>> morphUserLists = null;
 
 	    sIndex = initialCoordIndex;
 	    int maxIndex = 3*validVertexCount;
+	    if (computeBoundingBoxParallel(buffer, sIndex, 3,
+					   (maxIndex - sIndex + 2) / 3))
+		return;
 
 	    // Compute the bounding box
 	    xmin = xmax = buffer.get(sIndex++);
@@ -668,6 +689,9 @@ ArrayList<ArrayList<MorphRetained>> morphUserLists = null;
 
 	    sIndex = initialCoordIndex;
 	    int maxIndex = 3*validVertexCount;
+	    if (computeBoundingBoxParallel(buffer, sIndex, 3,
+					   (maxIndex - sIndex + 2) / 3))
+		return;
 
 	    // Compute the bounding box
 	    xmin = xmax = buffer.get(sIndex++);
@@ -716,6 +740,9 @@ ArrayList<ArrayList<MorphRetained>> morphUserLists = null;
 
 	    sIndex = initialCoordIndex;
 	    int maxIndex = 3*validVertexCount;
+	    if (computeBoundingBoxParallel(coords, sIndex, 3,
+					   (maxIndex - sIndex + 2) / 3))
+		return;
 
 	// Compute the bounding box
 	    xmin = xmax = coords[sIndex++];
@@ -768,6 +795,9 @@ ArrayList<ArrayList<MorphRetained>> morphUserLists = null;
 
 	    sIndex = initialCoordIndex;
 	    int maxIndex = 3*validVertexCount;
+	    if (computeBoundingBoxParallel(coords, sIndex, 3,
+					   (maxIndex - sIndex + 2) / 3))
+		return;
 
 	    // Compute the bounding box
 	    xmin = xmax = coords[sIndex++];
@@ -817,6 +847,10 @@ ArrayList<ArrayList<MorphRetained>> morphUserLists = null;
 
 
 
+	    if (computeBoundingBoxParallel(coords, initialCoordIndex, 1,
+					   validVertexCount - initialCoordIndex))
+		return;
+
 	// Compute the bounding box
 	    xmin = xmax = coords[initialCoordIndex].x;
 	    ymin = ymax = coords[initialCoordIndex].y;
@@ -856,6 +890,10 @@ ArrayList<ArrayList<MorphRetained>> morphUserLists = null;
 		return;
 
 
+	    if (computeBoundingBoxParallel(coords, initialCoordIndex, 1,
+					   validVertexCount - initialCoordIndex))
+		return;
+
 	// Compute the bounding box
 	    xmin = xmax = coords[initialCoordIndex].x;
 	    ymin = ymax = coords[initialCoordIndex].y;
@@ -881,6 +919,160 @@ ArrayList<ArrayList<MorphRetained>> morphUserLists = null;
     }
 
 
+    /**
+     * Computes the bounding box of count vertices of coords on the task
+     * pool when there are at least parallelBoundsThreshold of them,
+     * returns false without doing anything otherwise.  The first vertex
+     * starts at offset and the vertices are stride apart, coords is a
+     * float[], double[], FloatBuffer, DoubleBuffer, Point3f[] or Point3d[]
+     * (stride 1).  Called with the geoBounds lock held.
+     */
+    private boolean computeBoundingBoxParallel(Object coords, int offset,
+					       int stride, int count) {
+	int threshold = VirtualUniverse.mc.parallelBoundsThreshold;
+	if (threshold <= 0 || count < threshold)
+	    return false;
+
+	J3dTaskPool pool = VirtualUniverse.mc.getTaskPool();
+	// At most one task per vertex, so that no range is empty
+	int numTasks = Math.min(pool.getParallelism(), count);
+	BoundingBoxTask[] tasks = new BoundingBoxTask[numTasks];
+	for (int i = 0; i < numTasks; i++) {
+	    int first = (int)((long)count * i / numTasks);
+	    int last = (int)((long)count * (i + 1) / numTasks);
+	    tasks[i] = new BoundingBoxTask(coords, offset + first * stride,
+					   stride, last - first);
+	}
+	pool.invokeAll(tasks, numTasks);
+
+	BoundingBoxTask t = tasks[0];
+	double xmin = t.xmin, xmax = t.xmax;
+	double ymin = t.ymin, ymax = t.ymax;
+	double zmin = t.zmin, zmax = t.zmax;
+	for (int i = 1; i < numTasks; i++) {
+	    t = tasks[i];
+	    if (t.xmax > xmax) xmax = t.xmax;
+	    if (t.xmin < xmin) xmin = t.xmin;
+	    if (t.ymax > ymax) ymax = t.ymax;
+	    if (t.ymin < ymin) ymin = t.ymin;
+	    if (t.zmax > zmax) zmax = t.zmax;
+	    if (t.zmin < zmin) zmin = t.zmin;
+	}
+
+	geoBounds.setUpper(xmax, ymax, zmax);
+	geoBounds.setLower(xmin, ymin, zmin);
+	boundsDirty = false;
+	return true;
+    }
+
+    // Bounds one range of the vertices for computeBoundingBoxParallel,
+    // the ranges are never empty since there are no more tasks than vertices
+    private static class BoundingBoxTask extends J3dTaskPool.Task {
+	final Object coords;
+	final int offset;
+	final int stride;
+	final int count;
+	double xmin, xmax, ymin, ymax, zmin, zmax;
+
+	BoundingBoxTask(Object coords, int offset, int stride, int count) {
+	    this.coords = coords;
+	    this.offset = offset;
+	    this.stride = stride;
+	    this.count = count;
+	}
+
+	@Override
+	void compute() {
+	    if (coords instanceof float[])
+		compute((float[])coords);
+	    else if (coords instanceof double[])
+		compute((double[])coords);
+	    else if (coords instanceof FloatBuffer)
+		compute((FloatBuffer)coords);
+	    else if (coords instanceof DoubleBuffer)
+		compute((DoubleBuffer)coords);
+	    else if (coords instanceof Point3f[])
+		compute((Point3f[])coords);
+	    else
+		compute((Point3d[])coords);
+	}
+
+	private void compute(float[] vdata) {
+	    int i = offset;
+	    xmin = xmax = vdata[i];
+	    ymin = ymax = vdata[i+1];
+	    zmin = zmax = vdata[i+2];
+	    for (int n = 1; n < count; n++) {
+		i += stride;
+		add(vdata[i], vdata[i+1], vdata[i+2]);
+	    }
+	}
+
+	private void compute(double[] vdata) {
+	    int i = offset;
+	    xmin = xmax = vdata[i];
+	    ymin = ymax = vdata[i+1];
+	    zmin = zmax = vdata[i+2];
+	    for (int n = 1; n < count; n++) {
+		i += stride;
+		add(vdata[i], vdata[i+1], vdata[i+2]);
+	    }
+	}
+
+	private void compute(FloatBuffer vdata) {
+	    int i = offset;
+	    xmin = xmax = vdata.get(i);
+	    ymin = ymax = vdata.get(i+1);
+	    zmin = zmax = vdata.get(i+2);
+	    for (int n = 1; n < count; n++) {
+		i += stride;
+		add(vdata.get(i), vdata.get(i+1), vdata.get(i+2));
+	    }
+	}
+
+	private void compute(DoubleBuffer vdata) {
+	    int i = offset;
+	    xmin = xmax = vdata.get(i);
+	    ymin = ymax = vdata.get(i+1);
+	    zmin = zmax = vdata.get(i+2);
+	    for (int n = 1; n < count; n++) {
+		i += stride;
+		add(vdata.get(i), vdata.get(i+1), vdata.get(i+2));
+	    }
+	}
+
+	private void compute(Point3f[] points) {
+	    Point3f p = points[offset];
+	    xmin = xmax = p.x;
+	    ymin = ymax = p.y;
+	    zmin = zmax = p.z;
+	    for (int n = 1; n < count; n++) {
+		p = points[offset + n];
+		add(p.x, p.y, p.z);
+	    }
+	}
+
+	private void compute(Point3d[] points) {
+	    Point3d p = points[offset];
+	    xmin = xmax = p.x;
+	    ymin = ymax = p.y;
+	    zmin = zmax = p.z;
+	    for (int n = 1; n < count; n++) {
+		p = points[offset + n];
+		add(p.x, p.y, p.z);
+	    }
+	}
+
+	private void add(double x, double y, double z) {
+	    if (x > xmax) xmax = x;
+	    if (x < xmin) xmin = x;
+	    if (y > ymax) ymax = y;
+	    if (y < ymin) ymin = y;
+	    if (z > zmax) zmax = z;
+	    if (z < zmin) zmin = z;
+	}
+    }
+
     @Override
     synchronized void update() {
     }
@@ -3444,6 +3636,10 @@ ArrayList<ArrayList<MorphRetained>> morphUserLists = null;
 	J3dMessage[] m;
 	int i, j, k, numShapeMessages, numMorphMessages;
 
+	if (coordinatesChanged) {
+	    clearPickBVH();
+	}
+
 	synchronized(liveStateLock) {
 	    if (source != null && source.isLive()) {
 		// System.err.println("In GeometryArrayRetained - ");
@@ -10696,6 +10892,50 @@ int numDlistUsers(RenderBin renderBin) {
     }
 
 
+    void clearPickBVH() {
+	synchronized (pickBVHLock) {
+	    pickBVH = null;
+	    pickBVHVersion++;
+	}
+    }
+
+    /**
+     * Returns the triangles of a triangle list that the pick shape, in the
+     * local coordinates of this geometry, may intersect.  Triangle n is
+     * made of the vertices at positions first + 3n to first + 3n + 2, read
+     * through the indices array if it is not null.  The returned triangle
+     * numbers are in increasing order.  Returns null, meaning that every
+     * triangle must be tested, if the list is smaller than the
+     * j3d.pickBVHThreshold property or the pick shape is not supported.
+     *
+     * The triangle BVH used to find the triangles is built on the first
+     * call, by the picking thread, and kept until the geometry changes.
+     */
+    int[] getPickTriangles(PickShape pickShape, int first, int[] indices,
+			   int numTris) {
+	int threshold = VirtualUniverse.mc.pickBVHThreshold;
+	if (threshold <= 0 || numTris < threshold) {
+	    return null;
+	}
+
+	TriangleBVH bvh;
+	int version;
+	synchronized (pickBVHLock) {
+	    bvh = pickBVH;
+	    version = pickBVHVersion;
+	}
+	if (bvh == null || !bvh.matches(first, indices, numTris)) {
+	    bvh = new TriangleBVH(this, first, indices, numTris);
+	    synchronized (pickBVHLock) {
+		// Keep it only if the geometry did not change meanwhile
+		if (version == pickBVHVersion) {
+		    pickBVH = bvh;
+		}
+	    }
+	}
+	return bvh.select(pickShape);
+    }
+
     // Used by the picking intersect routines
     void getVertexData(int i, Point3d pnts) {
 	int offset;
@@ -83,6 +83,22 @@ class GeometryStructure extends J3dStructure {
     private int bhNodeCount, bhNodeMax;
     private int bhNodeBlockSize = 50;
 
+    /**
+     * The PickSnapshots of the BHTrees published at the end of the last
+     * update pass, picks use them instead of the BHTrees when
+     * MasterControl.pickSnapshot is set.  The array and the snapshots are
+     * never modified, a new array replaces this one after an update pass
+     * that changed a BHTree.
+     */
+    private volatile PickSnapshot[] pickSnapshots = null;
+
+    /**
+     * The sweep and prune broadphase used to evaluate the collision
+     * wakeups, null unless MasterControl.collisionBroadphase is set.
+     * It holds the same leaves as the BHTrees.
+     */
+    private CollisionBroadphase collisionBroadphase = null;
+
     // Support for multi-locale.
     private Vector3d localeTrans = new Vector3d();
 
@@ -128,6 +144,9 @@ class GeometryStructure extends J3dStructure {
 						      WakeupOnCollisionExit.COND_IN_GS_LIST, u);
 	wakeupOnCollisionMovement = new WakeupIndexedList(WakeupOnCollisionMovement.class,
 							  WakeupOnCollisionMovement.COND_IN_GS_LIST, u);
+	if (VirtualUniverse.mc.collisionBroadphase) {
+	    collisionBroadphase = new CollisionBroadphase();
+	}
     }
 
     @Override
@@ -224,6 +243,10 @@ class GeometryStructure extends J3dStructure {
 	    }
 
 	    Arrays.fill(messages, 0, nMsg, null);
+
+	    if (VirtualUniverse.mc.pickSnapshot) {
+		publishPickSnapshots();
+	    }
 	}
 
 	processCollisionDetection();
@@ -358,6 +381,9 @@ class GeometryStructure extends J3dStructure {
 	int idx = getOrAddBHTreeIndex(((BHLeafNode)bhNodeArr[0]).getLocale());
 	BHTree currTree = bhTreeArr[idx];
 	currTree.insert(bhNodeArr, bhNodeCount);
+	if (collisionBroadphase != null) {
+	    collisionBroadphase.add(bhNodeArr, bhNodeCount);
+	}
 
 	// Issue 353: must clear array after we are done with it
 	clearBhNodeArr();
@@ -440,6 +466,10 @@ class GeometryStructure extends J3dStructure {
 	    return;
 	}
 
+	if (collisionBroadphase != null) {
+	    collisionBroadphase.remove(bhNodeArr, bhNodeCount);
+	}
+
 	int index = getBHTreeIndex(((BHLeafNode) bhNodeArr[0]).getLocale());
 	if (index < 0) {
 		// Issue 353: must clear array after we are done with it
@@ -675,8 +705,63 @@ class GeometryStructure extends J3dStructure {
 	return unviInFB;
     }
 
+    /**
+     * Publishes a snapshot of every BHTree for the picks.  Only this
+     * structure modifies the BHTrees, so they are copied without the lock.
+     * The snapshots of the trees unchanged since the last pass are kept,
+     * and the array is only replaced when one of them changed.
+     */
+    private void publishPickSnapshots() {
+	PickSnapshot[] old = pickSnapshots;
+	PickSnapshot[] snapshots = old;
+	for (int i = 0; i < bhTreeCount; i++) {
+	    // BHTrees are never removed, so the index of a tree is stable
+	    PickSnapshot prev = null;
+	    if ((old != null) && (i < old.length)) {
+		prev = old[i];
+	    }
+
+	    PickSnapshot snapshot = bhTreeArr[i].createPickSnapshot(prev);
+	    if (snapshot != prev) {
+		if (snapshots == old) {
+		    snapshots = new PickSnapshot[bhTreeCount];
+		    if (old != null) {
+			System.arraycopy(old, 0, snapshots, 0, old.length);
+		    }
+		}
+		snapshots[i] = snapshot;
+	    }
+	}
+
+	if (snapshots != old) {
+	    pickSnapshots = snapshots;
+	}
+    }
+
+    /**
+     * Returns the last published snapshot of the BHTree of the locale, or
+     * null if there is none and the BHTree has to be used.
+     */
+    private PickSnapshot getPickSnapshot(Locale locale) {
+	PickSnapshot[] snapshots = pickSnapshots;
+	if (snapshots == null || !VirtualUniverse.mc.pickSnapshot) {
+	    return null;
+	}
+
+	for (int i = 0; i < snapshots.length; i++) {
+	    if (snapshots[i].locale == locale)
+		return snapshots[i];
+	}
+	return null;
+    }
+
     GeometryAtom[] pickAll(Locale locale, PickShape shape) {
 
+	PickSnapshot snapshot = getPickSnapshot(locale);
+	if (snapshot != null) {
+	    return snapshot.pickAll(shape);
+	}
+
 	int i;
  	UnorderList hitList = new UnorderList(BHNode.class);
 	hitList.clear();
@@ -707,8 +792,63 @@ class GeometryStructure extends J3dStructure {
 	return geometryAtoms;
     }
 
+    /**
+     * Returns the pickable GeometryAtoms whose bounds are hit by each of
+     * the shapes, element i is null when shapes[i] hits nothing.  The
+     * BHTree is traversed once for all the shapes.
+     */
+    GeometryAtom[][] pickAll(Locale locale, PickShape[] shapes) {
+
+	int i;
+	GeometryAtom[][] geometryAtoms = new GeometryAtom[shapes.length][];
+
+	PickSnapshot snapshot = getPickSnapshot(locale);
+	if (snapshot != null) {
+	    // All the shapes see the same snapshot
+	    for (i=0; i<shapes.length; i++) {
+		geometryAtoms[i] = snapshot.pickAll(shapes[i]);
+	    }
+	    return geometryAtoms;
+	}
+
+	UnorderList[] hitLists = new UnorderList[shapes.length];
+	for (i=0; i<shapes.length; i++) {
+	    hitLists[i] = new UnorderList(BHNode.class);
+	}
+
+	lock.readLock();
+
+	i = getBHTreeIndex(locale);
+	if (i < 0) {
+	    lock.readUnlock();
+	    return geometryAtoms;
+	}
+
+	bhTreeArr[i].select(shapes, hitLists);
+	lock.readUnlock();
+
+	for (int s=0; s<shapes.length; s++) {
+	    int size = hitLists[s].size();
+	    if (size < 1)
+		continue;
+
+	    BHNode[] hitArr = (BHNode []) hitLists[s].toArray(false);
+	    geometryAtoms[s] = new GeometryAtom[size];
+	    for (i=0; i<size; i++) {
+		geometryAtoms[s][i] = (GeometryAtom)(((BHLeafNode)hitArr[i]).leafIF);
+	    }
+	}
+
+	return geometryAtoms;
+    }
+
     GeometryAtom pickAny(Locale locale, PickShape shape) {
 
+	PickSnapshot snapshot = getPickSnapshot(locale);
+	if (snapshot != null) {
+	    return snapshot.pickAny(shape);
+	}
+
 	int i;
 
 	BHNode hitNode = null;
@@ -887,21 +1027,42 @@ class GeometryStructure extends J3dStructure {
 	int i, idx;
 	BHLeafInterface target;
 
-	// handle WakeupOnCollisionEntry
-	WakeupOnCollisionEntry wentry;
 	WakeupOnCollisionEntry wentryArr[] = (WakeupOnCollisionEntry [])
                                        wakeupOnCollisionEntry.toArray();
+	WakeupOnCollisionMovement wmoveArr[] = (WakeupOnCollisionMovement [])
+                                       wakeupOnCollisionMovement.toArray();
+	WakeupOnCollisionExit wexitArr[] = (WakeupOnCollisionExit [])
+                                       wakeupOnCollisionExit.toArray();
+	int numEntry = wakeupOnCollisionEntry.arraySize();
+	int numMove = wakeupOnCollisionMovement.arraySize();
+	int numExit = wakeupOnCollisionExit.arraySize();
+
+	// With the broadphase the bounds of all the conditions are swept
+	// first, the conditions are then numbered entry, movement, exit
+	boolean sweep = (collisionBroadphase != null) &&
+			(numEntry + numMove + numExit > 0);
+	if (sweep) {
+	    sweepCollisionBounds(wentryArr, numEntry, wmoveArr, numMove,
+				 wexitArr, numExit);
+	}
 
-	for (i = wakeupOnCollisionEntry.arraySize()-1; i >=0; i--) {
+	// handle WakeupOnCollisionEntry
+	WakeupOnCollisionEntry wentry;
+
+	for (i = numEntry-1; i >=0; i--) {
 	    wentry = wentryArr[i];
-	    wentry.updateCollisionBounds(reEvaluateWakeupCollisionGAs);
-	    target = collide(wentry.behav.locale,
-			     wentry.accuracyMode,
-			     wentry.geometryAtoms,
-			     wentry.vwcBounds,
-			     wentry.boundingLeaf,
-			     wentry.armingNode,
-			     null);
+	    if (sweep) {
+		target = collisionBroadphase.collide(i);
+	    } else {
+		wentry.updateCollisionBounds(reEvaluateWakeupCollisionGAs);
+		target = collide(wentry.behav.locale,
+				 wentry.accuracyMode,
+				 wentry.geometryAtoms,
+				 wentry.vwcBounds,
+				 wentry.boundingLeaf,
+				 wentry.armingNode,
+				 null);
+	    }
 	    idx = collideEntryList.indexOf(wentry);
 
 	    if (target != null) {
@@ -920,19 +1081,26 @@ class GeometryStructure extends J3dStructure {
 	// handle WakeupOnCollisionMovement
 
 	WakeupOnCollisionMovement wmove;
-	WakeupOnCollisionMovement wmoveArr[] = (WakeupOnCollisionMovement [])
-                                       wakeupOnCollisionMovement.toArray();
 
-	for (i = wakeupOnCollisionMovement.arraySize()-1; i >=0; i--) {
+	for (i = numMove-1; i >=0; i--) {
 	    wmove = wmoveArr[i];
-	    wmove.updateCollisionBounds(reEvaluateWakeupCollisionGAs);
-	    target = collide(wmove.behav.locale,
-			     wmove.accuracyMode,
-			     wmove.geometryAtoms,
-			     wmove.vwcBounds,
-			     wmove.boundingLeaf,
-			     wmove.armingNode,
-			     wmove);
+	    if (sweep) {
+		target = collisionBroadphase.collide(numEntry + i);
+		if (target != null) {
+		    checkDuplicateEvent(wmove,
+			collisionBroadphase.getSourceBounds(numEntry + i),
+			target);
+		}
+	    } else {
+		wmove.updateCollisionBounds(reEvaluateWakeupCollisionGAs);
+		target = collide(wmove.behav.locale,
+				 wmove.accuracyMode,
+				 wmove.geometryAtoms,
+				 wmove.vwcBounds,
+				 wmove.boundingLeaf,
+				 wmove.armingNode,
+				 wmove);
+	    }
 	    idx = collideMovementList.indexOf(wmove);
 	    if (target != null) {
 		if (idx < 0) {
@@ -956,19 +1124,21 @@ class GeometryStructure extends J3dStructure {
 	// Finally, handle WakeupOnCollisionExit
 
 	WakeupOnCollisionExit wexit;
-	WakeupOnCollisionExit wexitArr[] = (WakeupOnCollisionExit [])
-                                       wakeupOnCollisionExit.toArray();
 
-	for (i = wakeupOnCollisionExit.arraySize()-1; i >=0; i--) {
+	for (i = numExit-1; i >=0; i--) {
 	    wexit = wexitArr[i];
-	    wexit.updateCollisionBounds(reEvaluateWakeupCollisionGAs);
-	    target = collide(wexit.behav.locale,
-			     wexit.accuracyMode,
-			     wexit.geometryAtoms,
-			     wexit.vwcBounds,
-			     wexit.boundingLeaf,
-			     wexit.armingNode,
-			     null);
+	    if (sweep) {
+		target = collisionBroadphase.collide(numEntry + numMove + i);
+	    } else {
+		wexit.updateCollisionBounds(reEvaluateWakeupCollisionGAs);
+		target = collide(wexit.behav.locale,
+				 wexit.accuracyMode,
+				 wexit.geometryAtoms,
+				 wexit.vwcBounds,
+				 wexit.boundingLeaf,
+				 wexit.armingNode,
+				 null);
+	    }
 	    idx = collideExitList.indexOf(wexit);
 	    if (target != null) {
 		if (idx < 0) {
@@ -983,6 +1153,49 @@ class GeometryStructure extends J3dStructure {
 	    }
 	}
 
+	if (sweep) {
+	    FrameStatisticsCollector stats = VirtualUniverse.mc.frameStatistics;
+	    if (stats.isEnabled()) {
+		stats.recordCollisionTests(collisionBroadphase.getPairCount(),
+					   collisionBroadphase.getTestCount());
+	    }
+	    collisionBroadphase.clearSources();
+	}
+    }
+
+    /**
+     * Updates the bounds of all the collision conditions and sweeps them
+     * against the collidable leaves, the conditions are added to the
+     * broadphase in the order processCollisionDetection numbers them.
+     */
+    private void sweepCollisionBounds(WakeupOnCollisionEntry[] wentryArr,
+				      int numEntry,
+				      WakeupOnCollisionMovement[] wmoveArr,
+				      int numMove,
+				      WakeupOnCollisionExit[] wexitArr,
+				      int numExit) {
+	for (int i = 0; i < numEntry; i++) {
+	    WakeupOnCollisionEntry w = wentryArr[i];
+	    w.updateCollisionBounds(reEvaluateWakeupCollisionGAs);
+	    collisionBroadphase.addSource(w.behav.locale, w.accuracyMode,
+					  w.geometryAtoms, w.vwcBounds,
+					  w.boundingLeaf, w.armingNode);
+	}
+	for (int i = 0; i < numMove; i++) {
+	    WakeupOnCollisionMovement w = wmoveArr[i];
+	    w.updateCollisionBounds(reEvaluateWakeupCollisionGAs);
+	    collisionBroadphase.addSource(w.behav.locale, w.accuracyMode,
+					  w.geometryAtoms, w.vwcBounds,
+					  w.boundingLeaf, w.armingNode);
+	}
+	for (int i = 0; i < numExit; i++) {
+	    WakeupOnCollisionExit w = wexitArr[i];
+	    w.updateCollisionBounds(reEvaluateWakeupCollisionGAs);
+	    collisionBroadphase.addSource(w.behav.locale, w.accuracyMode,
+					  w.geometryAtoms, w.vwcBounds,
+					  w.boundingLeaf, w.armingNode);
+	}
+	collisionBroadphase.sweep();
     }
 
 
@@ -310,7 +310,7 @@ public class GraphicsConfigTemplate3D extends GraphicsConfigTemplate {
 	    // this thread has to wait Renderer thread to finish but
 	    // MC can only handle postRequest and put it in Renderer
 	    // queue when free.
-	    if (Thread.currentThread() instanceof BehaviorScheduler) {
+	    if (BehaviorScheduler.isBehaviorThread(null)) {
 		VirtualUniverse.mc.sendRenderMessage(gc[0], this,
 						     MasterControl.GETBESTCONFIG);
 	    } else {
@@ -342,7 +342,7 @@ public class GraphicsConfigTemplate3D extends GraphicsConfigTemplate {
         synchronized (globalLock) {
 	    testCfg = gc;
 	    threadWaiting = true;
-	    if (Thread.currentThread() instanceof BehaviorScheduler) {
+	    if (BehaviorScheduler.isBehaviorThread(null)) {
 		VirtualUniverse.mc.sendRenderMessage(gc, this, MasterControl.ISCONFIGSUPPORT);
 	    } else {
 		VirtualUniverse.mc.postRequest(MasterControl.ISCONFIGSUPPORT, this);
@@ -359,7 +359,7 @@ public class GraphicsConfigTemplate3D extends GraphicsConfigTemplate {
     static void getGraphicsConfigFeatures(Canvas3D c) {
 	synchronized (globalLock) {
 	    threadWaiting = true;
-	    if (Thread.currentThread() instanceof BehaviorScheduler) {
+	    if (BehaviorScheduler.isBehaviorThread(null)) {
 		VirtualUniverse.mc.sendRenderMessage(c.graphicsConfiguration, c,
 						     MasterControl.SET_GRAPHICSCONFIG_FEATURES);
 	    } else {
@@ -377,7 +377,7 @@ public class GraphicsConfigTemplate3D extends GraphicsConfigTemplate {
     static void setQueryProps(Canvas3D c) {
 	synchronized (globalLock) {
 	    threadWaiting = true;
-	    if (Thread.currentThread() instanceof BehaviorScheduler) {
+	    if (BehaviorScheduler.isBehaviorThread(null)) {
 		VirtualUniverse.mc.sendRenderMessage(c.graphicsConfiguration, c,
 						     MasterControl.SET_QUERYPROPERTIES);
 	    } else {
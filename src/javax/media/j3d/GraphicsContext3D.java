@@ -415,8 +415,7 @@ public class GraphicsContext3D extends Object   {
 	    (!canvas3d.view.active) ||
 	    (Thread.currentThread() == canvas3d.screen.renderer)) {
             doSetAppearance(appearance);
-        } else if (Thread.currentThread() ==
-		   canvas3d.view.universe.behaviorScheduler) {
+        } else if (BehaviorScheduler.isBehaviorThread(canvas3d.view.universe)) {
             sendRenderMessage(false, GraphicsContext3D.SET_APPEARANCE, appearance, null);
         } else {
             sendRenderMessage(true, GraphicsContext3D.SET_APPEARANCE, appearance, null);
@@ -682,8 +681,7 @@ public class GraphicsContext3D extends Object   {
 	    (!canvas3d.view.active) ||
 	    (Thread.currentThread() == canvas3d.screen.renderer)) {
             doSetBackground(background);
-        } else if (Thread.currentThread() ==
-                        canvas3d.view.universe.behaviorScheduler) {
+        } else if (BehaviorScheduler.isBehaviorThread(canvas3d.view.universe)) {
             sendRenderMessage(false, GraphicsContext3D.SET_BACKGROUND, background, null);
         } else {
             sendRenderMessage(true, GraphicsContext3D.SET_BACKGROUND, background, null);
@@ -737,8 +735,7 @@ public class GraphicsContext3D extends Object   {
 	    (!canvas3d.view.active) ||
             (Thread.currentThread() == canvas3d.screen.renderer)) {
             doSetFog(fog);
-        } else if (Thread.currentThread() ==
-                        canvas3d.view.universe.behaviorScheduler) {
+        } else if (BehaviorScheduler.isBehaviorThread(canvas3d.view.universe)) {
             sendRenderMessage(false, GraphicsContext3D.SET_FOG, fog, null);
         } else {
             sendRenderMessage(true, GraphicsContext3D.SET_FOG, fog, null);
@@ -797,8 +794,7 @@ public class GraphicsContext3D extends Object   {
 	    (!canvas3d.view.active) ||
             (Thread.currentThread() == canvas3d.screen.renderer)) {
             doSetModelClip(modelClip);
-        } else if (Thread.currentThread() ==
-                        canvas3d.view.universe.behaviorScheduler) {
+        } else if (BehaviorScheduler.isBehaviorThread(canvas3d.view.universe)) {
             sendRenderMessage(false, GraphicsContext3D.SET_MODELCLIP,
 					modelClip, null);
         } else {
@@ -864,8 +860,7 @@ public class GraphicsContext3D extends Object   {
 	    (!canvas3d.view.active) ||
             (Thread.currentThread() == canvas3d.screen.renderer)) {
             doSetLight(light, index);
-        } else if (Thread.currentThread() ==
-                        canvas3d.view.universe.behaviorScheduler) {
+        } else if (BehaviorScheduler.isBehaviorThread(canvas3d.view.universe)) {
             sendRenderMessage(false, GraphicsContext3D.SET_LIGHT, light,
 			new Integer(index));
         } else {
@@ -907,8 +902,7 @@ public class GraphicsContext3D extends Object   {
 	    (!canvas3d.view.active) ||
             (Thread.currentThread() == canvas3d.screen.renderer)) {
             doInsertLight(light, index);
-        } else if (Thread.currentThread() ==
-                        canvas3d.view.universe.behaviorScheduler) {
+        } else if (BehaviorScheduler.isBehaviorThread(canvas3d.view.universe)) {
             sendRenderMessage(false, GraphicsContext3D.INSERT_LIGHT, light,
 			new Integer(index));
         } else {
@@ -935,8 +929,7 @@ public class GraphicsContext3D extends Object   {
 	    (!canvas3d.view.active) ||
             (Thread.currentThread() == canvas3d.screen.renderer)) {
             doRemoveLight(index);
-        } else if (Thread.currentThread() ==
-                        canvas3d.view.universe.behaviorScheduler) {
+        } else if (BehaviorScheduler.isBehaviorThread(canvas3d.view.universe)) {
             sendRenderMessage(false, GraphicsContext3D.REMOVE_LIGHT,
 			new Integer(index), null);
         } else {
@@ -995,8 +988,7 @@ public Enumeration<Light> getAllLights() {
 	    (!canvas3d.view.active) ||
             (Thread.currentThread() == canvas3d.screen.renderer)) {
             doAddLight(light);
-        } else if (Thread.currentThread() ==
-                        canvas3d.view.universe.behaviorScheduler) {
+        } else if (BehaviorScheduler.isBehaviorThread(canvas3d.view.universe)) {
             sendRenderMessage(false, GraphicsContext3D.ADD_LIGHT, light, null);
         } else {
             sendRenderMessage(true, GraphicsContext3D.ADD_LIGHT, light, null);
@@ -1096,8 +1088,7 @@ public int numLights() {
 	    (!canvas3d.view.active) ||
             (Thread.currentThread() == canvas3d.screen.renderer)) {
             doSetHiRes(hiRes);
-        } else if (Thread.currentThread() ==
-                        canvas3d.view.universe.behaviorScheduler) {
+        } else if (BehaviorScheduler.isBehaviorThread(canvas3d.view.universe)) {
             sendRenderMessage(false, GraphicsContext3D.SET_HI_RES, hiRes, null);
         } else {
             sendRenderMessage(true, GraphicsContext3D.SET_HI_RES, hiRes, null);
@@ -1137,8 +1128,7 @@ public int numLights() {
 	else {
 	    Transform3D uModelTransform = new Transform3D(t);
 	    //Transform3D uModelTransform = t;
-	    if (Thread.currentThread() ==
-		canvas3d.view.universe.behaviorScheduler) {
+	    if (BehaviorScheduler.isBehaviorThread(canvas3d.view.universe)) {
 		sendRenderMessage(false, GraphicsContext3D.SET_MODEL_TRANSFORM,
 				  uModelTransform, null);
 	    } else {
@@ -1170,7 +1160,7 @@ public int numLights() {
             doMultiplyModelTransform(t);
         } else {
 	    Transform3D tt = new Transform3D(t);
-	    if (Thread.currentThread() == canvas3d.view.universe.behaviorScheduler) {
+	    if (BehaviorScheduler.isBehaviorThread(canvas3d.view.universe)) {
 		sendRenderMessage(false, GraphicsContext3D.MULTIPLY_MODEL_TRANSFORM,
 				  tt, null);
 	    } else {
@@ -1221,8 +1211,7 @@ public int numLights() {
 	    (!canvas3d.view.active) ||
             (Thread.currentThread() == canvas3d.screen.renderer)) {
             doSetSound(sound, index);
-        } else if (Thread.currentThread() ==
-                        canvas3d.view.universe.behaviorScheduler) {
+        } else if (BehaviorScheduler.isBehaviorThread(canvas3d.view.universe)) {
             sendRenderMessage(false, GraphicsContext3D.SET_SOUND, sound,
 			new Integer(index));
         } else {
@@ -1271,8 +1260,7 @@ public int numLights() {
 	    (!canvas3d.view.active) ||
             (Thread.currentThread() == canvas3d.screen.renderer)) {
             doInsertSound(sound, index);
-        } else if (Thread.currentThread() ==
-                        canvas3d.view.universe.behaviorScheduler) {
+        } else if (BehaviorScheduler.isBehaviorThread(canvas3d.view.universe)) {
             sendRenderMessage(false, GraphicsContext3D.INSERT_SOUND, sound,
 			new Integer(index));
         } else {
@@ -1299,8 +1287,7 @@ public int numLights() {
 	    (!canvas3d.view.active) ||
             (Thread.currentThread() == canvas3d.screen.renderer)) {
             doRemoveSound(index);
-        } else if (Thread.currentThread() ==
-                        canvas3d.view.universe.behaviorScheduler) {
+        } else if (BehaviorScheduler.isBehaviorThread(canvas3d.view.universe)) {
             sendRenderMessage(false, GraphicsContext3D.REMOVE_SOUND,
 				new Integer(index), null);
         } else {
@@ -1362,8 +1349,7 @@ public Enumeration<Sound> getAllSounds() {
 	    (!canvas3d.view.active) ||
             (Thread.currentThread() == canvas3d.screen.renderer)) {
             doAddSound(sound);
-        } else if (Thread.currentThread() ==
-                        canvas3d.view.universe.behaviorScheduler) {
+        } else if (BehaviorScheduler.isBehaviorThread(canvas3d.view.universe)) {
             sendRenderMessage(false, GraphicsContext3D.ADD_SOUND, sound, null);
         } else {
             sendRenderMessage(true, GraphicsContext3D.ADD_SOUND, sound, null);
@@ -1453,8 +1439,7 @@ public int numSounds() {
 	    (!canvas3d.view.active) ||
             (Thread.currentThread() == canvas3d.screen.renderer)) {
             doSetAuralAttributes(attributes);
-        } else if (Thread.currentThread() ==
-                        canvas3d.view.universe.behaviorScheduler) {
+        } else if (BehaviorScheduler.isBehaviorThread(canvas3d.view.universe)) {
             sendRenderMessage(false, GraphicsContext3D.SET_AURAL_ATTRIBUTES,
 				attributes, null);
         } else {
@@ -1497,8 +1482,7 @@ public int numSounds() {
 	    (!canvas3d.view.active) ||
             (Thread.currentThread() == canvas3d.screen.renderer)) {
             doSetBufferOverride(bufferOverride);
-        } else if (Thread.currentThread() ==
-                        canvas3d.view.universe.behaviorScheduler) {
+        } else if (BehaviorScheduler.isBehaviorThread(canvas3d.view.universe)) {
             sendRenderMessage(false, GraphicsContext3D.SET_BUFFER_OVERRIDE,
 			new Boolean(bufferOverride), null);
         } else {
@@ -1549,8 +1533,7 @@ public int numSounds() {
 	    (!canvas3d.view.active) ||
             (Thread.currentThread() == canvas3d.screen.renderer)) {
             doSetFrontBufferRendering(frontBufferRendering);
-        } else if (Thread.currentThread() ==
-                        canvas3d.view.universe.behaviorScheduler) {
+        } else if (BehaviorScheduler.isBehaviorThread(canvas3d.view.universe)) {
             sendRenderMessage(false, GraphicsContext3D.SET_FRONT_BUFFER_RENDERING,
 				new Boolean(frontBufferRendering), null);
         } else {
@@ -1616,8 +1599,7 @@ public int numSounds() {
 	    (!canvas3d.view.active) ||
             (Thread.currentThread() == canvas3d.screen.renderer)) {
             doSetStereoMode(stereoMode);
-        } else if (Thread.currentThread() ==
-                        canvas3d.view.universe.behaviorScheduler) {
+        } else if (BehaviorScheduler.isBehaviorThread(canvas3d.view.universe)) {
             sendRenderMessage(false, GraphicsContext3D.SET_STEREO_MODE,
 			stereoModes[stereoMode], null);
         } else {
@@ -1660,8 +1642,7 @@ public int numSounds() {
 	    return;
         } else if (Thread.currentThread() == canvas3d.screen.renderer) {
             doClear();
-        } else if (Thread.currentThread() ==
-                        canvas3d.view.universe.behaviorScheduler) {
+        } else if (BehaviorScheduler.isBehaviorThread(canvas3d.view.universe)) {
             sendRenderMessage(false, GraphicsContext3D.CLEAR, null, null);
         } else {
             sendRenderMessage(true, GraphicsContext3D.CLEAR, null, null);
@@ -2127,8 +2108,7 @@ public int numSounds() {
         } else if (Thread.currentThread() == canvas3d.screen.renderer) {
             doDraw(geometry);
         } else {
-	    if (Thread.currentThread() ==
-                        canvas3d.view.universe.behaviorScheduler) {
+	    if (BehaviorScheduler.isBehaviorThread(canvas3d.view.universe)) {
                 sendRenderMessage(false, GraphicsContext3D.DRAW,
 						geometry, null);
             } else {
@@ -2229,8 +2209,7 @@ public int numSounds() {
             return;
         } else if (Thread.currentThread() == canvas3d.screen.renderer) {
             doReadRaster(raster);
-        } else if (Thread.currentThread() ==
-                        canvas3d.view.universe.behaviorScheduler) {
+        } else if (BehaviorScheduler.isBehaviorThread(canvas3d.view.universe)) {
 	    readRasterReady = false;
             sendRenderMessage(false, GraphicsContext3D.READ_RASTER, raster, null);
 	    while (!readRasterReady) {
@@ -2394,8 +2373,7 @@ public int numSounds() {
         } else  {
 	    Boolean waitArg = (wait ? Boolean.TRUE : Boolean.FALSE);
 
-	    if (Thread.currentThread() ==
-                        canvas3d.view.universe.behaviorScheduler) {
+	    if (BehaviorScheduler.isBehaviorThread(canvas3d.view.universe)) {
                 sendRenderMessage(false, GraphicsContext3D.FLUSH, waitArg,
 					null);
 	    } else {
@@ -59,11 +59,19 @@ class IndexedTriangleArrayRetained extends IndexedGeometryArrayRetained {
 	pnts[1] = new Point3d();
 	pnts[2] = new Point3d();
 
+	// Only the triangles the pick shape may hit, or null for all of them
+	int first = i;
+	int[] tris = getPickTriangles(pickShape, first, indexCoord,
+				      validIndexCount / 3);
+
 	switch (pickShape.getPickType()) {
 	case PickShape.PICKRAY:
 	    PickRay pickRay= (PickRay) pickShape;
 
-	    while (i < loopStopIndex) {
+	    for (int t = 0; tris == null ? i < loopStopIndex : t < tris.length; t++) {
+		if (tris != null) {
+		    i = first + 3 * tris[t];
+		}
                 for(int j=0; j<3; j++) {
                     vtxIndexArr[j] = indexCoord[i];
                     getVertexData(indexCoord[i++], pnts[j]);
@@ -91,7 +99,10 @@ class IndexedTriangleArrayRetained extends IndexedGeometryArrayRetained {
 	    break;
 	case PickShape.PICKSEGMENT:
 	    PickSegment pickSegment = (PickSegment) pickShape;
-	    while (i < loopStopIndex) {
+	    for (int t = 0; tris == null ? i < loopStopIndex : t < tris.length; t++) {
+		if (tris != null) {
+		    i = first + 3 * tris[t];
+		}
                 for(int j=0; j<3; j++) {
                     vtxIndexArr[j] = indexCoord[i];
                     getVertexData(indexCoord[i++], pnts[j]);
@@ -122,7 +133,10 @@ class IndexedTriangleArrayRetained extends IndexedGeometryArrayRetained {
 	    BoundingBox bbox = (BoundingBox)
 		((PickBounds) pickShape).bounds;
 
-	    while (i < loopStopIndex) {
+	    for (int t = 0; tris == null ? i < loopStopIndex : t < tris.length; t++) {
+		if (tris != null) {
+		    i = first + 3 * tris[t];
+		}
                 for(int j=0; j<3; j++) {
                     vtxIndexArr[j] = indexCoord[i];
                     getVertexData(indexCoord[i++], pnts[j]);
@@ -152,7 +166,10 @@ class IndexedTriangleArrayRetained extends IndexedGeometryArrayRetained {
 	    BoundingSphere bsphere = (BoundingSphere)
 		((PickBounds) pickShape).bounds;
 
-	    while (i < loopStopIndex) {
+	    for (int t = 0; tris == null ? i < loopStopIndex : t < tris.length; t++) {
+		if (tris != null) {
+		    i = first + 3 * tris[t];
+		}
                 for(int j=0; j<3; j++) {
                     vtxIndexArr[j] = indexCoord[i];
                     getVertexData(indexCoord[i++], pnts[j]);
@@ -182,7 +199,10 @@ class IndexedTriangleArrayRetained extends IndexedGeometryArrayRetained {
 	    BoundingPolytope bpolytope = (BoundingPolytope)
 		((PickBounds) pickShape).bounds;
 
-	    while (i < loopStopIndex) {
+	    for (int t = 0; tris == null ? i < loopStopIndex : t < tris.length; t++) {
+		if (tris != null) {
+		    i = first + 3 * tris[t];
+		}
                 for(int j=0; j<3; j++) {
                     vtxIndexArr[j] = indexCoord[i];
                     getVertexData(indexCoord[i++], pnts[j]);
@@ -211,7 +231,10 @@ class IndexedTriangleArrayRetained extends IndexedGeometryArrayRetained {
 	    break;
 	case PickShape.PICKCYLINDER:
 	    PickCylinder pickCylinder= (PickCylinder) pickShape;
-	    while (i < loopStopIndex) {
+	    for (int t = 0; tris == null ? i < loopStopIndex : t < tris.length; t++) {
+		if (tris != null) {
+		    i = first + 3 * tris[t];
+		}
                 for(int j=0; j<3; j++) {
                     vtxIndexArr[j] = indexCoord[i];
                     getVertexData(indexCoord[i++], pnts[j]);
@@ -241,7 +264,10 @@ class IndexedTriangleArrayRetained extends IndexedGeometryArrayRetained {
 	case PickShape.PICKCONE:
 	    PickCone pickCone= (PickCone) pickShape;
 
-	    while (i < loopStopIndex) {
+	    for (int t = 0; tris == null ? i < loopStopIndex : t < tris.length; t++) {
+		if (tris != null) {
+		    i = first + 3 * tris[t];
+		}
                 for(int j=0; j<3; j++) {
                     vtxIndexArr[j] = indexCoord[i];
                     getVertexData(indexCoord[i++], pnts[j]);
@@ -0,0 +1,319 @@
+/*
+ * Copyright 2013 Harvey Harrison
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Sun designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Sun in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package javax.media.j3d;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+
+/**
+ * Evaluates the PositionInterpolators, RotationInterpolators and
+ * ScaleInterpolators of a universe together, used by the BehaviorScheduler
+ * when MasterControl.interpolatorBatching is set.
+ *
+ * Instead of computing and setting its transform, an interpolator run by
+ * the scheduler adds itself to the group of its Alpha and class.  At the
+ * end of the scheduling interval the Alpha of each group is evaluated
+ * once, the transforms of its members computed in a loop over primitive
+ * arrays, and the transforms of all the groups set with a single
+ * TransformGroupRetained.setTransforms.
+ *
+ * The transform axis A of an interpolator is folded into a few
+ * coefficients when it is added, A * X * A^-1 being computed directly:
+ * a translation of v along x is a translation of v times the first column
+ * of A, a uniform scale of v is a scale of v about the translation of A,
+ * and a rotation of angle t about y is I + (cos(t) - 1) * P + sin(t) * Q
+ * where P and Q depend on the first and third columns of A and rows of
+ * A^-1.
+ */
+class InterpolatorBatch {
+
+private static final int POSITION = 0;
+private static final int ROTATION = 1;
+private static final int SCALE = 2;
+private static final int NUM_KINDS = 3;
+
+// The number of coefficients per interpolator of each kind
+private static final int[] COEFS = { 3, 24, 3 };
+
+private static class Group {
+	final Alpha alpha;
+	final int kind;
+	final int stride;
+	TransformInterpolator[] members = new TransformInterpolator[8];
+	TransformGroupRetained[] targets = new TransformGroupRetained[8];
+	float[] start = new float[8];
+	float[] end = new float[8];
+	double[] coefs;
+	int size = 0;
+
+	Group(Alpha alpha, int kind) {
+		this.alpha = alpha;
+		this.kind = kind;
+		stride = COEFS[kind];
+		coefs = new double[8 * stride];
+	}
+
+	void add(TransformInterpolator ti, TransformGroupRetained tg,
+		 float s, float e) {
+		if (size == members.length) {
+			int n = size * 2;
+			members = Arrays.copyOf(members, n);
+			targets = Arrays.copyOf(targets, n);
+			start = Arrays.copyOf(start, n);
+			end = Arrays.copyOf(end, n);
+			coefs = Arrays.copyOf(coefs, n * stride);
+		}
+
+		members[size] = ti;
+		targets[size] = tg;
+		start[size] = s;
+		end[size] = e;
+
+		double[] a = ti.axis.mat;
+		int c = size * stride;
+		switch (kind) {
+		case POSITION:
+			// The first column of A
+			coefs[c    ] = a[0];
+			coefs[c + 1] = a[4];
+			coefs[c + 2] = a[8];
+			break;
+		case SCALE:
+			// The translation of A
+			coefs[c    ] = a[3];
+			coefs[c + 1] = a[7];
+			coefs[c + 2] = a[11];
+			break;
+		case ROTATION:
+			// P = a0 * r0 + a2 * r2 and Q = a0 * r2 - a2 * r0, for
+			// the first three rows
+			double[] ai = ti.axisInverse.mat;
+			for (int i = 0; i < 3; i++) {
+				double a0 = a[i * 4];
+				double a2 = a[i * 4 + 2];
+				for (int j = 0; j < 4; j++) {
+					double r0 = ai[j];
+					double r2 = ai[8 + j];
+					coefs[c + i * 4 + j] = a0 * r0 + a2 * r2;
+					coefs[c + 12 + i * 4 + j] = a0 * r2 - a2 * r0;
+				}
+			}
+			break;
+		}
+		size++;
+	}
+
+	// Computes the transforms of the members whose alpha value changed
+	// into tgs and matrices from index n, returns the new count
+	int evaluate(float value, TransformGroupRetained[] tgs,
+		     double[] matrices, int n) {
+		for (int k = 0; k < size; k++) {
+			TransformInterpolator ti = members[k];
+			if (ti.prevAlphaValue == value)
+				continue;
+			ti.prevAlphaValue = value;
+
+			double val = (1.0 - value) * start[k] + value * end[k];
+			int c = k * stride;
+			int m = n * 16;
+			switch (kind) {
+			case POSITION:
+				setIdentity(matrices, m);
+				matrices[m + 3] = val * coefs[c];
+				matrices[m + 7] = val * coefs[c + 1];
+				matrices[m + 11] = val * coefs[c + 2];
+				break;
+			case SCALE:
+				setIdentity(matrices, m);
+				matrices[m] = val;
+				matrices[m + 5] = val;
+				matrices[m + 10] = val;
+				matrices[m + 3] = (1.0 - val) * coefs[c];
+				matrices[m + 7] = (1.0 - val) * coefs[c + 1];
+				matrices[m + 11] = (1.0 - val) * coefs[c + 2];
+				break;
+			case ROTATION:
+				double cm1 = Math.cos(val) - 1.0;
+				double sin = Math.sin(val);
+				for (int i = 0; i < 12; i++)
+					matrices[m + i] = cm1 * coefs[c + i] +
+							  sin * coefs[c + 12 + i];
+				matrices[m] += 1.0;
+				matrices[m + 5] += 1.0;
+				matrices[m + 10] += 1.0;
+				matrices[m + 12] = 0.0;
+				matrices[m + 13] = 0.0;
+				matrices[m + 14] = 0.0;
+				matrices[m + 15] = 1.0;
+				break;
+			}
+			tgs[n++] = targets[k];
+		}
+		return n;
+	}
+
+	void clear() {
+		for (int k = 0; k < size; k++)
+			targets[k].pendingBatch = null;
+		Arrays.fill(members, 0, size, null);
+		Arrays.fill(targets, 0, size, null);
+		size = 0;
+	}
+}
+
+private final IdentityHashMap<Alpha, Group[]> groups = new IdentityHashMap<Alpha, Group[]>();
+private int numMembers = 0;
+
+private TransformGroupRetained[] tgs = new TransformGroupRetained[16];
+private double[] matrices = new double[16 * 16];
+
+private static void setIdentity(double[] m, int offset) {
+	Arrays.fill(m, offset, offset + 16, 0.0);
+	m[offset] = 1.0;
+	m[offset + 5] = 1.0;
+	m[offset + 10] = 1.0;
+	m[offset + 15] = 1.0;
+}
+
+/**
+ * Flushes the batch the TransformGroup has a pending transform in, if any.
+ * Called before a transform is set on the TransformGroup, which would
+ * otherwise be overwritten by the transform of the batch.
+ */
+static void flushPending(TransformGroupRetained tg) {
+	InterpolatorBatch batch = tg.pendingBatch;
+	if (batch != null)
+		batch.flush();
+}
+
+/**
+ * Adds the interpolator to the batch, to be evaluated by the next flush.
+ * Returns false if the interpolator must compute and set its transform
+ * itself: it is of a subclass, which may override computeTransform, or
+ * its target is missing, not writable or above a ViewPlatform, so that
+ * setTransform reports the error, or its axis is not affine.
+ */
+synchronized boolean add(TransformInterpolator ti) {
+	TransformGroup target = ti.target;
+	if (target == null)
+		return false;
+
+	// The transforms of a TransformGroup must be set in the order its
+	// interpolators run, the last one winning, while a flush sets them in
+	// the order of the groups.  So the batch is flushed before a second
+	// interpolator of the same TransformGroup is added.  An interpolator
+	// running itself, another behavior or the application flushes it in
+	// TransformGroup.setTransform.
+	TransformGroupRetained tg = (TransformGroupRetained)target.retained;
+	if (tg.pendingBatch == this)
+		flush();
+
+	Class<?> c = ti.getClass();
+	int kind;
+	float s, e;
+	if (c == PositionInterpolator.class) {
+		PositionInterpolator pi = (PositionInterpolator)ti;
+		kind = POSITION;
+		s = pi.startPosition;
+		e = pi.endPosition;
+	}
+	else if (c == RotationInterpolator.class) {
+		RotationInterpolator ri = (RotationInterpolator)ti;
+		kind = ROTATION;
+		s = ri.minimumAngle;
+		e = ri.maximumAngle;
+	}
+	else if (c == ScaleInterpolator.class) {
+		ScaleInterpolator si = (ScaleInterpolator)ti;
+		kind = SCALE;
+		s = si.minimumScale;
+		e = si.maximumScale;
+	}
+	else {
+		return false;
+	}
+
+	if (target.isLiveOrCompiled() &&
+	    !target.getCapability(TransformGroup.ALLOW_TRANSFORM_WRITE))
+		return false;
+
+	if (tg.aboveAViewPlatform || !ti.axis.isAffine())
+		return false;
+
+	Group[] g = groups.get(ti.alpha);
+	if (g == null) {
+		g = new Group[NUM_KINDS];
+		groups.put(ti.alpha, g);
+	}
+	if (g[kind] == null)
+		g[kind] = new Group(ti.alpha, kind);
+
+	g[kind].add(ti, tg, s, e);
+	tg.pendingBatch = this;
+	numMembers++;
+	return true;
+}
+
+/**
+ * Evaluates the interpolators added since the last flush and sets the
+ * transforms of their targets.  The groups of the Alphas that were not
+ * used since the last flush are dropped.
+ */
+synchronized void flush() {
+	if (numMembers == 0) {
+		groups.clear();
+		return;
+	}
+
+	if (tgs.length < numMembers) {
+		tgs = new TransformGroupRetained[numMembers];
+		matrices = new double[numMembers * 16];
+	}
+
+	int n = 0;
+	Iterator<Group[]> it = groups.values().iterator();
+	while (it.hasNext()) {
+		Group[] g = it.next();
+		boolean used = false;
+		float value = 0.0f;
+		for (int kind = 0; kind < NUM_KINDS; kind++) {
+			Group group = g[kind];
+			if ((group == null) || (group.size == 0))
+				continue;
+
+			// The Alpha is evaluated once for all its groups
+			if (!used) {
+				value = group.alpha.value();
+				used = true;
+			}
+			n = group.evaluate(value, tgs, matrices, n);
+			group.clear();
+		}
+		if (!used)
+			it.remove();
+	}
+	numMembers = 0;
+
+	if (n > 0) {
+		// The arrays are kept by the TRANSFORM_CHANGED message
+		TransformGroupRetained[] setTgs = Arrays.copyOf(tgs, n);
+		double[] setMatrices = Arrays.copyOf(matrices, n * 16);
+		Arrays.fill(tgs, 0, n, null);
+		TransformGroupRetained.setTransforms(setTgs, setMatrices);
+	}
+}
+}
@@ -185,8 +185,7 @@ final class J3DGraphics2DImpl extends J3DGraphics2D {
 		// XXXX: may not be legal for behaviorScheduler
 		// May cause deadlock if it is in behaviorScheduler
 		// and we wait for Renderer to finish
-		boolean renderRun = (Thread.currentThread() !=
-				     canvas3d.view.universe.behaviorScheduler);
+		boolean renderRun = !BehaviorScheduler.isBehaviorThread(canvas3d.view.universe);
 		// This must put before sendRenderMessage()
 		threadWaiting = true;
 		sendRenderMessage(renderRun, GraphicsContext3D.FLUSH2D, null,
@@ -1003,8 +1002,7 @@ final class J3DGraphics2DImpl extends J3DGraphics2D {
             // XXXX: may not be legal for behaviorScheduler
             // May cause deadlock if it is in behaviorScheduler
             // and we wait for Renderer to finish
-            boolean renderRun = (Thread.currentThread() !=
-                    canvas3d.view.universe.behaviorScheduler);
+            boolean renderRun = !BehaviorScheduler.isBehaviorThread(canvas3d.view.universe);
             sendRenderMessage(renderRun, GraphicsContext3D.DISPOSE2D,
                     null, null, null);
         }
@@ -1054,8 +1052,7 @@ final class J3DGraphics2DImpl extends J3DGraphics2D {
 	    // XXXX: may not be legal for behaviorScheduler
 	    // May cause deadlock if it is in behaviorScheduler
 	    // and we wait for Renderer to finish
-	    boolean renderRun = (Thread.currentThread() !=
-				 canvas3d.view.universe.behaviorScheduler);
+	    boolean renderRun = !BehaviorScheduler.isBehaviorThread(canvas3d.view.universe);
 	    sendRenderMessage(renderRun, GraphicsContext3D.DRAWANDFLUSH2D,
 			      img, new Point(x, y), observer);
 	}
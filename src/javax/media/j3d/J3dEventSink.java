@@ -0,0 +1,156 @@
+/*
+ * Copyright 2013 Harvey Harrison
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Sun designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Sun in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package javax.media.j3d;
+
+/**
+ * Receives the begin/end notifications of the interesting spans of work in
+ * Java 3D (frames, thread iterations, render atom updates, texture and
+ * display list uploads, picks) and turns them into profiler events.
+ *
+ * The only implementation is JfrEventSink, which emits Java Flight Recorder
+ * events.  It is compiled separately (src-jfr) since the core targets Java 6
+ * and jdk.jfr needs Java 11, and is loaded reflectively here.  When it is
+ * not present, cannot be loaded by the running VM or -Dj3d.jfrEvents=false
+ * is set, the sink is null and each instrumented call site costs one
+ * static final field test.
+ *
+ * The begin methods return the event being timed, or null if the event is
+ * not enabled in any recording; the end methods do nothing with a null
+ * event.
+ */
+abstract class J3dEventSink {
+
+private static final String SINK_CLASS = "javax.media.j3d.JfrEventSink";
+
+// Kind of pick, for pickEnd
+static final int PICK_ALL        = 0;
+static final int PICK_ALL_SORTED = 1;
+static final int PICK_CLOSEST    = 2;
+static final int PICK_ANY        = 3;
+
+private static final J3dEventSink sink = createSink();
+
+private static J3dEventSink createSink() {
+	if (!MasterControl.getBooleanProperty("j3d.jfrEvents", true,
+					      "JFR events")) {
+		return null;
+	}
+
+	try {
+		Class<?> c = Class.forName(SINK_CLASS);
+		return (J3dEventSink)c.newInstance();
+	}
+	catch (ClassNotFoundException e) {
+		// Built without the JFR events
+	}
+	catch (LinkageError e) {
+		// Running on a VM without jdk.jfr
+	}
+	catch (Exception e) {
+		if (J3dDebug.debug)
+			System.err.println("Java 3D: unable to create the JFR event sink: " + e);
+	}
+	return null;
+}
+
+static boolean isEnabled() {
+	return sink != null;
+}
+
+abstract Object beginFrame();
+abstract void endFrame(Object event, int numViews, int numStateThreads,
+		       int numRenderThreads);
+
+abstract Object beginThreadWork();
+abstract void endThreadWork(Object event, J3dThread thread, int messageCount);
+
+abstract Object beginRenderAtomUpdate();
+abstract void endRenderAtomUpdate(Object event, View view, int added,
+				  int removed);
+
+abstract Object beginTextureUpload();
+abstract void endTextureUpload(Object event, TextureRetained texture,
+			       boolean reload);
+
+abstract Object beginDisplayListUpdate();
+abstract void endDisplayListUpdate(Object event, Canvas3D canvas,
+				   boolean rebuildAll);
+
+abstract Object beginPick();
+abstract void endPick(Object event, boolean locale, int pickKind, int mode,
+		      int numResults);
+
+// Static entry points used by the instrumented code
+
+static Object frameBegin() {
+	return sink == null ? null : sink.beginFrame();
+}
+
+static void frameEnd(Object event, int numViews, int numStateThreads,
+		     int numRenderThreads) {
+	if (event != null)
+		sink.endFrame(event, numViews, numStateThreads, numRenderThreads);
+}
+
+static Object threadWorkBegin() {
+	return sink == null ? null : sink.beginThreadWork();
+}
+
+static void threadWorkEnd(Object event, J3dThread thread, int messageCount) {
+	if (event != null)
+		sink.endThreadWork(event, thread, messageCount);
+}
+
+static Object renderAtomUpdateBegin() {
+	return sink == null ? null : sink.beginRenderAtomUpdate();
+}
+
+static void renderAtomUpdateEnd(Object event, View view, int added,
+				int removed) {
+	if (event != null)
+		sink.endRenderAtomUpdate(event, view, added, removed);
+}
+
+static Object textureUploadBegin() {
+	return sink == null ? null : sink.beginTextureUpload();
+}
+
+static void textureUploadEnd(Object event, TextureRetained texture,
+			     boolean reload) {
+	if (event != null)
+		sink.endTextureUpload(event, texture, reload);
+}
+
+static Object displayListUpdateBegin() {
+	return sink == null ? null : sink.beginDisplayListUpdate();
+}
+
+static void displayListUpdateEnd(Object event, Canvas3D canvas,
+				 boolean rebuildAll) {
+	if (event != null)
+		sink.endDisplayListUpdate(event, canvas, rebuildAll);
+}
+
+static Object pickBegin() {
+	return sink == null ? null : sink.beginPick();
+}
+
+static void pickEnd(Object event, boolean locale, int pickKind, int mode,
+		    int numResults) {
+	if (event != null)
+		sink.endPick(event, locale, pickKind, mode, numResults);
+}
+}
@@ -144,12 +144,60 @@ class J3dMessage extends Object {
 
     Object[] args = new Object[MAX_ARGS];
 
+    /**
+     * Flag to indicate whether released messages from getRecycledMessage()
+     * are put back on the message free list.  true by default.  Set by the
+     * -Dj3d.recycleMessages property.
+     */
+    static final boolean recycleMessages =
+	MasterControl.getBooleanProperty("j3d.recycleMessages", true,
+					 "message recycling");
+
+    /**
+     * This is true if the message goes back on the message free list once
+     * the last reference to it is released.
+     */
+    private boolean recyclable = false;
+
     /**
      * This constructor does nothing
      */
     J3dMessage() {
     }
 
+    /**
+     * Returns a message, taken from the message free list if possible, that
+     * is put back on the free list, together with its args array, once the
+     * last structure consuming it calls decRefcount().  Only use this for
+     * messages whose consumers don't keep a reference to the message (as
+     * opposed to its arguments) after releasing it.
+     */
+    static J3dMessage getRecycledMessage() {
+	if (!recycleMessages) {
+	    return new J3dMessage();
+	}
+
+	J3dMessage m = (J3dMessage)FreeListManager.getObject(FreeListManager.MESSAGE);
+	m.recyclable = true;
+	return m;
+    }
+
+    /**
+     * Returns the number of getRecycledMessage() calls served from the free
+     * list.
+     */
+    static long getRecycledMessageHits() {
+	return ((MessageFreeList)FreeListManager.getFreeList(FreeListManager.MESSAGE)).getHits();
+    }
+
+    /**
+     * Returns the number of getRecycledMessage() calls that had to create a
+     * new message.
+     */
+    static long getRecycledMessageMisses() {
+	return ((MessageFreeList)FreeListManager.getFreeList(FreeListManager.MESSAGE)).getMisses();
+    }
+
     final synchronized void clear() {
 	// System.err.println("J3dMessage : " + this );
 	view = null;
@@ -175,10 +223,26 @@ class J3dMessage extends Object {
      */
     final synchronized void decRefcount() {
 	if (--refcount == 0) {
-	    clear();
+	    release();
         }
     }
 
+    /**
+     * Clears the message, and puts it back on the message free list if it
+     * came from getRecycledMessage().  Called once no structure references
+     * the message any more.
+     */
+    final synchronized void release() {
+	clear();
+	if (recyclable) {
+	    recyclable = false;
+	    time = -1;
+	    threads = 0;
+	    type = -1;
+	    FreeListManager.freeObject(FreeListManager.MESSAGE, this);
+	}
+    }
+
     final synchronized int getRefcount() {
 	return refcount;
     }
@@ -27,7 +27,8 @@
 package javax.media.j3d;
 
 /**
- * J3dNotification is used to hold data for asynchronous error notification.
+ * J3dNotification is used to hold data for asynchronous error notification
+ * and for the frame statistics notification.
  */
 
 class J3dNotification extends Object {
@@ -37,6 +38,7 @@ class J3dNotification extends Object {
     static final int INVALID_TYPE       = -1;
     static final int SHADER_ERROR       =  0;
     static final int RENDERING_ERROR    =  1;
+    static final int FRAME_STATISTICS   =  2;
 
     /**
      * This holds the type of this message
@@ -0,0 +1,373 @@
+/*
+ * Copyright 2013 Harvey Harrison
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Sun designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Sun in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package javax.media.j3d;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * A small work-stealing task pool shared by the parallel code paths in
+ * Java 3D.  Each worker owns a deque: tasks forked from a worker are pushed
+ * onto the front of its own deque, tasks submitted from any other thread go
+ * to a shared submission queue, and idle workers steal from the back of the
+ * other workers' deques.
+ *
+ * Tasks may be joined from any thread.  A joining thread that finds the task
+ * still unclaimed runs it itself, so nested fork/join from inside a task can
+ * never deadlock the pool.  Tasks may also be linked into a dependency graph
+ * with addDependent(); a dependent is executed as soon as the last task it
+ * depends on completes.
+ *
+ * The pool is created lazily by MasterControl, see
+ * MasterControl.getTaskPool().
+ */
+class J3dTaskPool {
+
+/**
+ * A unit of work run by the pool.  A task is run at most once between calls
+ * to reset().
+ */
+static abstract class Task {
+	private static final int NEW     = 0;
+	private static final int CLAIMED = 1;
+	private static final int DONE    = 2;
+
+	private final AtomicInteger status = new AtomicInteger(NEW);
+	private volatile Throwable exception = null;
+
+	// Set when some thread is going to join this task
+	private volatile boolean joined = false;
+
+	// The dependency graph, only modified when the task is not running
+	private Task[] dependents = null;
+	private int numDependents = 0;
+	private int numDependencies = 0;
+	private final AtomicInteger pendingDependencies = new AtomicInteger(0);
+
+	/**
+	 * The work of this task.
+	 */
+	abstract void compute();
+
+	/**
+	 * Called once compute() has returned (or thrown) and all dependents
+	 * have been released.  Does nothing by default.
+	 */
+	void done() {
+	}
+
+	/**
+	 * Make the specified task depend on this one.  The dependent will not
+	 * be run by the pool until this task has completed.
+	 */
+	final void addDependent(Task task) {
+		if (dependents == null) {
+			dependents = new Task[4];
+		} else if (numDependents == dependents.length) {
+			Task[] newDependents = new Task[numDependents << 1];
+			System.arraycopy(dependents, 0, newDependents, 0, numDependents);
+			dependents = newDependents;
+		}
+		dependents[numDependents++] = task;
+		task.numDependencies++;
+	}
+
+	/**
+	 * Returns the number of tasks this task depends on.
+	 */
+	final int getNumDependencies() {
+		return numDependencies;
+	}
+
+	/**
+	 * Prepare the task to be run again.  Must not be called while the task
+	 * is queued or running.
+	 */
+	final void reset() {
+		exception = null;
+		joined = false;
+		pendingDependencies.set(numDependencies);
+		status.set(NEW);
+	}
+
+	final boolean isDone() {
+		return status.get() == DONE;
+	}
+
+	/**
+	 * Returns the exception thrown by compute(), or null.
+	 */
+	final Throwable getException() {
+		return exception;
+	}
+
+	private boolean tryClaim() {
+		return status.compareAndSet(NEW, CLAIMED);
+	}
+
+	// Must only be called by the thread that claimed the task
+	private void runClaimed(J3dTaskPool pool) {
+		try {
+			compute();
+		}
+		catch (Throwable t) {
+			exception = t;
+		}
+
+		synchronized (this) {
+			status.set(DONE);
+			notifyAll();
+		}
+
+		for (int i = 0; i < numDependents; i++) {
+			Task d = dependents[i];
+			if (d.pendingDependencies.decrementAndGet() == 0) {
+				pool.execute(d);
+			}
+		}
+
+		done();
+	}
+
+	private synchronized void awaitDone() {
+		while (status.get() != DONE) {
+			try {
+				wait();
+			}
+			catch (InterruptedException e) {
+				System.err.println(e);
+			}
+		}
+	}
+}
+
+private class Worker extends Thread {
+	final LinkedBlockingDeque<Task> deque = new LinkedBlockingDeque<Task>();
+	final int index;
+
+	Worker(ThreadGroup group, int index) {
+		super(group, "J3D-TaskPoolWorker-" + (index + 1));
+		this.index = index;
+		setDaemon(true);
+	}
+
+	J3dTaskPool getOuter() {
+		return J3dTaskPool.this;
+	}
+
+	@Override
+	public void run() {
+		while (true) {
+			int seq = submitCount.get();
+			Task t = findTask(this);
+			if (t == null) {
+				if (shutdown)
+					return;
+				awaitWork(seq);
+				continue;
+			}
+
+			if (t.tryClaim()) {
+				t.runClaimed(J3dTaskPool.this);
+				Throwable ex = t.getException();
+				if (ex != null && !t.joined) {
+					logException(ex);
+				}
+			}
+		}
+	}
+}
+
+private final Worker[] workers;
+private final ConcurrentLinkedQueue<Task> submissions = new ConcurrentLinkedQueue<Task>();
+
+// Bumped on every submission, used to avoid lost wakeups of idle workers
+private final AtomicInteger submitCount = new AtomicInteger(0);
+private final Object idleLock = new Object();
+private int idleWorkers = 0;
+private volatile boolean shutdown = false;
+
+/**
+ * Creates a pool with the given number of worker threads in the specified
+ * thread group.  The workers are daemon threads and are started immediately.
+ */
+J3dTaskPool(ThreadGroup group, int parallelism, int priority) {
+	if (parallelism < 1)
+		parallelism = 1;
+
+	workers = new Worker[parallelism];
+	for (int i = 0; i < parallelism; i++) {
+		workers[i] = new Worker(group, i);
+		workers[i].setPriority(priority);
+	}
+	for (int i = 0; i < parallelism; i++) {
+		workers[i].start();
+	}
+}
+
+/**
+ * Stops the worker threads once they run out of tasks.  Tasks submitted
+ * afterwards are only run by the threads joining them.
+ */
+void shutdown() {
+	shutdown = true;
+	synchronized (idleLock) {
+		idleLock.notifyAll();
+	}
+}
+
+/**
+ * Returns the number of worker threads in this pool.
+ */
+int getParallelism() {
+	return workers.length;
+}
+
+/**
+ * Returns true if the calling thread is a worker of this pool.
+ */
+boolean inPool() {
+	Thread t = Thread.currentThread();
+	return (t instanceof Worker) && ((Worker)t).getOuter() == this;
+}
+
+/**
+ * Schedule the task for asynchronous execution.  The task must have been
+ * reset() and must have no pending dependencies.
+ */
+void execute(Task task) {
+	if (inPool()) {
+		((Worker)Thread.currentThread()).deque.addFirst(task);
+	}
+	else {
+		submissions.offer(task);
+	}
+
+	submitCount.incrementAndGet();
+	synchronized (idleLock) {
+		if (idleWorkers > 0)
+			idleLock.notify();
+	}
+}
+
+/**
+ * Wait for the task to complete, running it in the calling thread if no
+ * worker has picked it up yet.  Any exception thrown by the task is
+ * rethrown in the calling thread.
+ */
+void join(Task task) {
+	task.joined = true;
+	if (task.tryClaim())
+		task.runClaimed(this);
+	else
+		task.awaitDone();
+
+	rethrow(task.getException());
+}
+
+/**
+ * Run the first <code>count</code> tasks of the array in parallel and wait
+ * for all of them to complete.  The first task is run in the calling thread.
+ */
+void invokeAll(Task[] tasks, int count) {
+	if (count <= 0)
+		return;
+
+	for (int i = 0; i < count; i++) {
+		tasks[i].reset();
+		tasks[i].joined = true;
+	}
+
+	for (int i = count - 1; i > 0; i--) {
+		execute(tasks[i]);
+	}
+
+	Throwable ex = null;
+	for (int i = 0; i < count; i++) {
+		Task t = tasks[i];
+		if (t.tryClaim())
+			t.runClaimed(this);
+		else
+			t.awaitDone();
+
+		if (ex == null)
+			ex = t.getException();
+	}
+
+	rethrow(ex);
+}
+
+private Task findTask(Worker w) {
+	Task t = w.deque.pollFirst();
+	if (t != null)
+		return t;
+
+	t = submissions.poll();
+	if (t != null)
+		return t;
+
+	// Steal from the back of the other workers' deques
+	int n = workers.length;
+	for (int i = 1; i < n; i++) {
+		t = workers[(w.index + i) % n].deque.pollLast();
+		if (t != null)
+			return t;
+	}
+
+	return null;
+}
+
+private void awaitWork(int seq) {
+	synchronized (idleLock) {
+		// Something was submitted since we started looking, go look again
+		if (submitCount.get() != seq || shutdown)
+			return;
+
+		idleWorkers++;
+		try {
+			idleLock.wait();
+		}
+		catch (InterruptedException e) {
+			System.err.println(e);
+		}
+		idleWorkers--;
+	}
+}
+
+private static void rethrow(Throwable ex) {
+	if (ex == null)
+		return;
+
+	if (ex instanceof RuntimeException)
+		throw (RuntimeException)ex;
+	if (ex instanceof Error)
+		throw (Error)ex;
+
+	throw new RuntimeException(ex);
+}
+
+private static void logException(Throwable ex) {
+	if (MasterControl.isCoreLoggable(Level.SEVERE)) {
+		MasterControl.getCoreLogger().log(Level.SEVERE,
+				"Exception in Java 3D task", ex);
+	}
+	else {
+		ex.printStackTrace();
+	}
+}
+}
@@ -165,6 +165,34 @@ abstract class J3dThread extends Thread {
      */
     abstract void doWork(long referenceTime);
 
+    /**
+     * Runs one iteration of work, timing it when frame statistics
+     * are being gathered and recording it as a JFR event when enabled.
+     */
+    final void runWork(long referenceTime) {
+	Object event = J3dEventSink.threadWorkBegin();
+	FrameStatisticsCollector stats = VirtualUniverse.mc.frameStatistics;
+	if (!stats.isEnabled()) {
+	    doWork(referenceTime);
+	} else {
+	    int phase = FrameStatisticsCollector.getPhase(this);
+	    long startTime = System.nanoTime();
+	    doWork(referenceTime);
+	    stats.recordPhase(this, phase, System.nanoTime() - startTime);
+	}
+	if (event != null) {
+	    J3dEventSink.threadWorkEnd(event, this, getNumMessage());
+	}
+    }
+
+    /**
+     * Returns the number of messages processed by the last iteration,
+     * only structure update threads process messages.
+     */
+    int getNumMessage() {
+	return 0;
+    }
+
     /**
      * This constructor simply assigns the given id.
      */
@@ -268,7 +296,7 @@ abstract class J3dThread extends Thread {
     public void run() {
 	runMonitor(WAIT, 0, null);
 	while (running) {
-	    doWork(referenceTime);
+	    runWork(referenceTime);
 	    runMonitor(NOTIFY_AND_WAIT, 0, null);
 	}
 	// resource clean up
@@ -618,6 +618,17 @@ Vector<BranchGroup> branchGroups = new Vector<BranchGroup>();
         }
     }
 
+    // The state, mode and flags are checked before the pick shapes, so that
+    // an empty array is rejected as a single pick shape would be
+    void validateModeFlagAndPickShapes(int mode, int flags, PickShape[] pickShapes) {
+
+        validateModeFlagAndPickShape(mode, flags, (PickShape)null);
+
+	for (int i = 0; i < pickShapes.length; i++) {
+	    validateModeFlagAndPickShape(mode, flags, pickShapes[i]);
+	}
+    }
+
     /**
      * Returns an array referencing all the items that are pickable below this
      * <code>Locale</code> that intersect with PickShape.
@@ -724,9 +735,17 @@ Vector<BranchGroup> branchGroups = new Vector<BranchGroup>();
 
         validateModeFlagAndPickShape(mode, flags, pickShape);
 
-	GeometryAtom geomAtoms[] = universe.geometryStructure.pickAll(this, pickShape);
+	Object event = J3dEventSink.pickBegin();
+	PickInfo[] pickInfoArr = null;
+	try {
+	    GeometryAtom geomAtoms[] = universe.geometryStructure.pickAll(this, pickShape);
 
-        return PickInfo.pick(this, geomAtoms, mode, flags, pickShape, PickInfo.PICK_ALL);
+	    pickInfoArr = PickInfo.pick(this, geomAtoms, mode, flags, pickShape, PickInfo.PICK_ALL);
+	} finally {
+	    J3dEventSink.pickEnd(event, true, J3dEventSink.PICK_ALL, mode,
+				 (pickInfoArr == null ? 0 : pickInfoArr.length));
+	}
+        return pickInfoArr;
 
     }
 
@@ -840,6 +859,20 @@ Vector<BranchGroup> branchGroups = new Vector<BranchGroup>();
     public PickInfo[] pickAllSorted( int mode, int flags, PickShape pickShape ) {
 
         validateModeFlagAndPickShape(mode, flags, pickShape);
+
+	Object event = J3dEventSink.pickBegin();
+	PickInfo[] pickInfoArr = null;
+	try {
+	    pickInfoArr = doPickAllSorted(mode, flags, pickShape);
+	} finally {
+	    J3dEventSink.pickEnd(event, true, J3dEventSink.PICK_ALL_SORTED, mode,
+				 (pickInfoArr == null ? 0 : pickInfoArr.length));
+	}
+	return pickInfoArr;
+    }
+
+    private PickInfo[] doPickAllSorted( int mode, int flags, PickShape pickShape ) {
+
         GeometryAtom geomAtoms[] = universe.geometryStructure.pickAll(this, pickShape);
 
         if ((geomAtoms == null) || (geomAtoms.length == 0)) {
@@ -965,8 +998,15 @@ Vector<BranchGroup> branchGroups = new Vector<BranchGroup>();
 
         PickInfo[] pickInfoArr = null;
 
-        pickInfoArr = pickAllSorted( mode, flags, pickShape );
+        validateModeFlagAndPickShape(mode, flags, pickShape);
 
+	Object event = J3dEventSink.pickBegin();
+	try {
+	    pickInfoArr = doPickAllSorted( mode, flags, pickShape );
+	} finally {
+	    J3dEventSink.pickEnd(event, true, J3dEventSink.PICK_CLOSEST, mode,
+				 (pickInfoArr == null ? 0 : 1));
+	}
         if(pickInfoArr == null) {
             return null;
         }
@@ -1073,10 +1113,17 @@ Vector<BranchGroup> branchGroups = new Vector<BranchGroup>();
     public PickInfo pickAny( int mode, int flags, PickShape pickShape ) {
 
         validateModeFlagAndPickShape(mode, flags, pickShape);
-	GeometryAtom geomAtoms[] = universe.geometryStructure.pickAll(this, pickShape);
 
-        PickInfo[] pickInfoArr = PickInfo.pick(this, geomAtoms, mode, flags, pickShape, PickInfo.PICK_ANY);
+	Object event = J3dEventSink.pickBegin();
+	PickInfo[] pickInfoArr = null;
+	try {
+	    GeometryAtom geomAtoms[] = universe.geometryStructure.pickAll(this, pickShape);
 
+	    pickInfoArr = PickInfo.pick(this, geomAtoms, mode, flags, pickShape, PickInfo.PICK_ANY);
+	} finally {
+	    J3dEventSink.pickEnd(event, true, J3dEventSink.PICK_ANY, mode,
+				 (pickInfoArr == null ? 0 : 1));
+	}
         if(pickInfoArr == null) {
             return null;
         }
@@ -1085,4 +1132,159 @@ Vector<BranchGroup> branchGroups = new Vector<BranchGroup>();
 
     }
 
+    /**
+     * Picks with each of the pick shapes, returning for each of them what
+     * <code>pickAll(mode, flags, pickShapes[i])</code> would.  The
+     * bounds hierarchy of the Locale is traversed once for all the pick
+     * shapes, which is much faster than picking with them one at a time
+     * when there are many of them.  When the <code>j3d.parallelPick</code>
+     * property is true, the PICK_GEOMETRY intersection of the pick shapes
+     * is computed in parallel.
+     *
+     * @param mode  picking mode, one of <code>PickInfo.PICK_BOUNDS</code> or <code>PickInfo.PICK_GEOMETRY</code>.
+     *
+     * @param flags a mask indicating which components are present in each
+     * PickInfo object, see {@link #pickAll(int,int,PickShape)}.
+     *
+     * @param pickShapes the pick shapes, null elements are allowed and
+     * pick nothing.
+     *
+     * @return an array with an element per pick shape, element i is null
+     * if nothing intersects pickShapes[i] and the unordered array of
+     * PickInfo of the items intersecting it otherwise.
+     *
+     * @exception IllegalArgumentException under the same conditions as
+     * {@link #pickAll(int,int,PickShape)} for any of the pick shapes.
+     *
+     * @exception IllegalStateException under the same conditions as
+     * {@link #pickAll(int,int,PickShape)} for any of the pick shapes.
+     *
+     * @exception CapabilityNotSetException under the same conditions as
+     * {@link #pickAll(int,int,PickShape)} for any of the pick shapes.
+     *
+     * @see BranchGroup#pickAll(int,int,javax.media.j3d.PickShape[])
+     *
+     * @since Java 3D 1.6
+     */
+    public PickInfo[][] pickAll(int mode, int flags, PickShape[] pickShapes) {
+
+	validateModeFlagAndPickShapes(mode, flags, pickShapes);
+
+	Object event = J3dEventSink.pickBegin();
+	PickInfo[][] pickInfoArrs = null;
+	try {
+	    GeometryAtom[][] geomAtoms =
+		universe.geometryStructure.pickAll(this, pickShapes);
+
+	    pickInfoArrs = PickInfo.pick(this, geomAtoms, mode, flags,
+					 pickShapes, PickInfo.PICK_ALL);
+	} finally {
+	    J3dEventSink.pickEnd(event, true, J3dEventSink.PICK_ALL, mode,
+				 PickInfo.countPickInfos(pickInfoArrs));
+	}
+	return pickInfoArrs;
+    }
+
+    /**
+     * Picks with each of the pick shapes, returning for each of them what
+     * <code>pickClosest(mode, flags, pickShapes[i])</code> would.  The
+     * bounds hierarchy of the Locale is traversed once for all the pick
+     * shapes, see {@link #pickAll(int,int,PickShape[])}.
+     *
+     * @param mode  picking mode, one of <code>PickInfo.PICK_BOUNDS</code> or <code>PickInfo.PICK_GEOMETRY</code>.
+     *
+     * @param flags a mask indicating which components are present in each
+     * PickInfo object, see {@link #pickClosest(int,int,PickShape)}.
+     *
+     * @param pickShapes the pick shapes, null elements are allowed and
+     * pick nothing.
+     *
+     * @return an array with an element per pick shape, element i is null
+     * if nothing intersects pickShapes[i] and the PickInfo of the
+     * intersected item closest to its origin otherwise.
+     *
+     * @exception IllegalArgumentException under the same conditions as
+     * {@link #pickClosest(int,int,PickShape)} for any of the pick shapes.
+     *
+     * @exception IllegalStateException under the same conditions as
+     * {@link #pickClosest(int,int,PickShape)} for any of the pick shapes.
+     *
+     * @exception CapabilityNotSetException under the same conditions as
+     * {@link #pickClosest(int,int,PickShape)} for any of the pick shapes.
+     *
+     * @see BranchGroup#pickClosest(int,int,javax.media.j3d.PickShape[])
+     *
+     * @since Java 3D 1.6
+     */
+    public PickInfo[] pickClosest(int mode, int flags, PickShape[] pickShapes) {
+
+	validateModeFlagAndPickShapes(mode, flags, pickShapes);
+
+	Object event = J3dEventSink.pickBegin();
+	PickInfo[] pickInfos = null;
+	try {
+	    GeometryAtom[][] geomAtoms =
+		universe.geometryStructure.pickAll(this, pickShapes);
+
+	    pickInfos = PickInfo.firstPickInfos(
+		PickInfo.pick(this, geomAtoms, mode, flags, pickShapes,
+			      PickInfo.PICK_ALL_SORTED));
+	} finally {
+	    J3dEventSink.pickEnd(event, true, J3dEventSink.PICK_CLOSEST, mode,
+				 PickInfo.countPickInfos(pickInfos));
+	}
+	return pickInfos;
+    }
+
+    /**
+     * Picks with each of the pick shapes, returning for each of them what
+     * <code>pickAny(mode, flags, pickShapes[i])</code> would.  The
+     * bounds hierarchy of the Locale is traversed once for all the pick
+     * shapes, see {@link #pickAll(int,int,PickShape[])}.
+     *
+     * @param mode  picking mode, one of <code>PickInfo.PICK_BOUNDS</code> or <code>PickInfo.PICK_GEOMETRY</code>.
+     *
+     * @param flags a mask indicating which components are present in each
+     * PickInfo object, see {@link #pickAny(int,int,PickShape)}.
+     *
+     * @param pickShapes the pick shapes, null elements are allowed and
+     * pick nothing.
+     *
+     * @return an array with an element per pick shape, element i is null
+     * if nothing intersects pickShapes[i] and the PickInfo of any
+     * intersected item otherwise.
+     *
+     * @exception IllegalArgumentException under the same conditions as
+     * {@link #pickAny(int,int,PickShape)} for any of the pick shapes.
+     *
+     * @exception IllegalStateException under the same conditions as
+     * {@link #pickAny(int,int,PickShape)} for any of the pick shapes.
+     *
+     * @exception CapabilityNotSetException under the same conditions as
+     * {@link #pickAny(int,int,PickShape)} for any of the pick shapes.
+     *
+     * @see BranchGroup#pickAny(int,int,javax.media.j3d.PickShape[])
+     *
+     * @since Java 3D 1.6
+     */
+    public PickInfo[] pickAny(int mode, int flags, PickShape[] pickShapes) {
+
+	validateModeFlagAndPickShapes(mode, flags, pickShapes);
+
+	Object event = J3dEventSink.pickBegin();
+	PickInfo[] pickInfos = null;
+	try {
+	    GeometryAtom[][] geomAtoms =
+		universe.geometryStructure.pickAll(this, pickShapes);
+
+	    pickInfos = PickInfo.firstPickInfos(
+		PickInfo.pick(this, geomAtoms, mode, flags, pickShapes,
+			      PickInfo.PICK_ANY));
+	} finally {
+	    J3dEventSink.pickEnd(event, true, J3dEventSink.PICK_ANY, mode,
+				 PickInfo.countPickInfos(pickInfos));
+	}
+	return pickInfos;
+    }
+
 }
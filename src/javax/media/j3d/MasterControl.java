@@ -34,12 +34,17 @@ package javax.media.j3d;
 
 import java.awt.GraphicsConfiguration;
 import java.awt.GraphicsDevice;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.Hashtable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.management.ObjectName;
+
 class MasterControl {
 
     /**
@@ -51,6 +56,7 @@ class MasterControl {
     static final int THREAD_DONE    = 3;
     static final int SET_WORK_FOR_REQUEST_RENDERER   = 5;
     static final int RUN_RENDERER_CLEANUP            = 6;
+    static final int STRUCTURE_TASKS_DONE            = 7;
 
     // The thread states for MC
     static final int SLEEPING            = 0;
@@ -170,6 +176,26 @@ class MasterControl {
      */
     private long time = 0;
 
+    /**
+     * The messages of processMessage calls made since the last
+     * deliverPendingMessages(), most recent first, when
+     * lockFreeMessageQueue is set.  Each node holds the messages of one
+     * call, which are stamped and sent to all their structures together.
+     */
+    private static final class PendingMessages {
+	final J3dMessage message;
+	final J3dMessage[] messages;
+	PendingMessages next;
+
+	PendingMessages(J3dMessage message, J3dMessage[] messages) {
+	    this.message = message;
+	    this.messages = messages;
+	}
+    }
+
+    private final AtomicReference<PendingMessages> pendingMessages =
+	new AtomicReference<PendingMessages>();
+
     /**
      * Use to assign threadOpts in Renderer thread.
      */
@@ -262,6 +288,48 @@ class MasterControl {
      */
     private int cpuLimit;
 
+    /**
+     * Flag to indicate whether the structure updates are run as tasks on
+     * the shared task pool, each one starting as soon as the structures it
+     * depends on are done, instead of in the fixed phases of the state
+     * work thread list.  false by default.  Set by the -Dj3d.parallelUpdate
+     * property; ignored when the threadLimit is 1.
+     */
+    private boolean parallelUpdate = false;
+
+    /**
+     * The number of worker threads in the shared task pool.  Set by the
+     * -Dj3d.parallelism property, the number of processors by default.
+     */
+    private int parallelism;
+
+    /**
+     * The shared task pool, created on first use
+     */
+    private volatile J3dTaskPool taskPool = null;
+    private Object taskPoolLock = new Object();
+
+    /**
+     * The structure update tasks when parallelUpdate is enabled, and the
+     * number of them still running in the current frame.  The RenderBin
+     * and SoundScheduler tasks are a second group, started along with the
+     * BehaviorSchedulers and InputDeviceSchedulers once the first group
+     * is done.
+     */
+    private ArrayList<StructureUpdateTask> structureTasks =
+				new ArrayList<StructureUpdateTask>();
+    private ArrayList<StructureUpdateTask> viewStructureTasks =
+				new ArrayList<StructureUpdateTask>();
+    private AtomicInteger structureTasksPending = new AtomicInteger(0);
+
+    /**
+     * The per-phase frame timings, only gathered when there is a
+     * FrameStatisticsListener or the -Dj3d.frameStatisticsMBean
+     * property is set
+     */
+    final FrameStatisticsCollector frameStatistics =
+				new FrameStatisticsCollector();
+
     /**
      * A list of mirror objects to be updated
      */
@@ -311,6 +379,13 @@ class MasterControl {
      */
     static long systemStartTime = 0L;
 
+    /**
+     * The time at which the current frame started when alphaFrameCache is
+     * set, 0 otherwise.  It is static so that Alpha can read it without
+     * creating the MasterControl.
+     */
+    static volatile long alphaFrameTime = 0L;
+
     // This is a time stamp used when context is created
     private long contextTimeStamp = 0;
 
@@ -462,6 +537,105 @@ class MasterControl {
     // issue 544
     boolean useBoxForGroupBounds = false;
 
+    // Set by the -Dj3d.lockFreeMessageQueue property.  When true
+    // processMessage pushes the messages onto a lock-free queue instead of
+    // sending them to their structures under the timeLock, the
+    // MasterControl thread sends them at the start of the next frame, see
+    // deliverPendingMessages().
+    boolean lockFreeMessageQueue = false;
+
+    // Set by the -Dj3d.bhTreeSAH property.  When true the BHTrees used
+    // for culling and picking are built with the surface area heuristic,
+    // and when their leaves move a subtree is rebuilt once the summed
+    // surface area of its children over its own exceeds
+    // bhTreeRebuildThreshold percent of that ratio at the build, 130
+    // meaning a growth of more than 30 percent.
+    boolean sahBHTree = false;
+    int bhTreeRebuildThreshold = 130;
+
+    // Set by the -Dj3d.pickSnapshot property.  When true the
+    // GeometryStructure publishes a read-only copy of its BHTrees after
+    // each update pass, and picks traverse that copy instead of locking
+    // the GeometryStructure.
+    boolean pickSnapshot = false;
+
+    // Set by the -Dj3d.pickBVHThreshold property.  PICK_GEOMETRY picks of
+    // triangle arrays with at least this many triangles test only the
+    // triangles found through a triangle BVH, built on the first pick of
+    // each geometry; 0 always tests every triangle.
+    int pickBVHThreshold = 0;
+
+    // Set by the -Dj3d.collisionBroadphase property.  When true the
+    // GeometryStructure keeps the collidable leaves sorted along x and
+    // sweeps the bounds of the armed collision wakeups against them, so
+    // that only the leaves whose bounds overlap those of a wakeup are
+    // tested, instead of traversing the BHTree for every wakeup.
+    boolean collisionBroadphase = false;
+
+    // Set by the -Dj3d.timerWheel property.  When true the TimerThread
+    // keeps the WakeupOnElapsedTime conditions in a hierarchical timing
+    // wheel, with constant time insert and removal, instead of a heap.
+    boolean timerWheel = false;
+
+    // Set by the -Dj3d.behaviorGridSize property.  When positive the
+    // BehaviorStructure files the behaviors' scheduling regions in a grid
+    // of cells of this size, in meters, so that a ViewPlatform move only
+    // re-evaluates the behaviors near the ViewPlatforms and the active
+    // ones; 0 re-evaluates every behavior.
+    int behaviorGridSize = 0;
+
+    // Set by the -Dj3d.interpolatorBatching property.  When true the
+    // Position, Rotation and ScaleInterpolators run in a scheduling
+    // interval are evaluated together per Alpha at its end, and their
+    // transforms set in a single update.
+    boolean interpolatorBatching = false;
+
+    // Set by the -Dj3d.alphaFrameCache property.  When true Alpha.value()
+    // and Alpha.finished() use the time of the current frame,
+    // alphaFrameTime, instead of the current time, and each Alpha computes
+    // its value only once per frame.
+    boolean alphaFrameCache = false;
+
+    // Set by the -Dj3d.coalesceMouseEvents property.  When true the
+    // BehaviorStructure merges the consecutive MOUSE_MOVED, MOUSE_DRAGGED
+    // and MOUSE_WHEEL events of a Canvas3D received since its last pass
+    // into one event before handing them to the WakeupOnAWTEvents.
+    boolean coalesceMouseEvents = false;
+
+    // Set by the -Dj3d.parallelBHTreeThreshold property.  BHTree
+    // construction hands the subtrees of at least this many nodes to the
+    // shared task pool; 0 builds every tree on the structure thread.
+    int parallelBHTreeThreshold = 8192;
+
+    // Set by the -Dj3d.parallelBoundsThreshold property.  The bounds of
+    // geometry with at least this many vertices are computed on the
+    // shared task pool; 0 always computes them on the calling thread.
+    int parallelBoundsThreshold = 262144;
+
+    // Set by the -Dj3d.parallelPick property.  When true the shapes of a
+    // batched PICK_GEOMETRY pick are intersected with the geometry on the
+    // shared task pool, and so are the candidate shapes of a
+    // PICK_GEOMETRY pickAll, pickAllSorted or pickClosest when there are
+    // at least parallelPickThreshold of them.
+    boolean parallelPick = false;
+    int parallelPickThreshold = 32;
+
+    // Set by the -Dj3d.parallelTransformUpdate property.  When true the
+    // TransformStructure computes the localToVworld of independent dirty
+    // subtrees, and the vworld bounds of the geometry under them, on the
+    // shared task pool once there are at least parallelTransformThreshold
+    // of them.  Ignored when the threadLimit is 1.
+    boolean parallelTransformUpdate = false;
+    int parallelTransformThreshold = 64;
+
+    // Set by the -Dj3d.parallelBehaviors property.  When true the
+    // BehaviorScheduler runs the processStimulus of the behaviors declared
+    // thread safe on the shared task pool once at least
+    // parallelBehaviorThreshold of them are triggered in the same
+    // scheduling interval.  Ignored when the threadLimit is 1.
+    boolean parallelBehaviors = false;
+    int parallelBehaviorThreshold = 4;
+
     /**
      * Constructs a new MasterControl object.  Note that there is
      * exatly one MasterControl object, created statically by
@@ -600,6 +774,95 @@ class MasterControl {
 			       cpuLimit);
 	}
 
+	parallelism = getIntegerProperty("j3d.parallelism",
+					 getNumberOfProcessors());
+	if (parallelism < 1)
+	    parallelism = 1;
+
+	parallelUpdate = getBooleanProperty("j3d.parallelUpdate",
+					    parallelUpdate,
+					    "parallel structure update");
+	if (cpuLimit == 1)
+	    parallelUpdate = false;
+
+	lockFreeMessageQueue = getBooleanProperty("j3d.lockFreeMessageQueue",
+						  lockFreeMessageQueue,
+						  "lock-free message queue");
+
+	sahBHTree = getBooleanProperty("j3d.bhTreeSAH", sahBHTree,
+				       "surface area heuristic BHTree");
+	bhTreeRebuildThreshold =
+	    getIntegerProperty("j3d.bhTreeRebuildThreshold",
+			       bhTreeRebuildThreshold);
+
+	pickSnapshot = getBooleanProperty("j3d.pickSnapshot", pickSnapshot,
+					  "pick snapshot");
+	pickBVHThreshold = getIntegerProperty("j3d.pickBVHThreshold",
+					      pickBVHThreshold);
+	collisionBroadphase = getBooleanProperty("j3d.collisionBroadphase",
+						 collisionBroadphase,
+						 "collision broadphase");
+	timerWheel = getBooleanProperty("j3d.timerWheel", timerWheel,
+					"timer wheel");
+	behaviorGridSize = getIntegerProperty("j3d.behaviorGridSize",
+					      behaviorGridSize);
+	interpolatorBatching = getBooleanProperty("j3d.interpolatorBatching",
+						  interpolatorBatching,
+						  "interpolator batching");
+	alphaFrameCache = getBooleanProperty("j3d.alphaFrameCache",
+					     alphaFrameCache,
+					     "alpha frame cache");
+	coalesceMouseEvents = getBooleanProperty("j3d.coalesceMouseEvents",
+						 coalesceMouseEvents,
+						 "mouse event coalescing");
+	if (alphaFrameCache) {
+	    alphaFrameTime = J3dClock.currentTimeMillis();
+	}
+
+	parallelTransformUpdate =
+	    getBooleanProperty("j3d.parallelTransformUpdate",
+			       parallelTransformUpdate,
+			       "parallel transform update");
+	parallelTransformThreshold =
+	    getIntegerProperty("j3d.parallelTransformThreshold",
+			       parallelTransformThreshold);
+	if (cpuLimit == 1 || parallelism == 1)
+	    parallelTransformUpdate = false;
+
+	parallelBHTreeThreshold =
+	    getIntegerProperty("j3d.parallelBHTreeThreshold",
+			       parallelBHTreeThreshold);
+	if (cpuLimit == 1 || parallelism == 1)
+	    parallelBHTreeThreshold = 0;
+
+	parallelBoundsThreshold =
+	    getIntegerProperty("j3d.parallelBoundsThreshold",
+			       parallelBoundsThreshold);
+	if (cpuLimit == 1 || parallelism == 1)
+	    parallelBoundsThreshold = 0;
+
+	parallelPick = getBooleanProperty("j3d.parallelPick", parallelPick,
+					  "parallel picking");
+	parallelPickThreshold =
+	    getIntegerProperty("j3d.parallelPickThreshold",
+			       parallelPickThreshold);
+	if (cpuLimit == 1 || parallelism == 1)
+	    parallelPick = false;
+
+	parallelBehaviors = getBooleanProperty("j3d.parallelBehaviors",
+					       parallelBehaviors,
+					       "parallel behaviors");
+	parallelBehaviorThreshold =
+	    getIntegerProperty("j3d.parallelBehaviorThreshold",
+			       parallelBehaviorThreshold);
+	if (cpuLimit == 1 || parallelism == 1)
+	    parallelBehaviors = false;
+
+	if (getBooleanProperty("j3d.frameStatisticsMBean", false,
+			       "frame statistics MBean")) {
+	    registerFrameStatisticsMBean();
+	}
+
 	// Get the input device scheduler sampling time
 	Integer samplingTime = java.security.AccessController.doPrivileged(
 	new java.security.PrivilegedAction<Integer>() {
@@ -882,6 +1145,55 @@ private static String getProperty(final String prop) {
 		});
     }
 
+    /**
+     * Return the task pool shared by the parallel code paths, creating
+     * its worker threads under the Java3D thread group on first use.
+     */
+    J3dTaskPool getTaskPool() {
+	J3dTaskPool pool = taskPool;
+	if (pool != null) {
+	    return pool;
+	}
+
+	synchronized (taskPoolLock) {
+	    if (taskPool == null) {
+		taskPool = java.security.AccessController.doPrivileged(
+		    new java.security.PrivilegedAction<J3dTaskPool>() {
+			@Override
+			public J3dTaskPool run() {
+			    synchronized (rootThreadGroup) {
+				return new J3dTaskPool(rootThreadGroup,
+						       parallelism,
+						       threadPriority);
+			    }
+			}
+		});
+	    }
+	    return taskPool;
+	}
+    }
+
+    /**
+     * Stop the worker threads of the task pool, called along with the
+     * other MC related threads once no universe is left.  A new pool is
+     * created if one is needed again.
+     */
+    private void shutdownTaskPool() {
+	synchronized (taskPoolLock) {
+	    if (taskPool != null) {
+		taskPool.shutdown();
+		taskPool = null;
+	    }
+	}
+    }
+
+    /**
+     * Return the number of worker threads in the shared task pool.
+     */
+    int getParallelism() {
+	return parallelism;
+    }
+
     /**
      * Set thread priority to all threads under Java3D thread group.
      */
@@ -1093,6 +1405,7 @@ private static String getProperty(final String prop) {
 			notificationThread.finish();
 			notificationThread = null;
 		    }
+		    shutdownTaskPool();
 		    requestObjList.clear();
 		    requestTypeList.clear();
 		    return true;
@@ -1119,9 +1432,13 @@ private static String getProperty(final String prop) {
      */
     void processMessage(J3dMessage message) {
 
-        synchronized (timeLock) {
-	    message.time = getTime();
-	    sendMessage(message);
+	if (lockFreeMessageQueue) {
+	    addPendingMessages(new PendingMessages(message, null));
+	} else {
+	    synchronized (timeLock) {
+		message.time = getTime();
+		sendMessage(message);
+	    }
 	}
 	setWork();
     }
@@ -1133,17 +1450,65 @@ private static String getProperty(final String prop) {
      */
     void processMessage(J3dMessage[] messages) {
 
-        synchronized (timeLock) {
-	    long time = getTime();
-
-	    for (int i = 0; i < messages.length; i++) {
-		messages[i].time = time;
-		sendMessage(messages[i]);
+	if (lockFreeMessageQueue) {
+	    addPendingMessages(new PendingMessages(null, messages));
+	} else {
+	    synchronized (timeLock) {
+		sendMessages(getTime(), messages);
 	    }
 	}
 	setWork();
     }
 
+    private void sendMessages(long time, J3dMessage[] messages) {
+	for (int i = 0; i < messages.length; i++) {
+	    messages[i].time = time;
+	    sendMessage(messages[i]);
+	}
+    }
+
+    private void addPendingMessages(PendingMessages node) {
+	PendingMessages head;
+	do {
+	    head = pendingMessages.get();
+	    node.next = head;
+	} while (!pendingMessages.compareAndSet(head, node));
+    }
+
+    /**
+     * Stamp and send to their structures the messages queued by
+     * processMessage when lockFreeMessageQueue is set, in the order they
+     * were queued.  Messages sharing a time are sent under the timeLock,
+     * so that updateTimeValues sees either all or none of them, as when
+     * processMessage sends them itself.
+     */
+    private void deliverPendingMessages() {
+	synchronized (timeLock) {
+	    PendingMessages node = pendingMessages.getAndSet(null);
+	    if (node == null) {
+		return;
+	    }
+
+	    // Reverse the stack so the messages are sent oldest first
+	    PendingMessages prev = null;
+	    while (node != null) {
+		PendingMessages next = node.next;
+		node.next = prev;
+		prev = node;
+		node = next;
+	    }
+
+	    for (node = prev; node != null; node = node.next) {
+		if (node.messages != null) {
+		    sendMessages(getTime(), node.messages);
+		} else {
+		    node.message.time = getTime();
+		    sendMessage(node.message);
+		}
+	    }
+	}
+    }
+
     /**
      * This takes the specified notification message and sends it to the
      * notification thread for processing.
@@ -1270,7 +1635,7 @@ private static String getProperty(final String prop) {
 	    }
 
 	    if (message.getRefcount() == 0) {
-		message.clear();
+		message.release();
 	    }
 	  }
     }
@@ -1470,6 +1835,8 @@ private static String getProperty(final String prop) {
      */
     private void updateTimeValues() {
         synchronized (timeLock) {
+	    deliverPendingMessages();
+
             int i=0;
             J3dThreadData lastThread=null;
             J3dThreadData thread=null;
@@ -1711,6 +2078,8 @@ private static String getProperty(final String prop) {
 	    }
 
 
+	    // The queued messages of the structure must be emptied too
+	    deliverPendingMessages();
 	    UnorderList mlist = structure.messageList;
 	    // Note that message is add at the end of array
 	    synchronized (mlist) {
@@ -1992,7 +2361,8 @@ private static String getProperty(final String prop) {
               @Override
               public Object run() {
 		  synchronized (rootThreadGroup) {
-		      timerThread = new TimerThread(rootThreadGroup);
+		      timerThread = new TimerThread(rootThreadGroup,
+						    timerWheel);
 		      timerThread.setPriority(threadPriority);
 		  }
 		  return null;
@@ -2066,6 +2436,7 @@ private static String getProperty(final String prop) {
                 notificationThread.finish();
                 notificationThread = null;
             }
+	    shutdownTaskPool();
 
 	    // shouldn't all of these be synchronized ???
 	    synchronized (VirtualUniverse.mc.deviceScreenMap) {
@@ -2578,6 +2949,42 @@ private static String getProperty(final String prop) {
     }
 
 
+    /**
+     * Hand the statistics of the frame to the notification thread, which
+     * will call the frame statistics listeners.
+     */
+    private void sendFrameStatistics(FrameStatistics stats) {
+	if (stats == null || !frameStatistics.hasListeners())
+	    return;
+
+	J3dNotification notification = new J3dNotification();
+	notification.type = J3dNotification.FRAME_STATISTICS;
+	notification.args[0] = stats;
+	sendNotification(notification);
+    }
+
+    /**
+     * Register the frame statistics with the platform MBean server.
+     */
+    private void registerFrameStatisticsMBean() {
+	java.security.AccessController.doPrivileged(
+	    new java.security.PrivilegedAction<Object>() {
+		@Override
+		public Object run() {
+		    try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(
+			    frameStatistics,
+			    new ObjectName(FrameStatisticsCollector.MBEAN_NAME));
+			frameStatistics.setMBeanRegistered(true);
+		    }
+		    catch (Exception e) {
+			System.err.println("Java 3D: unable to register the frame statistics MBean: " + e);
+		    }
+		    return null;
+		}
+	    });
+    }
+
     /**
      * This fun little method does all the hard work of setting up the
      * work thread list.
@@ -2707,11 +3114,124 @@ private static String getProperty(final String prop) {
 	    thread.threadOpts |= J3dThreadData.WAIT_ALL_THREADS;
 	}
 
+	if (parallelUpdate) {
+	    updateStructureTasks(universes, size, viewArr);
+	}
+
 	threadListsChanged = false;
 
 	//	 dumpWorkThreads();
     }
 
+    /**
+     * Build the structure update task graphs used when parallelUpdate is
+     * enabled.  The tasks keep the phases of the state work thread list.
+     * The first group holds the RenderingAttributesStructure and the
+     * structures of each universe, which wait for the universe's
+     * TransformStructure.  The second group holds the RenderBin and
+     * SoundScheduler of each view.  As in the last phase of the work thread
+     * list, it runs after the first group and alongside the
+     * BehaviorSchedulers and InputDeviceSchedulers, which are started
+     * before it.
+     */
+    private void updateStructureTasks(VirtualUniverse universes[],
+				      int numUniverses, View viewArr[]) {
+	structureTasks.clear();
+	viewStructureTasks.clear();
+
+	if (numActiveViews > 0) {
+	    addStructureTask(structureTasks, renderingAttributesStructure);
+	}
+
+	for (int i = numUniverses-1; i >= 0; i--) {
+	    VirtualUniverse univ = universes[i];
+	    StructureUpdateTask ts = addStructureTask(structureTasks,
+						      univ.transformStructure);
+	    ts.addDependent(addStructureTask(structureTasks, univ.geometryStructure));
+	    ts.addDependent(addStructureTask(structureTasks, univ.behaviorStructure));
+	    ts.addDependent(addStructureTask(structureTasks, univ.renderingEnvironmentStructure));
+	    ts.addDependent(addStructureTask(structureTasks, univ.soundStructure));
+	}
+
+	for (int i = views.size()-1; i >= 0; i--) {
+	    View v = viewArr[i];
+	    if (v.active && v.isRunning) {
+		addStructureTask(viewStructureTasks, v.renderBin);
+		addStructureTask(viewStructureTasks, v.soundScheduler);
+	    }
+	}
+    }
+
+    private StructureUpdateTask addStructureTask(
+			ArrayList<StructureUpdateTask> tasks, J3dStructure s) {
+	StructureUpdateTask t = new StructureUpdateTask(s);
+	tasks.add(t);
+	return t;
+    }
+
+    /**
+     * Submit the root tasks of a group of structure update tasks for this
+     * frame.  Returns false, without submitting anything, if none of the
+     * structures need to run.
+     */
+    private boolean startStructureTasks(ArrayList<StructureUpdateTask> tasks) {
+	int size = tasks.size();
+	boolean needsRun = false;
+
+	for (int i = 0; i < size; i++) {
+	    StructureUpdateTask t = tasks.get(i);
+	    t.reset();
+	    t.referenceTime = currentTime;
+	    if (t.threadData.needsRun) {
+		needsRun = true;
+	    }
+	}
+
+	if (!needsRun) {
+	    return false;
+	}
+
+	structureTasksPending.set(size);
+	J3dTaskPool pool = getTaskPool();
+	for (int i = 0; i < size; i++) {
+	    StructureUpdateTask t = tasks.get(i);
+	    if (t.getNumDependencies() == 0) {
+		pool.execute(t);
+	    }
+	}
+	return true;
+    }
+
+    /**
+     * Runs the work of one structure update thread on the task pool.  The
+     * last task to finish in a frame notifies MasterControl.
+     */
+    private class StructureUpdateTask extends J3dTaskPool.Task {
+	final J3dThreadData threadData;
+
+	long referenceTime;
+
+	StructureUpdateTask(J3dStructure s) {
+	    threadData = s.getUpdateThreadData();
+	}
+
+	@Override
+	void compute() {
+	    J3dThread thread = threadData.thread;
+	    if (threadData.needsRun && thread != null) {
+		thread.args = (Object[])threadData.threadArgs;
+		thread.runWork(referenceTime);
+	    }
+	}
+
+	@Override
+	void done() {
+	    if (structureTasksPending.decrementAndGet() == 0) {
+		runMonitor(STRUCTURE_TASKS_DONE, null, null, null, null);
+	    }
+	}
+    }
+
 
     void dumpWorkThreads() {
 	System.err.println("-----------------------------");
@@ -2930,6 +3450,10 @@ private static String getProperty(final String prop) {
 	    updateTimeValues();
 	}
 
+	if (alphaFrameCache) {
+	    alphaFrameTime = J3dClock.currentTimeMillis();
+	}
+
 	//This is temporary until the view model is updated
 	View v[] = (View []) views.toArray(false);
 	for (int i=views.size()-1; i>=0; i--) {
@@ -3218,6 +3742,13 @@ private static String getProperty(final String prop) {
 	    int requestRenderThreadSize = requestRenderThreadList.arraySize();
 
 	    done = false;
+	    boolean structureTasksStarted = false;
+	    boolean viewStructureTasksStarted = false;
+
+	    if (frameStatistics.isEnabled()) {
+		frameStatistics.frameStarted();
+	    }
+	    Object frameEvent = J3dEventSink.frameBegin();
 
 	    //lock all the needed geometry and image component
 	    View[] allView = (View []) views.toArray(false);
@@ -3251,7 +3782,7 @@ private static String getProperty(final String prop) {
 
 		    if (cpuLimit == 1) {
 			thread.thread.args = (Object[])thread.threadArgs;
-			thread.thread.doWork(currentTime);
+			thread.thread.runWork(currentTime);
 		    } else {
 			threadPending++;
 			thread.thread.runMonitor(J3dThread.RUN,
@@ -3292,6 +3823,17 @@ private static String getProperty(final String prop) {
 
 		}
 		// Now try state threads
+		if (parallelUpdate && !structureTasksStarted) {
+		    // All the structure updates run as one group of tasks,
+		    // the remaining work threads wait until they are done
+		    structureTasksStarted = true;
+		    if (startStructureTasks(structureTasks)) {
+			threadPending++;
+			statePending++;
+			stateWaiting = true;
+		    }
+		}
+
 		while (!stateWaiting &&
 		       currentStateThread != stateThreadSize) {
 		    thread = stateThreads[currentStateThread++];
@@ -3300,11 +3842,17 @@ private static String getProperty(final String prop) {
 			continue;
 		    }
 
+		    if (parallelUpdate &&
+			thread.thread.classification == J3dThread.UPDATE_THREAD) {
+			// Already run by the structure update tasks
+			continue;
+		    }
+
 		    statePending++;
 
 		    if (cpuLimit == 1) {
 			thread.thread.args = (Object[])thread.threadArgs;
-			thread.thread.doWork(currentTime);
+			thread.thread.runWork(currentTime);
 		    } else {
 			threadPending++;
 			thread.thread.runMonitor(J3dThread.RUN,
@@ -3337,6 +3885,19 @@ private static String getProperty(final String prop) {
 		    }
 		}
 
+		if (parallelUpdate && !viewStructureTasksStarted &&
+		    !stateWaiting && (currentStateThread == stateThreadSize)) {
+		    // The RenderBins and SoundSchedulers run after the
+		    // BehaviorSchedulers and InputDeviceSchedulers of their
+		    // phase are started, the frame waits for all of them
+		    viewStructureTasksStarted = true;
+		    if (startStructureTasks(viewStructureTasks)) {
+			threadPending++;
+			statePending++;
+			stateWaiting = true;
+		    }
+		}
+
 		// Now try requestRender threads
                 if (!renderWaiting &&
                      (currentRenderThread == renderThreadSize)) {
@@ -3352,7 +3913,7 @@ private static String getProperty(final String prop) {
 
                         if (cpuLimit == 1) {
                             thread.thread.args = (Object[])thread.threadArgs;
-                            thread.thread.doWork(currentTime);
+                            thread.thread.runWork(currentTime);
                         } else {
                             threadPending++;
                             thread.thread.runMonitor(J3dThread.RUN,
@@ -3404,7 +3965,17 @@ private static String getProperty(final String prop) {
 				v.universe.behaviorStructure.incElapsedFrames();
 			}
 		    timestampUpdateList.clear();
-		    updateMirrorObjects();
+		    if (frameStatistics.isEnabled()) {
+			long startTime = System.nanoTime();
+			updateMirrorObjects();
+			frameStatistics.recordPhase(FrameStatistics.UPDATE_OBJECTS,
+						    System.nanoTime() - startTime);
+			sendFrameStatistics(frameStatistics.frameDone());
+		    } else {
+			updateMirrorObjects();
+		    }
+		    J3dEventSink.frameEnd(frameEvent, views.size(),
+					  stateThreadSize, renderThreadSize);
 		    done = true;
 
                     if (isStatsLoggable(Level.INFO)) {
@@ -3445,6 +4016,18 @@ private static String getProperty(final String prop) {
 	    }
 	    break;
 
+	case STRUCTURE_TASKS_DONE:
+	    threadPending--;
+	    assert threadPending >= 0 : ("threadPending = " + threadPending);
+	    if (--statePending == 0) {
+		stateWaiting = false;
+	    }
+	    assert statePending >= 0 : ("statePending = " + statePending);
+	    if (state == WAITING_FOR_CPU || state == WAITING_FOR_THREADS) {
+		notify();
+	    }
+	    break;
+
 	case CHECK_FOR_WORK:
 	    if (!workToDo) {
 		state = SLEEPING;
@@ -3761,6 +4344,11 @@ private static String getProperty(final String prop) {
                     }
                 }
             }
+            strBuf.append("    Recycled messages: ").
+                    append(J3dMessage.getRecycledMessageHits()).
+                    append(" reused, ").
+                    append(J3dMessage.getRecycledMessageMisses()).
+                    append(" allocated\n");
             getStatsLogger().info(strBuf.toString());
             frameCycleTick = 0;
         }
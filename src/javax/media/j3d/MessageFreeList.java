@@ -0,0 +1,57 @@
+/*
+ * Copyright 2013 Harvey Harrison
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Sun designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Sun in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package javax.media.j3d;
+
+/**
+ * The free list of recycled J3dMessage objects, see
+ * J3dMessage.getRecycledMessage().  Keeps count of how many requests were
+ * served from the list (hits) and how many needed a new message (misses).
+ */
+class MessageFreeList extends MemoryFreeList {
+
+    private long hits = 0;
+    private long misses = 0;
+
+    MessageFreeList() {
+	super("javax.media.j3d.J3dMessage", 64);
+    }
+
+    @Override
+    synchronized Object getObject() {
+	if (size > 0) {
+	    hits++;
+	    return super.removeLastElement();
+	}
+
+	misses++;
+	return new J3dMessage();
+    }
+
+    synchronized long getHits() {
+	return hits;
+    }
+
+    synchronized long getMisses() {
+	return misses;
+    }
+
+    @Override
+    public synchronized void clear() {
+	super.clear();
+	hits = 0;
+	misses = 0;
+    }
+}
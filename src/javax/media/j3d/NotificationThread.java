@@ -85,6 +85,9 @@ class NotificationThread extends Thread {
             case J3dNotification.RENDERING_ERROR:
                 VirtualUniverse.notifyRenderingErrorListeners((RenderingError)n.args[0]);
                 break;
+            case J3dNotification.FRAME_STATISTICS:
+                VirtualUniverse.notifyFrameStatisticsListeners((FrameStatistics)n.args[0]);
+                break;
             default:
                 System.err.println("J3dNotification.processNotifications: unrecognized type = " + n.type);
             }
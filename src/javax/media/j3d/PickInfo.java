@@ -54,6 +54,9 @@ public class PickInfo extends Object {
 
     static final int PICK_ANY = 2;
 
+    // Only for the batched pick, PICK_ALL sorted by distance
+    static final int PICK_ALL_SORTED = 3;
+
     /* The SceneGraphPath of the intersected pickable item */
     private SceneGraphPath sgp;
 
@@ -819,146 +822,28 @@ static ArrayList<NodeRetained> initSceneGraphPath(NodeRetained nodeR) {
 	   ((pickInfoListSize = pickInfoList.size()) > 0)) {
 
             //System.err.println("PickInfo.pick() - In geometry case : pickInfoList.size() is " + pickInfoListSize);
-            Node pickNode = null;
-
-            // Order is impt. Need to do in reverse order.
-            for(int i = pickInfoListSize - 1; i >= 0; i--) {
-            	PickInfo pickInfo = pickInfoList.get(i);
-
-                pickNode = pickInfo.getNode();
-                if( pickNode == null) {
-                    // Use the piggy reference from getPickInfos()
-                    pickNode = pickInfo.getNodeRef();
-                }
-
-                if (pickNode instanceof Shape3D) {
-
-		    /*
-		     * @exception CapabilityNotSetException if the mode is
-		     * PICK_GEOMETRY and the Geometry.ALLOW_INTERSECT capability bit
-		     * is not set in any Geometry objects referred to by any shape
-		     * node whose bounds intersects the PickShape.
-		     *
-                     * @exception CapabilityNotSetException if flags contains any of
-		     * CLOSEST_INTERSECTION_POINT, CLOSEST_DISTANCE, CLOSEST_GEOM_INFO
-		     * or ALL_GEOM_INFO, and the capability bits that control reading of
-		     * coordinate data are not set in any GeometryArray object referred
-		     * to by any shape node that intersects the PickShape.
-		     * The capability bits that must be set to avoid this exception are
-                     * as follows :
-		     *
-		     * By-copy geometry : GeometryArray.ALLOW_COORDINATE_READ
-		     * By-reference geometry : GeometryArray.ALLOW_REF_DATA_READ
-		     * Indexed geometry : IndexedGeometryArray.ALLOW_COORDINATE_INDEX_READ
-		     * (in addition to one of the above)
-		     *
-		     */
-
-                    if (!pickNode.getCapability(Shape3D.ALLOW_GEOMETRY_READ)) {
-			throw new CapabilityNotSetException(J3dI18N.getString("PickInfo0"));
-		    }
 
-		    for (int j = 0; j < ((Shape3D)pickNode).numGeometries(); j++) {
-			Geometry geo = ((Shape3D)pickNode).getGeometry(j);
-
-			if(geo == null) {
-			    continue;
-			}
-
-			if(!geo.getCapability(Geometry.ALLOW_INTERSECT)) {
-			    throw new CapabilityNotSetException(J3dI18N.getString("PickInfo1"));
-			}
-
-			if (geo instanceof GeometryArray) {
-			    if(!geo.getCapability(GeometryArray.ALLOW_COORDINATE_READ))
-				throw new CapabilityNotSetException(J3dI18N.getString("PickInfo2"));
-			    if(!geo.getCapability(GeometryArray.ALLOW_COUNT_READ))
-				throw new CapabilityNotSetException(J3dI18N.getString("PickInfo3"));
-			    if(!geo.getCapability(GeometryArray.ALLOW_FORMAT_READ))
-				throw new CapabilityNotSetException(J3dI18N.getString("PickInfo4"));
-			    if (geo instanceof IndexedGeometryArray) {
-				if(!geo.getCapability(IndexedGeometryArray.ALLOW_COORDINATE_INDEX_READ))
-				    throw new CapabilityNotSetException(J3dI18N.getString("PickInfo5"));
-			    }
-			} else if (geo instanceof CompressedGeometry) {
-			    if(!geo.getCapability(CompressedGeometry.ALLOW_GEOMETRY_READ))
-				throw new CapabilityNotSetException(J3dI18N.getString("PickInfo0"));
-			}
-		    }
+	    if ((pickType != PICK_ANY) && VirtualUniverse.mc.parallelPick &&
+		(pickInfoListSize >= VirtualUniverse.mc.parallelPickThreshold)) {
+		intersectParallel(pickInfoList, pickShape, flags);
+	    }
+	    else {
+		// Order is impt. Need to do in reverse order.
+		for(int i = pickInfoListSize - 1; i >= 0; i--) {
+		    PickInfo pickInfo = pickInfoList.get(i);
 
-		    if (((Shape3DRetained)(pickNode.retained)).intersect(pickInfo, pickShape, flags) == false) {
+		    if (intersect(pickInfo, pickShape, flags) == false) {
 			// System.err.println("  ---- geom " + i + " not intersected");
 
-                        pickInfoList.remove(i);
-
-                    }
-                    else if(pickType == PICK_ANY) {
-                        pickInfoArr = new PickInfo[1];
-                        pickInfoArr[0] = pickInfo;
-                        return pickInfoArr;
-                    }
-                } else if (pickNode instanceof Morph) {
-
-		    /*
-		     * @exception CapabilityNotSetException if the mode is
-		     * PICK_GEOMETRY and the Geometry.ALLOW_INTERSECT capability bit
-		     * is not set in any Geometry objects referred to by any shape
-		     * node whose bounds intersects the PickShape.
-		     *
-                     * @exception CapabilityNotSetException if flags contains any of
-		     * CLOSEST_INTERSECTION_POINT, CLOSEST_DISTANCE, CLOSEST_GEOM_INFO
-		     * or ALL_GEOM_INFO, and the capability bits that control reading of
-		     * coordinate data are not set in any GeometryArray object referred
-		     * to by any shape node that intersects the PickShape.
-		     * The capability bits that must be set to avoid this exception are
-                     * as follows :
-		     *
-		     * By-copy geometry : GeometryArray.ALLOW_COORDINATE_READ
-		     * By-reference geometry : GeometryArray.ALLOW_REF_DATA_READ
-		     * Indexed geometry : IndexedGeometryArray.ALLOW_COORDINATE_INDEX_READ
-		     * (in addition to one of the above)
-		     *
-		     */
-
-                    if (!pickNode.getCapability(Morph.ALLOW_GEOMETRY_ARRAY_READ)) {
-			throw new CapabilityNotSetException(J3dI18N.getString("PickInfo6"));
+			pickInfoList.remove(i);
 		    }
-
-		    int numGeo = ((MorphRetained)(pickNode.retained)).getNumGeometryArrays();
-		    for (int j = 0; j < numGeo; j++) {
-			GeometryArray geo = ((Morph)pickNode).getGeometryArray(j);
-
-			if(geo == null) {
-			    continue;
-			}
-
-			if(!geo.getCapability(Geometry.ALLOW_INTERSECT)) {
-			    throw new CapabilityNotSetException(J3dI18N.getString("PickInfo1"));
-			}
-
-			if(!geo.getCapability(GeometryArray.ALLOW_COORDINATE_READ))
-			    throw new CapabilityNotSetException(J3dI18N.getString("PickInfo2"));
-			if(!geo.getCapability(GeometryArray.ALLOW_COUNT_READ))
-			    throw new CapabilityNotSetException(J3dI18N.getString("PickInfo3"));
-			if(!geo.getCapability(GeometryArray.ALLOW_FORMAT_READ))
-			    throw new CapabilityNotSetException(J3dI18N.getString("PickInfo4"));
-
-			if (geo instanceof IndexedGeometryArray) {
-			    if(!geo.getCapability(IndexedGeometryArray.ALLOW_COORDINATE_INDEX_READ))
-				throw new CapabilityNotSetException(J3dI18N.getString("PickInfo5"));
-			}
+		    else if(pickType == PICK_ANY) {
+			pickInfoArr = new PickInfo[1];
+			pickInfoArr[0] = pickInfo;
+			return pickInfoArr;
 		    }
-
-                    if (((MorphRetained)(pickNode.retained)).intersect(pickInfo, pickShape, flags) == false) {
-                        pickInfoList.remove(i);
-                    }
-                    else if(pickType == PICK_ANY) {
-                        pickInfoArr = new PickInfo[1];
-                        pickInfoArr[0] = pickInfo;
-                        return pickInfoArr;
-                    }
-                }
-            }
+		}
+	    }
         }
 
 	// System.err.println("PickInfo : pickInfoList " + pickInfoList);
@@ -975,6 +860,345 @@ static ArrayList<NodeRetained> initSceneGraphPath(NodeRetained nodeR) {
 
     }
 
+    // Returns the Shape3D or Morph node a PickInfo of getPickInfos refers to
+    private static Node getPickNode(PickInfo pickInfo) {
+	Node pickNode = pickInfo.getNode();
+	if( pickNode == null) {
+	    // Use the piggy reference from getPickInfos()
+	    pickNode = pickInfo.getNodeRef();
+	}
+	return pickNode;
+    }
+
+    // Checks the capabilities needed to intersect the geometry of the node
+    private static void checkIntersectCapabilities(Node pickNode) {
+	if (pickNode instanceof Shape3D) {
+
+	    /*
+	     * @exception CapabilityNotSetException if the mode is
+	     * PICK_GEOMETRY and the Geometry.ALLOW_INTERSECT capability bit
+	     * is not set in any Geometry objects referred to by any shape
+	     * node whose bounds intersects the PickShape.
+	     *
+	     * @exception CapabilityNotSetException if flags contains any of
+	     * CLOSEST_INTERSECTION_POINT, CLOSEST_DISTANCE, CLOSEST_GEOM_INFO
+	     * or ALL_GEOM_INFO, and the capability bits that control reading of
+	     * coordinate data are not set in any GeometryArray object referred
+	     * to by any shape node that intersects the PickShape.
+	     * The capability bits that must be set to avoid this exception are
+	     * as follows :
+	     *
+	     * By-copy geometry : GeometryArray.ALLOW_COORDINATE_READ
+	     * By-reference geometry : GeometryArray.ALLOW_REF_DATA_READ
+	     * Indexed geometry : IndexedGeometryArray.ALLOW_COORDINATE_INDEX_READ
+	     * (in addition to one of the above)
+	     *
+	     */
+
+	    if (!pickNode.getCapability(Shape3D.ALLOW_GEOMETRY_READ)) {
+		throw new CapabilityNotSetException(J3dI18N.getString("PickInfo0"));
+	    }
+
+	    for (int j = 0; j < ((Shape3D)pickNode).numGeometries(); j++) {
+		Geometry geo = ((Shape3D)pickNode).getGeometry(j);
+
+		if(geo == null) {
+		    continue;
+		}
+
+		if(!geo.getCapability(Geometry.ALLOW_INTERSECT)) {
+		    throw new CapabilityNotSetException(J3dI18N.getString("PickInfo1"));
+		}
+
+		if (geo instanceof GeometryArray) {
+		    if(!geo.getCapability(GeometryArray.ALLOW_COORDINATE_READ))
+			throw new CapabilityNotSetException(J3dI18N.getString("PickInfo2"));
+		    if(!geo.getCapability(GeometryArray.ALLOW_COUNT_READ))
+			throw new CapabilityNotSetException(J3dI18N.getString("PickInfo3"));
+		    if(!geo.getCapability(GeometryArray.ALLOW_FORMAT_READ))
+			throw new CapabilityNotSetException(J3dI18N.getString("PickInfo4"));
+		    if (geo instanceof IndexedGeometryArray) {
+			if(!geo.getCapability(IndexedGeometryArray.ALLOW_COORDINATE_INDEX_READ))
+			    throw new CapabilityNotSetException(J3dI18N.getString("PickInfo5"));
+		    }
+		} else if (geo instanceof CompressedGeometry) {
+		    if(!geo.getCapability(CompressedGeometry.ALLOW_GEOMETRY_READ))
+			throw new CapabilityNotSetException(J3dI18N.getString("PickInfo0"));
+		}
+	    }
+	} else if (pickNode instanceof Morph) {
+
+	    /*
+	     * @exception CapabilityNotSetException if the mode is
+	     * PICK_GEOMETRY and the Geometry.ALLOW_INTERSECT capability bit
+	     * is not set in any Geometry objects referred to by any shape
+	     * node whose bounds intersects the PickShape.
+	     *
+	     * @exception CapabilityNotSetException if flags contains any of
+	     * CLOSEST_INTERSECTION_POINT, CLOSEST_DISTANCE, CLOSEST_GEOM_INFO
+	     * or ALL_GEOM_INFO, and the capability bits that control reading of
+	     * coordinate data are not set in any GeometryArray object referred
+	     * to by any shape node that intersects the PickShape.
+	     * The capability bits that must be set to avoid this exception are
+	     * as follows :
+	     *
+	     * By-copy geometry : GeometryArray.ALLOW_COORDINATE_READ
+	     * By-reference geometry : GeometryArray.ALLOW_REF_DATA_READ
+	     * Indexed geometry : IndexedGeometryArray.ALLOW_COORDINATE_INDEX_READ
+	     * (in addition to one of the above)
+	     *
+	     */
+
+	    if (!pickNode.getCapability(Morph.ALLOW_GEOMETRY_ARRAY_READ)) {
+		throw new CapabilityNotSetException(J3dI18N.getString("PickInfo6"));
+	    }
+
+	    int numGeo = ((MorphRetained)(pickNode.retained)).getNumGeometryArrays();
+	    for (int j = 0; j < numGeo; j++) {
+		GeometryArray geo = ((Morph)pickNode).getGeometryArray(j);
+
+		if(geo == null) {
+		    continue;
+		}
+
+		if(!geo.getCapability(Geometry.ALLOW_INTERSECT)) {
+		    throw new CapabilityNotSetException(J3dI18N.getString("PickInfo1"));
+		}
+
+		if(!geo.getCapability(GeometryArray.ALLOW_COORDINATE_READ))
+		    throw new CapabilityNotSetException(J3dI18N.getString("PickInfo2"));
+		if(!geo.getCapability(GeometryArray.ALLOW_COUNT_READ))
+		    throw new CapabilityNotSetException(J3dI18N.getString("PickInfo3"));
+		if(!geo.getCapability(GeometryArray.ALLOW_FORMAT_READ))
+		    throw new CapabilityNotSetException(J3dI18N.getString("PickInfo4"));
+
+		if (geo instanceof IndexedGeometryArray) {
+		    if(!geo.getCapability(IndexedGeometryArray.ALLOW_COORDINATE_INDEX_READ))
+			throw new CapabilityNotSetException(J3dI18N.getString("PickInfo5"));
+		}
+	    }
+	}
+    }
+
+    /**
+     * Intersects the geometry of the node of a PickInfo of getPickInfos
+     * with the pick shape, setting the geometry information requested by
+     * the flags.  Returns false if the geometry is not intersected.
+     */
+    private static boolean intersect(PickInfo pickInfo, PickShape pickShape,
+				     int flags) {
+	checkIntersectCapabilities(getPickNode(pickInfo));
+	return intersectGeometry(pickInfo, pickShape, flags);
+    }
+
+    // Same as intersect() without the capability checks
+    private static boolean intersectGeometry(PickInfo pickInfo,
+					     PickShape pickShape, int flags) {
+	Node pickNode = getPickNode(pickInfo);
+	if (pickNode instanceof Shape3D) {
+	    return ((Shape3DRetained)(pickNode.retained)).intersect(pickInfo, pickShape, flags);
+	} else if (pickNode instanceof Morph) {
+	    return ((MorphRetained)(pickNode.retained)).intersect(pickInfo, pickShape, flags);
+	}
+	return true;
+    }
+
+    /**
+     * Intersects the candidates of a PICK_ALL pick on the task pool and
+     * removes the ones not intersected.  The result, including the order
+     * of the remaining PickInfos and any CapabilityNotSetException thrown,
+     * is the same as for the serial loop of pick().
+     */
+    private static void intersectParallel(ArrayList<PickInfo> pickInfoList,
+					  PickShape pickShape, int flags) {
+	PickInfo[] pickInfos = pickInfoList.toArray(new PickInfo[pickInfoList.size()]);
+
+	// The serial loop checks the capabilities in reverse order
+	for (int i = pickInfos.length - 1; i >= 0; i--) {
+	    checkIntersectCapabilities(getPickNode(pickInfos[i]));
+	}
+
+	// Several tasks per thread, the cost of the candidates varies a lot
+	J3dTaskPool pool = VirtualUniverse.mc.getTaskPool();
+	int numTasks = Math.min(pickInfos.length, pool.getParallelism() * 4);
+	boolean[] hits = new boolean[pickInfos.length];
+	IntersectTask[] tasks = new IntersectTask[numTasks];
+	for (int i = 0; i < numTasks; i++) {
+	    tasks[i] = new IntersectTask(pickInfos, pickShape, flags, hits,
+					 (int)((long)pickInfos.length * i / numTasks),
+					 (int)((long)pickInfos.length * (i + 1) / numTasks));
+	}
+	pool.invokeAll(tasks, numTasks);
+
+	pickInfoList.clear();
+	for (int i = 0; i < pickInfos.length; i++) {
+	    if (hits[i])
+		pickInfoList.add(pickInfos[i]);
+	}
+    }
+
+    // Intersects a range of the candidates of a pick
+    private static class IntersectTask extends J3dTaskPool.Task {
+	private final PickInfo[] pickInfos;
+	private final PickShape pickShape;
+	private final int flags;
+	private final boolean[] hits;
+	private final int start;
+	private final int end;
+
+	IntersectTask(PickInfo[] pickInfos, PickShape pickShape, int flags,
+		      boolean[] hits, int start, int end) {
+	    this.pickInfos = pickInfos;
+	    this.pickShape = pickShape;
+	    this.flags = flags;
+	    this.hits = hits;
+	    this.start = start;
+	    this.end = end;
+	}
+
+	@Override
+	void compute() {
+	    for (int i = start; i < end; i++) {
+		hits[i] = intersectGeometry(pickInfos[i], pickShape, flags);
+	    }
+	}
+    }
+
+    /**
+     * Picks with each of the pickShapes against its candidate GeometryAtoms,
+     * element i of the result is what pick(node, geomAtoms[i], mode,
+     * flags, pickShapes[i], pickType) returns, sorted for
+     * PICK_ALL_SORTED.  The shapes are evaluated on the task pool when
+     * parallel picking is enabled and the geometry has to be intersected.
+     */
+    static PickInfo[][] pick(Object node, GeometryAtom[][] geomAtoms,
+			     int mode, int flags, PickShape[] pickShapes,
+			     int pickType) {
+
+	PickInfo[][] pickInfoArrs = new PickInfo[pickShapes.length][];
+	int numTasks = 1;
+	if (VirtualUniverse.mc.parallelPick && (mode == PICK_GEOMETRY)) {
+	    numTasks = Math.min(pickShapes.length,
+				VirtualUniverse.mc.getTaskPool().getParallelism());
+	}
+
+	if (numTasks <= 1) {
+	    pick(node, geomAtoms, mode, flags, pickShapes, pickType,
+		 pickInfoArrs, 0, pickShapes.length);
+	    return pickInfoArrs;
+	}
+
+	PickTask[] tasks = new PickTask[numTasks];
+	for (int i = 0; i < numTasks; i++) {
+	    tasks[i] = new PickTask(node, geomAtoms, mode, flags, pickShapes,
+				    pickType, pickInfoArrs,
+				    (int)((long)pickShapes.length * i / numTasks),
+				    (int)((long)pickShapes.length * (i + 1) / numTasks));
+	}
+	VirtualUniverse.mc.getTaskPool().invokeAll(tasks, numTasks);
+	return pickInfoArrs;
+    }
+
+    // Picks with the shapes from start to end - 1 into pickInfoArrs
+    private static void pick(Object node, GeometryAtom[][] geomAtoms,
+			     int mode, int flags, PickShape[] pickShapes,
+			     int pickType, PickInfo[][] pickInfoArrs,
+			     int start, int end) {
+	for (int i = start; i < end; i++) {
+	    if (pickShapes[i] == null)
+		continue;
+
+	    if (pickType != PICK_ALL_SORTED) {
+		pickInfoArrs[i] = pick(node, geomAtoms[i], mode, flags,
+				       pickShapes[i], pickType);
+	    } else if ((geomAtoms[i] == null) || (geomAtoms[i].length == 0)) {
+		continue;
+	    } else if (mode == PICK_GEOMETRY) {
+		// Need to have closestDistance set
+		pickInfoArrs[i] = pick(node, geomAtoms[i], mode,
+				       flags | CLOSEST_DISTANCE,
+				       pickShapes[i], PICK_ALL);
+		if (pickInfoArrs[i] != null)
+		    sortPickInfoArray(pickInfoArrs[i]);
+	    } else {
+		sortGeomAtoms(geomAtoms[i], pickShapes[i]);
+		pickInfoArrs[i] = pick(node, geomAtoms[i], mode, flags,
+				       pickShapes[i], PICK_ALL);
+	    }
+	}
+    }
+
+    // Picks with a range of the shapes of a batched pick
+    private static class PickTask extends J3dTaskPool.Task {
+	private final Object node;
+	private final GeometryAtom[][] geomAtoms;
+	private final int mode;
+	private final int flags;
+	private final PickShape[] pickShapes;
+	private final int pickType;
+	private final PickInfo[][] pickInfoArrs;
+	private final int start;
+	private final int end;
+
+	PickTask(Object node, GeometryAtom[][] geomAtoms, int mode, int flags,
+		 PickShape[] pickShapes, int pickType,
+		 PickInfo[][] pickInfoArrs, int start, int end) {
+	    this.node = node;
+	    this.geomAtoms = geomAtoms;
+	    this.mode = mode;
+	    this.flags = flags;
+	    this.pickShapes = pickShapes;
+	    this.pickType = pickType;
+	    this.pickInfoArrs = pickInfoArrs;
+	    this.start = start;
+	    this.end = end;
+	}
+
+	@Override
+	void compute() {
+	    pick(node, geomAtoms, mode, flags, pickShapes, pickType,
+		 pickInfoArrs, start, end);
+	}
+    }
+
+    /**
+     * Returns the number of non null PickInfos in the arrays, for the pick
+     * events of the batched picks.  A null pickInfoArrs, from a pick that
+     * threw, counts none.
+     */
+    static int countPickInfos(PickInfo[][] pickInfoArrs) {
+	int count = 0;
+	if (pickInfoArrs == null)
+	    return count;
+	for (int i = 0; i < pickInfoArrs.length; i++) {
+	    if (pickInfoArrs[i] != null)
+		count += pickInfoArrs[i].length;
+	}
+	return count;
+    }
+
+    // Returns the first PickInfo of each array, or null for null arrays
+    static PickInfo[] firstPickInfos(PickInfo[][] pickInfoArrs) {
+	PickInfo[] pickInfos = new PickInfo[pickInfoArrs.length];
+	for (int i = 0; i < pickInfoArrs.length; i++) {
+	    if (pickInfoArrs[i] != null)
+		pickInfos[i] = pickInfoArrs[i][0];
+	}
+	return pickInfos;
+    }
+
+    // Returns the number of non null PickInfos, none for null pickInfos
+    static int countPickInfos(PickInfo[] pickInfos) {
+	int count = 0;
+	if (pickInfos == null)
+	    return count;
+	for (int i = 0; i < pickInfos.length; i++) {
+	    if (pickInfos[i] != null)
+		count++;
+	}
+	return count;
+    }
+
     /**
      * The IntersectionInfo object holds extra information about an intersection
      * of a PickShape with a Node as part of a PickInfo. Information such as
@@ -0,0 +1,266 @@
+/*
+ * Copyright 2013 Harvey Harrison
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Sun designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Sun in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package javax.media.j3d;
+
+import java.util.Arrays;
+
+import javax.vecmath.Point4d;
+
+/**
+ * An immutable copy of the BHTree of a Locale, taken by the
+ * GeometryStructure at the end of an update pass, that picks can traverse
+ * without the GeometryStructure lock.  Snapshots are never modified, the
+ * GeometryStructure publishes a new one when the BHTree changed during an
+ * update pass, see MasterControl.pickSnapshot.  A snapshot records the
+ * BHTree versions it was taken at, when only bounds changed the new
+ * snapshot shares the node arrays of the previous one and only copies the
+ * bounds.  The bounds are those of the last update
+ * pass, but as for BHTree.select whether a leaf is enabled and pickable is
+ * checked during the pick, since setPickable does not go through the
+ * GeometryStructure.
+ *
+ * The nodes are stored depth first with the right child of a node directly
+ * after it, so the hits are reported in the same order as BHTree.select.
+ */
+class PickSnapshot {
+
+final Locale locale;
+// The BHTree versions this snapshot was taken at
+final int version;
+final int structureVersion;
+
+// Per node: lower x, y, z then upper x, y, z of the bounding hull
+private final double[] bounds;
+// Per node: the left child of an internal node, -1 if it has none
+private final int[] leftChild;
+// Per node: whether an internal node has a right child
+private final boolean[] hasRight;
+// Per node: the GeometryAtom of a leaf, null for internal nodes
+private final GeometryAtom[] atoms;
+private int numNodes = 0;
+
+PickSnapshot(Locale locale, BHNode root, int version, int structureVersion) {
+	this.locale = locale;
+	this.version = version;
+	this.structureVersion = structureVersion;
+	int count = countNodes(root);
+	bounds = new double[count * 6];
+	leftChild = new int[count];
+	hasRight = new boolean[count];
+	atoms = new GeometryAtom[count];
+	if (count > 0)
+		copy(root);
+}
+
+// Shares the nodes of prev with the new bounds
+private PickSnapshot(PickSnapshot prev, double[] bounds, int version) {
+	locale = prev.locale;
+	this.version = version;
+	structureVersion = prev.structureVersion;
+	this.bounds = bounds;
+	leftChild = prev.leftChild;
+	hasRight = prev.hasRight;
+	atoms = prev.atoms;
+	numNodes = prev.numNodes;
+}
+
+/**
+ * Returns a snapshot of the tree, whose nodes did not change since this
+ * snapshot, sharing the node arrays of this snapshot.  Returns null if
+ * the copied nodes differ, which happens when a bounds change emptied or
+ * filled a subtree.
+ */
+PickSnapshot refit(BHNode root, int version) {
+	double[] newBounds = new double[numNodes * 6];
+	int[] index = new int[1];
+	if (isCopied(root)) {
+		if (!copyBounds(root, newBounds, index))
+			return null;
+	}
+	if (index[0] != numNodes)
+		return null;
+
+	return new PickSnapshot(this, newBounds, version);
+}
+
+private boolean copyBounds(BHNode bh, double[] b, int[] index) {
+	int n = index[0]++;
+	if (n >= numNodes)
+		return false;
+
+	BoundingBox hull = bh.bHull;
+	b[n * 6    ] = hull.lower.x;
+	b[n * 6 + 1] = hull.lower.y;
+	b[n * 6 + 2] = hull.lower.z;
+	b[n * 6 + 3] = hull.upper.x;
+	b[n * 6 + 4] = hull.upper.y;
+	b[n * 6 + 5] = hull.upper.z;
+
+	if (bh.nodeType == BHNode.BH_TYPE_LEAF)
+		return atoms[n] == ((BHLeafNode)bh).leafIF;
+	if (atoms[n] != null)
+		return false;
+
+	BHInternalNode node = (BHInternalNode)bh;
+	boolean right = isCopied(node.getRightChild());
+	if (right != hasRight[n])
+		return false;
+	if (right && !copyBounds(node.getRightChild(), b, index))
+		return false;
+
+	boolean left = isCopied(node.getLeftChild());
+	if (left != (leftChild[n] >= 0))
+		return false;
+	if (left) {
+		if (leftChild[n] != index[0])
+			return false;
+		if (!copyBounds(node.getLeftChild(), b, index))
+			return false;
+	}
+	return true;
+}
+
+// Only the GeometryAtom leaves of non empty subtrees can be picked
+private static boolean isCopied(BHNode bh) {
+	if ((bh == null) || bh.bHull.isEmpty())
+		return false;
+	if (bh.nodeType != BHNode.BH_TYPE_LEAF)
+		return true;
+
+	return ((BHLeafNode)bh).leafIF instanceof GeometryAtom;
+}
+
+private static int countNodes(BHNode bh) {
+	if (!isCopied(bh))
+		return 0;
+	if (bh.nodeType == BHNode.BH_TYPE_LEAF)
+		return 1;
+
+	BHInternalNode node = (BHInternalNode)bh;
+	return 1 + countNodes(node.getRightChild()) +
+		   countNodes(node.getLeftChild());
+}
+
+private void copy(BHNode bh) {
+	int n = numNodes++;
+	BoundingBox hull = bh.bHull;
+	bounds[n * 6    ] = hull.lower.x;
+	bounds[n * 6 + 1] = hull.lower.y;
+	bounds[n * 6 + 2] = hull.lower.z;
+	bounds[n * 6 + 3] = hull.upper.x;
+	bounds[n * 6 + 4] = hull.upper.y;
+	bounds[n * 6 + 5] = hull.upper.z;
+	leftChild[n] = -1;
+
+	if (bh.nodeType == BHNode.BH_TYPE_LEAF) {
+		atoms[n] = (GeometryAtom)((BHLeafNode)bh).leafIF;
+		return;
+	}
+
+	BHInternalNode node = (BHInternalNode)bh;
+	if (isCopied(node.getRightChild())) {
+		hasRight[n] = true;
+		copy(node.getRightChild());
+	}
+	if (isCopied(node.getLeftChild())) {
+		leftChild[n] = numNodes;
+		copy(node.getLeftChild());
+	}
+}
+
+/**
+ * Returns the GeometryAtoms whose bounds the shape intersects, or null
+ * if there are none.
+ */
+GeometryAtom[] pickAll(PickShape shape) {
+	if ((shape == null) || (numNodes == 0))
+		return null;
+
+	GeometryAtom[] hits = new GeometryAtom[8];
+	int numHits = 0;
+	BoundingBox hull = new BoundingBox();
+	Point4d pickPos = new Point4d();
+	int[] stack = new int[64];
+	int top = 0;
+	stack[top++] = 0;
+	while (top > 0) {
+		int n = stack[--top];
+		if (!intersect(shape, n, hull, pickPos))
+			continue;
+
+		if (atoms[n] != null) {
+			if (numHits == hits.length)
+				hits = Arrays.copyOf(hits, numHits * 2);
+			hits[numHits++] = atoms[n];
+			continue;
+		}
+
+		// The right child is visited first, as by BHTree.select
+		if (top + 2 > stack.length)
+			stack = Arrays.copyOf(stack, stack.length * 2);
+		if (leftChild[n] >= 0)
+			stack[top++] = leftChild[n];
+		if (hasRight[n])
+			stack[top++] = n + 1;
+	}
+
+	if (numHits == 0)
+		return null;
+	return Arrays.copyOf(hits, numHits);
+}
+
+/**
+ * Returns a GeometryAtom whose bounds the shape intersects, the same one
+ * as BHTree.selectAny, or null if there is none.
+ */
+GeometryAtom pickAny(PickShape shape) {
+	if ((shape == null) || (numNodes == 0))
+		return null;
+
+	BoundingBox hull = new BoundingBox();
+	Point4d pickPos = new Point4d();
+	int[] stack = new int[64];
+	int top = 0;
+	stack[top++] = 0;
+	while (top > 0) {
+		int n = stack[--top];
+		if (!intersect(shape, n, hull, pickPos))
+			continue;
+
+		if (atoms[n] != null)
+			return atoms[n];
+
+		if (top + 2 > stack.length)
+			stack = Arrays.copyOf(stack, stack.length * 2);
+		if (leftChild[n] >= 0)
+			stack[top++] = leftChild[n];
+		if (hasRight[n])
+			stack[top++] = n + 1;
+	}
+	return null;
+}
+
+private boolean intersect(PickShape shape, int n, BoundingBox hull,
+			  Point4d pickPos) {
+	GeometryAtom atom = atoms[n];
+	if ((atom != null) && !(atom.isEnable() && atom.source.isPickable))
+		return false;
+
+	hull.setLower(bounds[n * 6], bounds[n * 6 + 1], bounds[n * 6 + 2]);
+	hull.setUpper(bounds[n * 6 + 3], bounds[n * 6 + 4], bounds[n * 6 + 5]);
+	return shape.intersect(hull, pickPos);
+}
+}
@@ -51,6 +51,13 @@ class RenderBin extends J3dStructure  implements ObjectUpdate {
  */
 ArrayList<RenderAtom> renderAtoms = new ArrayList<RenderAtom>(5);
 
+/**
+ * The number of RenderAtoms inserted and removed since the start of the
+ * last processMessages, reported with the RenderAtomUpdate JFR event
+ */
+private int numRenderAtomsInserted = 0;
+private int numRenderAtomsRemoved = 0;
+
 /**
  * A couple ArrayLists used during light Processing
  */
@@ -1347,6 +1354,10 @@ private LinkedHashSet<RenderAtom> dirtyDepthSortRenderAtom = new LinkedHashSet<R
 	J3dMessage messages[], m;
 	int component;
 
+	Object event = J3dEventSink.renderAtomUpdateBegin();
+	numRenderAtomsInserted = 0;
+	numRenderAtomsRemoved = 0;
+
 	messages = getMessages(referenceTime);
 	int nMsg = getNumMessage();
 
@@ -1871,6 +1882,9 @@ private LinkedHashSet<RenderAtom> dirtyDepthSortRenderAtom = new LinkedHashSet<R
 
 	view.renderBinReady = true;
 
+	J3dEventSink.renderAtomUpdateEnd(event, view, numRenderAtomsInserted,
+					 numRenderAtomsRemoved);
+
 	VirtualUniverse.mc.sendRunMessage(view,
 					  J3dThread.RENDER_THREAD);
     }
@@ -4391,6 +4405,7 @@ private void processOrderedGroupInserted(J3dMessage m) {
 	renderMolecule = findRenderMolecule(textureBin, ra);
         ra.setRenderBin(true);
 	renderAtoms.add(ra);
+	numRenderAtomsInserted++;
 
         if (ga.source instanceof OrientedShape3DRetained) {
 	    // dirty initially
@@ -5828,6 +5843,7 @@ void addDirtyReferenceGeometry(GeometryArrayRetained geo) {
 	//	System.err.println("===> remove ga = "+ra.geometryAtom);
 	ra.setRenderBin(false);
 	ra.renderMolecule.removeRenderAtom(ra);
+	numRenderAtomsRemoved++;
 	if (ra.inDirtyOrientedRAs()) {
 	    dirtyOrientedRAs.remove(ra);
 	    ra.dirtyMask &= ~RenderAtom.IN_DIRTY_ORIENTED_RAs;
@@ -995,16 +995,20 @@ ArrayList<TextureRetained> textureIDResourceTable = new ArrayList<TextureRetaine
                         // rebuild the display list of all dirty renderMolecules.
                         if (canvas.useSharedCtx) {
 			    if (needToRebuildDisplayList) {
+				Object event = J3dEventSink.displayListUpdateBegin();
 				renderBin.updateAllRenderMolecule(
 							this, canvas);
+				J3dEventSink.displayListUpdateEnd(event, canvas, true);
 				needToRebuildDisplayList = false;
 			    }
 
 			    if (dirtyDisplayList) {
+				Object event = J3dEventSink.displayListUpdateBegin();
                                 renderBin.updateDirtyDisplayLists(canvas,
 					dirtyRenderMoleculeList,
 					dirtyDlistPerRinfoList,
 					dirtyRenderAtomList,true);
+				J3dEventSink.displayListUpdateEnd(event, canvas, false);
 				dirtyDisplayList = false;
 			    }
 
@@ -1022,14 +1026,18 @@ ArrayList<TextureRetained> textureIDResourceTable = new ArrayList<TextureRetaine
                         } else {
                             // update each canvas
 			    if (canvas.needToRebuildDisplayList) {
+				Object event = J3dEventSink.displayListUpdateBegin();
 				renderBin.updateAllRenderMolecule(canvas);
+				J3dEventSink.displayListUpdateEnd(event, canvas, true);
 				canvas.needToRebuildDisplayList = false;
 			    }
 			    if (canvas.dirtyDisplayList) {
+				Object event = J3dEventSink.displayListUpdateBegin();
                                 renderBin.updateDirtyDisplayLists(canvas,
                                         canvas.dirtyRenderMoleculeList,
 					canvas.dirtyDlistPerRinfoList,
 					canvas.dirtyRenderAtomList, false);
+				J3dEventSink.displayListUpdateEnd(event, canvas, false);
 				canvas.dirtyDisplayList = false;
                             }
                         }
@@ -97,4 +97,9 @@ class StructureUpdateThread extends J3dThread {
     void doWork(long referenceTime) {
 	structure.processMessages(referenceTime);
     }
+
+    @Override
+    int getNumMessage() {
+	return structure.getNumMessage();
+    }
 }
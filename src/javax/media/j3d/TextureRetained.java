@@ -1718,7 +1718,9 @@ abstract class TextureRetained extends NodeComponentRetained {
 
 	// update all texture images
 
+	Object event = J3dEventSink.textureUploadBegin();
 	reloadTexture(cv);
+	J3dEventSink.textureUploadEnd(event, this, true);
 
         synchronized(resourceLock) {
 	    resourceCreationMask |= cv.screen.renderer.rendererBit;
@@ -1807,7 +1809,9 @@ abstract class TextureRetained extends NodeComponentRetained {
 
 	    // update all texture images
 
+	    Object event = J3dEventSink.textureUploadBegin();
 	    reloadTexture(cv);
+	    J3dEventSink.textureUploadEnd(event, this, true);
 
 
 	    if (cv.useSharedCtx) {
@@ -1845,7 +1849,9 @@ abstract class TextureRetained extends NodeComponentRetained {
 
 	        // update texture based on the imageComponent update info
 
+	        Object event = J3dEventSink.textureUploadBegin();
 	        updateTexture(cv, resourceBit);
+	        J3dEventSink.textureUploadEnd(event, this, false);
 	    }
 
 	    // set the appropriate bit in the resource update masks showing
@@ -26,6 +26,8 @@
 
 package javax.media.j3d;
 
+import java.util.ArrayList;
+
 /**
  * The TimerThread is thread that handle WakeupOnElapsedTime call.
  * There is only one thread for the whole system.
@@ -40,6 +42,12 @@ class TimerThread extends Thread {
 
     private WakeupOnElapsedTimeHeap heap = new WakeupOnElapsedTimeHeap();
 
+    // Used instead of the heap when MasterControl.timerWheel is set
+    private WakeupOnElapsedTimeWheel wheel = null;
+    // The wakeups expired by the wheel, triggered outside of its lock
+    private final ArrayList<WakeupOnElapsedTime> expired =
+	new ArrayList<WakeupOnElapsedTime>();
+
     // Wakeup InputDeviceScheduler for every sample time reach
     private WakeupOnElapsedTime inputDeviceSchedCond =
         new WakeupOnElapsedTime(InputDeviceScheduler.samplingTime);
@@ -56,14 +64,23 @@ class TimerThread extends Thread {
     private boolean waiting = false;
     private boolean ready = false;
 
-    TimerThread(ThreadGroup t) {
+    TimerThread(ThreadGroup t, boolean useWheel) {
 	super(t, "J3D-TimerThread");
+	if (useWheel) {
+	    wheel = new WakeupOnElapsedTimeWheel(J3dClock.currentTimeMillis());
+	}
     }
 
     // call from UserThread
     void add(WakeupOnElapsedTime wakeup) {
-	synchronized (heap) {
-	    heap.insert(wakeup);
+	if (wheel != null) {
+	    synchronized (wheel) {
+		wheel.insert(wakeup);
+	    }
+	} else {
+	    synchronized (heap) {
+		heap.insert(wakeup);
+	    }
 	}
 	runMonitor(NOTIFY, 0);
     }
@@ -90,8 +107,14 @@ class TimerThread extends Thread {
     }
 
     void remove(WakeupOnElapsedTime w) {
-	synchronized (heap) {
-	    heap.extract(w);
+	if (wheel != null) {
+	    synchronized (wheel) {
+		wheel.extract(w);
+	    }
+	} else {
+	    synchronized (heap) {
+		heap.extract(w);
+	    }
 	}
     }
 
@@ -103,6 +126,10 @@ class TimerThread extends Thread {
 
 	while (running) {
 	    runMonitor(WAIT, waitTime);
+	    if (wheel != null) {
+		waitTime = expireWheel();
+		continue;
+	    }
 	    time = J3dClock.currentTimeMillis();
 
 	    while (true) {
@@ -118,19 +145,51 @@ class TimerThread extends Thread {
 		}
 		if (cond == null) {
 		    break;
-		} else if (cond == inputDeviceSchedCond) {
-		    VirtualUniverse.mc.sendRunMessage(
-				      J3dThread.INPUT_DEVICE_SCHEDULER);
-		} else if (cond == soundSchedCond) {
-		    VirtualUniverse.mc.sendRunMessage(
-				      J3dThread.SOUND_SCHEDULER);
-		} else {
-		    cond.setTriggered();
 		}
+		trigger(cond);
 	    }
 	}
     }
 
+    /**
+     * Triggers all the wakeups of the wheel whose time is reached and
+     * returns the time to wait for the next one, -1 if there is none.
+     */
+    private long expireWheel() {
+	while (true) {
+	    long time = J3dClock.currentTimeMillis();
+	    long next;
+	    synchronized (wheel) {
+		wheel.expire(time, expired);
+		next = wheel.nextTime();
+	    }
+	    for (int i = 0; i < expired.size(); i++) {
+		trigger(expired.get(i));
+	    }
+	    expired.clear();
+
+	    if (next < 0) {
+		return -1;
+	    }
+	    long waitTime = next - J3dClock.currentTimeMillis();
+	    if (waitTime > 0) {
+		return waitTime;
+	    }
+	}
+    }
+
+    private void trigger(WakeupOnElapsedTime cond) {
+	if (cond == inputDeviceSchedCond) {
+	    VirtualUniverse.mc.sendRunMessage(
+			      J3dThread.INPUT_DEVICE_SCHEDULER);
+	} else if (cond == soundSchedCond) {
+	    VirtualUniverse.mc.sendRunMessage(
+			      J3dThread.SOUND_SCHEDULER);
+	} else {
+	    cond.setTriggered();
+	}
+    }
+
 
     synchronized void runMonitor(int action, long waitTime) {
 	switch (action) {
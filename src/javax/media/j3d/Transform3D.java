@@ -26,6 +26,9 @@
 
 package javax.media.j3d;
 
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+
 import javax.vecmath.AxisAngle4d;
 import javax.vecmath.AxisAngle4f;
 import javax.vecmath.GMatrix;
@@ -2065,6 +2068,23 @@ public class Transform3D {
 
     }
 
+    // Same as set(double[]), reading the 16 values starting at offset.
+    // Used to unpack the matrices of TransformGroup.setTransforms
+    final void set(double[] matrix, int offset) {
+	System.arraycopy(matrix, offset, mat, 0, 16);
+
+	dirtyBits = ALL_DIRTY;
+
+	if (autoNormalize)  {
+	    normalize();
+	}
+    }
+
+    // Same as get(double[]), storing the 16 values starting at offset
+    final void get(double[] matrix, int offset) {
+	System.arraycopy(mat, 0, matrix, offset, 16);
+    }
+
    /**
      * Sets the matrix values of this transform to the matrix values in the
      * single precision array parameter.  The matrix type is classified
@@ -4330,6 +4350,511 @@ public class Transform3D {
         normal.y = y;
     }
 
+    // What transformPoints and transformNormals have to do, see
+    // getBulkTransformKind()
+    private static final int BULK_IDENTITY  = 0;
+    private static final int BULK_TRANSLATE = 1;
+    private static final int BULK_AFFINE    = 2;
+
+    /**
+     * Returns the least work needed to transform points (or normals, for
+     * which the translation is ignored) by this transform.  A transform
+     * whose up to date classification is not TRANSLATION needs the full
+     * multiply; otherwise the matrix is checked exactly, since the
+     * classification tolerates small errors and the bulk methods must
+     * give the same results as the single point methods.
+     */
+    private int getBulkTransformKind(boolean normals) {
+	if ((dirtyBits & CLASSIFY_BIT) == 0 && (type & TRANSLATION) == 0) {
+	    return BULK_AFFINE;
+	}
+
+	if (mat[0] != 1.0 || mat[1] != 0.0 || mat[2] != 0.0 ||
+	    mat[4] != 0.0 || mat[5] != 1.0 || mat[6] != 0.0 ||
+	    mat[8] != 0.0 || mat[9] != 0.0 || mat[10] != 1.0) {
+	    return BULK_AFFINE;
+	}
+
+	if (normals || (mat[3] == 0.0 && mat[7] == 0.0 && mat[11] == 0.0)) {
+	    return BULK_IDENTITY;
+	}
+	return BULK_TRANSLATE;
+    }
+
+    private static void checkStrides(int srcStride, int dstStride) {
+	if (srcStride < 3 || dstStride < 3) {
+	    throw new IllegalArgumentException(J3dI18N.getString("Transform3D5"));
+	}
+    }
+
+    /**
+     * Transforms count points stored as consecutive x, y, z values in
+     * the src array and places the results into the dst array.  The
+     * fourth element of each point is assumed to be one, as in
+     * transform(Point3f, Point3f).  The points start at srcOffset and
+     * dstOffset and are srcStride and dstStride elements apart, which
+     * allows transforming the coordinates of interleaved vertex data.
+     * The arrays may be the same array, in which case the points are
+     * transformed in place if the offsets and strides are the same;
+     * other overlapping ranges give undefined results.
+     * <p>
+     * This is equivalent to calling transform(Point3f, Point3f) on each
+     * point, but avoids the per-point calls and temporary objects, and
+     * only adds the translation (or copies the points) when this transform
+     * has no rotation or scale.
+     *
+     * @param src the array holding the points to be transformed
+     * @param srcOffset the index in src of the x of the first point
+     * @param srcStride the number of elements between two points in src
+     * @param dst the array receiving the transformed points
+     * @param dstOffset the index in dst of the x of the first point
+     * @param dstStride the number of elements between two points in dst
+     * @param count the number of points to transform
+     *
+     * @exception IllegalArgumentException if either stride is less than 3
+     * @exception ArrayIndexOutOfBoundsException if a point is outside
+     * either array
+     *
+     * @since Java 3D 1.6
+     */
+    public final void transformPoints(float[] src, int srcOffset, int srcStride,
+				      float[] dst, int dstOffset, int dstStride,
+				      int count) {
+	checkStrides(srcStride, dstStride);
+
+	int s = srcOffset;
+	int d = dstOffset;
+	switch (getBulkTransformKind(false)) {
+	case BULK_IDENTITY:
+	    if (src == dst && srcOffset == dstOffset && srcStride == dstStride)
+		return;
+
+	    for (int i = 0; i < count; i++, s += srcStride, d += dstStride) {
+		dst[d] = src[s];
+		dst[d+1] = src[s+1];
+		dst[d+2] = src[s+2];
+	    }
+	    return;
+
+	case BULK_TRANSLATE:
+	    double tx = mat[3], ty = mat[7], tz = mat[11];
+	    for (int i = 0; i < count; i++, s += srcStride, d += dstStride) {
+		dst[d] = (float)(src[s] + tx);
+		dst[d+1] = (float)(src[s+1] + ty);
+		dst[d+2] = (float)(src[s+2] + tz);
+	    }
+	    return;
+
+	default:
+	    double m00 = mat[0], m01 = mat[1], m02 = mat[2], m03 = mat[3];
+	    double m10 = mat[4], m11 = mat[5], m12 = mat[6], m13 = mat[7];
+	    double m20 = mat[8], m21 = mat[9], m22 = mat[10], m23 = mat[11];
+	    for (int i = 0; i < count; i++, s += srcStride, d += dstStride) {
+		float x = src[s], y = src[s+1], z = src[s+2];
+		dst[d] = (float)(m00*x + m01*y + m02*z + m03);
+		dst[d+1] = (float)(m10*x + m11*y + m12*z + m13);
+		dst[d+2] = (float)(m20*x + m21*y + m22*z + m23);
+	    }
+	}
+    }
+
+    /**
+     * Transforms count points stored as consecutive x, y, z values in
+     * the src array and places the results into the dst array.  See
+     * transformPoints(float[], int, int, float[], int, int, int) for
+     * the meaning of the parameters.
+     *
+     * @param src the array holding the points to be transformed
+     * @param srcOffset the index in src of the x of the first point
+     * @param srcStride the number of elements between two points in src
+     * @param dst the array receiving the transformed points
+     * @param dstOffset the index in dst of the x of the first point
+     * @param dstStride the number of elements between two points in dst
+     * @param count the number of points to transform
+     *
+     * @exception IllegalArgumentException if either stride is less than 3
+     * @exception ArrayIndexOutOfBoundsException if a point is outside
+     * either array
+     *
+     * @since Java 3D 1.6
+     */
+    public final void transformPoints(double[] src, int srcOffset, int srcStride,
+				      double[] dst, int dstOffset, int dstStride,
+				      int count) {
+	checkStrides(srcStride, dstStride);
+
+	int s = srcOffset;
+	int d = dstOffset;
+	switch (getBulkTransformKind(false)) {
+	case BULK_IDENTITY:
+	    if (src == dst && srcOffset == dstOffset && srcStride == dstStride)
+		return;
+
+	    for (int i = 0; i < count; i++, s += srcStride, d += dstStride) {
+		dst[d] = src[s];
+		dst[d+1] = src[s+1];
+		dst[d+2] = src[s+2];
+	    }
+	    return;
+
+	case BULK_TRANSLATE:
+	    double tx = mat[3], ty = mat[7], tz = mat[11];
+	    for (int i = 0; i < count; i++, s += srcStride, d += dstStride) {
+		dst[d] = src[s] + tx;
+		dst[d+1] = src[s+1] + ty;
+		dst[d+2] = src[s+2] + tz;
+	    }
+	    return;
+
+	default:
+	    double m00 = mat[0], m01 = mat[1], m02 = mat[2], m03 = mat[3];
+	    double m10 = mat[4], m11 = mat[5], m12 = mat[6], m13 = mat[7];
+	    double m20 = mat[8], m21 = mat[9], m22 = mat[10], m23 = mat[11];
+	    for (int i = 0; i < count; i++, s += srcStride, d += dstStride) {
+		double x = src[s], y = src[s+1], z = src[s+2];
+		dst[d] = m00*x + m01*y + m02*z + m03;
+		dst[d+1] = m10*x + m11*y + m12*z + m13;
+		dst[d+2] = m20*x + m21*y + m22*z + m23;
+	    }
+	}
+    }
+
+    /**
+     * Transforms count points stored as consecutive x, y, z values in
+     * the src buffer and places the results into the dst buffer.  The
+     * offsets are absolute indices; the positions and limits of the
+     * buffers are neither used nor changed.  See
+     * transformPoints(float[], int, int, float[], int, int, int) for
+     * the meaning of the other parameters.
+     *
+     * @param src the buffer holding the points to be transformed
+     * @param srcOffset the index in src of the x of the first point
+     * @param srcStride the number of elements between two points in src
+     * @param dst the buffer receiving the transformed points
+     * @param dstOffset the index in dst of the x of the first point
+     * @param dstStride the number of elements between two points in dst
+     * @param count the number of points to transform
+     *
+     * @exception IllegalArgumentException if either stride is less than 3
+     * @exception IndexOutOfBoundsException if a point is outside the
+     * limit of either buffer
+     * @exception java.nio.ReadOnlyBufferException if dst is read-only
+     *
+     * @since Java 3D 1.6
+     */
+    public final void transformPoints(FloatBuffer src, int srcOffset, int srcStride,
+				      FloatBuffer dst, int dstOffset, int dstStride,
+				      int count) {
+	checkStrides(srcStride, dstStride);
+
+	int s = srcOffset;
+	int d = dstOffset;
+	switch (getBulkTransformKind(false)) {
+	case BULK_IDENTITY:
+	    if (src == dst && srcOffset == dstOffset && srcStride == dstStride)
+		return;
+
+	    for (int i = 0; i < count; i++, s += srcStride, d += dstStride) {
+		dst.put(d, src.get(s));
+		dst.put(d+1, src.get(s+1));
+		dst.put(d+2, src.get(s+2));
+	    }
+	    return;
+
+	case BULK_TRANSLATE:
+	    double tx = mat[3], ty = mat[7], tz = mat[11];
+	    for (int i = 0; i < count; i++, s += srcStride, d += dstStride) {
+		dst.put(d, (float)(src.get(s) + tx));
+		dst.put(d+1, (float)(src.get(s+1) + ty));
+		dst.put(d+2, (float)(src.get(s+2) + tz));
+	    }
+	    return;
+
+	default:
+	    double m00 = mat[0], m01 = mat[1], m02 = mat[2], m03 = mat[3];
+	    double m10 = mat[4], m11 = mat[5], m12 = mat[6], m13 = mat[7];
+	    double m20 = mat[8], m21 = mat[9], m22 = mat[10], m23 = mat[11];
+	    for (int i = 0; i < count; i++, s += srcStride, d += dstStride) {
+		float x = src.get(s), y = src.get(s+1), z = src.get(s+2);
+		dst.put(d, (float)(m00*x + m01*y + m02*z + m03));
+		dst.put(d+1, (float)(m10*x + m11*y + m12*z + m13));
+		dst.put(d+2, (float)(m20*x + m21*y + m22*z + m23));
+	    }
+	}
+    }
+
+    /**
+     * Transforms count points stored as consecutive x, y, z values in
+     * the src buffer and places the results into the dst buffer.  See
+     * transformPoints(FloatBuffer, int, int, FloatBuffer, int, int, int)
+     * for the meaning of the parameters.
+     *
+     * @param src the buffer holding the points to be transformed
+     * @param srcOffset the index in src of the x of the first point
+     * @param srcStride the number of elements between two points in src
+     * @param dst the buffer receiving the transformed points
+     * @param dstOffset the index in dst of the x of the first point
+     * @param dstStride the number of elements between two points in dst
+     * @param count the number of points to transform
+     *
+     * @exception IllegalArgumentException if either stride is less than 3
+     * @exception IndexOutOfBoundsException if a point is outside the
+     * limit of either buffer
+     * @exception java.nio.ReadOnlyBufferException if dst is read-only
+     *
+     * @since Java 3D 1.6
+     */
+    public final void transformPoints(DoubleBuffer src, int srcOffset, int srcStride,
+				      DoubleBuffer dst, int dstOffset, int dstStride,
+				      int count) {
+	checkStrides(srcStride, dstStride);
+
+	int s = srcOffset;
+	int d = dstOffset;
+	switch (getBulkTransformKind(false)) {
+	case BULK_IDENTITY:
+	    if (src == dst && srcOffset == dstOffset && srcStride == dstStride)
+		return;
+
+	    for (int i = 0; i < count; i++, s += srcStride, d += dstStride) {
+		dst.put(d, src.get(s));
+		dst.put(d+1, src.get(s+1));
+		dst.put(d+2, src.get(s+2));
+	    }
+	    return;
+
+	case BULK_TRANSLATE:
+	    double tx = mat[3], ty = mat[7], tz = mat[11];
+	    for (int i = 0; i < count; i++, s += srcStride, d += dstStride) {
+		dst.put(d, src.get(s) + tx);
+		dst.put(d+1, src.get(s+1) + ty);
+		dst.put(d+2, src.get(s+2) + tz);
+	    }
+	    return;
+
+	default:
+	    double m00 = mat[0], m01 = mat[1], m02 = mat[2], m03 = mat[3];
+	    double m10 = mat[4], m11 = mat[5], m12 = mat[6], m13 = mat[7];
+	    double m20 = mat[8], m21 = mat[9], m22 = mat[10], m23 = mat[11];
+	    for (int i = 0; i < count; i++, s += srcStride, d += dstStride) {
+		double x = src.get(s), y = src.get(s+1), z = src.get(s+2);
+		dst.put(d, m00*x + m01*y + m02*z + m03);
+		dst.put(d+1, m10*x + m11*y + m12*z + m13);
+		dst.put(d+2, m20*x + m21*y + m22*z + m23);
+	    }
+	}
+    }
+
+    /**
+     * Transforms count normals stored as consecutive x, y, z values in
+     * the src array and places the results into the dst array.  The
+     * fourth element of each normal is assumed to be zero, as in
+     * transform(Vector3f, Vector3f), so the translation is ignored.  See
+     * transformPoints(float[], int, int, float[], int, int, int) for
+     * the meaning of the parameters.
+     * Note: For correct lighting results, if a transform has uneven scaling
+     * surface normals should transformed by the inverse transpose of
+     * the transform. This the responsibility of the application and is not
+     * done automatically by this method.
+     *
+     * @param src the array holding the normals to be transformed
+     * @param srcOffset the index in src of the x of the first normal
+     * @param srcStride the number of elements between two normals in src
+     * @param dst the array receiving the transformed normals
+     * @param dstOffset the index in dst of the x of the first normal
+     * @param dstStride the number of elements between two normals in dst
+     * @param count the number of normals to transform
+     *
+     * @exception IllegalArgumentException if either stride is less than 3
+     * @exception ArrayIndexOutOfBoundsException if a normal is outside
+     * either array
+     *
+     * @since Java 3D 1.6
+     */
+    public final void transformNormals(float[] src, int srcOffset, int srcStride,
+				       float[] dst, int dstOffset, int dstStride,
+				       int count) {
+	checkStrides(srcStride, dstStride);
+
+	int s = srcOffset;
+	int d = dstOffset;
+	if (getBulkTransformKind(true) == BULK_IDENTITY) {
+	    if (src == dst && srcOffset == dstOffset && srcStride == dstStride)
+		return;
+
+	    for (int i = 0; i < count; i++, s += srcStride, d += dstStride) {
+		dst[d] = src[s];
+		dst[d+1] = src[s+1];
+		dst[d+2] = src[s+2];
+	    }
+	    return;
+	}
+
+	double m00 = mat[0], m01 = mat[1], m02 = mat[2];
+	double m10 = mat[4], m11 = mat[5], m12 = mat[6];
+	double m20 = mat[8], m21 = mat[9], m22 = mat[10];
+	for (int i = 0; i < count; i++, s += srcStride, d += dstStride) {
+	    float x = src[s], y = src[s+1], z = src[s+2];
+	    dst[d] = (float)(m00*x + m01*y + m02*z);
+	    dst[d+1] = (float)(m10*x + m11*y + m12*z);
+	    dst[d+2] = (float)(m20*x + m21*y + m22*z);
+	}
+    }
+
+    /**
+     * Transforms count normals stored as consecutive x, y, z values in
+     * the src array and places the results into the dst array.  See
+     * transformNormals(float[], int, int, float[], int, int, int) for
+     * the meaning of the parameters.
+     *
+     * @param src the array holding the normals to be transformed
+     * @param srcOffset the index in src of the x of the first normal
+     * @param srcStride the number of elements between two normals in src
+     * @param dst the array receiving the transformed normals
+     * @param dstOffset the index in dst of the x of the first normal
+     * @param dstStride the number of elements between two normals in dst
+     * @param count the number of normals to transform
+     *
+     * @exception IllegalArgumentException if either stride is less than 3
+     * @exception ArrayIndexOutOfBoundsException if a normal is outside
+     * either array
+     *
+     * @since Java 3D 1.6
+     */
+    public final void transformNormals(double[] src, int srcOffset, int srcStride,
+				       double[] dst, int dstOffset, int dstStride,
+				       int count) {
+	checkStrides(srcStride, dstStride);
+
+	int s = srcOffset;
+	int d = dstOffset;
+	if (getBulkTransformKind(true) == BULK_IDENTITY) {
+	    if (src == dst && srcOffset == dstOffset && srcStride == dstStride)
+		return;
+
+	    for (int i = 0; i < count; i++, s += srcStride, d += dstStride) {
+		dst[d] = src[s];
+		dst[d+1] = src[s+1];
+		dst[d+2] = src[s+2];
+	    }
+	    return;
+	}
+
+	double m00 = mat[0], m01 = mat[1], m02 = mat[2];
+	double m10 = mat[4], m11 = mat[5], m12 = mat[6];
+	double m20 = mat[8], m21 = mat[9], m22 = mat[10];
+	for (int i = 0; i < count; i++, s += srcStride, d += dstStride) {
+	    double x = src[s], y = src[s+1], z = src[s+2];
+	    dst[d] = m00*x + m01*y + m02*z;
+	    dst[d+1] = m10*x + m11*y + m12*z;
+	    dst[d+2] = m20*x + m21*y + m22*z;
+	}
+    }
+
+    /**
+     * Transforms count normals stored as consecutive x, y, z values in
+     * the src buffer and places the results into the dst buffer.  See
+     * transformNormals(float[], int, int, float[], int, int, int) and
+     * transformPoints(FloatBuffer, int, int, FloatBuffer, int, int, int)
+     * for the meaning of the parameters.
+     *
+     * @param src the buffer holding the normals to be transformed
+     * @param srcOffset the index in src of the x of the first normal
+     * @param srcStride the number of elements between two normals in src
+     * @param dst the buffer receiving the transformed normals
+     * @param dstOffset the index in dst of the x of the first normal
+     * @param dstStride the number of elements between two normals in dst
+     * @param count the number of normals to transform
+     *
+     * @exception IllegalArgumentException if either stride is less than 3
+     * @exception IndexOutOfBoundsException if a normal is outside the
+     * limit of either buffer
+     * @exception java.nio.ReadOnlyBufferException if dst is read-only
+     *
+     * @since Java 3D 1.6
+     */
+    public final void transformNormals(FloatBuffer src, int srcOffset, int srcStride,
+				       FloatBuffer dst, int dstOffset, int dstStride,
+				       int count) {
+	checkStrides(srcStride, dstStride);
+
+	int s = srcOffset;
+	int d = dstOffset;
+	if (getBulkTransformKind(true) == BULK_IDENTITY) {
+	    if (src == dst && srcOffset == dstOffset && srcStride == dstStride)
+		return;
+
+	    for (int i = 0; i < count; i++, s += srcStride, d += dstStride) {
+		dst.put(d, src.get(s));
+		dst.put(d+1, src.get(s+1));
+		dst.put(d+2, src.get(s+2));
+	    }
+	    return;
+	}
+
+	double m00 = mat[0], m01 = mat[1], m02 = mat[2];
+	double m10 = mat[4], m11 = mat[5], m12 = mat[6];
+	double m20 = mat[8], m21 = mat[9], m22 = mat[10];
+	for (int i = 0; i < count; i++, s += srcStride, d += dstStride) {
+	    float x = src.get(s), y = src.get(s+1), z = src.get(s+2);
+	    dst.put(d, (float)(m00*x + m01*y + m02*z));
+	    dst.put(d+1, (float)(m10*x + m11*y + m12*z));
+	    dst.put(d+2, (float)(m20*x + m21*y + m22*z));
+	}
+    }
+
+    /**
+     * Transforms count normals stored as consecutive x, y, z values in
+     * the src buffer and places the results into the dst buffer.  See
+     * transformNormals(float[], int, int, float[], int, int, int) and
+     * transformPoints(FloatBuffer, int, int, FloatBuffer, int, int, int)
+     * for the meaning of the parameters.
+     *
+     * @param src the buffer holding the normals to be transformed
+     * @param srcOffset the index in src of the x of the first normal
+     * @param srcStride the number of elements between two normals in src
+     * @param dst the buffer receiving the transformed normals
+     * @param dstOffset the index in dst of the x of the first normal
+     * @param dstStride the number of elements between two normals in dst
+     * @param count the number of normals to transform
+     *
+     * @exception IllegalArgumentException if either stride is less than 3
+     * @exception IndexOutOfBoundsException if a normal is outside the
+     * limit of either buffer
+     * @exception java.nio.ReadOnlyBufferException if dst is read-only
+     *
+     * @since Java 3D 1.6
+     */
+    public final void transformNormals(DoubleBuffer src, int srcOffset, int srcStride,
+				       DoubleBuffer dst, int dstOffset, int dstStride,
+				       int count) {
+	checkStrides(srcStride, dstStride);
+
+	int s = srcOffset;
+	int d = dstOffset;
+	if (getBulkTransformKind(true) == BULK_IDENTITY) {
+	    if (src == dst && srcOffset == dstOffset && srcStride == dstStride)
+		return;
+
+	    for (int i = 0; i < count; i++, s += srcStride, d += dstStride) {
+		dst.put(d, src.get(s));
+		dst.put(d+1, src.get(s+1));
+		dst.put(d+2, src.get(s+2));
+	    }
+	    return;
+	}
+
+	double m00 = mat[0], m01 = mat[1], m02 = mat[2];
+	double m10 = mat[4], m11 = mat[5], m12 = mat[6];
+	double m20 = mat[8], m21 = mat[9], m22 = mat[10];
+	for (int i = 0; i < count; i++, s += srcStride, d += dstStride) {
+	    double x = src.get(s), y = src.get(s+1), z = src.get(s+2);
+	    dst.put(d, m00*x + m01*y + m02*z);
+	    dst.put(d+1, m10*x + m11*y + m12*z);
+	    dst.put(d+2, m20*x + m21*y + m22*z);
+	}
+    }
+
 
     /**
      * Replaces the upper 3x3 matrix values of this transform with the
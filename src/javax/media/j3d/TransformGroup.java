@@ -26,6 +26,8 @@
 
 package javax.media.j3d;
 
+import java.nio.DoubleBuffer;
+
 /**
  * Group node that contains a transform. The TransformGroup node
  * specifies a single spatial transformation, via a Transform3D
@@ -133,7 +135,92 @@ public class TransformGroup extends Group {
 	    throw new BadTransformException(J3dI18N.getString("TransformGroup0"));
 	}
 
-	((TransformGroupRetained)this.retained).setTransform(t1);
+	TransformGroupRetained tgr = (TransformGroupRetained)this.retained;
+	InterpolatorBatch.flushPending(tgr);
+	tgr.setTransform(t1);
+    }
+
+    /**
+     * Sets the transform components of many TransformGroups at once.
+     * The transform of <code>groups[i]</code> is set to the 4x4 matrix
+     * stored in row major order in <code>matrices[16*i]</code> through
+     * <code>matrices[16*i+15]</code>.
+     * <p>
+     * This is equivalent to calling setTransform on each TransformGroup
+     * in turn, but the changes to all the live TransformGroups of a
+     * VirtualUniverse are handed to Java 3D as a single update, without
+     * a Transform3D per TransformGroup.  This makes animating many
+     * thousands of TransformGroups every frame considerably cheaper.
+     * All the arguments are checked before any transform is changed.
+     *
+     * @param groups the TransformGroups whose transforms are set
+     * @param matrices the new transforms, 16 values per TransformGroup
+     * in row major order
+     * @exception IllegalArgumentException if matrices holds fewer than
+     * <code>16 * groups.length</code> values
+     * @exception CapabilityNotSetException if the ALLOW_TRANSFORM_WRITE
+     * capability is not set on one of the TransformGroups that is part
+     * of a live or compiled scene graph
+     * @exception BadTransformException if one of the transforms is not
+     * affine, or is not congruent and is set on a TransformGroup above a
+     * live ViewPlatform
+     *
+     * @since Java 3D 1.6
+     */
+    public static void setTransforms(TransformGroup[] groups, double[] matrices) {
+	if (matrices.length < groups.length * 16) {
+	    throw new IllegalArgumentException(J3dI18N.getString("TransformGroup3"));
+	}
+
+	TransformGroupRetained[] tgs = new TransformGroupRetained[groups.length];
+	Transform3D t1 = new Transform3D();
+	for (int i = 0; i < groups.length; i++) {
+	    TransformGroup group = groups[i];
+	    if (group.isLiveOrCompiled())
+		if (!group.getCapability(ALLOW_TRANSFORM_WRITE))
+		    throw new CapabilityNotSetException(J3dI18N.getString("TransformGroup1"));
+
+	    t1.set(matrices, i * 16);
+	    if (!t1.isAffine()) {
+		throw new BadTransformException(J3dI18N.getString("TransformGroup0"));
+	    }
+
+	    tgs[i] = (TransformGroupRetained)group.retained;
+	}
+
+	for (int i = 0; i < tgs.length; i++)
+	    InterpolatorBatch.flushPending(tgs[i]);
+	TransformGroupRetained.setTransforms(tgs, matrices);
+    }
+
+    /**
+     * Sets the transform components of many TransformGroups at once,
+     * reading the matrices from the buffer starting at its current
+     * position.  The position of the buffer is not changed.  See
+     * setTransforms(TransformGroup[], double[]).
+     *
+     * @param groups the TransformGroups whose transforms are set
+     * @param matrices the new transforms, 16 values per TransformGroup
+     * in row major order
+     * @exception IllegalArgumentException if fewer than
+     * <code>16 * groups.length</code> values remain in matrices
+     * @exception CapabilityNotSetException if the ALLOW_TRANSFORM_WRITE
+     * capability is not set on one of the TransformGroups that is part
+     * of a live or compiled scene graph
+     * @exception BadTransformException if one of the transforms is not
+     * affine, or is not congruent and is set on a TransformGroup above a
+     * live ViewPlatform
+     *
+     * @since Java 3D 1.6
+     */
+    public static void setTransforms(TransformGroup[] groups, DoubleBuffer matrices) {
+	if (matrices.remaining() < groups.length * 16) {
+	    throw new IllegalArgumentException(J3dI18N.getString("TransformGroup3"));
+	}
+
+	double[] values = new double[groups.length * 16];
+	matrices.duplicate().get(values);
+	setTransforms(groups, values);
     }
 
   /**
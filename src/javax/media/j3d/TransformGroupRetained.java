@@ -97,6 +97,10 @@ ArrayList<NodeRetained> childTransformLinks = new ArrayList<NodeRetained>(1);
     // maximum transform level of all shared path
     int maxTransformLevel = -1;
 
+    // The InterpolatorBatch holding a transform not yet set on this
+    // TransformGroup, null if none
+    volatile InterpolatorBatch pendingBatch = null;
+
     // List of transform level, one per shared path
     int transformLevels[] = null;
 
@@ -151,7 +155,7 @@ ArrayList<NodeRetained> childTransformLinks = new ArrayList<NodeRetained>(1);
 	      throw new BadTransformException(J3dI18N.getString("ViewPlatformRetained0"));
 	  }
 
-	  tchangeMessage = new J3dMessage();
+	  tchangeMessage = J3dMessage.getRecycledMessage();
 	  tchangeMessage.type = J3dMessage.TRANSFORM_CHANGED;
 	  tchangeMessage.threads = targetThreads;
 	  tchangeMessage.args[1] = this;
@@ -164,6 +168,121 @@ ArrayList<NodeRetained> childTransformLinks = new ArrayList<NodeRetained>(1);
       dirtyBoundsCache();
   }
 
+    /**
+     * Sets the transforms of many TransformGroups, see
+     * TransformGroup.setTransforms.  The matrices have already been
+     * checked to be affine.  Instead of one message per TransformGroup,
+     * the live ones are sent in a single TRANSFORM_CHANGED message per
+     * universe, whose args[1] is the array of TransformGroups and args[2]
+     * the packed matrices of their new transforms.
+     */
+    static void setTransforms(TransformGroupRetained[] tgs, double[] matrices) {
+	int n = tgs.length;
+	Transform3D t1 = new Transform3D();
+	Transform3D trans = new Transform3D();
+
+	// Check all the TGs first, so that nothing is changed on failure
+	for (int i = 0; i < n; i++) {
+	    TransformGroupRetained tg = tgs[i];
+	    if (tg.aboveAViewPlatform && tg.source.isLive()) {
+		t1.set(matrices, i * 16);
+		if (!t1.isCongruent()) {
+		    throw new BadTransformException(J3dI18N.getString("ViewPlatformRetained0"));
+		}
+	    }
+	}
+
+	TransformGroupRetained[] liveTgs = new TransformGroupRetained[n];
+	double[] liveMatrices = new double[n * 16];
+	int numLive = 0;
+
+	for (int i = 0; i < n; i++) {
+	    TransformGroupRetained tg = tgs[i];
+	    t1.set(matrices, i * 16);
+
+	    if (tg.staticTransform != null) {
+		// this writeable transformGroup has a static transform
+		// merged into this node
+		trans.mul(tg.staticTransform.transform, t1);
+		tg.transform.setWithLock(trans);
+	    } else {
+		trans.set(t1);
+		tg.transform.setWithLock(t1);
+	    }
+
+	    if (tg.transformChange != null) {
+		tg.notifyConditions();
+	    }
+
+	    if (tg.source.isLive()) {
+		trans.get(liveMatrices, numLive * 16);
+		liveTgs[numLive++] = tg;
+	    }
+	    tg.dirtyBoundsCache();
+	}
+
+	sendTransformsChanged(liveTgs, liveMatrices, numLive);
+    }
+
+    // Send the first count TGs and matrices in one TRANSFORM_CHANGED
+    // message per universe.  Nearly always all the TGs are in the same
+    // universe and the arrays are sent as they are.
+    private static void sendTransformsChanged(TransformGroupRetained[] tgs,
+					      double[] matrices, int count) {
+	while (count > 0) {
+	    VirtualUniverse univ = tgs[0].universe;
+	    int numSame = 0;
+	    for (int i = 0; i < count; i++) {
+		if (tgs[i].universe == univ) {
+		    numSame++;
+		}
+	    }
+
+	    TransformGroupRetained[] msgTgs;
+	    double[] msgMatrices;
+	    int numOther = 0;
+
+	    if (numSame == tgs.length) {
+		msgTgs = tgs;
+		msgMatrices = matrices;
+	    } else {
+		// Move the TGs of this universe to the message arrays and
+		// compact the others at the front of tgs
+		msgTgs = new TransformGroupRetained[numSame];
+		msgMatrices = new double[numSame * 16];
+		numSame = 0;
+		for (int i = 0; i < count; i++) {
+		    if (tgs[i].universe == univ) {
+			msgTgs[numSame] = tgs[i];
+			System.arraycopy(matrices, i * 16,
+					 msgMatrices, numSame * 16, 16);
+			numSame++;
+		    } else {
+			tgs[numOther] = tgs[i];
+			System.arraycopy(matrices, i * 16,
+					 matrices, numOther * 16, 16);
+			numOther++;
+		    }
+		}
+	    }
+
+	    int threads = 0;
+	    for (int i = 0; i < msgTgs.length; i++) {
+		threads |= msgTgs[i].targetThreads;
+	    }
+
+	    J3dMessage tchangeMessage = J3dMessage.getRecycledMessage();
+	    tchangeMessage.type = J3dMessage.TRANSFORM_CHANGED;
+	    tchangeMessage.threads = threads;
+	    tchangeMessage.args[1] = msgTgs;
+	    tchangeMessage.args[2] = msgMatrices;
+	    tchangeMessage.universe = univ;
+	    VirtualUniverse.mc.processMessage(tchangeMessage);
+
+	    count = numOther;
+	}
+    }
+
     /**
      * Copies the transform component of this TransformGroup into
      * the passed transform object.
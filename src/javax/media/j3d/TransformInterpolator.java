@@ -62,7 +62,8 @@ public abstract class TransformInterpolator extends Interpolator {
     // that after alpha change, this procedure only run
     // once at alpha.finish(). So the best way is to
     // detect alpha value change.
-    private float prevAlphaValue = Float.NaN;
+    // Also updated by the InterpolatorBatch.
+    float prevAlphaValue = Float.NaN;
     private WakeupCriterion passiveWakeupCriterion = new WakeupOnElapsedFrames(0, true);
 
 
@@ -164,11 +165,19 @@ public abstract class TransformInterpolator extends Interpolator {
 	WakeupCriterion criterion = passiveWakeupCriterion;
 
 	if (alpha != null) {
-	    float value = alpha.value();
-	    if (value != prevAlphaValue) {
-		computeTransform(value, currentTransform);
-		target.setTransform(currentTransform);
-		prevAlphaValue = value;
+	    // The batch sets the transform at the end of the interval
+	    VirtualUniverse univ = ((BehaviorRetained)retained).universe;
+	    InterpolatorBatch batch = null;
+	    if ((univ != null) && (univ.behaviorScheduler != null)) {
+		batch = univ.behaviorScheduler.interpolatorBatch;
+	    }
+	    if ((batch == null) || !batch.add(this)) {
+		float value = alpha.value();
+		if (value != prevAlphaValue) {
+		    computeTransform(value, currentTransform);
+		    target.setTransform(currentTransform);
+		    prevAlphaValue = value;
+		}
 	    }
 	    if (!alpha.finished() && !alpha.isPaused()) {
 		criterion = defaultWakeupCriterion;
@@ -47,7 +47,7 @@ class TransformStructure extends J3dStructure implements ObjectUpdate {
     /**
      * arraylist of the bounding leaf users affected by the transform
      */
-    private ArrayList blUsers = new ArrayList();
+    private ArrayList<LeafRetained> blUsers = new ArrayList<LeafRetained>();
 
     // to gather transform targets
     private UpdateTargets targets = new UpdateTargets();
@@ -61,7 +61,7 @@ class TransformStructure extends J3dStructure implements ObjectUpdate {
 private ArrayList<TransformGroupRetained> dirtyTransformGroups = new ArrayList<TransformGroupRetained>();
 
     // Associated Keys with the dirtyNodeGroup
-    private ArrayList keySet = new ArrayList();
+    private ArrayList<HashKey> keySet = new ArrayList<HashKey>();
 
     // the active list contains changed TransformGroup minus those that
     // have been switched-off, plus those that have been changed but
@@ -80,6 +80,16 @@ private ArrayList<TransformGroupRetained> dirtyTransformGroups = new ArrayList<T
     // true if already in MasterControl's update object list
     private boolean inUpdateObjectList = false;
 
+    // The tasks used when the localToVworld of the dirty subtrees and
+    // the vwcBounds of their geometry are computed on the task pool,
+    // see MasterControl.parallelTransformUpdate
+    private LocalToVworldTask[] localToVworldTasks = null;
+    private VwcBoundsTask[] vwcBoundsTasks = null;
+
+    // the dirty TGs seen so far while looking for the subtree roots
+    private HashSet<TransformGroupRetained> dirtyTgSet =
+            new HashSet<TransformGroupRetained>();
+
     /**
      * This constructor does nothing
      */
@@ -111,7 +121,17 @@ private ArrayList<TransformGroupRetained> dirtyTransformGroups = new ArrayList<T
 		if (m.type == J3dMessage.TRANSFORM_CHANGED) {
 		    // Add the TG and associated transform. Since this is a
                     // set, duplicates will be culled.
-                    transformSet.add(new TransformData((TransformGroupRetained)m.args[1], (Transform3D)m.args[2]));
+                    if (m.args[1] instanceof TransformGroupRetained[]) {
+                        // from TransformGroup.setTransforms, also go
+                        // backwards in case a TG is in the batch twice
+                        TransformGroupRetained[] tgs = (TransformGroupRetained[])m.args[1];
+                        double[] matrices = (double[])m.args[2];
+                        for (int j = tgs.length - 1; j >= 0; j--) {
+                            transformSet.add(new TransformData(tgs[j], matrices, j * 16));
+                        }
+                    } else {
+                        transformSet.add(new TransformData((TransformGroupRetained)m.args[1], (Transform3D)m.args[2]));
+                    }
 		}
 	    }
 
@@ -216,7 +236,7 @@ private ArrayList<TransformGroupRetained> dirtyTransformGroups = new ArrayList<T
             while(it.hasNext()) {
                 TransformData lData = it.next();
                 tg = lData.getTransformGroupRetained();
-                tg.currentTransform.set(lData.getTransform3D());
+                lData.getTransform(tg.currentTransform);
 
                 synchronized(tg) { // synchronized with tg.set/clearLive
                 if(tg.perPathData != null) {
@@ -294,9 +314,13 @@ private ArrayList<TransformGroupRetained> dirtyTransformGroups = new ArrayList<T
             sortTransformGroups(tSize, tgs);
 
             // update lToVw and gather targets
-            for (i=0; i<tSize; i++) {
-                tgs[i].processChildLocalToVworld(dirtyTransformGroups, keySet,
-                                                targets, blUsers);
+            if (useParallelUpdate(tSize, tgs)) {
+                processChildLocalToVworldParallel(tSize, tgs);
+            } else {
+                for (i=0; i<tSize; i++) {
+                    tgs[i].processChildLocalToVworld(dirtyTransformGroups, keySet,
+                                                    targets, blUsers);
+                }
             }
 	    if (!inUpdateObjectList) {
                 VirtualUniverse.mc.addMirrorObject(this);
@@ -309,6 +333,128 @@ private ArrayList<TransformGroupRetained> dirtyTransformGroups = new ArrayList<T
     }
 
 
+    private boolean useParallelUpdate(int size, TransformGroupRetained[] tgs) {
+        if (!VirtualUniverse.mc.parallelTransformUpdate ||
+            size < VirtualUniverse.mc.parallelTransformThreshold) {
+            return false;
+        }
+
+        // A TG in a SharedGroup is reached through several paths, so its
+        // subtree can't be given to a single task
+        for (int i=0; i<size; i++) {
+            if (tgs[i].inSharedGroup) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same as calling processChildLocalToVworld on each of the sorted
+     * TGs, but the disjoint subtrees are traversed on the task pool.  A
+     * dirty TG below another dirty TG is updated by the traversal from
+     * its ancestor, so only the topmost dirty TGs start a task.  Each task
+     * gathers its own dirty TGs, keys, targets and bounding leaf users,
+     * which are appended in order once all tasks are done.
+     */
+    private void processChildLocalToVworldParallel(int size,
+                                                   TransformGroupRetained[] tgs) {
+        int numRoots = 0;
+
+        // tgs is sorted by level, so the ancestors of a TG come before it;
+        // the roots are compacted in place at the front of tgs
+        for (int i=0; i<size; i++) {
+            TransformGroupRetained tg = tgs[i];
+            if (!hasDirtyAncestor(tg)) {
+                tgs[numRoots++] = tg;
+            }
+            dirtyTgSet.add(tg);
+        }
+        dirtyTgSet.clear();
+
+        J3dTaskPool pool = VirtualUniverse.mc.getTaskPool();
+        int numTasks = Math.min(numRoots, pool.getParallelism() * 4);
+        if (numTasks < 2) {
+            for (int i=0; i<numRoots; i++) {
+                tgs[i].processChildLocalToVworld(dirtyTransformGroups, keySet,
+                                                targets, blUsers);
+            }
+            return;
+        }
+
+        if (localToVworldTasks == null || localToVworldTasks.length < numTasks) {
+            LocalToVworldTask[] newTasks = new LocalToVworldTask[numTasks];
+            int oldSize = 0;
+            if (localToVworldTasks != null) {
+                oldSize = localToVworldTasks.length;
+                System.arraycopy(localToVworldTasks, 0, newTasks, 0, oldSize);
+            }
+            for (int i=oldSize; i<numTasks; i++) {
+                newTasks[i] = new LocalToVworldTask();
+            }
+            localToVworldTasks = newTasks;
+        }
+
+        for (int i=0; i<numTasks; i++) {
+            LocalToVworldTask t = localToVworldTasks[i];
+            t.tgs = tgs;
+            t.start = (int)((long)numRoots * i / numTasks);
+            t.end = (int)((long)numRoots * (i+1) / numTasks);
+        }
+
+        try {
+            pool.invokeAll(localToVworldTasks, numTasks);
+        } finally {
+            for (int i=0; i<numTasks; i++) {
+                LocalToVworldTask t = localToVworldTasks[i];
+                dirtyTransformGroups.addAll(t.dirtyTransformGroups);
+                keySet.addAll(t.keySet);
+                blUsers.addAll(t.blUsers);
+                targets.addTargets(t.targets);
+                t.clear();
+            }
+        }
+    }
+
+    private boolean hasDirtyAncestor(TransformGroupRetained tg) {
+        GroupRetained parent = tg.parentTransformLink;
+        while (parent instanceof TransformGroupRetained) {
+            if (dirtyTgSet.contains(parent)) {
+                return true;
+            }
+            parent = parent.parentTransformLink;
+        }
+        return false;
+    }
+
+    private static class LocalToVworldTask extends J3dTaskPool.Task {
+        final ArrayList<TransformGroupRetained> dirtyTransformGroups =
+                new ArrayList<TransformGroupRetained>();
+        final ArrayList<HashKey> keySet = new ArrayList<HashKey>();
+        final UpdateTargets targets = new UpdateTargets();
+        final ArrayList<LeafRetained> blUsers = new ArrayList<LeafRetained>();
+
+        TransformGroupRetained[] tgs;
+        int start;
+        int end;
+
+        @Override
+        void compute() {
+            for (int i=start; i<end; i++) {
+                tgs[i].processChildLocalToVworld(dirtyTransformGroups, keySet,
+                                                targets, blUsers);
+            }
+        }
+
+        void clear() {
+            tgs = null;
+            dirtyTransformGroups.clear();
+            keySet.clear();
+            blUsers.clear();
+            targets.clearNodes();
+        }
+    }
+
     private void sortTransformGroups(int size, TransformGroupRetained[] tgs) {
         if (size < 7) {
             insertSort(size, tgs);
@@ -393,7 +539,7 @@ private ArrayList<TransformGroupRetained> dirtyTransformGroups = new ArrayList<T
 	    synchronized(tg) {
 		if (tg.childLocalToVworld != null) {
 		    if (tg.inSharedGroup) {
-			key = (HashKey) keySet.get(k++);
+			key = keySet.get(k++);
 			for (j=0; j<tg.localToVworldKeys.length; j++) {
 			    if (tg.localToVworldKeys[j].equals(key)) {
 				break;
@@ -502,25 +648,14 @@ private ArrayList<TransformGroupRetained> dirtyTransformGroups = new ArrayList<T
             size = arrList.size();
 	    nodesArr = arrList.toArray(false);
 
-            for (i = 0; i<size; i++) {
-                nodes = (Object[])nodesArr[i];
-                for (j = 0; j < nodes.length; j++) {
-                    synchronized(nodes[j]) {
-                        ga = (GeometryAtom) nodes[j];
-                        ms = ga.source;
-                        synchronized(ms.bounds) {
-                            ms.vwcBounds.transform(ms.bounds,
-                                          ms.getCurrentLocalToVworld(0));
-                        }
-                        if (ms.collisionBound != null) {
-                            ms.collisionVwcBound.transform(
-                                          ms.collisionBound,
-                                          ms.getCurrentLocalToVworld(0));
-                        }
-                        ga.centroidIsDirty = true;
-		    }
-	        }
-	    }
+            if (VirtualUniverse.mc.parallelTransformUpdate &&
+                size >= VirtualUniverse.mc.parallelTransformThreshold) {
+                processGeometryTargetsParallel(nodesArr, size);
+            } else {
+                for (i = 0; i<size; i++) {
+                    updateGeometryVwcBounds((Object[])nodesArr[i]);
+                }
+            }
 	}
 
         arrList = targets.targetList[Targets.GRP_TARGETS];
@@ -563,6 +698,69 @@ private ArrayList<TransformGroupRetained> dirtyTransformGroups = new ArrayList<T
 	collisionObjectList.clear();
     }
 
+    // Update the vwcBounds of the GeometryAtoms targeted by a moved TG
+    static void updateGeometryVwcBounds(Object[] nodes) {
+        for (int j = 0; j < nodes.length; j++) {
+            synchronized(nodes[j]) {
+                GeometryAtom ga = (GeometryAtom) nodes[j];
+                Shape3DRetained ms = ga.source;
+                synchronized(ms.bounds) {
+                    ms.vwcBounds.transform(ms.bounds,
+                                  ms.getCurrentLocalToVworld(0));
+                }
+                if (ms.collisionBound != null) {
+                    ms.collisionVwcBound.transform(
+                                  ms.collisionBound,
+                                  ms.getCurrentLocalToVworld(0));
+                }
+                ga.centroidIsDirty = true;
+            }
+        }
+    }
+
+    // Split the GEO_TARGETS node arrays over the task pool, every
+    // GeometryAtom is locked while its bounds are updated, as in the
+    // serial case
+    private void processGeometryTargetsParallel(Object[] nodesArr, int size) {
+        J3dTaskPool pool = VirtualUniverse.mc.getTaskPool();
+        int numTasks = Math.min(size, pool.getParallelism() * 4);
+
+        if (vwcBoundsTasks == null || vwcBoundsTasks.length < numTasks) {
+            vwcBoundsTasks = new VwcBoundsTask[numTasks];
+            for (int i=0; i<numTasks; i++) {
+                vwcBoundsTasks[i] = new VwcBoundsTask();
+            }
+        }
+
+        for (int i=0; i<numTasks; i++) {
+            VwcBoundsTask t = vwcBoundsTasks[i];
+            t.nodesArr = nodesArr;
+            t.start = (int)((long)size * i / numTasks);
+            t.end = (int)((long)size * (i+1) / numTasks);
+        }
+
+        try {
+            pool.invokeAll(vwcBoundsTasks, numTasks);
+        } finally {
+            for (int i=0; i<numTasks; i++) {
+                vwcBoundsTasks[i].nodesArr = null;
+            }
+        }
+    }
+
+    private static class VwcBoundsTask extends J3dTaskPool.Task {
+        Object[] nodesArr;
+        int start;
+        int end;
+
+        @Override
+        void compute() {
+            for (int i=start; i<end; i++) {
+                updateGeometryVwcBounds((Object[])nodesArr[i]);
+            }
+        }
+    }
+
     void processRegionBoundChanged(J3dMessage m) {
         // need to update mirrorShape's bounds
         processBoundsChanged((Object[]) m.args[0], (Bounds)m.args[1]);
@@ -697,7 +895,7 @@ private ArrayList<TransformGroupRetained> dirtyTransformGroups = new ArrayList<T
 	return targets;
     }
 
-    ArrayList getBlUsers() {
+    ArrayList<LeafRetained> getBlUsers() {
  	return blUsers;
     }
 
@@ -725,11 +923,21 @@ private ArrayList<TransformGroupRetained> dirtyTransformGroups = new ArrayList<T
         private TransformGroupRetained transformGroupRetained;
         private Transform3D transform3D;
 
+        // The packed matrices of a batch message when transform3D is null
+        private double[] matrices;
+        private int offset;
+
         TransformData( TransformGroupRetained tgr, Transform3D t3d )  {
             transformGroupRetained = tgr;
             transform3D = t3d;
         }
 
+        TransformData( TransformGroupRetained tgr, double[] matrices, int offset )  {
+            transformGroupRetained = tgr;
+            this.matrices = matrices;
+            this.offset = offset;
+        }
+
         // Hashcode and equals test only evaluate TransformGroupRetained
         @Override
         public int hashCode() {
@@ -750,8 +958,12 @@ private ArrayList<TransformGroupRetained> dirtyTransformGroups = new ArrayList<T
             return transformGroupRetained;
         }
 
-        Transform3D getTransform3D() {
-            return transform3D;
+        void getTransform(Transform3D t) {
+            if (transform3D != null) {
+                t.set(transform3D);
+            } else {
+                t.set(matrices, offset);
+            }
         }
 
     }
@@ -56,11 +56,19 @@ class TriangleArrayRetained extends GeometryArrayRetained {
 	pnts[1] = new Point3d();
 	pnts[2] = new Point3d();
 
+	// Only the triangles the pick shape may hit, or null for all of them
+	int first = i;
+	int[] tris = getPickTriangles(pickShape, first, null,
+				      (validVertexCount - first) / 3);
+
 	switch (pickShape.getPickType()) {
 	case PickShape.PICKRAY:
 	    PickRay pickRay= (PickRay) pickShape;
 
-	    while (i < validVertexCount) {
+	    for (int t = 0; tris == null ? i < validVertexCount : t < tris.length; t++) {
+		if (tris != null) {
+		    i = first + 3 * tris[t];
+		}
                 for(int j=0; j<3; j++) {
                     vtxIndexArr[j] = i;
                     getVertexData(i++, pnts[j]);
@@ -89,7 +97,10 @@ class TriangleArrayRetained extends GeometryArrayRetained {
 	case PickShape.PICKSEGMENT:
 	    PickSegment pickSegment = (PickSegment) pickShape;
 
-            while (i < validVertexCount) {
+            for (int t = 0; tris == null ? i < validVertexCount : t < tris.length; t++) {
+		if (tris != null) {
+		    i = first + 3 * tris[t];
+		}
                 for(int j=0; j<3; j++) {
                     vtxIndexArr[j] = i;
                     getVertexData(i++, pnts[j]);
@@ -120,7 +131,10 @@ class TriangleArrayRetained extends GeometryArrayRetained {
 	    BoundingBox bbox = (BoundingBox)
 		((PickBounds) pickShape).bounds;
 
-	    while (i < validVertexCount) {
+	    for (int t = 0; tris == null ? i < validVertexCount : t < tris.length; t++) {
+		if (tris != null) {
+		    i = first + 3 * tris[t];
+		}
                 for(int j=0; j<3; j++) {
                     vtxIndexArr[j] = i;
                     getVertexData(i++, pnts[j]);
@@ -150,7 +164,10 @@ class TriangleArrayRetained extends GeometryArrayRetained {
 	    BoundingSphere bsphere = (BoundingSphere)
 		((PickBounds) pickShape).bounds;
 
-	    while (i < validVertexCount) {
+	    for (int t = 0; tris == null ? i < validVertexCount : t < tris.length; t++) {
+		if (tris != null) {
+		    i = first + 3 * tris[t];
+		}
                 for(int j=0; j<3; j++) {
                     vtxIndexArr[j] = i;
                     getVertexData(i++, pnts[j]);
@@ -180,7 +197,10 @@ class TriangleArrayRetained extends GeometryArrayRetained {
 	    BoundingPolytope bpolytope = (BoundingPolytope)
 		((PickBounds) pickShape).bounds;
 
-	    while (i < validVertexCount) {
+	    for (int t = 0; tris == null ? i < validVertexCount : t < tris.length; t++) {
+		if (tris != null) {
+		    i = first + 3 * tris[t];
+		}
                 for(int j=0; j<3; j++) {
                     vtxIndexArr[j] = i;
                     getVertexData(i++, pnts[j]);
@@ -209,7 +229,10 @@ class TriangleArrayRetained extends GeometryArrayRetained {
 	    break;
 	case PickShape.PICKCYLINDER:
 	    PickCylinder pickCylinder= (PickCylinder) pickShape;
-	    while (i < validVertexCount) {
+	    for (int t = 0; tris == null ? i < validVertexCount : t < tris.length; t++) {
+		if (tris != null) {
+		    i = first + 3 * tris[t];
+		}
                 for(int j=0; j<3; j++) {
                     vtxIndexArr[j] = i;
                     getVertexData(i++, pnts[j]);
@@ -239,7 +262,10 @@ class TriangleArrayRetained extends GeometryArrayRetained {
 	case PickShape.PICKCONE:
 	    PickCone pickCone= (PickCone) pickShape;
 
-	    while (i < validVertexCount) {
+	    for (int t = 0; tris == null ? i < validVertexCount : t < tris.length; t++) {
+		if (tris != null) {
+		    i = first + 3 * tris[t];
+		}
                 for(int j=0; j<3; j++) {
                     vtxIndexArr[j] = i;
                     getVertexData(i++, pnts[j]);
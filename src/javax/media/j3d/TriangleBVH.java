@@ -0,0 +1,415 @@
+/*
+ * Copyright 2013 Harvey Harrison
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Sun designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Sun in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package javax.media.j3d;
+
+import java.util.Arrays;
+
+import javax.vecmath.Point3d;
+
+/**
+ * A bounding volume hierarchy over the triangles of a triangle list
+ * geometry, used by PICK_GEOMETRY picking to find the triangles a pick
+ * shape may hit without testing every triangle of the geometry.  The tree
+ * is built by GeometryArrayRetained.getPickTriangles on the first pick of a
+ * large geometry and dropped when the coordinates or indices change.
+ *
+ * Triangle n of the tree is made of the vertices at positions first + 3n,
+ * first + 3n + 1 and first + 3n + 2, read through the index array for
+ * indexed geometry.  The node bounds are rounded outward and padded, and
+ * the pick shape tests are conservative, so select() returns a superset of
+ * the triangles the exact intersection tests accept.
+ */
+class TriangleBVH {
+
+// Maximum number of triangles in a leaf
+private static final int LEAF_SIZE = 8;
+
+// Relative padding of the triangle bounds, covers the tolerance of the
+// exact triangle tests
+private static final double PAD = 1.0e-6;
+
+private final int first;
+private final int[] indices;
+private final int numTris;
+
+// Triangle numbers in leaf order
+private final int[] tris;
+
+// Per node: lower x, y, z then upper x, y, z
+private final float[] nodeBounds;
+// Per node: the first entry in tris for a leaf, the second child for an
+// inner node (the first child directly follows its parent)
+private final int[] nodeStart;
+// Per node: the number of triangles of a leaf, 0 for an inner node
+private final int[] nodeCount;
+private int numNodes = 0;
+
+TriangleBVH(GeometryArrayRetained geo, int first, int[] indices, int numTris) {
+	this.first = first;
+	this.indices = indices;
+	this.numTris = numTris;
+
+	float[] triBounds = new float[numTris * 6];
+	float[] centers = new float[numTris * 3];
+	double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+	double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+	double minZ = Double.POSITIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+	Point3d p = new Point3d();
+	for (int t = 0; t < numTris; t++) {
+		double lx = Double.POSITIVE_INFINITY, ux = Double.NEGATIVE_INFINITY;
+		double ly = Double.POSITIVE_INFINITY, uy = Double.NEGATIVE_INFINITY;
+		double lz = Double.POSITIVE_INFINITY, uz = Double.NEGATIVE_INFINITY;
+		for (int j = 0; j < 3; j++) {
+			int v = first + 3 * t + j;
+			geo.getVertexData(indices == null ? v : indices[v], p);
+			if (p.x < lx) lx = p.x;
+			if (p.x > ux) ux = p.x;
+			if (p.y < ly) ly = p.y;
+			if (p.y > uy) uy = p.y;
+			if (p.z < lz) lz = p.z;
+			if (p.z > uz) uz = p.z;
+		}
+		int o = t * 6;
+		triBounds[o    ] = (float)lx;
+		triBounds[o + 1] = (float)ly;
+		triBounds[o + 2] = (float)lz;
+		triBounds[o + 3] = (float)ux;
+		triBounds[o + 4] = (float)uy;
+		triBounds[o + 5] = (float)uz;
+		centers[t * 3    ] = (float)(0.5 * (lx + ux));
+		centers[t * 3 + 1] = (float)(0.5 * (ly + uy));
+		centers[t * 3 + 2] = (float)(0.5 * (lz + uz));
+
+		if (lx < minX) minX = lx;
+		if (ux > maxX) maxX = ux;
+		if (ly < minY) minY = ly;
+		if (uy > maxY) maxY = uy;
+		if (lz < minZ) minZ = lz;
+		if (uz > maxZ) maxZ = uz;
+	}
+
+	// Pad relative to the size of the geometry, then round outward
+	double size = Math.max(maxX - minX, Math.max(maxY - minY, maxZ - minZ));
+	float pad = (float)(PAD * size);
+	for (int i = 0; i < triBounds.length; i += 6) {
+		for (int j = 0; j < 3; j++) {
+			triBounds[i + j] = Math.nextAfter(triBounds[i + j] - pad,
+							  Double.NEGATIVE_INFINITY);
+			triBounds[i + j + 3] = Math.nextUp(triBounds[i + j + 3] + pad);
+		}
+	}
+
+	tris = new int[numTris];
+	for (int t = 0; t < numTris; t++)
+		tris[t] = t;
+
+	// Leaves of more than LEAF_SIZE / 2 triangles, except a lone root
+	int maxNodes = 2 * (numTris / (LEAF_SIZE / 2) + 1);
+	nodeBounds = new float[maxNodes * 6];
+	nodeStart = new int[maxNodes];
+	nodeCount = new int[maxNodes];
+	build(triBounds, centers, 0, numTris);
+}
+
+/**
+ * Returns true if this tree was built for the given triangles.
+ */
+boolean matches(int first, int[] indices, int numTris) {
+	return this.first == first && this.indices == indices &&
+	       this.numTris == numTris;
+}
+
+private int build(float[] triBounds, float[] centers, int start, int count) {
+	int node = numNodes++;
+
+	float lx = Float.POSITIVE_INFINITY, ux = Float.NEGATIVE_INFINITY;
+	float ly = Float.POSITIVE_INFINITY, uy = Float.NEGATIVE_INFINITY;
+	float lz = Float.POSITIVE_INFINITY, uz = Float.NEGATIVE_INFINITY;
+	for (int i = start; i < start + count; i++) {
+		int o = tris[i] * 6;
+		if (triBounds[o    ] < lx) lx = triBounds[o    ];
+		if (triBounds[o + 1] < ly) ly = triBounds[o + 1];
+		if (triBounds[o + 2] < lz) lz = triBounds[o + 2];
+		if (triBounds[o + 3] > ux) ux = triBounds[o + 3];
+		if (triBounds[o + 4] > uy) uy = triBounds[o + 4];
+		if (triBounds[o + 5] > uz) uz = triBounds[o + 5];
+	}
+	int o = node * 6;
+	nodeBounds[o    ] = lx;
+	nodeBounds[o + 1] = ly;
+	nodeBounds[o + 2] = lz;
+	nodeBounds[o + 3] = ux;
+	nodeBounds[o + 4] = uy;
+	nodeBounds[o + 5] = uz;
+
+	if (count <= LEAF_SIZE) {
+		nodeStart[node] = start;
+		nodeCount[node] = count;
+		return node;
+	}
+
+	// Split at the median center along the longest axis of the centers
+	float[] cmin = { Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
+			 Float.POSITIVE_INFINITY };
+	float[] cmax = { Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY,
+			 Float.NEGATIVE_INFINITY };
+	for (int i = start; i < start + count; i++) {
+		for (int j = 0; j < 3; j++) {
+			float c = centers[tris[i] * 3 + j];
+			if (c < cmin[j]) cmin[j] = c;
+			if (c > cmax[j]) cmax[j] = c;
+		}
+	}
+	int axis = 0;
+	if (cmax[1] - cmin[1] > cmax[axis] - cmin[axis])
+		axis = 1;
+	if (cmax[2] - cmin[2] > cmax[axis] - cmin[axis])
+		axis = 2;
+
+	int half = count / 2;
+	selectMedian(centers, axis, start, start + count - 1, start + half);
+	build(triBounds, centers, start, half);
+	nodeStart[node] = build(triBounds, centers, start + half, count - half);
+	nodeCount[node] = 0;
+	return node;
+}
+
+/**
+ * Partially sorts tris[lo..hi] along the axis, so that the triangle at k
+ * has no center above it before it and none below it after it.
+ */
+private void selectMedian(float[] centers, int axis, int lo, int hi, int k) {
+	while (hi > lo) {
+		float pivot = centers[tris[(lo + hi) >>> 1] * 3 + axis];
+		int i = lo, j = hi;
+		while (i <= j) {
+			while (centers[tris[i] * 3 + axis] < pivot)
+				i++;
+			while (centers[tris[j] * 3 + axis] > pivot)
+				j--;
+			if (i <= j) {
+				int tmp = tris[i];
+				tris[i++] = tris[j];
+				tris[j--] = tmp;
+			}
+		}
+		if (k <= j)
+			hi = j;
+		else if (k >= i)
+			lo = i;
+		else
+			return;
+	}
+}
+
+/**
+ * Returns the triangle numbers, in increasing order, of the triangles
+ * whose bounds the pick shape (in the local coordinates of the geometry)
+ * may intersect, or null if the pick shape is not supported.
+ */
+int[] select(PickShape pickShape) {
+	Query q = Query.create(pickShape);
+	if (q == null)
+		return null;
+
+	int[] result = new int[64];
+	int n = 0;
+	int[] stack = new int[64];
+	int top = 0;
+	if (numNodes > 0)
+		stack[top++] = 0;
+	while (top > 0) {
+		int node = stack[--top];
+		if (!q.hits(nodeBounds, node * 6))
+			continue;
+
+		int count = nodeCount[node];
+		if (count == 0) {
+			stack[top++] = nodeStart[node];
+			stack[top++] = node + 1;
+			continue;
+		}
+
+		int start = nodeStart[node];
+		for (int i = start; i < start + count; i++) {
+			if (n == result.length)
+				result = Arrays.copyOf(result, n * 2);
+			result[n++] = tris[i];
+		}
+	}
+
+	// The exact tests must see the triangles in geometry order, so that
+	// ties and ALL_GEOM_INFO are resolved as by a linear scan
+	Arrays.sort(result, 0, n);
+	return Arrays.copyOf(result, n);
+}
+
+/**
+ * The conservative test of a pick shape against node bounds: either an
+ * overlap test with the bounding box of a PickBounds, or a slab test of a
+ * ray or segment against the bounds grown by the radius of a cylinder or
+ * cone.
+ */
+private static final class Query {
+	// Bounding box of a PickBounds
+	boolean box;
+	double lx, ly, lz, ux, uy, uz;
+
+	// Ray origin + t * dir for t in [0, tmax]
+	double ox, oy, oz, dx, dy, dz, tmax;
+	// Cylinder radius, or tangent of the cone spread angle
+	double radius;
+	boolean cone;
+
+	static Query create(PickShape pickShape) {
+		Query q = new Query();
+		switch (pickShape.getPickType()) {
+		case PickShape.PICKRAY:
+			PickRay ray = (PickRay)pickShape;
+			q.setRay(ray.origin.x, ray.origin.y, ray.origin.z,
+				 ray.direction.x, ray.direction.y, ray.direction.z,
+				 Double.POSITIVE_INFINITY);
+			return q;
+		case PickShape.PICKSEGMENT:
+			PickSegment seg = (PickSegment)pickShape;
+			q.setRay(seg.start.x, seg.start.y, seg.start.z,
+				 seg.end.x - seg.start.x, seg.end.y - seg.start.y,
+				 seg.end.z - seg.start.z, 1.0);
+			return q;
+		case PickShape.PICKCYLINDER:
+			PickCylinder cyl = (PickCylinder)pickShape;
+			if (cyl instanceof PickCylinderSegment) {
+				Point3d end = ((PickCylinderSegment)cyl).end;
+				q.setRay(cyl.origin.x, cyl.origin.y, cyl.origin.z,
+					 end.x - cyl.origin.x, end.y - cyl.origin.y,
+					 end.z - cyl.origin.z, 1.0);
+			} else {
+				q.setRay(cyl.origin.x, cyl.origin.y, cyl.origin.z,
+					 cyl.direction.x, cyl.direction.y,
+					 cyl.direction.z, Double.POSITIVE_INFINITY);
+			}
+			q.radius = cyl.radius;
+			return q;
+		case PickShape.PICKCONE:
+			PickCone cone = (PickCone)pickShape;
+			if (cone instanceof PickConeSegment) {
+				Point3d end = ((PickConeSegment)cone).end;
+				q.setRay(cone.origin.x, cone.origin.y, cone.origin.z,
+					 end.x - cone.origin.x, end.y - cone.origin.y,
+					 end.z - cone.origin.z, 1.0);
+			} else {
+				q.setRay(cone.origin.x, cone.origin.y, cone.origin.z,
+					 cone.direction.x, cone.direction.y,
+					 cone.direction.z, Double.POSITIVE_INFINITY);
+			}
+			q.cone = true;
+			q.radius = Math.tan(cone.spreadAngle);
+			// A cone of half angle PI / 2 or more may hit anything
+			if (!(q.radius >= 0.0) || q.radius > Double.MAX_VALUE)
+				return null;
+			return q;
+		case PickShape.PICKBOUNDINGBOX:
+		case PickShape.PICKBOUNDINGSPHERE:
+		case PickShape.PICKBOUNDINGPOLYTOPE:
+			Bounds bounds = ((PickBounds)pickShape).bounds;
+			BoundingBox bbox = new BoundingBox(bounds);
+			q.box = true;
+			q.lx = bbox.lower.x;
+			q.ly = bbox.lower.y;
+			q.lz = bbox.lower.z;
+			q.ux = bbox.upper.x;
+			q.uy = bbox.upper.y;
+			q.uz = bbox.upper.z;
+			return q;
+		default:
+			return null;
+		}
+	}
+
+	private void setRay(double ox, double oy, double oz,
+			    double dx, double dy, double dz, double tmax) {
+		this.ox = ox;
+		this.oy = oy;
+		this.oz = oz;
+		this.dx = dx;
+		this.dy = dy;
+		this.dz = dz;
+		this.tmax = tmax;
+	}
+
+	boolean hits(float[] b, int o) {
+		if (box) {
+			return !(b[o] > ux || b[o + 3] < lx ||
+				 b[o + 1] > uy || b[o + 4] < ly ||
+				 b[o + 2] > uz || b[o + 5] < lz);
+		}
+
+		double r = radius;
+		if (cone) {
+			// The cone is widest at the farthest corner of the bounds
+			double fx = Math.max(Math.abs(b[o] - ox), Math.abs(b[o + 3] - ox));
+			double fy = Math.max(Math.abs(b[o + 1] - oy), Math.abs(b[o + 4] - oy));
+			double fz = Math.max(Math.abs(b[o + 2] - oz), Math.abs(b[o + 5] - oz));
+			r = radius * Math.sqrt(fx * fx + fy * fy + fz * fz);
+		}
+
+		double t0 = 0.0;
+		double t1 = tmax;
+
+		double lo = b[o] - r, hi = b[o + 3] + r;
+		if (dx == 0.0) {
+			if (ox < lo || ox > hi)
+				return false;
+		} else {
+			double ta = (lo - ox) / dx, tb = (hi - ox) / dx;
+			if (ta > tb) { double tmp = ta; ta = tb; tb = tmp; }
+			if (ta > t0) t0 = ta;
+			if (tb < t1) t1 = tb;
+			if (t0 > t1)
+				return false;
+		}
+
+		lo = b[o + 1] - r;
+		hi = b[o + 4] + r;
+		if (dy == 0.0) {
+			if (oy < lo || oy > hi)
+				return false;
+		} else {
+			double ta = (lo - oy) / dy, tb = (hi - oy) / dy;
+			if (ta > tb) { double tmp = ta; ta = tb; tb = tmp; }
+			if (ta > t0) t0 = ta;
+			if (tb < t1) t1 = tb;
+			if (t0 > t1)
+				return false;
+		}
+
+		lo = b[o + 2] - r;
+		hi = b[o + 5] + r;
+		if (dz == 0.0) {
+			if (oz < lo || oz > hi)
+				return false;
+		} else {
+			double ta = (lo - oz) / dz, tb = (hi - oz) / dz;
+			if (ta > tb) { double tmp = ta; ta = tb; tb = tmp; }
+			if (ta > t0) t0 = ta;
+			if (tb < t1) t1 = tb;
+			if (t0 > t1)
+				return false;
+		}
+		return true;
+	}
+}
+}
@@ -100,6 +100,21 @@ class UpdateTargets {
         }
     }
 
+    // Move the node arrays gathered in the other UpdateTargets into this one
+    void addTargets(UpdateTargets other) {
+        for(int i=0; i<Targets.MAX_NODELIST; i++) {
+            UnorderList list = other.targetList[i];
+            if (list != null && list.size() > 0) {
+                int size = list.size();
+                Object[] nodesArr = list.toArray(false);
+                for (int j=0; j<size; j++) {
+                    addNodeArray((Object[])nodesArr[j], i);
+                }
+                list.clear();
+            }
+        }
+    }
+
     void dump() {
         for(int i=0; i<Targets.MAX_NODELIST; i++) {
             if (targetList[i] != null) {
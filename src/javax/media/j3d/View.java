@@ -2903,7 +2903,8 @@ private ArrayList<ArrayList<Canvas3D>> canvasList = new ArrayList<ArrayList<Canv
 	}
 
 	if ((viewPlatform != null) && viewPlatform.isLive()) {
-	    if (universe.inBehavior && (universe.behaviorScheduler == me)) {
+	    if (universe.inBehavior &&
+		BehaviorScheduler.isBehaviorThread(universe)) {
 		throw new IllegalStateException(J3dI18N.getString(s2));
 	    }
 	    return true;
@@ -2998,7 +2999,7 @@ private ArrayList<ArrayList<Canvas3D>> canvasList = new ArrayList<ArrayList<Canv
 
 	if ((viewPlatform != null) &&  viewPlatform.isLive()) {
 	    if (universe.inBehavior &&
-		(Thread.currentThread() ==  universe.behaviorScheduler)) {
+		BehaviorScheduler.isBehaviorThread(universe)) {
 	            throw new IllegalStateException(J3dI18N.getString(s2));
 	    }
 	}
@@ -173,6 +173,10 @@ ArrayList<Integer> viewIdFreeList = new ArrayList<Integer>();
     private static RenderingErrorListener defaultRenderingErrorListener =
 	Renderer.getDefaultErrorListener();
 
+    // Set of frame statistics listeners
+    private static HashSet<FrameStatisticsListener> frameStatisticsListenerSet =
+	new HashSet<FrameStatisticsListener>();
+
     /**
      * Constructs a new VirtualUniverse.
      */
@@ -1210,4 +1214,86 @@ void enableMouseWheelEvents() {
         }
     }
 
+    /**
+     * Adds the specified FrameStatisticsListener to the set of listeners
+     * that will be notified after each frame with the time spent in each
+     * phase of the frame loop.
+     * If the specified listener is null no action is taken and no exception
+     * is thrown.
+     * Frame statistics are only gathered while at least one listener is
+     * registered (or the j3d.frameStatisticsMBean property is set).  The
+     * listeners are called asynchronously from a separate notification
+     * thread.
+     *
+     * @param listener the listener to add to the set.
+     *
+     * @since Java 3D 1.6
+     */
+    public static void addFrameStatisticsListener(FrameStatisticsListener listener) {
+        if (listener == null) {
+            return;
+        }
+
+        synchronized(frameStatisticsListenerSet) {
+            frameStatisticsListenerSet.add(listener);
+            mc.frameStatistics.setHasListeners(true);
+        }
+    }
+
+    /**
+     * Removes the specified FrameStatisticsListener from the set of
+     * listeners. This method performs no function, nor does it throw
+     * an exception if the specified listener is not currently in the
+     * set or is null.
+     *
+     * @param listener the listener to remove from the set.
+     *
+     * @since Java 3D 1.6
+     */
+    public static void removeFrameStatisticsListener(FrameStatisticsListener listener) {
+        synchronized(frameStatisticsListenerSet) {
+            frameStatisticsListenerSet.remove(listener);
+            mc.frameStatistics.setHasListeners(!frameStatisticsListenerSet.isEmpty());
+        }
+    }
+
+    /**
+     * Returns the statistics of all the frames run while frame statistics
+     * were being gathered, that is while a FrameStatisticsListener was
+     * registered or the statistics were published as an MBean, see the
+     * <code>j3d.frameStatisticsMBean</code> property.  Calling this method
+     * does not start gathering them, all the values are zero if neither
+     * ever happened.
+     *
+     * @return a snapshot of the cumulative frame statistics.
+     *
+     * @since Java 3D 1.6
+     */
+    public static FrameStatistics getFrameStatistics() {
+        return mc.frameStatistics.getCumulativeStatistics();
+    }
+
+    /**
+     * Notifies all listeners of the statistics of a frame.
+     */
+    static void notifyFrameStatisticsListeners(FrameStatistics stats) {
+        synchronized(frameStatisticsListenerSet) {
+            Iterator<FrameStatisticsListener> it = frameStatisticsListenerSet.iterator();
+            while(it.hasNext()) {
+                FrameStatisticsListener listener = it.next();
+                try {
+                    listener.frameCompleted(stats);
+                }
+                catch (RuntimeException e) {
+                    System.err.println("Exception occurred in FrameStatisticsListener:");
+                    e.printStackTrace();
+                }
+                catch (Error e) {
+                    System.err.println("Error occurred in FrameStatisticsListener:");
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
 }
@@ -40,6 +40,12 @@ public final class WakeupOnElapsedTime extends WakeupCriterion {
      */
     long triggeredTime;
 
+    // The slot list of WakeupOnElapsedTimeWheel this wakeup is in,
+    // timerBucket is -1 when it is not in the wheel
+    WakeupOnElapsedTime timerPrev;
+    WakeupOnElapsedTime timerNext;
+    int timerBucket = -1;
+
     /**
      * Constructs a new WakeupOnElapsedTime criterion.
      * @param milliseconds the number of milliseconds to the wakeup.  A value
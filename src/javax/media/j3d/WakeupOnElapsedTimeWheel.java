@@ -0,0 +1,233 @@
+/*
+ * Copyright 2013 Harvey Harrison
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Sun designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Sun in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package javax.media.j3d;
+
+import java.util.ArrayList;
+
+/**
+ * A hierarchical timing wheel of WakeupOnElapsedTime, used by the
+ * TimerThread instead of WakeupOnElapsedTimeHeap when
+ * MasterControl.timerWheel is set.
+ *
+ * The wheel ticks once per millisecond.  Level 0 has a slot for each of the
+ * next 256 ticks, level 1 a slot for each of the next 256 blocks of 256
+ * ticks, and so on; a slot of a higher level is spread over the level below
+ * when the wheel reaches it.  Each slot is a doubly linked list threaded
+ * through the wakeups themselves, so insert and extract take constant time,
+ * and all the wakeups due are returned at once by expire.
+ */
+class WakeupOnElapsedTimeWheel {
+
+private static final int SLOT_BITS = 8;
+private static final int SLOTS = 1 << SLOT_BITS;
+private static final int SLOT_MASK = SLOTS - 1;
+private static final int LEVELS = 4;
+
+// The wakeups beyond the last level, filed again when it wraps around
+private static final int OVERFLOW = LEVELS * SLOTS;
+// The wakeups inserted with a time already reached
+private static final int DUE = OVERFLOW + 1;
+
+private final WakeupOnElapsedTime[] heads = new WakeupOnElapsedTime[DUE + 1];
+// The number of wakeups in each level
+private final int[] counts = new int[LEVELS];
+private int size = 0;
+
+// The last tick processed, the wakeups in the levels are all later
+private long currentTick;
+
+WakeupOnElapsedTimeWheel(long time) {
+	currentTick = time;
+}
+
+final int size() {
+	return size;
+}
+
+final boolean isEmpty() {
+	return (size == 0);
+}
+
+/**
+ * Insert the wakeup, it is moved if it is already in the wheel.
+ */
+final void insert(WakeupOnElapsedTime wakeup) {
+	if (wakeup.timerBucket >= 0)
+		unlink(wakeup);
+	else
+		size++;
+	file(wakeup);
+}
+
+/**
+ * Extract wakeup from the wheel.
+ * Return true if wakeup is found.
+ */
+final boolean extract(WakeupOnElapsedTime wakeup) {
+	if (wakeup.timerBucket < 0)
+		return false;
+
+	unlink(wakeup);
+	size--;
+	return true;
+}
+
+/**
+ * Advances the wheel to the given time and adds the wakeups whose time is
+ * reached to the list, earliest first, removing them from the wheel.
+ */
+final void expire(long time, ArrayList<WakeupOnElapsedTime> expired) {
+	drain(DUE, expired);
+
+	while (currentTick < time) {
+		int level = 0;
+		while ((level < LEVELS) && (counts[level] == 0))
+			level++;
+
+		if (level == LEVELS) {
+			// Only far away wakeups left, if any
+			currentTick = time;
+			refile(OVERFLOW);
+			break;
+		}
+
+		// Skip the ticks where nothing is filed or spread
+		if (level > 0) {
+			long last = currentTick | ((1L << (SLOT_BITS * level)) - 1);
+			if (last >= time) {
+				currentTick = time;
+				break;
+			}
+			currentTick = last;
+		}
+		tick(++currentTick, expired);
+	}
+
+	drain(DUE, expired);
+}
+
+/**
+ * Returns the time expire should be called next, or -1 if the wheel
+ * is empty.
+ */
+final long nextTime() {
+	if (heads[DUE] != null)
+		return currentTick;
+
+	long next = -1;
+	for (int level = 0; level < LEVELS; level++) {
+		if (counts[level] == 0)
+			continue;
+
+		// The level 0 slots are exact, the others are spread at the
+		// start of their block
+		int shift = SLOT_BITS * level;
+		long block = currentTick >>> shift;
+		for (int d = 1; d <= SLOTS; d++) {
+			if (heads[level * SLOTS + (int)((block + d) & SLOT_MASK)] != null) {
+				long time = (block + d) << shift;
+				if ((next < 0) || (time < next))
+					next = time;
+				break;
+			}
+		}
+	}
+
+	if ((next < 0) && (heads[OVERFLOW] != null)) {
+		int shift = SLOT_BITS * LEVELS;
+		next = ((currentTick >>> shift) + 1) << shift;
+	}
+	return next;
+}
+
+private void tick(long t, ArrayList<WakeupOnElapsedTime> expired) {
+	// The levels whose next slot starts at this tick, spread from the
+	// highest one down so that their wakeups reach level 0 in time
+	int level = 1;
+	while ((level <= LEVELS) &&
+	       ((t & ((1L << (SLOT_BITS * level)) - 1)) == 0))
+		level++;
+
+	if (level > LEVELS)
+		refile(OVERFLOW);
+	for (int l = Math.min(level, LEVELS) - 1; l >= 1; l--)
+		refile(l * SLOTS + (int)((t >>> (SLOT_BITS * l)) & SLOT_MASK));
+
+	drain((int)(t & SLOT_MASK), expired);
+}
+
+private void file(WakeupOnElapsedTime w) {
+	long delta = w.triggeredTime - currentTick;
+	int bucket = DUE;
+	if (delta > 0) {
+		bucket = OVERFLOW;
+		for (int level = 0; level < LEVELS; level++) {
+			int shift = SLOT_BITS * level;
+			if (delta < (1L << (shift + SLOT_BITS))) {
+				bucket = level * SLOTS +
+					 (int)((w.triggeredTime >>> shift) & SLOT_MASK);
+				counts[level]++;
+				break;
+			}
+		}
+	}
+
+	w.timerBucket = bucket;
+	w.timerPrev = null;
+	w.timerNext = heads[bucket];
+	if (w.timerNext != null)
+		w.timerNext.timerPrev = w;
+	heads[bucket] = w;
+}
+
+private void unlink(WakeupOnElapsedTime w) {
+	int bucket = w.timerBucket;
+	if (w.timerPrev != null)
+		w.timerPrev.timerNext = w.timerNext;
+	else
+		heads[bucket] = w.timerNext;
+	if (w.timerNext != null)
+		w.timerNext.timerPrev = w.timerPrev;
+	if (bucket < OVERFLOW)
+		counts[bucket >> SLOT_BITS]--;
+
+	w.timerBucket = -1;
+	w.timerPrev = null;
+	w.timerNext = null;
+}
+
+// Files again the wakeups of the bucket, relative to the current tick
+private void refile(int bucket) {
+	WakeupOnElapsedTime w = heads[bucket];
+	heads[bucket] = null;
+	while (w != null) {
+		WakeupOnElapsedTime next = w.timerNext;
+		if (bucket < OVERFLOW)
+			counts[bucket >> SLOT_BITS]--;
+		file(w);
+		w = next;
+	}
+}
+
+private void drain(int bucket, ArrayList<WakeupOnElapsedTime> expired) {
+	while (heads[bucket] != null) {
+		WakeupOnElapsedTime w = heads[bucket];
+		unlink(w);
+		size--;
+		expired.add(w);
+	}
+}
+}